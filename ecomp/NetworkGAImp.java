@@ -10,6 +10,7 @@ package ecomp;
 //importing packages
 import java.util.Random;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 //import java.util.*;
 import population.*;
 import population.graph.*;
@@ -131,6 +132,18 @@ public class NetworkGAImp implements NetworkGA {
 	private int numOfServers=0;
 	private int numOfClients=0;
 
+	// determines the number of nodes reachable from each node in symbiosis
+	private TransitiveClosure closure = new TransitiveClosure();
+	// hold the links of new chromosomes in bitsets, for dense networks
+	private boolean bitGenome = false;
+	// the fitness values of recent networks, or null if not remembered
+	private FitnessCache fitnessCache = null;
+	// the tournament selection reused by every steady-state generation
+	private SSEASelection select = null;
+	// applies the cost functions to a new generation on several threads,
+	// or null to apply them on the calling thread
+	private ParallelEvaluator evaluator = null;
+
 // ----------------------------------------------------------------------
 
     // Default constructor
@@ -340,14 +353,37 @@ numOfServers=numServers;
             newPop.addChromo(pair[1]);
         }
         
-		for(int z=0; z<func.length; z++) {
-        	func[z].map(newPop,z);         // calculate appropriate fitness values
-        }
+		// calculate appropriate fitness values, on several threads if an
+		// evaluator is chosen
+		if (evaluator != null) {
+			evaluator.evaluate(newPop, func);
+		} else {
+			for(int z=0; z<func.length; z++) {
+				func[z].map(newPop,z);
+			}
+			for(int k=0; k<newPop.getPopSize(); k++)
+				newPop.getChromo(k).markFitnessCurrent();
+		}
 		// Normalise the fitness values of the population's chromosomes
+		newPop.setCostFunctions(func);
 		newPop.normalize();
         newPop.sort();              // sort the population
 
         //Debugger.printErr("newPop.getPopSize() = " + newPop.getPopSize());
+
+        /**
+         * the new generation no longer needs the results of its parents, so
+         * the chromosomes of the old generation, which are not retained,
+         * are recycled
+         */
+        IdentityHashMap retained = new IdentityHashMap();
+        for (int i = 0; i < newPop.getPopSize(); i++) {
+            newPop.getChromo(i).dropParentResults();
+            retained.put(newPop.getChromo(i), newPop);
+        }
+        for (int i = 0; i < curPop.getPopSize(); i++)
+            if (!retained.containsKey(curPop.getChromo(i)))
+                recycle(curPop.getChromo(i));
                 
         // # Modified by Zhiyang Ong 30 Mar 2005
         // curPop is updated immediatedly
@@ -396,40 +432,26 @@ numOfServers=numServers;
      */
 	// to accomodate for more than one function, use array of Functions
     public void steadyStateEvolve(Function[] func, boolean replaceTwo) {
-        // declare & instantiate tournament selection
-        SSEASelection select = new SSEASelection(curPop);
-        
-        // select a pair of chromosomes using tournament selection
-        Chromosome[] pair = new Chromosome[2];
-        pair[0] = select.tournamentSelectFrom(2);
-        pair[1] = select.tournamentSelectFrom(2);
-        
-        // clone them
-        pair[0] = (Chromosome)pair[0].clone();
-        pair[1] = (Chromosome)pair[1].clone();
-        
-        /**
-         * compare a random generated probability with a predetermined
-         * value "prCrossover", if the generated value is less, mate the
-         * pair of chromosomes.
-         */
-        if(rand.nextDouble() < prCrossover)
-            pair = crossover(pair[0], pair[1]);
-        
-		// do symbiosis
-		if(rand.nextDouble() < prSymbiosis) {
-			pair=symbiosis(pair[0],pair[1]);
-		}
-		
+        // select, clone, mate and join a pair of chromosomes
+        Chromosome[] pair = breedPair();
+
         /**
          * compare a random generated probability with a predetermined
          * value "prMutation", if the generated value is less, mutate a
          * chromosome.
          */
         if(rand.nextDouble() < prMutation) pair[0] = mutate(pair[0]);
+		/**
+		 * an unaltered clone keeps the fitness of its parent; otherwise
+		 * reuse the fitness of a network evaluated before
+		 */
+		double[] cached = (pair[0].isFitnessCurrent() || fitnessCache == null)
+		                ? null : fitnessCache.get(pair[0], func);
+		if(cached != null) pair[0].setFitnessArr(cached);
+		else if(!pair[0].isFitnessCurrent()) {
 // use for loop to apply each cost function on to the chromosome
 pair[0].createFitnessArr(getCurPop().getCostFunctions().length);
-		for(int i=0; i<func.length; i++) {
+			for(int i=0; i<func.length; i++) {
 Debugger.debug("$$$$$$$The value of i is: "+i);
 Debugger.enableTrace(true);
 Debugger.debug("$$$$$$$The value of i is: "+i);
@@ -442,27 +464,43 @@ Debugger.debug("Is pair[0] equal to null? "
 	+(pair[0].getFitnessArr()==null));
 Debugger.debug("");
 Debugger.enableTrace(false);		// Not OK
-			func[i].apply(pair[0],i);        // apply functions to it
+				func[i].apply(pair[0],i);        // apply functions to it
+			}
+			pair[0].markFitnessCurrent();
+			if(fitnessCache != null) fitnessCache.put(pair[0], func);
 		}
 		
 		// Assign the overall fitness value for chromosome pair[0]
 		getCurPop().pythagoras(pair[0]);
 		
         //func.apply(pair[0]);        // apply function to it
-        select.insert(pair[0]);     // replace in population
+        pair[0].dropParentResults();
+        // replace in population, and recycle the chromosome ejected
+        recycle(select.insert(pair[0]));
         
         // redo for second if replaceTwo is true
         if(replaceTwo) {
             if(rand.nextDouble() < prMutation) pair[1] = mutate(pair[1]);
+			cached = (pair[1].isFitnessCurrent() || fitnessCache == null)
+			       ? null : fitnessCache.get(pair[1], func);
+			if(cached != null) pair[1].setFitnessArr(cached);
+			else if(!pair[1].isFitnessCurrent()) {
 // use for loop to apply each cost function on to the chromosome 
 pair[1].createFitnessArr(getCurPop().getCostFunctions().length);
 				for(int j=0; j<func.length; j++) {
 					func[j].apply(pair[1],j);        // apply functions to it
 				}
+				pair[1].markFitnessCurrent();
+				if(fitnessCache != null) fitnessCache.put(pair[1], func);
+			}
 			// Assign the overall fitness value for chromosome pair[1]
 			getCurPop().pythagoras(pair[1]);
 			//func.apply(pair[1]);
-            select.insert(pair[1]);
+            pair[1].dropParentResults();
+            recycle(select.insert(pair[1]));
+        } else {
+            // the second chromosome is not used
+            recycle(pair[1]);
         }
 		
 		//pair=symbiosis(pair[0],pair[1]);
@@ -552,17 +590,14 @@ pair[1].createFitnessArr(getCurPop().getCostFunctions().length);
 			xPt = 0;
 		}
         
-		// obtain the contents within each chromosome
-        ArrayList cells1 = ch1.getDataArray();
-        ArrayList cells2 = ch2.getDataArray();
-
         //Debugger.debug("Swapping from " + XPt1 + " to " + (XPt2-1));
-        // swap the contents between the cut-points for every other element
+        /**
+         * swap the contents between the cut-points for every other element,
+         * exchanging the rows of the genomes without building lists of nodes
+         */
 		int j=0; // 
         for (int i=xPt; i<len; i+=2) {
-            Object temp = cells2.get(j);
-            cells2.set(j, cells1.get(j));
-            cells1.set(j, temp);
+            ch1.swapRow(ch2, j);
         }
         //Debugger.debug(" Results:\n " + ch1 + "\n" + ch2 + "\n");
 
@@ -665,7 +700,8 @@ pair[1].createFitnessArr(getCurPop().getCostFunctions().length);
             index = rand.nextInt(numNodes);
 
             //Debugger.printErr(" Changing cell #" + index);
-            ArrayList cell = ch.getData(index);
+            // the number of destination nodes in the cell
+            int cellSize = ch.getDegree(index);
             
             // decide whether to remove a node, add a node, or do nothing
             double temp = rand.nextDouble();
@@ -678,15 +714,15 @@ pair[1].createFitnessArr(getCurPop().getCostFunctions().length);
                  *      empty. Also, since we cannot remove from this node, 
                  *      redo this iteration.
                  */
-                if (cell.size() == 0) { 
+                if (cellSize == 0) { 
                     i--;
                 } else {
                     /**
                      * remove a random node from the list, so that an edge
                      * will not be created to connect to this node.
                      */                
-                    randNodeId = rand.nextInt(cell.size());
-                    cell.remove(randNodeId);
+                    randNodeId = rand.nextInt(cellSize);
+                    ch.removeLinkAt(index, randNodeId);
                 }
             } else if(temp < ACCUM_PROB_ADD) {
                 /**
@@ -696,10 +732,9 @@ pair[1].createFitnessArr(getCurPop().getCostFunctions().length);
                  *      to every other node. In this case, since we cannot 
                  *      add another node, redo this iteration.
                  */
-                if (cell.size() == (nodeList.size() - 1)) {
+                if (cellSize == (nodeList.size() - 1)) {
                     i--;
                 } else {
-                    Node n = null;;
                     /**
                      * Add a random node that the cell hasn't already contained.
                      * However, only add the node, if the node selected 
@@ -713,11 +748,11 @@ pair[1].createFitnessArr(getCurPop().getCostFunctions().length);
                     do {
                         // select a random node
                         randNodeId = rand.nextInt(numNodes);
-                        // Add a randomly selected node
-                        n = (Node) nodeList.get(randNodeId);
-                    } while (index == randNodeId || cell.contains(n));
+                    } while (index == randNodeId ||
+                             ch.hasLink(index, randNodeId));
                 
-                    cell.add(n);    
+                    // Add the randomly selected node
+                    ch.addLink(index, randNodeId);
                 }   
             } // else do nothing
         }
@@ -804,9 +839,7 @@ for(int k=0;k<numChromInPop;k++) {
 	for(int m=0;m<numServers;m++) {
 		for(int n=0;n<chromoSize;n++) {
 			int index = rand.nextInt(numClients) + numServers;
-			Object nodeA = nodeList.get(index);
-			ArrayList destinationNodes = curChrom.getData(m);
-			if(!destinationNodes.contains(nodeA)) destinationNodes.add(nodeA);
+			if(!curChrom.hasLink(m, index)) curChrom.addLink(m, index);
 		}
 	}
 }
@@ -980,8 +1013,9 @@ for(int k=0;k<numChromInPop;k++) {
                 "The number of nodes in the nodeList (network) and the  " +
                     "sum of number\n    of servers and clients MUST EQUAL");
 
-        // the container for the cells
-        ArrayList cells = new ArrayList();
+        // the container for the cells, holding the indices of the nodes
+        Genome cells = (bitGenome) ? (Genome) new BitGenome(totalSize)
+                                   : (Genome) new IntGenome(totalSize);
         
         for(int i=0; i < totalSize; i++) {
             /**
@@ -998,8 +1032,6 @@ for(int k=0;k<numChromInPop;k++) {
              * nodes to the cell. That is, connect upto 50% of the nodes.
              */
             int nodesToAdd = rand.nextInt(totalSize/5) + 1;
-            // container for the cell / adjacency list
-            ArrayList cell = new ArrayList();
             for(int j = 0; j < nodesToAdd; j++) {
                 // the index or ID of the node to add to the "cell"
                 int index;
@@ -1024,10 +1056,9 @@ if(j < numServers) {
                  * Only need to add a node, which is not already in the list
                  * and if the node to add is not itself.
                  */
-                Object node = nodeList.get(index);
-                if( (i != index) && !cell.contains(node)) cell.add(node);
+                if( (i != index) && !cells.contains(i, index))
+                    cells.add(i, index);
             }
-            cells.add(cell);    // add the cell to the list of cells
         }
         // construct a new chromosome and return it
         // Modified by Andy 03/04/05: Changed to use new constructor.
@@ -1194,6 +1225,237 @@ if(j < numServers) {
                                  "New popSize MUST be POSITIVE");
         this.numChromInPop = size;    
     }
+
+    /**
+     * Chooses how the links of the chromosomes are held. A dense network is
+     * smaller as a <code>BitGenome</code>, of one bit for each pair of
+     * nodes, than as lists of node indices, and mutation and crossover then
+     * flip and swap bits. The chromosomes of the current population are
+     * converted, and later calls to <code>initChromo</code> create
+     * chromosomes of the chosen kind.<p>
+     *
+     * The destinations in a bitset are in ascending order, so mutation may
+     * remove a different link for the same random number.
+     *
+     * @param   bits    set <code>true</code> to hold the links in bitsets,
+     *                  or <code>false</code> to hold them as node indices
+     */
+    public void setBitGenome(boolean bits) {
+        bitGenome = bits;
+        for (int i = 0; i < curPop.getPopSize(); i++) {
+            Chromosome c = curPop.getChromo(i);
+            if (bits) c.setGenome(new BitGenome(c.getGenome()));
+            else      c.setGenome(new IntGenome(c.getGenome()));
+        }
+    }
+
+    /**
+     * Checks whether the links of new chromosomes are held in bitsets.
+     * @return  <code>true</code>, if the links are held in bitsets
+     */
+    public boolean isBitGenome() {
+        return bitGenome;
+    }
+
+    /**
+     * Seeds the pseudo random numbers of the evolution and of the tournament
+     * selection, so that an evolution of the same population can be
+     * repeated, such as to compare the steady-state evolution with and
+     * without batches.
+     * @param   seed    the seed
+     */
+    public void setSeed(long seed) {
+        rand.setSeed(seed);
+        if (select == null) select = new SSEASelection(curPop);
+        select.setSeed(seed);
+    }
+
+    /**
+     * Chooses the cache remembering the fitness values of recent networks,
+     * so that <code>steadyStateEvolve</code> does not apply the cost
+     * functions to a network evaluated before. By default, no cache is
+     * used, and every network is evaluated. The cache returned by
+     * <code>FitnessCache.getDefault</code> may be chosen by several
+     * evolutions to share it.<p>
+     *
+     * A cache should only be used with cost functions which give the same
+     * fitness whenever they are applied to the same network, unlike a
+     * <code>Resistance</code> with a time budget. The cache should be
+     * cleared if a cost function is altered in a way the cache cannot see.
+     *
+     * @param   cache   the cache, or <code>null</code> to evaluate every
+     *                  network
+     */
+    public void setFitnessCache(FitnessCache cache) {
+        fitnessCache = cache;
+    }
+
+    /**
+     * Returns the cache remembering the fitness values of recent networks.
+     * @return  the cache, or <code>null</code> if none is used
+     */
+    public FitnessCache getFitnessCache() {
+        return fitnessCache;
+    }
+
+    /**
+     * Chooses the evaluator applying the cost functions to each new
+     * generation of <code>evolve</code>, and to the offspring of a batch of
+     * steady-state steps, so that the chromosomes are assessed on several
+     * threads. The fitness values are those given on a single thread.
+     *
+     * @param   e   the evaluator, or <code>null</code> to apply the cost
+     *              functions on the calling thread
+     */
+    public void setEvaluator(ParallelEvaluator e) {
+        evaluator = e;
+    }
+
+    /**
+     * Returns the evaluator applying the cost functions to each new
+     * generation and batch of offspring.
+     * @return  the evaluator, or <code>null</code> if none is used
+     */
+    public ParallelEvaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Evolves the population by a number of steps of the Steady-State
+     * Evolution Algorithm at once, so that the offspring of the steps may
+     * be assessed on several threads by the evaluator chosen with
+     * <code>setEvaluator</code>.<p>
+     *
+     * Each step selects, mates and mutates a pair of chromosomes as
+     * <code>steadyStateEvolve</code> does, but every pair is selected from
+     * the population as it was before the batch. The offspring that do not
+     * keep the fitness of a parent, or find it in the fitness cache, are
+     * then assessed together. Last, the offspring replace chromosomes of
+     * the population in the order in which they were bred, so the result
+     * does not depend on the number of threads. A batch of one step is an
+     * evolution by <code>steadyStateEvolve</code>, except that the second
+     * chromosome of a pair is mutated before the first is inserted.<p>
+     *
+     * Each step counts as one generation.
+     *
+     * @param   func    The function determining the fitness of the network.
+     * @param   replaceTwo Determines, where 1 or 2 chromosomes of each pair
+     *          will be used to replace chromosomes in the population
+     * @param   steps   the number of steps in the batch
+     * @throws  PreconditionException if the number of steps is not positive
+     * @see     #steadyStateEvolve
+     * @see     ParallelEvaluator
+     */
+    public void steadyStateEvolve(Function[] func, boolean replaceTwo,
+    int steps) throws PreconditionException {
+        Assertion.pre( steps > 0, "A batch of " + steps + " steps is evolved",
+                       "ERROR!!! The number of steps MUST be POSITIVE");
+        // breed the offspring of every step from the same population
+        Chromosome[] offspring = new Chromosome[replaceTwo ? 2 * steps
+                                                           : steps];
+        int bred = 0;
+        for (int k = 0; k < steps; k++) {
+            Chromosome[] pair = breedPair();
+            if(rand.nextDouble() < prMutation) pair[0] = mutate(pair[0]);
+            offspring[bred++] = pair[0];
+            if(replaceTwo) {
+                if(rand.nextDouble() < prMutation) pair[1] = mutate(pair[1]);
+                offspring[bred++] = pair[1];
+            } else {
+                // the second chromosome is not used
+                recycle(pair[1]);
+            }
+        }
+
+        /**
+         * an unaltered clone keeps the fitness of its parent; otherwise
+         * reuse the fitness of a network evaluated before, and assess the
+         * rest together
+         */
+        ArrayList assess = new ArrayList();
+        for (int k = 0; k < offspring.length; k++) {
+            Chromosome c = offspring[k];
+            if (c.isFitnessCurrent()) continue;
+            double[] cached = (fitnessCache == null)
+                            ? null : fitnessCache.get(c, func);
+            if (cached != null) {
+                c.setFitnessArr(cached);
+            } else {
+                c.createFitnessArr(getCurPop().getCostFunctions().length);
+                assess.add(c);
+            }
+        }
+        Chromosome[] chromos = (Chromosome[])
+            assess.toArray(new Chromosome[assess.size()]);
+        if (evaluator != null) {
+            evaluator.evaluate(chromos, func);
+        } else {
+            for (int k = 0; k < chromos.length; k++) {
+                for (int i = 0; i < func.length; i++)
+                    func[i].apply(chromos[k], i);
+                chromos[k].markFitnessCurrent();
+            }
+        }
+        if (fitnessCache != null)
+            for (int k = 0; k < chromos.length; k++)
+                fitnessCache.put(chromos[k], func);
+
+        // replace in population in the order bred, recycling the ejected
+        for (int k = 0; k < offspring.length; k++) {
+            getCurPop().pythagoras(offspring[k]);
+            offspring[k].dropParentResults();
+            recycle(select.insert(offspring[k]));
+        }
+        for (int k = 0; k < steps; k++) increGen();
+    }
+
+    /**
+     * Selects a pair of chromosomes from the current population using
+     * tournament selection, and clones them. The clones are mated if a
+     * pseudo random number is less than <code>prCrossover</code>, and then
+     * joined by symbiosis if another is less than <code>prSymbiosis</code>.
+     *
+     * @return  the pair of new chromosomes, which are not yet mutated
+     */
+    private Chromosome[] breedPair() {
+        // declare & instantiate tournament selection, once
+        if (select == null) select = new SSEASelection(curPop);
+        else select.setPopulation(curPop);
+        
+        // select a pair of chromosomes using tournament selection
+        Chromosome[] pair = new Chromosome[2];
+        pair[0] = select.tournamentSelectFrom(2);
+        pair[1] = select.tournamentSelectFrom(2);
+        
+        // clone them
+        pair[0] = (Chromosome)pair[0].clone();
+        pair[1] = (Chromosome)pair[1].clone();
+        
+        /**
+         * compare a random generated probability with a predetermined
+         * value "prCrossover", if the generated value is less, mate the
+         * pair of chromosomes.
+         */
+        if(rand.nextDouble() < prCrossover)
+            pair = crossover(pair[0], pair[1]);
+        
+		// do symbiosis
+		if(rand.nextDouble() < prSymbiosis) {
+			pair=symbiosis(pair[0],pair[1]);
+		}
+        return pair;
+    }
+
+    /**
+     * Gives the matrices of a chromosome, which has left the population,
+     * back to the <code>RowArena</code>, so the next networks assessed
+     * reuse them.
+     *
+     * @param   c   the chromosome ejected, or <code>null</code>
+     */
+    private void recycle(Chromosome c) {
+        if (c != null) c.recycle();
+    }
 	
 	/**
 	 * Method to model symbiosis for a pair of nodes
@@ -1213,10 +1475,6 @@ if(j < numServers) {
 			"The chromosome 2 have length = " + ch2.getLength(),
 			"ERROR!!! The chromosome 2 MUST not be of 0 length" );
 
-		// obtain the contents within each chromosome
-        ArrayList cells1 = ch1.getDataArray();
-        ArrayList cells2 = ch2.getDataArray();
-
         //Debugger.debug("Swapping from " + XPt1 + " to " + (XPt2-1));
         /**
 		 * Swap the contents between the 2 chromosomes at the top 5 nodes
@@ -1224,18 +1482,14 @@ if(j < numServers) {
 		 */
 		if(!mutualism) {
 			// model mutualism
-			// obtain the adjacency matrix
-        	double[][] adjMatrix1 = ch1.getAdjacencyMatrix();
-			DegreeSeparation ds= new DegreeSeparation();
-        	// convert to a link matrix with only 0, 1, and infinity (+oo)
-        	adjMatrix1 = ds.adj2linkMatrix(adjMatrix1);
-			DijkstraMatrix dm1 = new DijkstraMatrix();
-        	// perform dijsktra on the matrix
+			// obtain the link matrix with only 0, 1, and infinity (+oo)
+        	double[][] adjMatrix1 = ch1.getSparseGraph(true).toMatrix();
+        	// determine the number of nodes reachable from each node
 			int higherIndex=-1;
-        	double[][] resMatrix1 = dm1.dijkstra(adjMatrix1);
+        	int[] reachable1 = closure.reachableCounts(ch1);
 			// determine top 5 nodes with the highest clustering coefficiency
         	for (int i=0; i<ch1.getLength(); i++) {
-				connectivity = clusterCoeff(adjMatrix1, resMatrix1,i);
+				connectivity = clusterCoeff(adjMatrix1, reachable1, i);
 				for(int j=0;j<cluscoeff.length;j++) {
 					if(connectivity > cluscoeff[j]) {
 						higherIndex=j;
@@ -1246,33 +1500,29 @@ if(j < numServers) {
 					cluscoeff[higherIndex]=connectivity;
 				}
         	}
+			RowArena.local().giveMatrix(adjMatrix1);	// no longer needed
 			// for each of the top 5 nodes with the highest clustering coefficiency
 			for (int k=0; k<top5connect.length; k++) {
 				// Union its outgoing edges with that of ch2
-            	ArrayList temp1 = (ArrayList)cells1.get(k);
-				ArrayList temp2 = (ArrayList)cells2.get(k);
-				for(int m=0; m<temp1.size(); m++) {
-					if(temp2.contains(temp1.get(m))) {
+				for(int m=0; m<ch1.getDegree(k); m++) {
+					int temp1 = ch1.getLink(k, m);
+					if(ch2.hasLink(k, temp1)) {
 						// do nothing
 					}else{
-						temp2.add(temp1.get(m));
+						ch2.addLink(k, temp1);
 					}
 				}
         	}
 		}else{
 			// model commensalism
-			// obtain the adjacency matrix
-        	double[][] adjMatrix2 = ch2.getAdjacencyMatrix();
-			DegreeSeparation ds= new DegreeSeparation();
-        	// convert to a link matrix with only 0, 1, and infinity (+oo)
-        	adjMatrix2 = ds.adj2linkMatrix(adjMatrix2);
-			DijkstraMatrix dm2 = new DijkstraMatrix();
-        	// perform dijsktra on the matrix
+			// obtain the link matrix with only 0, 1, and infinity (+oo)
+        	double[][] adjMatrix2 = ch2.getSparseGraph(true).toMatrix();
+        	// determine the number of nodes reachable from each node
 			int higherIndex=-1;
-        	double[][] resMatrix2 = dm2.dijkstra(adjMatrix2);
+        	int[] reachable2 = closure.reachableCounts(ch2);
 			// determine top 5 nodes with the highest clustering coefficiency
         	for (int i=0; i<ch2.getLength(); i++) {
-				connectivity = clusterCoeff(adjMatrix2, resMatrix2,i);
+				connectivity = clusterCoeff(adjMatrix2, reachable2, i);
 				for(int j=0;j<cluscoeff.length;j++) {
 					if(connectivity > cluscoeff[j]) {
 						higherIndex=j;
@@ -1283,16 +1533,16 @@ if(j < numServers) {
 					cluscoeff[higherIndex]=connectivity;
 				}
         	}
+			RowArena.local().giveMatrix(adjMatrix2);	// no longer needed
 			// for each of the top 5 nodes with the highest clustering coefficiency
 			for (int k=0; k<top5connect.length; k++) {
 				// Union its outgoing edges with that of ch2
-            	ArrayList temp1 = (ArrayList)cells1.get(k);
-				ArrayList temp2 = (ArrayList)cells2.get(k);
-				for(int m=0; m<temp2.size(); m++) {
-					if(temp1.contains(temp2.get(m))) {
+				for(int m=0; m<ch2.getDegree(k); m++) {
+					int temp2 = ch2.getLink(k, m);
+					if(ch1.hasLink(k, temp2)) {
 						// do nothing
 					}else{
-						temp1.add(temp2.get(m));
+						ch1.addLink(k, temp2);
 					}
 				}
         	}
@@ -1347,7 +1597,26 @@ if(j < numServers) {
 			((double) neighbors * ((double)neighbors - 1.0) );
 		return cluster;
 	}
-	
+
+	/**
+	 * determine the clustering coefficiency of the node from the number
+	 * of nodes reachable from each node, such as those counted by
+	 * TransitiveClosure
+	 */
+	public double clusterCoeff(double[][] a, int[] reachable, int i) {
+		// the number of connection for a node (direct links)
+        int connections = 0;
+		for (int j = 0; j < a[i].length; j++) {
+			if (i == j) continue;
+			if (a[i][j] != Double.POSITIVE_INFINITY) connections++;
+		}
+		// the number of neighbors indirectly or directly connected
+        int neighbors = reachable[i];
+
+		return (double) connections /
+			((double) neighbors * ((double)neighbors - 1.0) );
+	}
+
 	
 	/**
 	 *
@@ -73,6 +73,25 @@ public class SSEASelection {
         population = set;
         size = population.getPopSize();        
     }
+
+    /**
+     * Selects from, and replaces into, another population, so that one
+     * instance can be used for every generation.
+     * @param   set The population from which Networks will be selected from
+     */
+    public void setPopulation(SetOfChromosomes set) {
+        population = set;
+        size = population.getPopSize();
+    }
+
+    /**
+     * Seeds the pseudo-random number generator for selection, so that the
+     * same chromosomes are selected from the same population.
+     * @param   seed    the seed
+     */
+    public void setSeed(long seed) {
+        rand.setSeed(seed);
+    }
     
     // -----------------------------------------------------------------
     
@@ -159,8 +178,10 @@ public class SSEASelection {
      *          population
      * @throws  AssertionException if the index of the element to be replaced
      *          is out-of-bounds
+     * @return  the chromosome ejected from the population, which is
+     *          <code>c</code> itself if it could not be inserted
      */
-    public void insert (Chromosome c) throws AssertionException{
+    public Chromosome insert (Chromosome c) throws AssertionException{
         // obtain the fitness of this chromosome
         double chromFitness = c.getFitArrElem(0);
         // temporary storage for fitness of the chromosome of interest
@@ -221,7 +242,7 @@ public class SSEASelection {
          */
         if      (indexLowerChrom >= 0)  index = indexLowerChrom;
         else if (indexHigherChrom >= 0) index = indexHigherChrom;
-        else return; 
+        else return c; 
         
         // check if we have a valid index
         Assertion.asrt(index >= 0 && index < size, 
@@ -233,7 +254,7 @@ public class SSEASelection {
          * set the new chromosome at the position corresponding to "index" and
          * discard the original chromosome
          */
-        (population.getCurPop()).set(index, c);
+        return (Chromosome) (population.getCurPop()).set(index, c);
     } 
 }
 
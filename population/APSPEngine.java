@@ -0,0 +1,43 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import utility.*;
+
+/**
+ * This interface is implemented by the engines that solve the all-pairs
+ * shortest path problem for a network. Every engine shares the contract of
+ * <code>DijkstraMatrix.dijkstra</code>: it takes in an n x n adjacency
+ * matrix, where <code>Double.POSITIVE_INFINITY</code> indicates that there
+ * is no edge, and returns a new n x n matrix of minimal path costs. The
+ * input matrix must not be altered, since it is usually the matrix cached
+ * by a <code>Chromosome</code>.<p>
+ *
+ * This allows the cost functions to switch between engines without changing
+ * how the result is assessed.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     DijkstraMatrix
+ * @see     HeapDijkstra
+ */
+public interface APSPEngine {
+    /**
+     * Determines the minimal path costs between every pair of nodes in the
+     * network described by an adjacency matrix.
+     *
+     * @param   adjMatrix   the n x n adjacency matrix of the network
+     * @return  an n x n matrix, where element (i,j) is the cost of the
+     *          minimal path from node "i" to node "j"
+     * @throws  PreconditionException if the matrix is not a square matrix
+     */
+    public double[][] allPairs(double[][] adjMatrix)
+        throws PreconditionException;
+}
@@ -24,8 +24,9 @@ import utility.*;
  * "n" nodes can be connected via "n" paths of "n" hops.]
  *
  * @author  Andy Hao-Wei Lo
- * @version 0.4.1
+ * @version 0.4.2
  * @see BFSNode
+ * @see PathEnumerator
  */
  public class BFSResistance {
     // determines if unit resistance will be used
@@ -34,12 +35,12 @@ import utility.*;
     // the adjacency matrix and nodelist associated with current chromosome
     private double[][]  adjMatrix;
     private ArrayList   nodeList;
-    // the list of destination nodes for each node in the node list
-    private ArrayList   destNodes;
+    // the chromosome, which gives the destination nodes of each node
+    private Chromosome  chromo;
+
+    // the engine which enumerates the paths
+    private PathEnumerator paths;
 
-    // stores the resistance between any pairs of nodes
-    private double[][]  resistMatrix;
-    
     /**
      * the list of BFSNodes to be expanded. This will be cleared when 
      * expanding the graph from a different source node.
@@ -53,7 +54,7 @@ import utility.*;
      * actual edge cost in calculating resistance.
      */
     public BFSResistance() {
-        useUnitResistance = false;   
+        this(false);
     }
 
     /**
@@ -64,6 +65,7 @@ import utility.*;
      */
     public BFSResistance(boolean use) {
         useUnitResistance = use; 
+        paths = new PathEnumerator(use);
     }
 
     /**
@@ -73,22 +75,63 @@ import utility.*;
      * source node. Thus, these iterations will approximate the resistance 
      * between any two nodes in the network.<p>
      *
+     * The paths are enumerated by <code>PathEnumerator</code>, which gives
+     * the same result as expanding <code>BFSNode</code>s without creating a
+     * list for every path. The state used to expand <code>BFSNode</code>s
+     * is only set up once <code>addToQueue</code>, <code>getCost</code> or
+     * <code>getReachable</code> is called.
+     *
      * @param   c   the chromosome which the resistance is to be determined
+     * @see     PathEnumerator
      */   
     public double[][] getResistance (Chromosome c) {
-        // setup class for graph traversal
-        this.initialise(c);
-        BFSNode root;
-        for (int i = 0; i < numNodes(); i++) {
-            //Debugger.enableTrace(true);
-            //Debugger.debug("Expanding for node#"+i);
-            //Debugger.enableTrace(false);
-            root = newSource(i);        // prepare node for expansion
-            expand(root);               // start expansion
-            invertResistanceArray(i);   // take inverse to obtain resistance
-            setResults(i, resistArray); // store the result for node "i"
-        }
-        return getMatrix();             // return final result
+        // the graph traversal is set up for this chromosome when used
+        chromo    = c;
+        adjMatrix = null;
+        return paths.getResistance(c);
+    }
+
+    /**
+     * Limits the number of hops of the paths that are enumerated.
+     * @param   max     the most hops of a path, or 0 for no limit
+     * @throws  PreconditionException if the length is negative
+     */
+    public void setMaxPathLength(int max) throws PreconditionException {
+        paths.setMaxPathLength(max);
+    }
+
+    /**
+     * Returns the most hops of a path that is enumerated.
+     * @return  the most hops of a path, or 0 for no limit
+     */
+    public int getMaxPathLength() {
+        return paths.getMaxPathLength();
+    }
+
+    /**
+     * Sets the time allowed to evaluate the resistance of one network. When
+     * the time runs out, the longer paths are ignored.
+     * @param   millis  the time in milliseconds, or 0 for no limit
+     * @throws  PreconditionException if the time is negative
+     */
+    public void setTimeBudget(long millis) throws PreconditionException {
+        paths.setTimeBudget(millis);
+    }
+
+    /**
+     * Returns the time allowed to evaluate the resistance of one network.
+     * @return  the time in milliseconds, or 0 for no limit
+     */
+    public long getTimeBudget() {
+        return paths.getTimeBudget();
+    }
+
+    /**
+     * Checks whether the time budget ran out during the last calculation.
+     * @return  <code>true</code>, if the last result is truncated
+     */
+    public boolean isTruncated() {
+        return paths.isTruncated();
     }
 
     /**
@@ -96,119 +139,38 @@ import utility.*;
      * nodeList, destination nodes and the adjacency matrix, etc. If 
      * instructed to use unit resistance instead of the acutal cost, the 
      * non-zero and non-infinity numbers in the adjacency matirx will be 
-     * converted to one.
+     * converted to one. The node list is registered with
+     * <code>IdRegistry</code>, so that the nodes can be found without
+     * searching the list.
      *
      * @param   c   the chromosome which the resistance is to be determined
      */    
     private void initialise(Chromosome c) {
         nodeList      = c.getNodeList();
-        destNodes     = c.getDataArray();
+        chromo        = c;
         adjMatrix     = c.getAdjacencyMatrix();
         if(useUnitResistance) adjMatrix = adj2linkMatrix(adjMatrix);
-        resistMatrix  = new double[numNodes()][numNodes()];
+        IdRegistry.register(nodeList);
+        resistArray   = new double[numNodes()];
         nodesToExpand = new ArrayList();        
     }
 
     /**
-     * Prepares for expansion of a source node with index "i". This will 
-     * reset the resistance array for node "i"'s exclusive use. A new BFSNode
-     * will be constructed and is ready for expansion.
-     * 
-     * Note: there should be no need to reset the nodeQueue as it should be 
-     * emptied at the end of expansion
-     *
-     * @param   i   the index of the source node
-     * @return  the BFSNode representation of the source node
+     * Sets up the graph traversal for the chromosome of the last
+     * calculation, unless it has been set up already.
      */
-    private BFSNode newSource(int i) {
-        // reset array
-        resistArray   = new double[numNodes()];
-        // each node should have traversed itself
-        ArrayList self = new ArrayList();
-        self.add(nodeList.get(i));
-
-        return new BFSNode(this, 0.0, self, (ArrayList) destNodes.get(i) );
+    private void prepare() {
+        if (adjMatrix == null) initialise(chromo);
     }
 
     /**
-     * Iteratively expand BFSNodes to calculate the resistance. Each 
-     * expansion of a node should update the resistance array;
-     * @param   bNode   the first node to expand
-     */       
-    private void expand(BFSNode bNode) {
-        // expand root node;
-        bNode.expand();
-        // iteratively deque and expand nodes in the queue
-        while(moreToExpand()) {
-            headNode().expand();
-        }
-    }
-
-    /**
-     * Inverts the values in the resistance array, since the values are the
-     * sum of the inverse of the resistance. Note that if the value is 0 and
-     * the array index does not correspond to the source node, the resistance
-     * should be infinity (+oo);
-     * @param   index   the index of the source node
+     * Returns the index of a node in the node list, found by its id, or -1
+     * if it does not exist.
      */
-    private void invertResistanceArray(int index) {
-//        String line = "";
-//        for (int i = 0; i < resistArray.length; i++) {
-//            if (i==0) line += "Before [";
-//            else      line += ", ";
-//            line += "" + resistArray[i];
-//            if (i == (resistArray.length-1)) line += "]";         
-//        }
-//        Debugger.printErr(line);
-        
-        
-        // for each element
-        for (int i = 0; i < resistArray.length; i++) {
-            // check if the value is 0
-            if ( resistArray[i] == 0 ) {
-                /**
-                 * set element to +oo, if the element does not corresspond
-                 * to the source node. 
-                 */
-                if (i != index) resistArray[i] = Double.POSITIVE_INFINITY;
-            } // otherwise take the inverse
-            else resistArray[i] = 1.0 / resistArray[i];
-        }
-        
-//        line = "";
-//        for (int i = 0; i < resistArray.length; i++) {
-//            if (i==0) line += "After [";
-//            else      line += ", ";
-//            line += "" + resistArray[i];
-//            if (i == (resistArray.length-1)) line += "]";         
-//        }
-//        Debugger.printErr(line);
+    private int indexOf(Object node) {
+        return IdRegistry.indexOf(nodeList, node);
     }
 
-    /**
-     * Sets the level of resistance of traversing from node "nodeIndex" to
-     * all other nodes in the network.
-     * @param   nodeIndex   the index of the source node
-     * @param   resistance  an array of resistance to each destination node
-     * @throws  PreconditionException if nodeIndex is out of bounds
-     */
-    private void setResults(int nodeIndex, double[] resistance) 
-    throws PreconditionException {
-//        Assertion.pre( nodeIndex >= 0 && nodeIndex < numNodes(), "",
-//                       "ERROR!!! setResults: nodeIndex is out of bounds");
-        double[][] matrix = getMatrix();
-        for (int i = 0; i < matrix[nodeIndex].length; i++) 
-            matrix[nodeIndex][i] = resistArray[i];
-    }
- 
-    /**    
-     * Obtains the matrix of resistance in the network.
-     * @return  the resistance matrix
-     */
-    private double[][] getMatrix() {
-        return resistMatrix;
-    }
-    
     /**
      * Returns the number of nodes in the network
      */
@@ -242,23 +204,6 @@ import utility.*;
         return result;
     }
  
-    /**
-     * Checks if there are more nodes to expand in the search
-     */
-    private boolean moreToExpand() {
-        return !nodesToExpand.isEmpty();
-    }
-    
-    /**
-     * Dequeues the node to expand.
-     */
-    private BFSNode headNode() {
-        BFSNode bNode = null;
-        if ( !nodesToExpand.isEmpty() ) 
-            bNode = (BFSNode) nodesToExpand.remove(0);
-        return bNode;
-    }
- 
     /**
      * Adds a node to be expanded to the queue, and updates the resistance 
      * measure for the corresponding node.
@@ -269,9 +214,10 @@ import utility.*;
      *          bNode does not exists in the nodeList.
      */
     public void addToQueue(BFSNode bNode) throws PreconditionException {
+        prepare();
         // obtain graph node and obtain its index
         Node graphNode = bNode.getGraphNode();
-        int index = nodeList.indexOf(graphNode);
+        int index = indexOf(graphNode);
         // check if its index is valid
         if (index < 0) {
             String msg = "ERROR!!! Corresponding graph node in bNode does " +
@@ -302,8 +248,9 @@ import utility.*;
      *          the node list
      */
     public double getCost(Node from, Node to) throws PreconditionException {
-        int indexFrom = nodeList.indexOf(from);
-        int indexTo   = nodeList.indexOf(to); 
+        prepare();
+        int indexFrom = indexOf(from);
+        int indexTo   = indexOf(to); 
         if (indexFrom == -1) {
             String msg = "ERROR!!! From node does not exists in the graph.";
             throw new PreconditionException(msg);
@@ -322,10 +269,17 @@ import utility.*;
      *          node "n" does not exist in the graph
      */
     public ArrayList getReachable(Node n) {
+        prepare();
         ArrayList reachable = null;
-        int i = nodeList.indexOf(n);   
-        if (i >= 0) reachable = (ArrayList) destNodes.get(i);
-        else        Debugger.printErr("Node does not exists in the graph.");
+        int i = indexOf(n);   
+        if (i < 0) {
+            Debugger.printErr("Node does not exists in the graph.");
+            return reachable;
+        }
+        // list the destinations, without building the cells of the genome
+        reachable = new ArrayList(chromo.getDegree(i));
+        for (int k = 0; k < chromo.getDegree(i); k++)
+            reachable.add(nodeList.get(chromo.getLink(i, k)));
         return reachable;
     }
 }
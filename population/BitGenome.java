@@ -0,0 +1,222 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import java.util.Arrays;
+import utility.*;
+
+/**
+ * A genome whose rows are bitsets. Bit "j" of row "i" is set if node "i"
+ * links to node "j", so a network of n nodes takes n*n/8 bytes however
+ * many links it has. Adding, removing and checking a link are single bit
+ * operations, and exchanging a row exchanges the words of the row.<p>
+ *
+ * The destinations of a row are kept in ascending order of their indices,
+ * not in the order they were added, and a destination added twice is held
+ * once. The k-th destination is found by counting the bits of each word,
+ * so visiting a row by position takes time in proportion to n/64 for each
+ * destination; <code>getBits</code> gives the whole row at once.<p>
+ *
+ * A copy shares the rows of the original, and either genome copies a row
+ * the first time it writes to it.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     Genome
+ */
+public class BitGenome implements Genome {
+    // the links of each node; bit j of row i is set if i links to j
+    private long[][] rows;
+    // the number of words in each row
+    private final int words;
+    // whether each row may also be held by a copy
+    private boolean[] shared;
+
+    /**
+     * Constructs a genome of "n" nodes without any link.
+     * @param   n   the number of nodes
+     * @throws  PreconditionException if the number of nodes is negative
+     */
+    public BitGenome(int n) throws PreconditionException {
+        Assertion.pre( n >= 0, "A genome of " + n + " nodes is created",
+                       "ERROR!!! The number of nodes MUST be non-negative");
+        words  = (n + 63) >>> 6;
+        rows   = new long[n][words];
+        shared = new boolean[n];
+    }
+
+    /**
+     * Constructs a genome with the links of another genome.
+     * @param   g   the genome to be copied
+     */
+    public BitGenome(Genome g) {
+        this(g.numNodes());
+        for (int i = 0; i < rows.length; i++) g.getBits(i, rows[i]);
+    }
+
+    /**
+     * Constructs a genome holding rows which are shared with another genome.
+     */
+    private BitGenome(long[][] rows, int words) {
+        this.rows  = rows;
+        this.words = words;
+        shared     = new boolean[rows.length];
+        Arrays.fill(shared, true);
+    }
+
+    /**
+     * Returns the number of nodes, which is the number of rows.
+     * @return  the number of nodes in the network
+     */
+    public int numNodes() {
+        return rows.length;
+    }
+
+    /**
+     * Returns the number of outgoing links of a node, which is the number
+     * of bits set in its row.
+     * @param   i   the index of the node
+     * @return  the number of destinations in row "i"
+     */
+    public int degree(int i) {
+        long[] row = rows[i];
+        int sum = 0;
+        for (int w = 0; w < words; w++) sum += Long.bitCount(row[w]);
+        return sum;
+    }
+
+    /**
+     * Returns a destination of a node. The words before the one holding
+     * the destination are skipped by counting their bits.
+     * @param   i   the index of the node
+     * @param   k   the position of the destination in row "i"
+     * @return  the index of the destination node
+     * @throws  PreconditionException if there is no destination at "k"
+     */
+    public int target(int i, int k) throws PreconditionException {
+        long[] row = rows[i];
+        for (int w = 0; w < words; w++) {
+            int count = Long.bitCount(row[w]);
+            if (k < count) {
+                long word = row[w];
+                // clear the k lowest bits set
+                for (; k > 0; k--) word &= word - 1;
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            k -= count;
+        }
+        throw new PreconditionException("ERROR!!! Node " + i +
+                                        " has no such destination");
+    }
+
+    /**
+     * Checks whether a node links to another node.
+     * @param   i   the index of the source node
+     * @param   j   the index of the destination node
+     * @return  <code>true</code>, if "j" is a destination of "i"
+     */
+    public boolean contains(int i, int j) {
+        return (rows[i][j >>> 6] & (1L << j)) != 0;
+    }
+
+    /**
+     * Adds a destination to a row. Nothing is changed if the destination
+     * is already in the row.
+     * @param   i   the index of the source node
+     * @param   j   the index of the destination node
+     */
+    public void add(int i, int j) {
+        own(i);
+        rows[i][j >>> 6] |= 1L << j;
+    }
+
+    /**
+     * Removes a destination from a row.
+     * @param   i   the index of the source node
+     * @param   k   the position of the destination in row "i"
+     * @return  the index of the removed destination node
+     * @throws  PreconditionException if there is no destination at "k"
+     */
+    public int removeAt(int i, int k) throws PreconditionException {
+        int j = target(i, k);
+        own(i);
+        rows[i][j >>> 6] &= ~(1L << j);
+        return j;
+    }
+
+    /**
+     * Exchanges row "i" with row "i" of another genome. If the other genome
+     * is also a <code>BitGenome</code>, only the arrays of words are
+     * exchanged.
+     * @param   other   the other genome
+     * @param   i       the index of the row
+     */
+    public void swapRow(Genome other, int i) {
+        if (other instanceof BitGenome) {
+            BitGenome g = (BitGenome) other;
+            long[] row   = rows[i];
+            boolean held = shared[i];
+            rows[i]      = g.rows[i];
+            shared[i]    = g.shared[i];
+            g.rows[i]    = row;
+            g.shared[i]  = held;
+            return;
+        }
+        // keep this row, and copy the other row into it
+        long[] row = rows[i];
+        rows[i]   = new long[words];
+        shared[i] = false;
+        other.getBits(i, rows[i]);
+        while (other.degree(i) > 0) other.removeAt(i, other.degree(i) - 1);
+        for (int w = 0; w < words; w++)
+            for (long word = row[w]; word != 0; word &= word - 1)
+                other.add(i, (w << 6) + Long.numberOfTrailingZeros(word));
+    }
+
+    /**
+     * Returns the total number of links, which is the number of bits set.
+     * @return  the sum of the degrees of all nodes
+     */
+    public int numEdges() {
+        int sum = 0;
+        for (int i = 0; i < rows.length; i++)
+            for (int w = 0; w < words; w++) sum += Long.bitCount(rows[i][w]);
+        return sum;
+    }
+
+    /**
+     * Copies the words of a row.
+     * @param   i       the index of the node
+     * @param   bits    the array to receive the bits of row "i"
+     */
+    public void getBits(int i, long[] bits) {
+        System.arraycopy(rows[i], 0, bits, 0, words);
+    }
+
+    /**
+     * Returns a copy of this genome, which shares the rows of this genome
+     * until either genome writes to them.
+     * @return  the copy
+     */
+    public Genome copy() {
+        Arrays.fill(shared, true);
+        return new BitGenome((long[][]) rows.clone(), words);
+    }
+
+    /**
+     * Copies row "i", if it may also be held by a copy.
+     */
+    private void own(int i) {
+        if (shared[i]) {
+            shared[i] = false;
+            rows[i]   = (long[]) rows[i].clone();
+        }
+    }
+}
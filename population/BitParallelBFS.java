@@ -0,0 +1,173 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import java.util.Arrays;
+import utility.*;
+
+/**
+ * Determines the minimal number of hops between all pairs of nodes with a
+ * bit-parallel, multi-source breadth-first search. Since every edge has unit
+ * cost when counting hops, there is no need for Dijkstra's algorithm.<p>
+ *
+ * The sources are processed in batches of 64. Each node holds one
+ * <code>long</code> word for the frontier and one for the visited set, where
+ * bit "k" corresponds to the k-th source of the batch. A single sweep over
+ * the edges advances all 64 searches by one hop, by OR-ing the frontier of
+ * each node into its destinations. Newly reached nodes are found with
+ * <code>next &amp; ~visited</code> and counted with
+ * <code>Long.bitCount</code>.<p>
+ *
+ * The aggregates of the hop counts are returned as <code>HopStats</code>,
+ * which requires no n x n matrix. The full matrix of hop counts is still
+ * available through <code>allPairs</code>, so this class can be used as an
+ * <code>APSPEngine</code> for link matrices. Every element, which is not on
+ * the diagonal and is not <code>Double.POSITIVE_INFINITY</code>, is treated
+ * as a link of one hop.<p>
+ *
+ * The words are kept between calls, so an instance of this class must not
+ * be shared between threads.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     HopStats
+ * @see     HopCounter
+ * @see     DegreeSeparation
+ */
+public class BitParallelBFS implements APSPEngine, HopCounter,
+                                      Replicable {
+    // the number of sources processed at once; the bits in a long
+    private static final int WORD = 64;
+
+    // the sources of the batch that have reached each node
+    private long[] visited  = new long[0];
+    // the sources of the batch that reached each node in the last hop
+    private long[] frontier = new long[0];
+    // the sources of the batch that reach each node in the next hop
+    private long[] next     = new long[0];
+
+    /**
+     * Creates an engine with bitsets of its own.
+     * @return  a new engine
+     */
+    public Object replicate() {
+        return new BitParallelBFS();
+    }
+
+    /**
+     * Determines the matrix of the minimal number of hops between all pairs
+     * of nodes in a link matrix.
+     *
+     * @param   adjMatrix   the link or adjacency matrix of the network
+     * @return  the matrix of hop counts, with
+     *          <code>Double.POSITIVE_INFINITY</code> for unreachable pairs
+     * @throws  PreconditionException if the matrix is not a square matrix
+     */
+    public double[][] allPairs(double[][] adjMatrix)
+    throws PreconditionException {
+        SparseGraph g = SparseGraph.fromMatrix(adjMatrix);
+        int n = g.numNodes();
+        double[][] result = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(result[i], Double.POSITIVE_INFINITY);
+            result[i][i] = 0.0;
+        }
+        search(g, 0, n, result, null);
+        return result;
+    }
+
+    /**
+     * Determines the aggregates of the minimal number of hops between all
+     * pairs of nodes, without storing the hops of each pair.
+     *
+     * @param   g           the network; the edge costs are ignored
+     * @param   perNode     set <code>true</code> to also count the number of
+     *                      nodes reachable from each node
+     * @return  the aggregates of the hop counts
+     */
+    public HopStats hopStats(SparseGraph g, boolean perNode) {
+        int n = g.numNodes();
+        int[] reach = (perNode) ? new int[n] : null;
+        long[] acc = search(g, 0, n, null, reach);
+        return new HopStats((int) acc[0], acc[1], acc[2], reach);
+    }
+
+    /**
+     * Runs the breadth-first searches from the sources in [from,to) in
+     * batches of 64.<p>
+     *
+     * If <code>matrix</code> is not null, the hop counts are stored in the
+     * rows of the sources. If <code>reach</code> is not null, the number of
+     * nodes reached from each source is stored in it.
+     *
+     * @param   g       the network
+     * @param   from    the first source node
+     * @param   to      one past the last source node
+     * @param   matrix  the n x n matrix for the hop counts, or null
+     * @param   reach   the array for the reachable counts, or null
+     * @return  the maximum, the sum and the count of the hops, in this order
+     */
+    public long[] search(SparseGraph g, int from, int to, double[][] matrix,
+    int[] reach) {
+        int n = g.numNodes();
+        if (visited.length < n) {
+            visited  = new long[n];
+            frontier = new long[n];
+            next     = new long[n];
+        }
+        long max = 0, sum = 0, count = 0;
+
+        for (int base = from; base < to; base += WORD) {
+            int width = Math.min(WORD, to - base);
+            Arrays.fill(visited, 0, n, 0L);
+            Arrays.fill(frontier, 0, n, 0L);
+            // each source starts with itself in the frontier
+            for (int k = 0; k < width; k++) {
+                visited[base + k]  = 1L << k;
+                frontier[base + k] = 1L << k;
+            }
+
+            boolean grown = true;
+            for (int level = 1; grown; level++) {
+                Arrays.fill(next, 0, n, 0L);
+                // push the frontier of every node along its edges
+                for (int u = 0; u < n; u++) {
+                    long f = frontier[u];
+                    if (f == 0L) continue;
+                    int end = g.edgeStart(u + 1);
+                    for (int e = g.edgeStart(u); e < end; e++)
+                        next[g.target(e)] |= f;
+                }
+                // keep only the sources that reach a node for the first time
+                grown = false;
+                for (int v = 0; v < n; v++) {
+                    long fresh = next[v] & ~visited[v];
+                    frontier[v] = fresh;
+                    if (fresh == 0L) continue;
+                    grown = true;
+                    visited[v] |= fresh;
+                    int found = Long.bitCount(fresh);
+                    sum   += (long) level * found;
+                    count += found;
+                    if (level > max) max = level;
+                    if (matrix != null || reach != null) {
+                        while (fresh != 0L) {
+                            int k = Long.numberOfTrailingZeros(fresh);
+                            if (matrix != null) matrix[base + k][v] = level;
+                            if (reach  != null) reach[base + k]++;
+                            fresh &= fresh - 1;
+                        }
+                    }
+                }
+            }
+        }
+        return new long[] {max, sum, count};
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import utility.*;
+
+/**
+ * Solves the all-pairs shortest path problem with a tiled (cache-blocked)
+ * version of the Floyd-Warshall algorithm. This engine is intended for
+ * dense networks, where <code>HeapDijkstra</code> no longer pays off, since
+ * nearly every pair of nodes is connected by an edge.<p>
+ *
+ * The matrix is held in a single row-major array, where element (i,j) is
+ * stored at <code>i*n + j</code>. The matrix is divided into square tiles
+ * of <code>blockSize</code> x <code>blockSize</code> elements. For every
+ * diagonal tile "k", the tile itself is updated first, then the tiles in
+ * row "k" and column "k", and finally every remaining tile. Each update
+ * only touches three tiles, which should fit into the L1/L2 cache, and
+ * the innermost loop walks along a row, so memory is accessed sequentially.
+ * <p>
+ *
+ * The working buffer is kept between calls and is only reallocated when a
+ * larger network is presented, so an instance of this class must not be
+ * shared between threads.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     HeapDijkstra
+ */
+public class BlockedFloydWarshall implements APSPEngine, Replicable {
+    /**
+     * The default width of a tile. Three tiles of 64 x 64 doubles take up
+     * 96KB, which fits into the L2 cache of common processors.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 64;
+
+    // the width and height of a tile
+    private int blockSize;
+    // the working buffer for the row-major matrix
+    private double[] buffer = new double[0];
+
+    /**
+     * Constructs an engine with the default tile width.
+     */
+    public BlockedFloydWarshall() {
+        blockSize = DEFAULT_BLOCK_SIZE;
+    }
+
+    /**
+     * Constructs an engine with a specified tile width.
+     * @param   size    the width and height of a tile
+     * @throws  PreconditionException if the size is not positive
+     */
+    public BlockedFloydWarshall(int size) throws PreconditionException {
+        setBlockSize(size);
+    }
+
+    /**
+     * Sets the width and height of the tiles.
+     * @param   size    the width and height of a tile
+     * @throws  PreconditionException if the size is not positive
+     */
+    public void setBlockSize(int size) throws PreconditionException {
+        Assertion.pre( size > 0, "Tiles are " + size + " x " + size,
+                       "ERROR!!! The size of a tile MUST be POSITIVE");
+        blockSize = size;
+    }
+
+    /**
+     * Creates an engine with the same tile width, and a working buffer of
+     * its own.
+     * @return  a new engine
+     */
+    public Object replicate() {
+        return new BlockedFloydWarshall(blockSize);
+    }
+
+    /**
+     * Performs the Floyd-Warshall algorithm on an adjacency matrix. The
+     * matrix is copied into the working buffer, so it is not altered.
+     *
+     * @param   adjMatrix   the adjacency matrix which the algorithm is
+     *                      operated on
+     * @return  the matrix of minimal path costs
+     * @throws  PreconditionException if the number of columns of the
+     *          matrix does not equal the number of rows of the matrix
+     */
+    public double[][] allPairs(double[][] adjMatrix)
+    throws PreconditionException {
+        int n = adjMatrix.length;
+        if (buffer.length < n * n) buffer = new double[n * n];
+        double[] d = buffer;
+
+        for (int i = 0; i < n; i++) {
+            if( adjMatrix[i].length != n ) {
+                throw new PreconditionException("    ERROR!!! Row " + i +
+                    " of the matrix has only " + adjMatrix[i].length +
+                    " elements.\n    Each row should have " + n +
+                    " elements!");
+            }
+            System.arraycopy(adjMatrix[i], 0, d, i * n, n);
+            // the cost from a node to itself is 0
+            d[i * n + i] = 0.0;
+        }
+
+        allPairs(d, n);
+
+        double[][] result = new double[n][n];
+        for (int i = 0; i < n; i++)
+            System.arraycopy(d, i * n, result[i], 0, n);
+        return result;
+    }
+
+    /**
+     * Performs the Floyd-Warshall algorithm in place on a row-major matrix.
+     * No memory is allocated. The diagonal of the matrix should be 0.
+     *
+     * @param   d   the row-major matrix of at least n x n elements
+     * @param   n   the number of nodes in the network
+     * @throws  PreconditionException if the array is too short
+     */
+    public void allPairs(double[] d, int n) throws PreconditionException {
+        Assertion.pre( d.length >= n * n,
+                       "The matrix is a " + n + " x " + n + " matrix",
+                       "ERROR!!! The array is too short for the matrix");
+        int b = blockSize;
+        int numBlocks = (n + b - 1) / b;
+
+        for (int kb = 0; kb < numBlocks; kb++) {
+            int k0 = kb * b, k1 = Math.min(k0 + b, n);
+
+            // phase 1: the diagonal tile depends only on itself
+            updateTile(d, n, k0, k1, k0, k1, k0, k1);
+
+            // phase 2: the tiles in row "kb" and column "kb"
+            for (int jb = 0; jb < numBlocks; jb++) {
+                if (jb == kb) continue;
+                int j0 = jb * b, j1 = Math.min(j0 + b, n);
+                updateTile(d, n, k0, k1, j0, j1, k0, k1);
+                updateTile(d, n, j0, j1, k0, k1, k0, k1);
+            }
+
+            // phase 3: the remaining tiles
+            for (int ib = 0; ib < numBlocks; ib++) {
+                if (ib == kb) continue;
+                int i0 = ib * b, i1 = Math.min(i0 + b, n);
+                for (int jb = 0; jb < numBlocks; jb++) {
+                    if (jb == kb) continue;
+                    int j0 = jb * b, j1 = Math.min(j0 + b, n);
+                    updateTile(d, n, i0, i1, j0, j1, k0, k1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Relaxes the tile of rows [i0,i1) and columns [j0,j1) through the
+     * intermediate nodes [k0,k1). Positive infinity needs no special
+     * treatment, since adding a finite cost to it remains infinity.
+     */
+    private static void updateTile(double[] d, int n, int i0, int i1,
+    int j0, int j1, int k0, int k1) {
+        for (int k = k0; k < k1; k++) {
+            int kRow = k * n;
+            for (int i = i0; i < i1; i++) {
+                int iRow = i * n;
+                double dik = d[iRow + k];
+                // no path from "i" to "k" means no improvement via "k"
+                if (dik == Double.POSITIVE_INFINITY) continue;
+                for (int j = j0; j < j1; j++) {
+                    double alt = dik + d[kRow + j];
+                    if (alt < d[iRow + j]) d[iRow + j] = alt;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import population.graph.IdRegistry;
+import utility.*;
+
+/**
+ * Presents the original cells of a <code>Chromosome</code>, an
+ * <code>ArrayList</code> of <code>ArrayList</code>s of nodes, as a
+ * <code>Genome</code>. The cells are not copied, so the lists returned by
+ * <code>Chromosome.getData</code> stay live. The index of each node is
+ * its id in the node list, given by <code>IdRegistry</code>; a node listed
+ * twice in the node list takes its first index, as
+ * <code>ArrayList.indexOf</code> gives.<p>
+ *
+ * A copy shares the lists of the original. A shared list is copied the
+ * first time either genome may write to it: when it is altered through
+ * this class, or handed out by <code>getRow</code> or
+ * <code>getCells</code>.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     Chromosome
+ */
+class CellGenome implements Genome {
+    // the lists of destination nodes of each node
+    private final ArrayList cells;
+    // the list of all nodes, which gives the index of each node
+    private final ArrayList nodes;
+    // the lists which may also be held by a copy, keyed by identity
+    private IdentityHashMap shared = new IdentityHashMap();
+
+    /**
+     * Presents a list of cells as a genome.
+     * @param   cells   the lists of destination nodes
+     * @param   nodes   the list of all nodes
+     */
+    CellGenome(ArrayList cells, ArrayList nodes) {
+        this.cells = cells;
+        this.nodes = nodes;
+        IdRegistry.register(nodes);
+    }
+
+    /**
+     * Constructs the cells of another genome.
+     * @param   g       the genome to be converted
+     * @param   nodes   the list of all nodes
+     */
+    CellGenome(Genome g, ArrayList nodes) {
+        this(new ArrayList(g.numNodes()), nodes);
+        for (int i = 0; i < g.numNodes(); i++) {
+            ArrayList cell = new ArrayList(g.degree(i));
+            for (int k = 0; k < g.degree(i); k++)
+                cell.add(nodes.get(g.target(i, k)));
+            cells.add(cell);
+        }
+    }
+
+    /**
+     * Returns the lists of destination nodes, which may be altered. Every
+     * list shared with a copy is copied first.
+     * @return  the cells
+     */
+    ArrayList getCells() {
+        for (int i = 0; i < cells.size(); i++) own(i);
+        return cells;
+    }
+
+    /**
+     * Returns the list of destination nodes of a node, which may be
+     * altered. The list is copied first if it is shared with a copy.
+     * @param   i   the index of the node
+     * @return  the cell of node "i"
+     */
+    ArrayList getRow(int i) {
+        own(i);
+        return (ArrayList) cells.get(i);
+    }
+
+    /**
+     * Inserts a list of destination nodes before row "i", as
+     * <code>Chromosome.setData</code> always has.
+     * @param   i       the index at which the list is inserted
+     * @param   cell    the list of destination nodes
+     */
+    void insertRow(int i, ArrayList cell) {
+        cells.add(i, cell);
+    }
+
+    public int numNodes() {
+        return cells.size();
+    }
+
+    public int degree(int i) {
+        return ((ArrayList) cells.get(i)).size();
+    }
+
+    /**
+     * Returns the index of a destination node.
+     * @throws  PreconditionException if the destination node is not in the
+     *          node list
+     */
+    public int target(int i, int k) throws PreconditionException {
+        return indexOf(((ArrayList) cells.get(i)).get(k));
+    }
+
+    public boolean contains(int i, int j) {
+        return ((ArrayList) cells.get(i)).contains(nodes.get(j));
+    }
+
+    public void add(int i, int j) {
+        getRow(i).add(nodes.get(j));
+    }
+
+    public int removeAt(int i, int k) {
+        return indexOf(getRow(i).remove(k));
+    }
+
+    /**
+     * Exchanges row "i" with row "i" of another genome. If the other genome
+     * is also a <code>CellGenome</code>, the lists themselves are exchanged,
+     * and a shared list stays shared.
+     */
+    public void swapRow(Genome other, int i) {
+        if (other instanceof CellGenome) {
+            CellGenome g = (CellGenome) other;
+            Object temp = g.cells.get(i);
+            Object mine = cells.get(i);
+            boolean tempShared = g.shared.remove(temp) != null;
+            boolean mineShared = shared.remove(mine) != null;
+            g.cells.set(i, mine);
+            cells.set(i, temp);
+            if (mineShared) g.shared.put(mine, Boolean.TRUE);
+            if (tempShared) shared.put(temp, Boolean.TRUE);
+        } else {
+            other.swapRow(this, i);
+        }
+    }
+
+    public int numEdges() {
+        int sum = 0;
+        for (int i = 0; i < cells.size(); i++)
+            sum += ((ArrayList) cells.get(i)).size();
+        return sum;
+    }
+
+    public void getBits(int i, long[] bits) {
+        Arrays.fill(bits, 0, (nodes.size() + 63) >>> 6, 0L);
+        ArrayList cell = (ArrayList) cells.get(i);
+        for (int k = 0; k < cell.size(); k++) {
+            int j = indexOf(cell.get(k));
+            bits[j >>> 6] |= 1L << j;
+        }
+    }
+
+    /**
+     * Returns a copy, which shares the lists of this genome until either
+     * genome writes to them.
+     */
+    public Genome copy() {
+        CellGenome copy = new CellGenome(new ArrayList(cells), nodes);
+        for (int i = 0; i < cells.size(); i++) {
+            shared.put(cells.get(i), Boolean.TRUE);
+            copy.shared.put(cells.get(i), Boolean.TRUE);
+        }
+        return copy;
+    }
+
+    /**
+     * Prints the lists of destination nodes.
+     */
+    public String toString() {
+        return cells.toString();
+    }
+
+    /**
+     * Copies the list of row "i", if it may also be held by a copy.
+     */
+    private void own(int i) {
+        Object cell = cells.get(i);
+        if (shared.remove(cell) != null)
+            cells.set(i, new ArrayList((ArrayList) cell));
+    }
+
+    /**
+     * Returns the index of a node in the node list.
+     * @throws  PreconditionException if the node is not in the node list
+     */
+    private int indexOf(Object node) throws PreconditionException {
+        int i = IdRegistry.indexOf(nodes, node);
+        if (i < 0) {
+            String msg = "ERROR!!! To node does not exists in the graph.";
+            throw new PreconditionException(msg);
+        }
+        return i;
+    }
+}
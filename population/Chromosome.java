@@ -22,7 +22,16 @@ import population.graph.*;
  * redundancy of the network.
  * Each Node in the network is stored in an ArrayList. For each Node contained
  * in this ArrayList, it contains a ArrayList of Nodes that this Node is
- * connected to. Hence, you have an ArrayList of ArrayLists.
+ * connected to. Hence, you have an ArrayList of ArrayLists.<p>
+ *
+ * The links may instead be held in a <code>Genome</code> of node indices,
+ * such as an <code>IntGenome</code>, or a <code>BitGenome</code> of one
+ * bit for each pair of Nodes. The genetic operators and the cost
+ * functions then use <code>getDegree</code>, <code>getLink</code>,
+ * <code>hasLink</code>, <code>addLink</code>, <code>removeLinkAt</code>
+ * and <code>swapRow</code>, which work with any kind of genome. The
+ * lists of Nodes are only built if <code>getData</code> or
+ * <code>getDataArray</code> is called, after which they are kept.
  *
  * @author  Zhiyang Ong
  * @author  Andy Lo
@@ -36,8 +45,11 @@ import population.graph.*;
 public class Chromosome {
     // Declaring instance variables...
     
-    // Container for the list of destination Nodes for each Node in the Network
-    private ArrayList cells;
+    /**
+     * The destination Nodes for each Node in the Network. The original list
+     * of lists of Nodes is held in a <code>CellGenome</code>.
+     */
+    private Genome genome;
     /**
      * Added by Andy 01/04/05: nodes is used to store a reference to the
      * list of all nodes for this simulation session.
@@ -72,6 +84,105 @@ public class Chromosome {
      */
     private double[][] adjacencyMatrix = null;
     private Graph graph = null;
+    // the read-only view of the graph, which clones no nodes
+    private GraphView graphView = null;
+    /**
+     * The adjacency matrix, when a reduced precision is selected in
+     * <code>Precision</code>. The matrix of doubles is then not stored.
+     * Either matrix is tagged with the precision it was constructed in.
+     */
+    private CompactMatrix compactAdjacency = null;
+    private int adjacencyPrecision = -1;
+    /**
+     * The edges of the Network in the compressed sparse row format, with
+     * their costs and with unit costs, and the precision of the costs.
+     */
+    private SparseGraph[] sparse = new SparseGraph[2];
+    private int sparsePrecision = -1;
+
+    /**
+     * The kind of derived result holding the minimal path costs between all
+     * pairs of nodes, as a <code>double[][]</code>.
+     */
+    public static final int WEIGHTED_APSP = 0;
+    /**
+     * The kind of derived result holding the minimal number of hops between
+     * all pairs of nodes, as a <code>double[][]</code>.
+     */
+    public static final int HOP_APSP      = 1;
+    /**
+     * The kind of derived result holding the aggregates of the hop counts
+     * and the number of nodes reachable from each node, as a
+     * <code>HopStats</code>.
+     */
+    public static final int REACHABILITY  = 2;
+    /**
+     * The kind of derived result holding the number of nodes reachable from
+     * each node, as an <code>int[]</code>.
+     */
+    public static final int TRANSITIVE_CLOSURE = 3;
+    /**
+     * The kind of derived result holding the minimal path costs between all
+     * pairs of nodes in a reduced precision, as a <code>CompactMatrix</code>.
+     */
+    public static final int COMPACT_WEIGHTED_APSP = 4;
+    // the number of kinds of derived results
+    private static final int NUM_DERIVED  = 5;
+    /**
+     * The results derived from this network by the cost functions, indexed
+     * by their kind. They are shared between the cost functions, so each is
+     * computed at most once until the network is changed.
+     */
+    private Object[] derived = new Object[NUM_DERIVED];
+    /**
+     * The adjacency matrix and the derived results of the chromosome, from
+     * which this chromosome was cloned. A cost function may repair the
+     * parent's results, instead of computing them again, when only a few
+     * edges differ. They are null if the parent had not been assessed.
+     */
+    private double[][] parentAdjacency = null;
+    private Object[] parentDerived = null;
+    /**
+     * The chromosome, which lent the adjacency matrix borrowed when this
+     * chromosome was cloned, and the number of clones still holding this
+     * chromosome's matrix, as the parent's matrix or as their own. A
+     * recycled matrix is only given back to the arena once every clone
+     * has finished with it.
+     */
+    private Chromosome lender = null;
+    private double[][] borrowed = null;
+    private int adjacencyLoans = 0;
+    private double[][] pendingRelease = null;
+    /**
+     * The arena, from which the adjacency matrix built by this chromosome
+     * was taken, and that of the matrix to be given back once the loans
+     * end. The rows are given back to the arena they were taken from, as
+     * a matrix built by a worker thread is recycled by another thread.
+     */
+    private RowArena adjacencyArena = null;
+    private RowArena pendingArena = null;
+    /**
+     * The version of this Network, which is incremented whenever its links
+     * are altered, and the version at which each row was last altered. The
+     * adjacency matrix, the graph, the derived results and the fitness are
+     * tagged with the version they were computed from, and are only used
+     * while it is current.
+     */
+    private volatile long version = 0;
+    private long[] rowVersion = null;
+    private long adjacencyVersion = -1;
+    private long graphVersion     = -1;
+    private long graphViewVersion = -1;
+    private long[] sparseVersion  = {-1, -1};
+    private long[] derivedVersion = {-1, -1, -1, -1, -1};
+    private long fitnessVersion   = -1;
+    /**
+     * The Zobrist hash of the links, which is the exclusive or of the keys
+     * of every link. It is updated as each link is added or removed, and
+     * only rebuilt once the lists of Nodes are handed out or replaced.
+     */
+    private long hash = 0;
+    private boolean hashKnown = false;
     
     // --------------------------------------------------------------------
     
@@ -81,10 +192,10 @@ public class Chromosome {
          * If the user instantiates a Chromosome without any parameters,
          * the user shall get an empty Chromosome
          */
-        cells = new ArrayList();
         numServers = 0;
         numClients = 0;
 		nodes = new ArrayList();
+        genome = new CellGenome(new ArrayList(), nodes);
     }
     
     // Standard constructors...
@@ -110,9 +221,9 @@ public class Chromosome {
 			"Number of Nodes in this Chromosome is correct",
 			"Number of Nodes in this Chromosome is INCORRECT; "
 			+"Check that data and nodeList have the same number of nodes");
-        cells = data;
         // Modified by Andy 02/04/05: Store nodeList as "nodes"
         nodes = nodeList;
+        genome = new CellGenome(data, nodes);
         Assertion.asrt(noServer>=0 && noClient>=0,
             "noServer and noClient are positive",
             "noServer and noClient must be positive");
@@ -141,7 +252,7 @@ public class Chromosome {
          * The number of Nodes in a Network is the number of Clients
          * and Servers in the Network
          */
-        cells = new ArrayList(noServer+noClient);
+        ArrayList cells = new ArrayList(noServer+noClient);
         /**
          * Create an empty list of destination Nodes for each Node
          * in this Network
@@ -153,12 +264,42 @@ public class Chromosome {
         }
         // Modified by Andy 02/04/05: Store nodeList as "nodes"
         nodes = nodeList;
+        genome = new CellGenome(cells, nodes);
         Assertion.asrt(noServer>=0 && noClient>=0,
             "noServer and noClient are positive",
             "noServer and noClient must be positive");
         numServers = noServer;
         numClients = noClient;
     }
+
+    /**
+     * Constructs a Chromosome whose links are held in a genome of node
+     * indices, such as an <code>IntGenome</code>, instead of lists of
+     * Nodes. The genome is used as it is, not copied.
+     *
+     * @param   g           the links of the network
+     * @param   nodeList    the list of all nodes of the network
+     * @param   noServer    the number of Servers in the network
+     * @param   noClient    the number of Clients in the network
+     * @throws  AssertionException if the genome and the node list are not
+     *          of the same size, or the numbers of Servers and Clients are
+     *          wrong
+     */
+    public Chromosome(Genome g, ArrayList nodeList, int noServer,
+    int noClient) {
+		Assertion.asrt(g.numNodes() == nodeList.size() &&
+            g.numNodes() == noServer + noClient,
+			"Number of Nodes in this Chromosome is correct",
+			"Number of Nodes in this Chromosome is INCORRECT; "
+			+"Check that genome and nodeList have the same number of nodes");
+        Assertion.asrt(noServer>=0 && noClient>=0,
+            "noServer and noClient are positive",
+            "noServer and noClient must be positive");
+        genome = g;
+        nodes = nodeList;
+        numServers = noServer;
+        numClients = noClient;
+    }
     
     // -----------------------------------------------------------------
     
@@ -219,44 +360,88 @@ public class Chromosome {
     /**
      * Duplicates this Chromosome. The clone must be an exact copy of this 
      * Chromosome. Note that the clone method must return an Object, not a 
-     * specific Object such as the Chromosome Object.
+     * specific Object such as the Chromosome Object.<p>
+     *
+     * The clone shares the rows of this Chromosome, and a row is copied by
+     * either Chromosome the first time it writes to the row. Thus cloning
+     * only copies a reference for each Node, and the clone takes memory for
+     * the rows altered afterwards. A list obtained from <code>getData</code>
+     * or <code>getDataArray</code> before cloning must not be altered after
+     * cloning, as it may be shared; it should be obtained again.<p>
+     *
+     * The clone starts at version 0, so the rows altered after cloning are
+     * those whose version is above 0. The fitness, the adjacency matrix,
+     * the sparse graphs and the derived results current in this Chromosome
+     * are carried over, and are current in the clone until its links are
+     * altered, so a clone left unaltered need not be assessed again. The
+     * graph is not carried over, as it may be altered by its users.
+     *
      * @return a copy of this Chromosome as an Object
      */    
     public Object clone() {
-        // Get a copy of this Chromosome/Network
-        ArrayList tempCells = getDataArray();
-        
-        //Create the storage of cells for the cloned Chromosome/Network
-        ArrayList clonedNetwork = new ArrayList(tempCells.size());
-        /**
-         * Create an empty list of destination Nodes for each Node
-         * in this Network
-         */
-
-		ArrayList destinationCells;
-/*
-        for(int i=0;i<tempCells.size();i++) {
-            destinationCells = new ArrayList();
-            clonedNetwork.set(i, destinationCells);
-        }
-*/
-        // For each Client/Server...
-        for(int i=0; i<tempCells.size(); i++) {
-			destinationCells = new ArrayList(((ArrayList)tempCells.get(i)).size());
-            clonedNetwork.add(i, destinationCells);
-            // copy its set of destination Nodes over.
-            for(int j=0; j < ((ArrayList)tempCells.get(i)).size();j++) {
-                ((ArrayList)clonedNetwork.get(i)).
-                    add(j,((ArrayList)tempCells.get(i)).get(j));
-            }
+        // share the links, which are held in the same kind of genome
+        Genome copy;
+        synchronized (this) {
+            copy = genome.copy();
         }
         
         // Shallow copying...        
-		Chromosome clonedChromo = new Chromosome(clonedNetwork, getNodeList(),
+		Chromosome clonedChromo = new Chromosome(copy, getNodeList(),
 			getNumServers(), getNumClients());
+		// remember the results of this chromosome, so they can be repaired
+		synchronized (this) {
+			clonedChromo.hash = hash;
+			clonedChromo.hashKnown = hashKnown;
+			if (adjacencyMatrix != null && adjacencyVersion == version &&
+			    adjacencyPrecision == Precision.getMode()) {
+				// a borrowed matrix is borrowed from its owner again
+				Chromosome owner = (adjacencyMatrix == borrowed) ? lender
+				                                                 : this;
+				owner.lend();
+				clonedChromo.lender   = owner;
+				clonedChromo.borrowed = adjacencyMatrix;
+				clonedChromo.parentAdjacency = adjacencyMatrix;
+				clonedChromo.parentDerived = new Object[NUM_DERIVED];
+				for (int k = 0; k < NUM_DERIVED; k++)
+					if (derivedVersion[k] == version)
+						clonedChromo.parentDerived[k] = derived[k];
+			}
+			carryOver(clonedChromo);
+		}
         return clonedChromo;
     }
     
+    /**
+     * Gives a clone the results of this Chromosome, which are current, as
+     * results of its version 0. The results are shared, as none is altered
+     * once stored, and the fitness values are copied.
+     */
+    private void carryOver(Chromosome c) {
+        long current = version;
+        if (adjacencyVersion == current) {
+            c.adjacencyMatrix  = adjacencyMatrix;
+            c.compactAdjacency = compactAdjacency;
+            c.adjacencyPrecision = adjacencyPrecision;
+            c.adjacencyVersion = 0;
+        }
+        c.sparsePrecision = sparsePrecision;
+        for (int k = 0; k < sparse.length; k++)
+            if (sparse[k] != null && sparseVersion[k] == current) {
+                c.sparse[k] = sparse[k];
+                c.sparseVersion[k] = 0;
+            }
+        for (int k = 0; k < NUM_DERIVED; k++)
+            if (derived[k] != null && derivedVersion[k] == current) {
+                c.derived[k] = derived[k];
+                c.derivedVersion[k] = 0;
+            }
+        if (isFitnessCurrent()) {
+            c.fitnessArr = (double[]) fitnessArr.clone();
+            c.fitnessVersion = 0;
+            c.fitness = fitness;
+        }
+    }
+
     /**
      * Obtains the destination Nodes of the outgoing Edges from this 
      * correspoding cell/Node (with the index "index" in this Chromosome) in 
@@ -264,6 +449,9 @@ public class Chromosome {
      *
      * If the desired Node has no outgoing Edges, it will return an
      * ArrayList with size 0.
+     * If the links are held in a genome of node indices, the lists of Nodes
+     * are built first, and kept from then on. As the list may be altered by
+     * the caller, the row is taken to be altered.
      *
      * @param   index   the index of the desired Node in this Chromosome
      * @throws  PreconditionException if "index" is < 0 or >= getLength(),
@@ -275,7 +463,10 @@ public class Chromosome {
         Assertion.pre(index>=0 && index<getLength(),
             "Access to desired Node is proper",
             "Index of Node in this Chromosome is found to be negative!");
-        return (ArrayList)cells.get(index);
+        ArrayList row = getCellGenome().getRow(index);
+        touch(index);
+        forgetHash();
+        return row;
     }
     
     /**
@@ -295,18 +486,509 @@ public class Chromosome {
         Assertion.pre(index>=0 && index<getLength(),
             "Access to desired Node is proper",
             "Index of Node in this Chromosome is found to be negative!");
-        cells.add(index, listToNodes);
+        getCellGenome().insertRow(index, listToNodes);
+        invalidate();
+    }
+
+    /**
+     * Discards the adjacency matrix, the graph and every derived result
+     * stored for this Network, and marks every row as altered. The links
+     * altered through this class, <code>getData</code> and
+     * <code>getDataArray</code> are already accounted for, so this is only
+     * needed when the Network changes in another way, such as when a Node
+     * is deactivated.
+     */
+    public synchronized void invalidate() {
+        adjacencyMatrix = null;
+        adjacencyArena  = null;
+        endLoan();
+        compactAdjacency = null;
+        graph = null;
+        graphView = null;
+        Arrays.fill(sparse, null);
+        Arrays.fill(derived, null);
+        touchAll();
+        hashKnown = false;
+    }
+
+    /**
+     * Returns the version of this Network. It is incremented whenever a
+     * link is altered, so a result computed from this Network is current
+     * while the version is unchanged.
+     *
+     * @return  the version of this Network
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the version at which the outgoing links of a Node were last
+     * altered, or 0 if they have not been altered since this Chromosome was
+     * created or cloned.
+     *
+     * @param   i   the index of the Node
+     * @return  the version of row "i"
+     */
+    public synchronized long getRowVersion(int i) {
+        return (rowVersion == null) ? 0 : rowVersion[i];
+    }
+
+    /**
+     * Records that the outgoing links of a Node are altered.
+     */
+    private synchronized void touch(int i) {
+        version++;
+        if (rowVersion == null || rowVersion.length != genome.numNodes())
+            rowVersion = new long[genome.numNodes()];
+        rowVersion[i] = version;
+    }
+
+    /**
+     * Records that every row may be altered.
+     */
+    private synchronized void touchAll() {
+        version++;
+        if (rowVersion == null || rowVersion.length != genome.numNodes())
+            rowVersion = new long[genome.numNodes()];
+        Arrays.fill(rowVersion, version);
+    }
+
+    /**
+     * Obtains a result derived from this Network by a cost function, such
+     * as the matrix of minimal path costs.
+     *
+     * @param   kind    the kind of result, such as <code>WEIGHTED_APSP</code>
+     * @throws  PreconditionException if the kind is unknown
+     * @return  the stored result, or <code>null</code> if it has not been
+     *          computed since the Network was last changed
+     */
+    public synchronized Object getDerived(int kind)
+    throws PreconditionException {
+        Assertion.pre(kind >= 0 && kind < NUM_DERIVED,
+            "Derived result of kind " + kind + " is requested",
+            "ERROR!!! Unknown kind of derived result: " + kind);
+        return (derivedVersion[kind] == version) ? derived[kind] : null;
+    }
+
+    /**
+     * Obtains the adjacency matrix of the chromosome, from which this
+     * chromosome was cloned, as it was when cloned.
+     *
+     * @return  the parent's adjacency matrix, or <code>null</code> if it
+     *          was not constructed or is no longer needed
+     */
+    public synchronized double[][] getParentAdjacency() {
+        return parentAdjacency;
+    }
+
+    /**
+     * Obtains a result derived from the chromosome, from which this
+     * chromosome was cloned, as it was when cloned. It matches the
+     * adjacency matrix returned by <code>getParentAdjacency</code>.
+     *
+     * @param   kind    the kind of result, such as <code>WEIGHTED_APSP</code>
+     * @throws  PreconditionException if the kind is unknown
+     * @return  the parent's result, or <code>null</code> if it was not
+     *          computed or is no longer needed
+     */
+    public synchronized Object getParentDerived(int kind)
+    throws PreconditionException {
+        Assertion.pre(kind >= 0 && kind < NUM_DERIVED,
+            "Derived result of kind " + kind + " is requested",
+            "ERROR!!! Unknown kind of derived result: " + kind);
+        return (parentDerived == null) ? null : parentDerived[kind];
+    }
+
+    /**
+     * Stores a result derived from this Network, so the other cost functions
+     * need not compute it again. Every engine is assumed to produce the
+     * same result for the same Network. The result must not be altered
+     * once stored.
+     *
+     * @param   kind    the kind of result, such as <code>WEIGHTED_APSP</code>
+     * @param   result  the result to be stored
+     * @throws  PreconditionException if the kind is unknown
+     */
+    public synchronized void setDerived(int kind, Object result)
+    throws PreconditionException {
+        Assertion.pre(kind >= 0 && kind < NUM_DERIVED,
+            "Derived result of kind " + kind + " is stored",
+            "ERROR!!! Unknown kind of derived result: " + kind);
+        derived[kind] = result;
+        derivedVersion[kind] = version;
+        // the parent's result of this kind is no longer needed
+        if (parentDerived != null) {
+            parentDerived[kind] = null;
+            boolean needed = false;
+            for (int i = 0; i < NUM_DERIVED; i++)
+                if (parentDerived[i] != null) needed = true;
+            if (!needed) dropParentResults();
+        }
+    }
+
+    /**
+     * Forgets the adjacency matrix and the derived results of the
+     * chromosome, from which this chromosome was cloned, once they are no
+     * longer needed to repair this chromosome's results. The parent's
+     * matrix may then be recycled.
+     */
+    public void dropParentResults() {
+        synchronized (this) {
+            parentDerived   = null;
+            parentAdjacency = null;
+        }
+        endLoan();
+    }
+
+    /**
+     * Gives the adjacency matrix of this chromosome back to the
+     * <code>RowArena</code> it was taken from, when the chromosome has left
+     * the population and is not assessed again. The matrix is kept until
+     * every clone holding it has finished with it, and is never given back
+     * while a derived result shares its rows, or if it was borrowed from
+     * the parent. The chromosome remains valid: its matrix is constructed
+     * again if requested, but a matrix obtained from it before must no
+     * longer be used.
+     */
+    public void recycle() {
+        dropParentResults();
+        double[][] matrix;
+        RowArena arena;
+        synchronized (this) {
+            matrix = adjacencyMatrix;
+            arena  = adjacencyArena;
+            adjacencyMatrix  = null;
+            adjacencyArena   = null;
+            adjacencyVersion = -1;
+            if (matrix == null || arena == null || matrix == borrowed ||
+                sharesRows(matrix)) {
+                matrix = null;
+            } else if (adjacencyLoans > 0) {
+                pendingRelease = matrix;
+                pendingArena   = arena;
+                matrix = null;
+            }
+        }
+        endLoan();
+        if (matrix != null) arena.giveMatrix(matrix);
+    }
+
+    /**
+     * Starts a loan of this chromosome's adjacency matrix to a clone.
+     */
+    private synchronized void lend() {
+        adjacencyLoans++;
+    }
+
+    /**
+     * Ends the loan of the matrix borrowed when this chromosome was cloned,
+     * once it is neither the parent's matrix nor the matrix of this
+     * chromosome any more.
+     */
+    private void endLoan() {
+        Chromosome from = null;
+        synchronized (this) {
+            if (lender != null && parentAdjacency != borrowed &&
+                adjacencyMatrix != borrowed) {
+                from     = lender;
+                lender   = null;
+                borrowed = null;
+            }
+        }
+        if (from != null) from.repay();
+    }
+
+    /**
+     * Ends a loan of this chromosome's adjacency matrix to a clone, and
+     * gives the matrix back to the arena if it was recycled and this was
+     * the last loan.
+     */
+    private void repay() {
+        double[][] matrix = null;
+        RowArena arena = null;
+        synchronized (this) {
+            adjacencyLoans--;
+            if (adjacencyLoans == 0 && pendingRelease != null) {
+                matrix = pendingRelease;
+                arena  = pendingArena;
+                pendingRelease = null;
+                pendingArena   = null;
+            }
+        }
+        if (matrix != null) arena.giveMatrix(matrix);
+    }
+
+    /**
+     * Checks whether a derived result of this chromosome shares a row with
+     * a matrix, as a result computed in place of the adjacency matrix may.
+     */
+    private boolean sharesRows(double[][] matrix) {
+        for (int k = 0; k < NUM_DERIVED; k++) {
+            if (!(derived[k] instanceof double[][])) continue;
+            double[][] result = (double[][]) derived[k];
+            if (result == matrix) return true;
+            for (int i = 0; i < Math.min(result.length, matrix.length); i++)
+                if (result[i] == matrix[i]) return true;
+        }
+        return false;
     }
     
     /**
      * Method to get the list of Nodes in the network
+     * As the lists may be altered by the caller, every row is taken to be
+     * altered.
      * @return a list of Nodes in this network; note that each Node in this
      *  network has a list of destination Nodes for outgoing Edges from
      *  this Node
      */
     public ArrayList getDataArray() {
+        ArrayList cells = getCellGenome().getCells();
+        // the lists may be altered by the caller
+        touchAll();
+        forgetHash();
         return cells;
     }
+
+    /**
+     * Obtains the genome of lists of destination Nodes. If the links are
+     * held as node indices, they are converted to lists of Nodes, which
+     * replace the genome. The network is not changed, so the stored results
+     * remain valid.
+     */
+    private synchronized CellGenome getCellGenome() {
+        if (!(genome instanceof CellGenome))
+            genome = new CellGenome(genome, nodes);
+        return (CellGenome) genome;
+    }
+
+    /**
+     * Obtains the genome holding the links of this Network. It may be read
+     * by the cost functions, but must not be altered; the links are changed
+     * through <code>addLink</code>, <code>removeLinkAt</code> and
+     * <code>swapRow</code>.
+     *
+     * @return  the genome of this Network
+     */
+    public Genome getGenome() {
+        return genome;
+    }
+
+    /**
+     * Holds the links of this Network in another genome, such as a
+     * <code>BitGenome</code> for a dense network. Every stored result is
+     * discarded, as the new genome need not hold the same links.
+     *
+     * @param   g   the genome holding the links of this Network
+     * @throws  PreconditionException if the genome is null or not of the
+     *          length of this Chromosome
+     */
+    public synchronized void setGenome(Genome g)
+    throws PreconditionException {
+        Assertion.pre(g != null && g.numNodes() == nodes.size(),
+            "The genome of this Chromosome is replaced",
+            "ERROR!!! The genome MUST have one row for each Node");
+        genome = g;
+        invalidate();
+    }
+
+    /**
+     * Returns the number of outgoing links of a Node.
+     * @param   i   the index of the Node in this Chromosome
+     * @return  the number of destination Nodes of Node "i"
+     */
+    public int getDegree(int i) {
+        return genome.degree(i);
+    }
+
+    /**
+     * Returns the index of a destination Node of a Node, without looking
+     * it up in the node list.
+     * @param   i   the index of the Node in this Chromosome
+     * @param   k   the position of the destination in the list of Node "i"
+     * @return  the index of the destination Node
+     */
+    public int getLink(int i, int k) {
+        return genome.target(i, k);
+    }
+
+    /**
+     * Checks whether a Node links to another Node.
+     * @param   i   the index of the source Node
+     * @param   j   the index of the destination Node
+     * @return  <code>true</code>, if Node "i" links to Node "j"
+     */
+    public boolean hasLink(int i, int j) {
+        return genome.contains(i, j);
+    }
+
+    /**
+     * Adds a link from a Node to another Node, at the end of the list of
+     * the source Node. The stored results are rebuilt when next needed.
+     *
+     * @param   i   the index of the source Node
+     * @param   j   the index of the destination Node
+     * @throws  PreconditionException if either index is out of range
+     */
+    public void addLink(int i, int j) throws PreconditionException {
+        Assertion.pre(i>=0 && i<getLength() && j>=0 && j<getLength(),
+            "A link is added",
+            "ERROR!!! The link (" + i + "," + j + ") is out of range");
+        int degree = genome.degree(i);
+        genome.add(i, j);
+        touch(i);
+        // a genome of bitsets holds a duplicated link once
+        if (genome.degree(i) != degree) rehash(linkKey(i, j));
+    }
+
+    /**
+     * Removes a link from the list of a Node. The stored results are
+     * rebuilt when next needed.
+     *
+     * @param   i   the index of the source Node
+     * @param   k   the position of the link in the list of Node "i"
+     * @return  the index of the destination Node of the removed link
+     */
+    public int removeLinkAt(int i, int k) {
+        int j = genome.removeAt(i, k);
+        touch(i);
+        rehash(linkKey(i, j));
+        return j;
+    }
+
+    /**
+     * Exchanges the outgoing links of a Node with those of the same Node in
+     * another Chromosome. The row is altered in both Chromosomes.
+     *
+     * @param   other   the other Chromosome
+     * @param   i       the index of the Node
+     */
+    public void swapRow(Chromosome other, int i) {
+        // the keys of both rows leave one hash and enter the other
+        long keys = rowKeys(i) ^ other.rowKeys(i);
+        genome.swapRow(other.genome, i);
+        touch(i);
+        other.touch(i);
+        rehash(keys);
+        other.rehash(keys);
+    }
+
+    /**
+     * Gives the outgoing links of a Node as a bitset, in which bit "j" is
+     * set if the Node links to Node "j".
+     *
+     * @param   i       the index of the Node
+     * @param   bits    the array to receive the bits, of at least
+     *                  (<code>getLength()</code>+63)/64 words
+     */
+    public void getLinkBits(int i, long[] bits) {
+        genome.getBits(i, bits);
+    }
+
+    /**
+     * Returns the Zobrist hash of the links of this Network, which is the
+     * exclusive or of a pseudo-random key of every link. Two Networks with
+     * the same links have the same hash, whatever order the links were
+     * added in. The hash is updated in constant time as a link is added or
+     * removed, and rebuilt from every link only after the lists of Nodes
+     * have been handed out by <code>getData</code> or
+     * <code>getDataArray</code>, or the genome is replaced.<p>
+     *
+     * Different Networks may share a hash, so <code>sameLinks</code> should
+     * be used to tell whether two Networks are identical.
+     *
+     * @return  the hash of the links
+     */
+    public synchronized long getHash() {
+        if (!hashKnown) {
+            hash = 0;
+            for (int i = 0; i < genome.numNodes(); i++) hash ^= rowKeys(i);
+            hashKnown = true;
+        }
+        return hash;
+    }
+
+    /**
+     * Checks whether another Network has exactly the same links as this
+     * Network. The hashes are compared first, so that different Networks
+     * are told apart in constant time; only Networks sharing a hash have
+     * their links compared. The order of the links in a row is ignored,
+     * but a duplicated link is counted as often as it appears.
+     *
+     * @param   other   the other Chromosome
+     * @return  <code>true</code>, if both Networks have the same links
+     */
+    public boolean sameLinks(Chromosome other) {
+        if (other == this) return true;
+        return other != null && other.getHash() == getHash() &&
+               hasLinks(other.genome);
+    }
+
+    /**
+     * Checks whether the links of this Network are exactly those held by a
+     * genome, comparing every row. The order of the links in a row is
+     * ignored, but a duplicated link is counted as often as it appears.
+     *
+     * @param   g   the genome
+     * @return  <code>true</code>, if the genome holds the same links
+     */
+    public boolean hasLinks(Genome g) {
+        int n = getLength();
+        if (g == null || g.numNodes() != n) return false;
+        for (int i = 0; i < n; i++) {
+            int d = getDegree(i);
+            if (g.degree(i) != d) return false;
+            int[] mine   = new int[d];
+            int[] theirs = new int[d];
+            for (int k = 0; k < d; k++) {
+                mine[k]   = getLink(i, k);
+                theirs[k] = g.target(i, k);
+            }
+            Arrays.sort(mine);
+            Arrays.sort(theirs);
+            if (!Arrays.equals(mine, theirs)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the exclusive or of the keys of the outgoing links of a Node.
+     */
+    private long rowKeys(int i) {
+        long keys = 0;
+        for (int k = 0; k < genome.degree(i); k++)
+            keys ^= linkKey(i, genome.target(i, k));
+        return keys;
+    }
+
+    /**
+     * Toggles keys in the hash of the links. Nothing needs to be done if
+     * the hash is to be rebuilt.
+     */
+    private synchronized void rehash(long keys) {
+        hash ^= keys;
+    }
+
+    /**
+     * Marks the hash to be rebuilt, as the lists of Nodes may be altered by
+     * the caller.
+     */
+    private synchronized void forgetHash() {
+        hashKnown = false;
+    }
+
+    /**
+     * Returns the key of the link from Node "i" to Node "j". The keys are
+     * drawn from a fixed pseudo-random sequence (the SplitMix64 finaliser
+     * of the pair), so every Chromosome, whatever its size, uses the same
+     * key for the same link without a table of keys.
+     */
+    private static long linkKey(int i, int j) {
+        long z = (((long) i) << 32 | (j & 0xFFFFFFFFL)) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
     
     /**
      * Method to get the amount of pleiotropy for this network
@@ -405,20 +1087,18 @@ public class Chromosome {
          * non-negative. We want the opposite, so it was changed to
          * cells.size() > 0.
          */
-        Assertion.post(cells.size() >= 0, 
-                        "Size of the network is "+cells.size(),
+        int size = genome.numNodes();
+        Assertion.post(size >= 0, 
+                        "Size of the network is "+size,
                         "Size of a Network cannot be negative");
-        return cells.size();
+        return size;
     }
 	
 	/**
 	 * Method to determine the number of edges in the graph
 	 */
 	public int getNumEdges() throws PreconditionException {
-		int numberEdges=0;
-		for(int i=0;i<getLength();i++) {
-			numberEdges = numberEdges + ((ArrayList)cells.get(i)).size();
-		}
+		int numberEdges = genome.numEdges();
 		Assertion.post(numberEdges >= 0,
 			"Number of edges in the graph is: "+numberEdges,
 			"The Graph has a NEGATIVE number of EDGES");
@@ -481,11 +1161,13 @@ public class Chromosome {
 	/**
 	 * Method to assign the array of fitness values obtained from various
 	 * cost functions
+	 * The values are taken to be computed from the current links.
 	 * @param f is the array
 	 * @return nothing
 	 */
 	public void setFitnessArr(double[] f) {
         fitnessArr = f;
+        fitnessVersion = (f == null) ? -1 : version;
     }
 	
 	/**
@@ -496,6 +1178,7 @@ public class Chromosome {
 	 */
 	public void createFitnessArr(int size) {
         fitnessArr = new double[size];
+        fitnessVersion = -1;
     }
 	
 	/**
@@ -520,6 +1203,26 @@ Debugger.enableTrace(false);
 // ### Modified by Zhiyang Ong - 31 July 2005
 //        fitnessArr[index]=fit;
 fitnessArr[0]=fit;
+    }
+
+    /**
+     * Marks the fitness values as computed from the current links, once
+     * every cost function has been applied to this Network. A single
+     * function does not mark them, as the others may not have been applied.
+     */
+    public void markFitnessCurrent() {
+        fitnessVersion = version;
+    }
+
+    /**
+     * Checks whether the fitness stored by the cost functions was computed
+     * from the current version of this Network.
+     *
+     * @return  <code>true</code>, if a fitness was stored and no link has
+     *          been altered since
+     */
+    public boolean isFitnessCurrent() {
+        return fitnessArr != null && fitnessVersion == version;
     }
     
 	/**
@@ -551,7 +1254,19 @@ return fitnessArr[0];
      *  (Chromosome)
      */
     public String toString() {
-        return cells.toString();
+        if (genome instanceof CellGenome)
+            return genome.toString();
+        // print the same lists of Nodes, without building them
+        StringBuffer buf = new StringBuffer("[");
+        for (int i = 0; i < genome.numNodes(); i++) {
+            buf.append((i > 0) ? ", [" : "[");
+            for (int k = 0; k < genome.degree(i); k++) {
+                if (k > 0) buf.append(", ");
+                buf.append(nodes.get(genome.target(i, k)));
+            }
+            buf.append("]");
+        }
+        return buf.append("]").toString();
 // Work on this... NOT IMPORTANT
 /*
 // CODE FROM THE CLASS FunctionTestChromosome01
@@ -620,7 +1335,12 @@ String line;
      * refer to array[i][j].<p>
      *   
      * Once the adjacency matrix has been constructed, it will be stored, so
-     * if this method is queried again, the stored matrix will be returned.<p>
+     * if this method is queried again, the stored matrix will be returned.
+     * The edge costs are rounded to the precision selected in
+     * <code>Precision</code>. In a reduced precision, only the compact
+     * matrix is stored, and a new matrix of doubles is returned each time.
+     * The matrix and its loans to clones are shared between threads, so it
+     * is constructed while holding this chromosome.<p>
      *
      * (Implemented by Andy 1 Apr 2005)
      *
@@ -632,22 +1352,35 @@ String line;
      * @return  a square Adjacency Matrix indicating the connectivity of
      *          the Nodes in the Network
      */
-    public double[][] getAdjacencyMatrix()
+    public synchronized double[][] getAdjacencyMatrix()
     throws AssertionException, PostconditionException {
         
         Assertion.asrt( getLength() > 0,
                         "The chromosome has length = " + getLength(),
                         "The chromosome has length = 0!!??");
         
+        // the version of the network, from which the matrix is constructed
+        long current = version;
+        // the precision of the edge costs
+        int mode = Precision.getMode();
+        double[][] result = null;
+        if (adjacencyVersion == current && adjacencyPrecision == mode) {
+            result = adjacencyMatrix;
+            // expand the matrix stored in a reduced precision
+            if (result == null && compactAdjacency != null)
+                result = compactAdjacency.toArray();
+        }
         // If the adjacencyMatrix hasn't been already constructed...
-        if (adjacencyMatrix == null) {
+        if (result == null) {
             int dim = getLength(); // Obtain chromosome length
+            double scale = Precision.getScale(mode, dim);
             // initialise matrix
-            double[][] adjmatrix = new double[dim][dim];
+            RowArena arena = RowArena.local();
+            double[][] adjmatrix = arena.takeMatrix(dim);
             double edgeCost;
             
             Node src, dest;     // reference to source and destination nodes
-            ArrayList adjNodes; // list of destination nodes
+            int to;             // index of the destination node
         
             /**
              * Each row of the matrix correspond to a cell in the chromosome
@@ -675,13 +1408,13 @@ String line;
                 src = (Node) nodes.get(i);
                 if ( !((Repairable)src).activated() ) continue;
                 /**
-                 * for this node in the network, obtain the list of adjacent
-                 * destination nodes.
+                 * for this node in the network, visit the index of each
+                 * adjacent destination node, so the node list need not be
+                 * searched
                  */
-                adjNodes = (ArrayList) cells.get(i);
-                // for each adjacent node
-                for (int j = 0; j < adjNodes.size(); j++) {
-                    dest = (Node) adjNodes.get(j);
+                for (int j = 0; j < genome.degree(i); j++) {
+                    to   = genome.target(i, j);
+                    dest = (Node) nodes.get(to);
                     /**
                      * # Modified by Andy 21 Apr 2005:
                      *      If the destination is deactivated, no one can
@@ -696,25 +1429,92 @@ String line;
                      *      Changed to obtain edge cost from EdgeCostMatrix
                      */
                     
-                    edgeCost = EdgeCostMatrix.getCost(i,nodes.indexOf(dest));
+                    edgeCost = EdgeCostMatrix.getCost(i, to);
+                    edgeCost = Precision.quantize(edgeCost, mode, scale);
                     //Debugger.printErr("cost of " + i + " to " + 
-                    //    nodes.indexOf(dest) +" is " + edgeCost);
-                    adjmatrix[i][nodes.indexOf(dest)] = edgeCost;
+                    //    to +" is " + edgeCost);
+                    adjmatrix[i][to] = edgeCost;
                     
                                                     //distBetween(src, dest);
                 }
             }
-            adjacencyMatrix = adjmatrix;
+            /**
+             * in a reduced precision, only the compact matrix is stored, and
+             * the matrix of doubles is expanded again when needed
+             */
+            if (mode == Precision.DOUBLE) {
+                adjacencyMatrix  = adjmatrix;
+                adjacencyArena   = arena;
+                compactAdjacency = null;
+            } else {
+                adjacencyMatrix  = null;
+                adjacencyArena   = null;
+                compactAdjacency = CompactMatrix.fromArray(adjmatrix, mode,
+                                                           scale);
+            }
+            adjacencyVersion   = current;
+            adjacencyPrecision = mode;
+            // a matrix borrowed from the parent is no longer held
+            endLoan();
+            result = adjmatrix;
         }
         // else just return the stored matrix...
                 
-        Assertion.post( (adjacencyMatrix.length == getLength()) &&
-                        (adjacencyMatrix[0].length == getLength()),
+        Assertion.post( (result.length == getLength()) &&
+                        (result[0].length == getLength()),
                         "The returned matrix is a n x n matrix where n is " +
                         "\n    the number of nodes in the network.",
                         "The returned matrix MUST be a SQUARE matrix" );
                         
-        return adjacencyMatrix;
+        return result;
+    }
+
+    /**
+     * Obtains the adjacency matrix of the Network in the reduced precision
+     * selected in <code>Precision</code>. It is constructed once, and
+     * stored instead of the matrix of doubles until the links or the
+     * precision are changed.
+     *
+     * @return  the compact adjacency matrix, or <code>null</code> if the
+     *          costs are held as doubles
+     */
+    public synchronized CompactMatrix getCompactAdjacency() {
+        int mode = Precision.getMode();
+        if (mode == Precision.DOUBLE) return null;
+        if (compactAdjacency == null || adjacencyVersion != version ||
+            adjacencyPrecision != mode)
+            getAdjacencyMatrix();
+        return compactAdjacency;
+    }
+
+    /**
+     * Obtains the edges of the Network in the compressed sparse row format,
+     * which only holds the links that exist. The same rules as
+     * <code>getAdjacencyMatrix</code> apply: a deactivated node has neither
+     * outgoing nor incoming edges, and the costs are obtained from
+     * <code>EdgeCostMatrix</code> in the precision selected in
+     * <code>Precision</code>. Each kind is constructed once, and stored
+     * until the links or the precision are changed.
+     *
+     * @param   unitCost    set <code>true</code> to give every edge unit
+     *                      cost, which counts the number of hops
+     * @return  the sparse graph of the Network
+     * @see     SparseGraph#fromChromosome(Chromosome, boolean, int)
+     */
+    public synchronized SparseGraph getSparseGraph(boolean unitCost) {
+        int kind = (unitCost) ? 1 : 0;
+        int mode = Precision.getMode();
+        // the costs are rounded to the precision; unit costs are not
+        if (!unitCost && sparsePrecision != mode) {
+            sparse[0] = null;
+            sparsePrecision = mode;
+        }
+        long current = version;
+        if (sparse[kind] == null || sparseVersion[kind] != current) {
+            sparse[kind] = SparseGraph.fromChromosome(this, unitCost, mode);
+            sparseVersion[kind] = current;
+        }
+        return sparse[kind];
     }
 
     /**
@@ -769,8 +1569,10 @@ String line;
                         "The chromosome has length = " + getLength(),
                         "The chromosome has length = 0!!??");
         
+        // the version of the network, from which the graph is constructed
+        long current = version;
         // If the graph hasn't been already constructed...
-        if(graph == null) {
+        if(graph == null || graphVersion != current) {
             Graph g = new GraphImp(1000, 750);
             Node refNode, clone;
             String refLabel;
@@ -804,7 +1606,7 @@ String line;
             Edge newEdge;
             
             Node src, dest;         // source and destination nodes of edge
-            ArrayList adjNodes;     // list of destination nodes for a node
+            int to;                 // index of the destination node
             
             double edgeCost;
             
@@ -821,10 +1623,10 @@ String line;
                  */
                 if ( !((Repairable)src).activated() ) continue;
                 
-                adjNodes = (ArrayList) cells.get(i);
-                for (int j = 0; j < adjNodes.size(); j++) {
-                    // obtain the destination node from the adjacency list
-                    dest = (Node) adjNodes.get(j);
+                for (int j = 0; j < genome.degree(i); j++) {
+                    // obtain the destination node from the genome
+                    to   = genome.target(i, j);
+                    dest = (Node) nodes.get(to);
                     /**
                      * # Modified by Andy 21 Apr 2005:
                      *      If the destination is deactivated, no one can
@@ -836,10 +1638,11 @@ String line;
                      * # Modified by Andy Lo 18 Apr 2005:
                      *      Changed to obtain edge cost from EdgeCostMatrix
                      */
-                    edgeCost = EdgeCostMatrix.getCost(i,nodes.indexOf(dest));
+                    edgeCost = EdgeCostMatrix.getCost(i, to);
+                    edgeCost = Precision.quantize(edgeCost, dim);
                     
                     // obtain the clone of "dest" that is in the graph
-                    dest = g.getNode(nodes.indexOf(dest));  
+                    dest = g.getNode(to);  
                     refLabel = (src.getLabel()).toUpperCase() + "-" +
                                     (dest.getLabel()).toUpperCase();
                     newEdge = new EdgeImp(src, dest, refLabel, edgeModel);
@@ -849,6 +1652,7 @@ String line;
                 }
             }
             graph = g;  // update graph
+            graphVersion = current;
         }
         // else just return the stored graph
         
@@ -859,4 +1663,22 @@ String line;
                     "length of the chromosome");
         return graph;
     }
+
+    /**
+     * Obtains a read-only view of the graph of this Network, which holds
+     * the same edges and gives the same loads as <code>getGraph</code>,
+     * without cloning the nodes or creating an object for every edge. It is
+     * constructed once, and stored until the links are altered.
+     *
+     * @return  the view of the graph of this Network
+     * @see     GraphView
+     */
+    public synchronized GraphView getGraphView() {
+        long current = version;
+        if (graphView == null || graphViewVersion != current) {
+            graphView = new GraphView(this);
+            graphViewVersion = current;
+        }
+        return graphView;
+    }
 }
@@ -32,13 +32,17 @@ import java.util.Arrays;
  * Spam, 0018-9162/05, viewed 17 Apr 2005
  *
  * @author  Andy Hao-Wei Lo
- * @version 0.4.1
+ * @version 0.4.2
  * @since   0.3.7
+ * @see     TransitiveClosure
  * @see     Chromosome
  * @see     SetOfChromosomes
  */
 public class ClusterCoeff extends DegreeSeparation {
 
+    // determines the number of nodes reachable from each node
+    TransitiveClosure closure = new TransitiveClosure();
+
     /**
      * Instantiates this function.
      */
@@ -46,25 +50,34 @@ public class ClusterCoeff extends DegreeSeparation {
         super();
     }
 
+    /**
+     * Creates the function to which <code>replicate</code> copies the
+     * settings of this one, with a transitive closure of its own.
+     * @return  a new function
+     */
+    protected DegreeSeparation newReplica() {
+        return new ClusterCoeff();
+    }
+
     /**
      * Applies the function that calculates the average clustering 
-     * coefficient in a network. 
+     * coefficient in a network. Only the number of direct links and the
+     * number of reachable nodes are required, so they are counted from the
+     * links with <code>TransitiveClosure</code>, instead of determining
+     * the minimal number of hops between all nodes.
      *
      * @param   c       the chromosome to which the function is applied
 	 * @param   index   the index of this cost function
      */
     public void apply(Chromosome c, int index) {
-        // obtain the adjacency matrix
-        double[][] adjMatrix = c.getAdjacencyMatrix();
-        // convert to a link matrix with only 0, 1, and infinity (+oo)
-        adjMatrix = adj2linkMatrix(adjMatrix);
-        // perform dijsktra on the matrix
-        double[][] resMatrix = dm.dijkstra(adjMatrix);
-        // if doAvg is set, get the average, otherwise get the maximum
-        double result = assessConnectivity(adjMatrix, resMatrix);
-
+        SparseGraph g = c.getSparseGraph(true);
+        int[] degree = new int[g.numNodes()];
+        for (int i = 0; i < degree.length; i++)
+            degree[i] = g.edgeStart(i + 1) - g.edgeStart(i);
+        // the counts may be shared with the other functions
+        int[] reachable = closure.reachableCounts(c);
         // store the result as fitness
-        c.insertIntoFitArr(index, result);
+        c.insertIntoFitArr(index, assessConnectivity(degree, reachable));
     }
 
     /**
@@ -77,6 +90,29 @@ public class ClusterCoeff extends DegreeSeparation {
      * @return  the connectivity
      */
     protected double assessConnectivity(double[][] a, double b[][]) {
+        // count the direct links and the neighbors of each node
+        int[] degree    = new int[a.length];
+        int[] reachable = new int[a.length];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < a[i].length; j++) {
+                if (i == j) continue;
+                if (a[i][j] != Double.POSITIVE_INFINITY) degree[i]++;
+                if (b[i][j] != Double.POSITIVE_INFINITY) reachable[i]++;
+            }
+        }
+        return assessConnectivity(degree, reachable);
+    }
+
+    /**
+     * Produces the result of average clustering coefficient from the number
+     * of direct links and the number of reachable nodes of each node.
+     * 
+     * @param   degree      the number of direct links of each node
+     * @param   reachable   the number of nodes directly or indirectly 
+     *                      reachable from each node, excluding itself
+     * @return  the connectivity
+     */
+    protected double assessConnectivity(int[] degree, int[] reachable) {
         // the number of nodes of degree 2 or greater
         int nodeCount = 0;
         // the number of connection for a node (direct links)
@@ -87,13 +123,9 @@ public class ClusterCoeff extends DegreeSeparation {
         double clusterSum = 0;
 
         // for each node in the network
-        for (int i = 0; i < a.length; i++) {
-            // find the number of direct connection from the original matrix
-            connections = 0;
-            for (int j = 0; j < a[i].length; j++) {
-                if (i == j) continue;
-                if (a[i][j] != Double.POSITIVE_INFINITY) connections++;
-            }
+        for (int i = 0; i < degree.length; i++) {
+            // the number of direct connection from the original matrix
+            connections = degree[i];
             /**
              * skip, since cluster coefficient for nodes with degree 1 is
              * undefined
@@ -102,14 +134,10 @@ public class ClusterCoeff extends DegreeSeparation {
             // else, increment the number of nodes with degree 2 or greater
             nodeCount++;
             /**
-             * find the number of connected nodes from the matrix result
-             * from dijsktra
+             * the number of connected nodes from the matrix result from
+             * dijsktra
              */
-            neighbors = 0;
-            for (int j = 0; j < b[i].length; j++) {
-                if (i == j) continue;
-                if (b[i][j] != Double.POSITIVE_INFINITY) neighbors++;
-            }
+            neighbors = reachable[i];
             // update sum
             
             
@@ -0,0 +1,194 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import java.util.Arrays;
+import utility.*;
+
+/**
+ * An n x n matrix of costs held in a reduced precision, as selected by
+ * <code>Precision</code>. The elements are stored row by row in a single
+ * array of floats, ints or chars, which takes a half or a quarter of the
+ * memory of a <code>double[n][n]</code>. An infinite cost is held as
+ * <code>Float.POSITIVE_INFINITY</code>, or as the largest integer of the
+ * fixed point modes. A finite cost too dear for a fixed point mode is
+ * held as the dearest finite cost.<p>
+ *
+ * The rows are read into, and written from, arrays of doubles, so the
+ * engines and the reductions can work on one row at a time.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     Precision
+ */
+public class CompactMatrix {
+    // the integer which stands for an infinite cost
+    private static final int  INF32 = Integer.MAX_VALUE;
+    private static final char INF16 = (char) 0xFFFF;
+
+    // the number of rows and of columns
+    private final int n;
+    // the precision of the elements
+    private final int mode;
+    // the number of units per unit of cost in the fixed point modes
+    private final double scale;
+    // the elements in the precision of the matrix; only one is used
+    private float[] floats;
+    private int[]   ints;
+    private char[]  chars;
+
+    /**
+     * Constructs an n x n matrix, in which every cost is infinite.
+     *
+     * @param   n       the number of rows and of columns
+     * @param   m       <code>Precision.FLOAT</code>,
+     *                  <code>Precision.FIXED32</code> or
+     *                  <code>Precision.FIXED16</code>
+     * @param   scale   the number of units per unit of cost, which is
+     *                  ignored by <code>Precision.FLOAT</code>
+     * @throws  PreconditionException if the precision is not reduced
+     */
+    public CompactMatrix(int n, int m, double scale)
+    throws PreconditionException {
+        Assertion.pre( m == Precision.FLOAT || m == Precision.FIXED32 ||
+                       m == Precision.FIXED16,
+                       "A " + Precision.getName(m) + " matrix is created",
+                       "ERROR!!! The precision MUST be reduced: " + m);
+        this.n     = n;
+        this.mode  = m;
+        this.scale = scale;
+        int size = n * n;
+        switch (m) {
+            case Precision.FLOAT:
+                floats = new float[size];
+                Arrays.fill(floats, Float.POSITIVE_INFINITY);
+                break;
+            case Precision.FIXED32:
+                ints = new int[size];
+                Arrays.fill(ints, INF32);
+                break;
+            default:
+                chars = new char[size];
+                Arrays.fill(chars, INF16);
+        }
+    }
+
+    /**
+     * Constructs a matrix in reduced precision from a matrix of doubles.
+     *
+     * @param   m       the square matrix to be converted
+     * @param   mode    the reduced precision
+     * @param   scale   the number of units per unit of cost
+     * @return  the converted matrix
+     */
+    public static CompactMatrix fromArray(double[][] m, int mode,
+    double scale) {
+        CompactMatrix result = new CompactMatrix(m.length, mode, scale);
+        for (int i = 0; i < m.length; i++) result.setRow(i, m[i]);
+        return result;
+    }
+
+    /**
+     * Returns the number of rows, which equals the number of columns.
+     * @return  the dimension of the matrix
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the precision of the elements.
+     * @return  the precision, as defined in <code>Precision</code>
+     */
+    public int getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the number of units per unit of cost.
+     * @return  the scale of the fixed point costs
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Returns the number of bytes taken by the elements.
+     * @return  the memory used by the elements
+     */
+    public long getMemory() {
+        return (long) n * n * Precision.bytesPerCost(mode);
+    }
+
+    /**
+     * Returns element (i,j) of the matrix.
+     * @param   i   the row
+     * @param   j   the column
+     * @return  the cost, which may be <code>Double.POSITIVE_INFINITY</code>
+     */
+    public double get(int i, int j) {
+        int k = i * n + j;
+        switch (mode) {
+            case Precision.FLOAT:
+                return floats[k];
+            case Precision.FIXED32:
+                return (ints[k] == INF32) ? Double.POSITIVE_INFINITY
+                                          : ints[k] / scale;
+            default:
+                return (chars[k] == INF16) ? Double.POSITIVE_INFINITY
+                                           : chars[k] / scale;
+        }
+    }
+
+    /**
+     * Reads row "i" of the matrix.
+     * @param   i       the row
+     * @param   row     storage of length n for the costs of the row
+     */
+    public void getRow(int i, double[] row) {
+        for (int j = 0; j < n; j++) row[j] = get(i, j);
+    }
+
+    /**
+     * Writes row "i" of the matrix, rounding each cost to the precision.
+     * @param   i       the row
+     * @param   row     the costs of the row, of length n
+     */
+    public void setRow(int i, double[] row) {
+        int k = i * n;
+        for (int j = 0; j < n; j++, k++) {
+            double x = row[j];
+            switch (mode) {
+                case Precision.FLOAT:
+                    floats[k] = (float) x;
+                    break;
+                case Precision.FIXED32:
+                    ints[k] = (x == Double.POSITIVE_INFINITY) ? INF32 :
+                        (int) Math.min(Math.rint(x * scale),
+                                       Precision.LIMIT32);
+                    break;
+                default:
+                    chars[k] = (x == Double.POSITIVE_INFINITY) ? INF16 :
+                        (char) Math.min(Math.rint(x * scale),
+                                        Precision.LIMIT16);
+            }
+        }
+    }
+
+    /**
+     * Converts this matrix to a matrix of doubles.
+     * @return  a new n x n matrix of doubles
+     */
+    public double[][] toArray() {
+        double[][] result = new double[n][n];
+        for (int i = 0; i < n; i++) getRow(i, result[i]);
+        return result;
+    }
+}
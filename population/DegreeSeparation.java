@@ -33,7 +33,7 @@ import java.util.Arrays;
  * @see     SetOfChromosomes
  * @acknowledgement Matthew Berryman, Wei-li Khoo and Hiep Nguyen
  */
-public class DegreeSeparation implements Function {
+public class DegreeSeparation implements Function, Replicable {
     
     /**
      * if set to true, the average degree of separation will be calculated, 
@@ -41,7 +41,15 @@ public class DegreeSeparation implements Function {
      */
     private boolean doAvg;
 
-    DijkstraMatrix dm = new DijkstraMatrix();
+    // finds the average and the maximum of the hop matrix
+    MatrixReducer reducer = new MatrixReducer();
+    /**
+     * the engine that determines the minimal number of hops. The default
+     * BitParallelBFS counts the hops without building any n x n matrix.
+     */
+    APSPEngine engine = new BitParallelBFS();
+    // repairs the hop matrix of a parent, or null to always use engine
+    DynamicAPSP dynamic = new DynamicAPSP();
 
     /**
      * Constructs this function, which is defaulted to find the maximum
@@ -60,6 +68,19 @@ public class DegreeSeparation implements Function {
         this.doAvg = doAverage;
     }
 
+    /**
+     * Constructs this function to calculate the average of degree of
+     * separation, or determine the maximum separation, using a specified
+     * engine. For example, <code>BlockedFloydWarshall</code> suits dense
+     * networks better than the default engine.
+     * @param   doAverage   set <code>true</code> to calculated the average
+     * @param   e           the all-pairs shortest path engine to use
+     */    
+    public DegreeSeparation(boolean doAverage, APSPEngine e) {
+        this.doAvg = doAverage;
+        setEngine(e);
+    }
+
     /**
      * Instructs whether the function will calculate the average of degree of
      * separation, or determine the maximum.
@@ -69,6 +90,72 @@ public class DegreeSeparation implements Function {
         this.doAvg = doAverage;
     }
 
+    /**
+     * Selects the engine used to determine the minimal number of hops. By
+     * default, the <code>BitParallelBFS</code> engine is used.
+     * @param   e   the all-pairs shortest path engine to use
+     */
+    public void setEngine(APSPEngine e) {
+        Assertion.pre( e != null, "A new APSP engine is selected",
+                       "ERROR!!! The APSP engine MUST NOT be null");
+        this.engine = e;
+    }
+
+    /**
+     * Selects the reducer which finds the aggregates of the matrices.
+     * @param   r   the matrix reducer to use
+     * @throws  PreconditionException if the reducer is null
+     */
+    public void setReducer(MatrixReducer r) throws PreconditionException {
+        Assertion.pre( r != null, "A new matrix reducer is selected",
+                       "ERROR!!! The matrix reducer MUST NOT be null");
+        this.reducer = r;
+    }
+
+    /**
+     * Selects how the hop matrix of a cloned chromosome is repaired from
+     * that of its parent. This only applies to engines, which are not a
+     * <code>HopCounter</code>. Set <code>null</code> to always compute the
+     * matrix with the engine.
+     * @param   d   the dynamic shortest path structure, or null
+     */
+    public void setDynamic(DynamicAPSP d) {
+        this.dynamic = d;
+    }
+
+    /**
+     * Creates a function with the same settings, whose engine and dynamic
+     * structure are replicas of those of this function, so that each
+     * worker thread owns one. The reducer is shared. The function is
+     * created by <code>newReplica</code>, so that it is of the same class
+     * as this one.
+     * @return  the new function, or <code>null</code> if the engine cannot
+     *          be replicated, or a subclass does not create its own kind
+     */
+    public Object replicate() {
+        Object e = (engine instanceof Replicable) ?
+                   ((Replicable) engine).replicate() : null;
+        if (e == null) return null;
+        DegreeSeparation copy = newReplica();
+        if (copy == null || copy.getClass() != getClass()) return null;
+        copy.setDoAvg(doAvg);
+        copy.setEngine((APSPEngine) e);
+        copy.setReducer(reducer);
+        copy.setDynamic((dynamic == null) ? null :
+                        (DynamicAPSP) dynamic.replicate());
+        return copy;
+    }
+
+    /**
+     * Creates the function to which <code>replicate</code> copies the
+     * settings of this one, which a subclass overrides to be replicated.
+     * @return  a new function of the same class as this one
+     * @see     Replicable
+     */
+    protected DegreeSeparation newReplica() {
+        return new DegreeSeparation();
+    }
+
     /**
      * This method takes in a population of chromosomes, and measures the 
      * degree of separation for each chromosome within.
@@ -93,7 +180,15 @@ public class DegreeSeparation implements Function {
      *
      * Whether the functions uses the average or the maximum degree of 
      * separation is dependent on the variable <code>doAvg</code> which can
-     * be toggled with <code>setDoAvg(boolean)</code>.
+     * be toggled with <code>setDoAvg(boolean)</code>.<p>
+     *
+     * If the engine is a <code>HopCounter</code>, such as
+     * <code>BitParallelBFS</code>, the maximum and the average are
+     * accumulated during the search, and no matrix is built.
+     * The average is then taken over the pairs connected by a path.<p>
+     *
+     * The hop counts are stored in the chromosome, and are shared with the
+     * other functions until the chromosome is changed.
      *
      * @param   c       the chromosome to which the function is applied
 	 * @param   index   the index of this cost function
@@ -101,12 +196,16 @@ public class DegreeSeparation implements Function {
     public void apply(Chromosome c, int index) {
         double result;
         
-        // obtain the adjacency matrix
-        double[][] matrix = c.getAdjacencyMatrix();
-        // convert to a link matrix with only 0, 1, and infinity (+oo)
-        matrix = adj2linkMatrix(matrix);
-        // perform dijsktra on the matrix
-        matrix = dm.dijkstra(matrix);
+        if (engine instanceof HopCounter) {
+            // count the hops directly from the links of the chromosome
+            HopStats hops = hopStats(c);
+            result = (doAvg) ? hops.getAverage() : hops.getMax();
+            c.insertIntoFitArr(index, result);
+            return;
+        }
+
+        // obtain the minimal number of hops between all nodes
+        double[][] matrix = hopMatrix(c);
         // if doAvg is set, get the average, otherwise get the maximum
         result = (doAvg) ? getAverage(matrix) : getMax(matrix);
 
@@ -114,6 +213,63 @@ public class DegreeSeparation implements Function {
         c.insertIntoFitArr(index, result);
     }
     
+    /**
+     * Obtains the aggregates of the hop counts of a chromosome, including
+     * the number of nodes reachable from each node. They are computed by
+     * the engine, which must be a <code>HopCounter</code>, only if no other
+     * function has stored them in the chromosome.
+     *
+     * @param   c   the chromosome representing the network
+     * @return  the aggregates of the hop counts
+     */
+    protected HopStats hopStats(Chromosome c) {
+        HopStats hops = (HopStats) c.getDerived(Chromosome.REACHABILITY);
+        if (hops == null) {
+            hops = ((HopCounter) engine).hopStats(c.getSparseGraph(true),
+                                                  true);
+            c.setDerived(Chromosome.REACHABILITY, hops);
+        }
+        return hops;
+    }
+
+    /**
+     * Obtains the matrix of the minimal number of hops between all pairs of
+     * nodes of a chromosome. It is computed by the engine only if no other
+     * function has stored it in the chromosome, and the parent's matrix
+     * cannot be repaired.
+     *
+     * @param   c   the chromosome representing the network
+     * @return  the matrix of hop counts
+     */
+    protected double[][] hopMatrix(Chromosome c) {
+        double[][] matrix = (double[][]) c.getDerived(Chromosome.HOP_APSP);
+        if (matrix == null) {
+            /**
+             * expand the links to a matrix with only 0, 1, and infinity
+             * (+oo), without building the matrix of costs
+             */
+            double[][] links = c.getSparseGraph(true).toMatrix();
+            // repair the hops of the parent, if they are known
+            double[][] parentAdj = c.getParentAdjacency();
+            double[][] parentRes = null;
+            if (parentAdj != null && dynamic != null)
+                parentRes = (double[][]) 
+                    c.getParentDerived(Chromosome.HOP_APSP);
+            if (parentRes != null) {
+                double[][] parentLinks = adj2linkMatrix(parentAdj);
+                matrix = dynamic.update(parentRes, parentLinks, links);
+                RowArena.local().giveMatrix(parentLinks, matrix);
+            }
+            // else perform dijsktra on the matrix
+            else
+                matrix = engine.allPairs(links);
+            // the link matrix is given back, unless the hops share its rows
+            RowArena.local().giveMatrix(links, matrix);
+            c.setDerived(Chromosome.HOP_APSP, matrix);
+        }
+        return matrix;
+    }
+
     /**
      * Converts an adjacency matrix to a link matrix. That is replace all 
      * values, which are not <code>Double.POSITIVE_INFINITY</code> or 0, with
@@ -125,10 +281,11 @@ public class DegreeSeparation implements Function {
      *          between nodes
      */
     public double[][] adj2linkMatrix(double[][] m) {
-        // create storage for result
-        double[][] result = new double[m.length][m[0].length];
+        // create storage for result, every element of which is written
+        double[][] result = new double[m.length][];
         // for every row of the matrix
         for(int i = 0; i < m.length; i++) {
+            result[i] = RowArena.local().takeRow(m[i].length);
             // for every element in that row
             for(int j = 0; j < m[i].length; j++) {                
                 if (m[i][j] != Double.POSITIVE_INFINITY && 
@@ -148,7 +305,7 @@ public class DegreeSeparation implements Function {
      * @return  the average degree of separation of nodes in the network
      */
     private double getAverage(double[][] m) {
-        return dm.getAverage(m);
+        return reducer.reduce(m).getAverage();
     }    
 
     /**
@@ -157,6 +314,6 @@ public class DegreeSeparation implements Function {
      * @return  the maximum degree of separation of nodes in the network
      */
     private double getMax(double[][] m) {
-        return dm.getMax(m);
+        return reducer.reduce(m).getMax();
     }
 }
@@ -21,16 +21,25 @@ import utility.*;
  * Metrics such as load and clustering coefficient can also used to balance
  * load in the network.<p>
  *
+ * The sum, average and maximum of a matrix are found by
+ * <code>MatrixReducer</code>, so an instance of this class holds no count
+ * between calls, and may be shared between threads once its kernel is
+ * selected.
+ *
  * @author  Andy Hao-Wei Lo
- * @version 0.4.1
+ * @version 0.4.2
  * @since   0.3.7
+ * @see     MinPlusKernel
+ * @see     MatrixReducer
  * @acknowledgement Matthew Berryman, Wei-li Khoo and Hiep Nguyen
  */
-public class DijkstraMatrix {
+public class DijkstraMatrix implements APSPEngine, Replicable {
     private final double LN2 = Math.log(2.0);
     
-    // a counter, which is required when calculatign average
-    private int count = 0;
+    // finds the sum, average and maximum of a matrix; it holds no state
+    private static final MatrixReducer REDUCER = new MatrixReducer();
+    // computes the rows of the min-plus product
+    private MinPlusKernel kernel = MinPlusKernels.getDefault();
 
     /**
      * Performs Dijkstra's algorithm on an adjacency matrix.
@@ -63,7 +72,12 @@ public class DijkstraMatrix {
         // create matrix for shortest paths
         // calculate A^2, A^4,...,A^(n-1) in floor(log(n-1));
         int iterations = (int) (Math.log((double)(m.length-1))/LN2);
-        for (int i = 0; i < iterations ; i++) m = manipulate (m);
+        for (int i = 0; i < iterations ; i++) {
+            double[][] next = manipulate (m);
+            // the intermediate matrices are given back, but not the input
+            if (m != adjMatrix) RowArena.local().giveMatrix(m);
+            m = next;
+        }
 
 
         {// Checking Postcondition
@@ -88,6 +102,43 @@ public class DijkstraMatrix {
         return m;
     }
 
+    /**
+     * Creates an engine with the same kernel. The engine holds no other
+     * state, and the kernels hold none.
+     * @return  a new engine
+     */
+    public Object replicate() {
+        DijkstraMatrix copy = new DijkstraMatrix();
+        copy.setKernel(kernel);
+        return copy;
+    }
+
+    /**
+     * Selects the kernel that computes the rows of the min-plus product. By
+     * default, the fastest kernel available is used.
+     * @param   k   the kernel to use
+     * @throws  PreconditionException if the kernel is null
+     * @see     MinPlusKernels#getDefault()
+     */
+    public void setKernel(MinPlusKernel k) throws PreconditionException {
+        Assertion.pre( k != null, "A new min-plus kernel is selected",
+                       "ERROR!!! The min-plus kernel MUST NOT be null");
+        kernel = k;
+    }
+
+    /**
+     * Performs the min-plus algorithm on an adjacency matrix, so that this
+     * class can be used wherever an <code>APSPEngine</code> is expected.
+     * @param   adjMatrix   the adjacency matrix which the algorithm is 
+     *                      operated on
+     * @return  the resulting matrix
+     * @see     #dijkstra(double[][])
+     */
+    public double[][] allPairs(double[][] adjMatrix)
+        throws PreconditionException {
+        return dijkstra(adjMatrix);
+    }
+
     /**
      * This is a modified version of matrix multiplication. In standard
      * matrix multiplication, one sums the scalar products of the
@@ -130,32 +181,20 @@ public class DijkstraMatrix {
         /**
          * The dimension of the result of matrix manipulation is the number
          * of rows in the matrix (m.length) by number of columns of
-         * the matrix (m[i].length).
+         * the matrix (m[i].length). Each row is filled by the kernel, so
+         * the rows are taken from the arena.
          */
-        double result[][] = new double[m.length][m.length];
-        double is[] = new double[m.length];
+        double result[][] = RowArena.local().takeMatrix(m.length);
 
         // selects the row of the first matrix
         for (int i = 0; i < result.length; i++) {
-            // selects the column of the second matrix
-            for (int j = 0; j < result[0].length; j++) {
-                // if it's the (i,i) element, the cost is 0 (short cut 1)
-                if (i == j) continue;
-                // otherwise workout the appropriate value
-                for (int k = 0; k < m[0].length; k++) {
-                    /**
-                     * if one of the term is positive infinity (+oo) the
-                     * result is positive infinity
-                     * (short cut 2)
-                     */
-                    if ( m[i][k] == Double.POSITIVE_INFINITY ||
-                         m[k][j] == Double.POSITIVE_INFINITY )
-                           is[k] =  Double.POSITIVE_INFINITY;
-                    else
-                        is[k] = m[i][k] + m[k][j];
-                }
-                result[i][j] = min(is); // find the minimum sum in array "is"
-            }
+            /**
+             * find the minimum sum for every column at once. If one of the
+             * terms is positive infinity (+oo), the sum is +oo as well.
+             */
+            kernel.row(m[i], m, result[i]);
+            // if it's the (i,i) element, the cost is 0 (short cut 1)
+            result[i][i] = 0.0;
         }
 
 //        // check if the resulting matrix has the right number of rows
@@ -181,7 +220,7 @@ public class DijkstraMatrix {
      * @return  the sum of all non-infinity double number in the matrix
      */
     public double getSum(double[][] m) {
-        return assessMatrix(m, false, false);
+        return REDUCER.reduce(m).getSum();
     }
 
     /**
@@ -190,7 +229,7 @@ public class DijkstraMatrix {
      * @return  the average of all non-infinity double number in the matrix
      */
     public double getAverage(double[][] m) {
-        return assessMatrix(m, false, true);
+        return REDUCER.reduce(m).getAverage();
     }    
 
     /**
@@ -199,102 +238,34 @@ public class DijkstraMatrix {
      * @return the maximum of all non-infinity double number in the matrix
      */
     public double getMax(double[][] m) {
-        return assessMatrix(m, true, false);
-    }
-
-    /**
-     * Assesses the matrix and calculate the sum, average or maximum of all
-     * the non-infinity double number. The operation depends on the flag.
-     * @param   m   the matrix to be assessed
-     * @param   max set to true to calculated the maximum
-     * @param   avg set to true to calculated the average
-     * @returns the result of assessment
-     * @throws  AssertionException if both max and avg are set to true
-     */
-    private double assessMatrix(double[][] m, boolean max, boolean avg) {
-        Assertion.asrt( !max | !avg, 
-                "Find maximum = " + max + ", Find average = " + avg,
-                "ERROR!!! Cannot find maximum and average at the same time");
-
-        // storage for intermediate result
-        double[] intermediate = new double[m.length];
-        // storage for final result
-        double result;
-
-        if (avg) count = 0;        // if want find average, reset count
-        
-        // for each row do sum or max
-        for (int i = 0; i < m.length; i++) {
-            // intermediate[i] = (max) ? max(m[i]) : sum(m[i]);
-            if (max) intermediate[i] = max(m[i]);
-            else     intermediate[i] = sum(m[i]);
-        }
-
-        // do sum or max for the intermediate results
-        // result = (max) ? max(intermediate) : sum(intermediate);
-        if (max) result = max(intermediate);
-        else     result = sum(intermediate);
-        
-        /**
-         * If want find average, divide by count. However note that count was
-         * also incremetned by the previous step of summing intermediate, so
-         * we must subtract the number of count increment then.
-         */
-        if (avg) result /= count-intermediate.length;
-
-        return result;
+        return REDUCER.reduce(m).getMax();
     }
 
     /**
-     * Finds the sum of all double precision number, which is not
-     * Double.POSITIVE_INFINITY or Double.NEGATIVE_INFINITY, in an array.
-     * @param arr an array of double numbers
-     * @return the sum of the double values in the array arr
+     * Computes the sum of all non-infinity costs in a compact matrix.
+     * @param   m   the matrix from which the sum will be calculated
+     * @return  the sum of all non-infinity costs in the matrix
      */
-    private double sum(double[] arr) {
-        // let the largest number be -oo
-        double result = 0;
-        // look add each element that is not POSITIVE_INFINITY
-        for (int i = 0; i < arr.length; i++) 
-            if (arr[i] != Double.POSITIVE_INFINITY && 
-            arr[i] != Double.NEGATIVE_INFINITY && arr[i] != 0.0) {
-                result += arr[i];
-                // increment count, in case we need average
-                count++;
-            }
-        return result;        
+    public double getSum(CompactMatrix m) {
+        return REDUCER.reduce(m).getSum();
     }
 
     /**
-     * Finds the maximum double precision number, which is not
-     * Double.POSITIVE_INFINITY, in a given array.
-     * @param arr an array of double numbers
-     * @return the largest double in the array arr
+     * Calculates the average of all non-infinity costs in a compact matrix.
+     * @param   m   the matrix from which the average will be calculated
+     * @return  the average of all non-infinity costs in the matrix
      */
-    private double max (double[] arr) {
-        // let the largest number be -oo
-        double result = Double.NEGATIVE_INFINITY;
-        // look at each element and try to find a larger number
-        for (int i = 0; i < arr.length; i++) 
-            if (arr[i] > result && arr[i] != Double.POSITIVE_INFINITY)
-                result = arr[i];
-        return result;
+    public double getAverage(CompactMatrix m) {
+        return REDUCER.reduce(m).getAverage();
     }
 
     /**
-     * Finds the minimum double precision number, which is not
-     * Double.NEGATIVE_INFINITY, in a given array.
-     * @param m an array of double numbers
-     * @return the smallest double in the array arr
+     * Determine the maximum of all non-infinity costs in a compact matrix.
+     * @param   m   the matrix from which the maximum will be found
+     * @return the maximum of all non-infinity costs in the matrix
      */
-    private double min (double[] arr) {
-        // let the smallest number be +oo
-        double result = Double.POSITIVE_INFINITY;
-        // look at each element and try to find a smaller number
-        for (int i = 0; i < arr.length; i++) 
-            if (arr[i] < result && arr[i] != Double.NEGATIVE_INFINITY)
-                result = arr[i];
-        return result;
+    public double getMax(CompactMatrix m) {
+        return REDUCER.reduce(m).getMax();
     }
 
     /**
@@ -0,0 +1,239 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import utility.*;
+
+/**
+ * Maintains the matrix of minimal path costs of a network when a few of its
+ * edges change, instead of solving the all-pairs shortest path problem
+ * again. This suits the offspring of the genetic algorithm, since mutation
+ * usually adds or removes only a handful of edges of the cloned parent.<p>
+ *
+ * The changed edges are handled in two steps. The deleted edges, and the
+ * edges whose cost increased, are removed first, while the edges that
+ * became cheaper keep their old cost. This follows the style of
+ * Ramalingam and Reps: a source row only needs repair if a removed edge was
+ * tight for it, i.e. it lay on a minimal path from the source. In such a
+ * row, the nodes still reachable through tight edges keep their cost, and
+ * only the remaining nodes are settled again by
+ * <code>HeapDijkstra.repair</code>. The inserted edges, and the edges whose
+ * cost decreased, are then added one at a time; each costs O(n^2), since
+ * the cost from "x" to "y" through a new edge (u,v) is
+ * <code>d[x][u] + cost + d[v][y]</code>.<p>
+ *
+ * If more edges changed than <code>getMaxChanges()</code>, the matrix is
+ * simply solved again with <code>HeapDijkstra</code>. The matrices passed
+ * in are never altered. All edge costs must be non-negative. The scratch
+ * arrays are kept between calls, so an instance of this class must not be
+ * shared between threads.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     HeapDijkstra
+ * @see     MinimalPaths
+ */
+public class DynamicAPSP implements Replicable {
+    /**
+     * The default number of changed edges, above which the matrix is solved
+     * again instead of being repaired.
+     */
+    public static final int DEFAULT_MAX_CHANGES = 64;
+
+    // the relative rounding error allowed when looking for tight edges
+    private static final double TOLERANCE = 1e-12;
+
+    // the number of changed edges above which the matrix is solved again
+    private int maxChanges = DEFAULT_MAX_CHANGES;
+    // the engine which repairs the rows and solves the matrix again
+    private HeapDijkstra dijkstra = new HeapDijkstra();
+    // the nodes of a row whose cost is still exact
+    private boolean[] fixed = new boolean[0];
+    // the queue of nodes reached through tight edges
+    private int[] queue = new int[0];
+
+    /**
+     * Sets the number of changed edges, above which the matrix is solved
+     * again instead of being repaired.
+     * @param   max     the largest number of edges to repair
+     * @throws  PreconditionException if the number is negative
+     */
+    public void setMaxChanges(int max) throws PreconditionException {
+        Assertion.pre( max >= 0, "Up to " + max + " edges are repaired",
+                       "ERROR!!! The number of edges MUST NOT be negative");
+        maxChanges = max;
+    }
+
+    /**
+     * Returns the number of changed edges, above which the matrix is solved
+     * again instead of being repaired.
+     * @return  the largest number of edges to repair
+     */
+    public int getMaxChanges() {
+        return maxChanges;
+    }
+
+    /**
+     * Creates a structure repairing the same number of changed edges, with
+     * an engine and buffers of its own.
+     * @return  a new structure
+     */
+    public Object replicate() {
+        DynamicAPSP copy = new DynamicAPSP();
+        copy.setMaxChanges(maxChanges);
+        return copy;
+    }
+
+    /**
+     * Determines the matrix of minimal path costs of a network from the
+     * matrix of a previous version of the network. The changed edges are
+     * found by comparing the two adjacency matrices.
+     *
+     * @param   dist    the minimal path costs of the previous network
+     * @param   oldAdj  the adjacency matrix of the previous network
+     * @param   newAdj  the adjacency matrix of the changed network
+     * @return  the minimal path costs of the changed network
+     * @throws  PreconditionException if the matrices differ in dimension
+     */
+    public double[][] update(double[][] dist, double[][] oldAdj,
+    double[][] newAdj) throws PreconditionException {
+        int n = newAdj.length;
+        Assertion.pre( dist.length == n && oldAdj.length == n,
+                       "The matrices are " + n + " x " + n + " matrices",
+                       "ERROR!!! The matrices MUST have the same dimension");
+        // collect the changed edges, up to one more than will be repaired
+        int[] from = new int[maxChanges + 1];
+        int[] to   = new int[maxChanges + 1];
+        int changes = 0;
+        for (int i = 0; i < n && changes <= maxChanges; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i == j || oldAdj[i][j] == newAdj[i][j]) continue;
+                if (changes > maxChanges) break;
+                from[changes] = i;
+                to[changes]   = j;
+                changes++;
+            }
+        }
+        return update(dist, oldAdj, newAdj, from, to, changes);
+    }
+
+    /**
+     * Determines the matrix of minimal path costs of a network from the
+     * matrix of a previous version of the network and a list of changed
+     * edges. An edge is inserted if its old cost is
+     * <code>Double.POSITIVE_INFINITY</code>, and deleted if its new cost
+     * is. Edges not listed must have the same cost in both matrices.
+     *
+     * @param   dist    the minimal path costs of the previous network
+     * @param   oldAdj  the adjacency matrix of the previous network
+     * @param   newAdj  the adjacency matrix of the changed network
+     * @param   from    the source node of each changed edge
+     * @param   to      the destination node of each changed edge
+     * @param   changes the number of changed edges in the lists
+     * @return  the minimal path costs of the changed network
+     */
+    public double[][] update(double[][] dist, double[][] oldAdj,
+    double[][] newAdj, int[] from, int[] to, int changes) {
+        if (changes == 0) return dist;
+        if (changes > maxChanges)
+            return dijkstra.allPairs(SparseGraph.fromMatrix(newAdj));
+
+        int n = dist.length;
+        double[][] result = new double[n][];
+        for (int x = 0; x < n; x++) result[x] = dist[x];
+
+        /**
+         * the network after the removals only, where the edges which became
+         * cheaper keep their old cost. The rows without such edges are
+         * shared with the new matrix.
+         */
+        double[][] removed = new double[n][];
+        for (int i = 0; i < n; i++) removed[i] = newAdj[i];
+        for (int k = 0; k < changes; k++) {
+            int u = from[k], v = to[k];
+            if (!(newAdj[u][v] < oldAdj[u][v])) continue;
+            if (removed[u] == newAdj[u])
+                removed[u] = (double[]) newAdj[u].clone();
+            removed[u][v] = oldAdj[u][v];
+        }
+        SparseGraph g = SparseGraph.fromMatrix(removed);
+
+        // remove the deleted edges and the edges which became dearer
+        for (int x = 0; x < n; x++) {
+            double[] d = dist[x];
+            boolean tight = false;
+            /**
+             * the costs may have been summed in a different order by
+             * another engine, so an edge within rounding of being tight is
+             * treated as tight. Repairing a row needlessly does no harm.
+             */
+            for (int k = 0; k < changes && !tight; k++) {
+                int u = from[k], v = to[k];
+                tight = newAdj[u][v] > oldAdj[u][v] &&
+                        d[u] != Double.POSITIVE_INFINITY &&
+                        d[u] + oldAdj[u][v] <= d[v] + TOLERANCE * d[v];
+            }
+            if (!tight) continue;
+            result[x] = (double[]) d.clone();
+            markUnaffected(g, x, result[x], oldAdj);
+            dijkstra.repair(g, result[x], fixed);
+        }
+
+        // add the inserted edges and the edges which became cheaper
+        for (int k = 0; k < changes; k++) {
+            int u = from[k], v = to[k];
+            double w = newAdj[u][v];
+            if (!(w < oldAdj[u][v])) continue;
+            for (int x = 0; x < n; x++) {
+                double dxu = result[x][u];
+                if (dxu == Double.POSITIVE_INFINITY ||
+                    !(dxu + w < result[x][v])) continue;
+                double[] dv = result[v];
+                if (result[x] == dist[x])
+                    result[x] = (double[]) dist[x].clone();
+                double[] dx = result[x];
+                double through = dxu + w;
+                for (int y = 0; y < n; y++)
+                    if (through + dv[y] < dx[y]) dx[y] = through + dv[y];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Marks the nodes whose minimal cost from "x" is unchanged after the
+     * removals. These are the nodes reachable from "x" through edges, which
+     * are tight with the old costs and whose cost did not increase.
+     */
+    private void markUnaffected(SparseGraph g, int x, double[] d,
+    double[][] oldAdj) {
+        int n = g.numNodes();
+        if (fixed.length < n) {
+            fixed = new boolean[n];
+            queue = new int[n];
+        }
+        for (int i = 0; i < n; i++) fixed[i] = false;
+        int head = 0, tail = 0;
+        fixed[x] = true;
+        queue[tail++] = x;
+        while (head < tail) {
+            int u = queue[head++];
+            int end = g.edgeStart(u + 1);
+            for (int e = g.edgeStart(u); e < end; e++) {
+                int v = g.target(e);
+                if (fixed[v] || g.cost(e) != oldAdj[u][v]) continue;
+                if (d[u] + g.cost(e) == d[v]) {
+                    fixed[v] = true;
+                    queue[tail++] = v;
+                }
+            }
+        }
+    }
+}
@@ -29,6 +29,10 @@ public class EdgeCostMatrix {
     private static double[][] costMatrix;
     // controls the matrix creation, so that it is populated ONCE ONLY
     private static boolean matrixExists = false;
+    // the largest finite cost in the matrix, or -1 if not yet found
+    private static double maxCost = -1;
+    // incremented whenever the matrix is set, populated or reset
+    private static long version = 0;
 
     /**
      * Thou shall not instantiate this class.
@@ -73,6 +77,7 @@ public class EdgeCostMatrix {
                 }
             
             matrixExists = true;    // store matrix
+            version++;
         }
     }
 
@@ -99,6 +104,7 @@ public class EdgeCostMatrix {
             }
             costMatrix = m;         // store matrix            
             matrixExists = true;    // update status
+            version++;
         }
     }
 
@@ -130,6 +136,29 @@ public class EdgeCostMatrix {
         return costMatrix[i][j];
     }
 
+    /**
+     * Returns the largest finite cost of any edge in the matrix. It is
+     * found once, after the matrix is populated or set.
+     *
+     * @throws  AssertionException If cost matrix has not been populated.
+     * @return  the largest finite cost, or 0 if there is none
+     */
+    public static double getMaxCost() {
+        Assertion.asrt( costMatrix != null,
+            "Obtaining the largest cost in the matrix",
+            "ERROR!!! costMatrix does not exist. Use setMatrix to set one");
+        if (maxCost < 0) {
+            double max = 0;
+            for (int i = 0; i < costMatrix.length; i++)
+                for (int j = 0; j < costMatrix[i].length; j++)
+                    if (costMatrix[i][j] > max &&
+                        costMatrix[i][j] != Double.POSITIVE_INFINITY)
+                        max = costMatrix[i][j];
+            maxCost = max;
+        }
+        return maxCost;
+    }
+
     /**
      * Returns a value which is equal to the height or width of the matrix
      * 
@@ -157,5 +186,17 @@ public class EdgeCostMatrix {
     public static void reset() {
         matrixExists = false;
         costMatrix = null;
+        maxCost = -1;
+        version++;
+    }
+
+    /**
+     * Returns the version of the matrix, which is incremented whenever the
+     * matrix is set, populated or reset. A cost computed from the matrix
+     * remains valid while the version is unchanged.
+     * @return  the version of the matrix
+     */
+    public static long getVersion() {
+        return version;
     }
 }
@@ -0,0 +1,362 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import java.util.Arrays;
+import utility.*;
+
+/**
+ * This is an engine that calculates the effective (electrical) resistance
+ * between every pair of nodes in the network. Each link is treated as a
+ * resistor, whose resistance is the edge cost, or 1 if unit resistance is
+ * used. A link is conductive in both directions, so links in opposite
+ * directions between two nodes are resistors in parallel.<p>
+ *
+ * Unlike <code>BFSResistance</code>, which enumerates every path and treats
+ * the paths as independent, this engine solves Kirchhoff's laws exactly
+ * through the weighted graph Laplacian <b>L</b>, where
+ * <code>L[i][i]</code> is the sum of the conductances at node "i", and
+ * <code>L[i][j]</code> is minus the conductance between "i" and "j". In
+ * each connected component, one node is grounded, and the remaining rows
+ * and columns of <b>L</b> form a symmetric, positive definite matrix
+ * <b>A</b>. With <b>G</b> = <b>A</b>^-1, the resistance between "i" and
+ * "j" is <code>G[i][i] + G[j][j] - 2G[i][j]</code>, and the resistance
+ * between "i" and the ground is <code>G[i][i]</code>.<p>
+ *
+ * <b>A</b> is inverted by a dense Cholesky factorisation for components
+ * of up to <code>getDenseLimit()</code> nodes, in O(k^3). Larger
+ * components are solved column by column with the conjugate gradient
+ * method, preconditioned by the diagonal of <b>A</b>, which only touches
+ * the links, in O(k E) per iteration. Either way, the memory used is
+ * O(n^2), like the resulting matrix.<p>
+ *
+ * The arrays are not kept between calls, but an instance of this class
+ * must still not be shared between threads.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     Resistance
+ * @see     BFSResistance
+ */
+public class ElectricalResistance {
+    /**
+     * The default size of the largest component inverted by the dense
+     * Cholesky factorisation.
+     */
+    public static final int DEFAULT_DENSE_LIMIT = 400;
+
+    // the resistance given to links of zero cost, to keep L finite
+    private static final double MIN_RESISTANCE = 1e-12;
+    // the relative residual at which the conjugate gradient method stops
+    private static final double TOLERANCE = 1e-12;
+
+    // determines if unit resistance will be used
+    private boolean useUnitResistance;
+    // the largest component inverted by the dense Cholesky factorisation
+    private int denseLimit = DEFAULT_DENSE_LIMIT;
+
+    // the links of the undirected network in CSR format, with conductances
+    private int[]    linkStart;
+    private int[]    linkTarget;
+    private double[] conductance;
+    // the sum of the conductances at each node
+    private double[] degree;
+
+    /**
+     * Constructs a default instance of ElectricalResistance, which will use
+     * the actual edge cost as the resistance of a link.
+     */
+    public ElectricalResistance() {
+        useUnitResistance = false;
+    }
+
+    /**
+     * Constructs an instance of ElectricalResistance, specifying whether
+     * unit resistance will be used.
+     * @param   use     set to <code>true</code>, if using unit resistance is
+     *                  desired.
+     */
+    public ElectricalResistance(boolean use) {
+        useUnitResistance = use;
+    }
+
+    /**
+     * Sets the size of the largest component inverted by the dense Cholesky
+     * factorisation. Larger components are solved by the conjugate gradient
+     * method.
+     * @param   limit   the number of nodes
+     * @throws  PreconditionException if the limit is negative
+     */
+    public void setDenseLimit(int limit) throws PreconditionException {
+        Assertion.pre( limit >= 0, "Dense limit is " + limit,
+                       "ERROR!!! The dense limit MUST NOT be negative");
+        denseLimit = limit;
+    }
+
+    /**
+     * Returns the size of the largest component inverted by the dense
+     * Cholesky factorisation.
+     * @return  the number of nodes
+     */
+    public int getDenseLimit() {
+        return denseLimit;
+    }
+
+    /**
+     * Calculates the effective resistance between every pair of nodes in
+     * the network represented by a chromosome.
+     *
+     * @param   c   the chromosome which the resistance is to be determined
+     * @return  the n x n matrix of resistance, which is symmetric, with
+     *          <code>Double.POSITIVE_INFINITY</code> between nodes that are
+     *          not connected
+     */
+    public double[][] getResistance(Chromosome c) {
+        return getResistance(c.getSparseGraph(useUnitResistance));
+    }
+
+    /**
+     * Calculates the effective resistance between every pair of nodes in a
+     * network. The cost of each edge is its resistance.
+     *
+     * @param   g   the network
+     * @return  the n x n matrix of resistance, which is symmetric, with
+     *          <code>Double.POSITIVE_INFINITY</code> between nodes that are
+     *          not connected
+     */
+    public double[][] getResistance(SparseGraph g) {
+        int n = g.numNodes();
+        buildLaplacian(g);
+
+        double[][] result = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(result[i], Double.POSITIVE_INFINITY);
+            result[i][i] = 0.0;
+        }
+
+        // label the connected components, and list the nodes of each
+        int[] component = new int[n];
+        int[] members   = new int[n];
+        Arrays.fill(component, -1);
+        int count = 0;
+        for (int s = 0; s < n; s++) {
+            if (component[s] >= 0) continue;
+            int head = count, tail = count;
+            component[s] = s;
+            members[tail++] = s;
+            while (head < tail) {
+                int u = members[head++];
+                for (int e = linkStart[u]; e < linkStart[u + 1]; e++) {
+                    int v = linkTarget[e];
+                    if (component[v] >= 0) continue;
+                    component[v] = s;
+                    members[tail++] = v;
+                }
+            }
+            solveComponent(members, count, tail, result);
+            count = tail;
+        }
+        linkStart = null;
+        linkTarget = null;
+        conductance = null;
+        degree = null;
+        return result;
+    }
+
+    /**
+     * Builds the undirected links and their conductances from the directed
+     * edges. Every edge appears in the lists of both of its end nodes.
+     */
+    private void buildLaplacian(SparseGraph g) {
+        int n = g.numNodes();
+        linkStart = new int[n + 1];
+        for (int u = 0; u < n; u++)
+            for (int e = g.edgeStart(u); e < g.edgeStart(u + 1); e++) {
+                linkStart[u + 1]++;
+                linkStart[g.target(e) + 1]++;
+            }
+        for (int u = 0; u < n; u++) linkStart[u + 1] += linkStart[u];
+
+        linkTarget  = new int[linkStart[n]];
+        conductance = new double[linkStart[n]];
+        degree      = new double[n];
+        int[] next  = (int[]) linkStart.clone();
+        for (int u = 0; u < n; u++)
+            for (int e = g.edgeStart(u); e < g.edgeStart(u + 1); e++) {
+                int v = g.target(e);
+                double w = 1.0 / Math.max(g.cost(e), MIN_RESISTANCE);
+                linkTarget[next[u]]  = v;
+                conductance[next[u]] = w;
+                next[u]++;
+                linkTarget[next[v]]  = u;
+                conductance[next[v]] = w;
+                next[v]++;
+                degree[u] += w;
+                degree[v] += w;
+            }
+    }
+
+    /**
+     * Determines the resistance between the nodes of one connected
+     * component, listed in members[from,to). The first node is grounded.
+     */
+    private void solveComponent(int[] members, int from, int to,
+    double[][] result) {
+        int k = to - from - 1;      // the size of the grounded system
+        if (k <= 0) return;
+        int n = result.length;
+        int ground = members[from];
+        // the position of each node in the grounded system, or -1
+        int[] local = new int[n];
+        Arrays.fill(local, -1);
+        for (int a = 0; a < k; a++) local[members[from + 1 + a]] = a;
+
+        double[][] inverse = (k + 1 <= denseLimit) ?
+                             denseInverse(members, from + 1, k, local) :
+                             iterativeInverse(members, from + 1, k, local);
+
+        for (int a = 0; a < k; a++) {
+            int i = members[from + 1 + a];
+            result[i][ground] = inverse[a][a];
+            result[ground][i] = inverse[a][a];
+            for (int b = a + 1; b < k; b++) {
+                int j = members[from + 1 + b];
+                double r = inverse[a][a] + inverse[b][b] - 2.0 * inverse[a][b];
+                // rounding may leave a tiny negative value
+                if (r < 0.0) r = 0.0;
+                result[i][j] = r;
+                result[j][i] = r;
+            }
+        }
+    }
+
+    /**
+     * Builds the grounded Laplacian of a component as a dense matrix, and
+     * inverts it with the Cholesky factorisation A = R R^T.
+     */
+    private double[][] denseInverse(int[] members, int first, int k,
+    int[] local) {
+        double[][] a = new double[k][k];
+        for (int p = 0; p < k; p++) {
+            int u = members[first + p];
+            a[p][p] = degree[u];
+            for (int e = linkStart[u]; e < linkStart[u + 1]; e++) {
+                int q = local[linkTarget[e]];
+                if (q >= 0) a[p][q] -= conductance[e];
+            }
+        }
+
+        // factorise in place; the lower triangle holds R
+        for (int j = 0; j < k; j++) {
+            double[] aj = a[j];
+            double d = aj[j];
+            for (int m = 0; m < j; m++) d -= aj[m] * aj[m];
+            d = Math.sqrt(d);
+            aj[j] = d;
+            for (int i = j + 1; i < k; i++) {
+                double[] ai = a[i];
+                double s = ai[j];
+                for (int m = 0; m < j; m++) s -= ai[m] * aj[m];
+                ai[j] = s / d;
+            }
+        }
+
+        // solve R R^T x = e_c for every column "c" of the inverse
+        double[][] inverse = new double[k][k];
+        double[] x = new double[k];
+        for (int c = 0; c < k; c++) {
+            Arrays.fill(x, 0.0);
+            x[c] = 1.0;
+            // forward substitution, R y = e_c, starting from row "c"
+            for (int i = c; i < k; i++) {
+                double s = x[i];
+                double[] ai = a[i];
+                for (int m = c; m < i; m++) s -= ai[m] * x[m];
+                x[i] = s / ai[i];
+            }
+            // backward substitution, R^T x = y
+            for (int i = k - 1; i >= 0; i--) {
+                double s = x[i];
+                for (int m = i + 1; m < k; m++) s -= a[m][i] * x[m];
+                x[i] = s / a[i][i];
+            }
+            for (int i = 0; i < k; i++) inverse[i][c] = x[i];
+        }
+        return inverse;
+    }
+
+    /**
+     * Inverts the grounded Laplacian of a component column by column with
+     * the conjugate gradient method, preconditioned by its diagonal.
+     */
+    private double[][] iterativeInverse(int[] members, int first, int k,
+    int[] local) {
+        double[][] inverse = new double[k][];
+        double[] r  = new double[k];
+        double[] z  = new double[k];
+        double[] p  = new double[k];
+        double[] ap = new double[k];
+        double[] diag = new double[k];
+        for (int a = 0; a < k; a++) diag[a] = degree[members[first + a]];
+
+        for (int c = 0; c < k; c++) {
+            double[] x = new double[k];
+            Arrays.fill(r, 0.0);
+            r[c] = 1.0;
+            double rz = 0.0;
+            for (int a = 0; a < k; a++) {
+                z[a] = r[a] / diag[a];
+                p[a] = z[a];
+                rz  += r[a] * z[a];
+            }
+            for (int iter = 0; iter < 10 * k; iter++) {
+                multiply(members, first, k, local, p, ap);
+                double pap = 0.0;
+                for (int a = 0; a < k; a++) pap += p[a] * ap[a];
+                double alpha = rz / pap;
+                double norm = 0.0;
+                for (int a = 0; a < k; a++) {
+                    x[a] += alpha * p[a];
+                    r[a] -= alpha * ap[a];
+                    norm += r[a] * r[a];
+                }
+                // the right hand side is a unit vector, so its norm is 1
+                if (norm < TOLERANCE * TOLERANCE) break;
+                double rzNew = 0.0;
+                for (int a = 0; a < k; a++) {
+                    z[a] = r[a] / diag[a];
+                    rzNew += r[a] * z[a];
+                }
+                double beta = rzNew / rz;
+                rz = rzNew;
+                for (int a = 0; a < k; a++) p[a] = z[a] + beta * p[a];
+            }
+            inverse[c] = x;
+        }
+        // the inverse is symmetric, so the columns may be used as rows
+        return inverse;
+    }
+
+    /**
+     * Multiplies the grounded Laplacian of a component by a vector.
+     */
+    private void multiply(int[] members, int first, int k, int[] local,
+    double[] x, double[] y) {
+        for (int a = 0; a < k; a++) {
+            int u = members[first + a];
+            double s = degree[u] * x[a];
+            for (int e = linkStart[u]; e < linkStart[u + 1]; e++) {
+                int q = local[linkTarget[e]];
+                if (q >= 0) s -= conductance[e] * x[q];
+            }
+            y[a] = s;
+        }
+    }
+}
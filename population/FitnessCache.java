@@ -0,0 +1,336 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// importing packages
+import java.util.*;
+import utility.*;
+import population.graph.*;
+
+/**
+ * Remembers the fitness values of the networks evaluated recently, so that
+ * a network recreated later, such as a clone of an elite or a champion
+ * exchanged between populations, need not be evaluated again by every cost
+ * function.<p>
+ *
+ * The networks are looked up by the Zobrist hash of their links, combined
+ * with the configuration they were evaluated in: the cost functions, the
+ * version of <code>EdgeCostMatrix</code>, the precision of the costs and
+ * which nodes are deactivated. A network only matches an entry if its
+ * links, node list and configuration are exactly those of the entry, so a
+ * hash shared by different networks never returns a wrong fitness. The
+ * functions are compared by identity, and each is assumed to give the same
+ * fitness whenever it is applied to the same network in the same
+ * configuration.<p>
+ *
+ * The cache holds at most a given number of networks. The entries are
+ * split into segments by their hash, each with its own lock and an equal
+ * share of the capacity, and once a segment is full, the network it used
+ * least recently is evicted. A cache of several segments may be shared by
+ * threads evaluating at once; a cache of one segment is simply a
+ * synchronized LRU cache.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     Chromosome#getHash
+ */
+public class FitnessCache {
+    /**
+     * The name of the system property holding the capacity of the default
+     * cache.
+     */
+    public static final String CAPACITY_PROPERTY = "netsim.fitness.cache";
+
+    /**
+     * The number of networks held by the default cache, unless the system
+     * property <code>netsim.fitness.cache</code> is set.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // the number of segments given to each processor by newConcurrent
+    private static final int SEGMENTS_PER_PROCESSOR = 4;
+
+    // the cache shared by the evolutions which choose it
+    private static FitnessCache defaultCache;
+
+    // the entries of each segment, in order of their last use
+    private final LinkedHashMap[] segments;
+    // the number of hits and misses of each segment
+    private final long[] hits;
+    private final long[] misses;
+    // the number of networks held by each segment
+    private final int segmentCapacity;
+
+    /**
+     * Creates a cache of one segment, holding at most a given number of
+     * networks.
+     * @param   capacity    the maximum number of networks held
+     * @throws  PreconditionException if the capacity is not positive
+     */
+    public FitnessCache(int capacity) throws PreconditionException {
+        this(capacity, 1);
+    }
+
+    /**
+     * Creates a cache of several segments, holding at most a given number
+     * of networks. Threads looking up networks of different segments do
+     * not wait for each other.
+     * @param   capacity    the maximum number of networks held
+     * @param   numSegments the number of segments
+     * @throws  PreconditionException if the capacity or the number of
+     *          segments is not positive
+     */
+    public FitnessCache(int capacity, int numSegments)
+    throws PreconditionException {
+        Assertion.pre( capacity > 0, "The cache holds " + capacity,
+                       "ERROR!!! The capacity MUST be positive");
+        Assertion.pre( numSegments > 0, numSegments + " segments",
+                       "ERROR!!! The number of segments MUST be positive");
+        numSegments = Math.min(numSegments, capacity);
+        segments = new LinkedHashMap[numSegments];
+        hits   = new long[numSegments];
+        misses = new long[numSegments];
+        segmentCapacity = (capacity + numSegments - 1) / numSegments;
+        for (int s = 0; s < numSegments; s++) {
+            segments[s] = new LinkedHashMap(16, 0.75f, true) {
+                protected boolean removeEldestEntry(Map.Entry eldest) {
+                    return size() > segmentCapacity;
+                }
+            };
+        }
+    }
+
+    /**
+     * Creates a cache to be shared by threads, with several segments for
+     * each available processor.
+     * @param   capacity    the maximum number of networks held
+     * @return  the cache
+     * @throws  PreconditionException if the capacity is not positive
+     */
+    public static FitnessCache newConcurrent(int capacity)
+    throws PreconditionException {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return new FitnessCache(capacity, SEGMENTS_PER_PROCESSOR * processors);
+    }
+
+    /**
+     * Returns a cache to be shared by the evolutions which choose it, so
+     * that a network exchanged between populations is found by each of
+     * them. It is created on the first call, with the capacity
+     * given by the system property <code>netsim.fitness.cache</code>.
+     * @return  the default cache
+     */
+    public static synchronized FitnessCache getDefault() {
+        if (defaultCache == null) {
+            int capacity = Integer.getInteger(CAPACITY_PROPERTY,
+                DEFAULT_CAPACITY).intValue();
+            defaultCache = newConcurrent(Math.max(1, capacity));
+        }
+        return defaultCache;
+    }
+
+    /**
+     * Looks up the fitness values of a network evaluated before by the
+     * same cost functions in the same configuration.
+     * @param   c       the network
+     * @param   func    the cost functions, in the order they are applied
+     * @return  a copy of the fitness values, or <code>null</code> if the
+     *          network is not held
+     */
+    public double[] get(Chromosome c, Function[] func) {
+        long[] deactivated = deactivated(c.getNodeList());
+        Long key = Long.valueOf(key(c, func, deactivated));
+        int s = segment(key.longValue());
+        synchronized (segments[s]) {
+            Entry e = (Entry) segments[s].get(key);
+            if (e != null && e.matches(c, func, deactivated)) {
+                hits[s]++;
+                return (double[]) e.fitness.clone();
+            }
+            misses[s]++;
+            return null;
+        }
+    }
+
+    /**
+     * Remembers the fitness values of a network, which have been assigned
+     * by the cost functions. The network used least recently is evicted if
+     * the cache is full.
+     * @param   c       the network, whose fitness values are stored
+     * @param   func    the cost functions, in the order they were applied
+     * @throws  PreconditionException if the network has no fitness values
+     */
+    public void put(Chromosome c, Function[] func)
+    throws PreconditionException {
+        Assertion.pre( c.getFitnessArr() != null,
+                       "The fitness values are stored",
+                       "ERROR!!! The network has NOT been evaluated");
+        long[] deactivated = deactivated(c.getNodeList());
+        Long key = Long.valueOf(key(c, func, deactivated));
+        Entry e = new Entry(c, func, deactivated);
+        int s = segment(key.longValue());
+        synchronized (segments[s]) {
+            segments[s].put(key, e);
+        }
+    }
+
+    /**
+     * Removes every network from the cache. The counts of hits and misses
+     * are kept.
+     */
+    public void clear() {
+        for (int s = 0; s < segments.length; s++)
+            synchronized (segments[s]) {
+                segments[s].clear();
+            }
+    }
+
+    /**
+     * Returns the number of networks held.
+     * @return  the number of networks held
+     */
+    public int size() {
+        int size = 0;
+        for (int s = 0; s < segments.length; s++)
+            synchronized (segments[s]) {
+                size += segments[s].size();
+            }
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of networks held.
+     * @return  the capacity of this cache
+     */
+    public int getCapacity() {
+        return segmentCapacity * segments.length;
+    }
+
+    /**
+     * Returns the number of segments of this cache.
+     * @return  the number of segments
+     */
+    public int getNumSegments() {
+        return segments.length;
+    }
+
+    /**
+     * Returns the number of networks found by <code>get</code>.
+     * @return  the number of hits
+     */
+    public long getHits() {
+        long total = 0;
+        for (int s = 0; s < segments.length; s++)
+            synchronized (segments[s]) {
+                total += hits[s];
+            }
+        return total;
+    }
+
+    /**
+     * Returns the number of networks not found by <code>get</code>.
+     * @return  the number of misses
+     */
+    public long getMisses() {
+        long total = 0;
+        for (int s = 0; s < segments.length; s++)
+            synchronized (segments[s]) {
+                total += misses[s];
+            }
+        return total;
+    }
+
+    /**
+     * Returns the counts and the size of this cache.
+     */
+    public String toString() {
+        long h = getHits();
+        long m = getMisses();
+        double rate = (h + m == 0) ? 0.0 : (double) h / (h + m);
+        return "FitnessCache: " + size() + "/" + getCapacity() +
+               " networks, " + h + " hits, " + m + " misses (" +
+               Math.round(rate * 1000) / 10.0 + "% hit rate)";
+    }
+
+    /**
+     * Returns the segment holding a key.
+     */
+    private int segment(long key) {
+        int h = (int) (key ^ (key >>> 32));
+        return (h & 0x7FFFFFFF) % segments.length;
+    }
+
+    /**
+     * Combines the hash of the links of a network with its configuration.
+     */
+    private static long key(Chromosome c, Function[] func,
+                            long[] deactivated) {
+        long key = c.getHash();
+        for (int i = 0; i < func.length; i++)
+            key = key * 31 + System.identityHashCode(func[i]);
+        key = key * 31 + EdgeCostMatrix.getVersion();
+        key = key * 31 + Precision.getMode();
+        key = key * 31 + System.identityHashCode(c.getNodeList());
+        for (int w = 0; w < deactivated.length; w++)
+            key = key * 31 + deactivated[w];
+        return key;
+    }
+
+    /**
+     * Gives the deactivated nodes of a node list as a bitset, in which bit
+     * "i" is set if node "i" is deactivated.
+     */
+    private static long[] deactivated(ArrayList nodes) {
+        long[] bits = new long[(nodes.size() + 63) >>> 6];
+        for (int i = 0; i < nodes.size(); i++) {
+            Object node = nodes.get(i);
+            if (node instanceof Repairable && !((Repairable) node).activated())
+                bits[i >>> 6] |= 1L << i;
+        }
+        return bits;
+    }
+
+    /**
+     * A network held by the cache, with the configuration it was evaluated
+     * in and its fitness values.
+     */
+    private static class Entry {
+        // a copy of the links, which is not altered by later changes
+        private final Genome links;
+        private final ArrayList nodes;
+        private final Function[] func;
+        private final long costVersion;
+        private final int precision;
+        private final long[] deactivated;
+        private final double[] fitness;
+
+        private Entry(Chromosome c, Function[] f, long[] off) {
+            links       = new IntGenome(c.getGenome());
+            nodes       = c.getNodeList();
+            func        = (Function[]) f.clone();
+            costVersion = EdgeCostMatrix.getVersion();
+            precision   = Precision.getMode();
+            deactivated = off;
+            fitness     = (double[]) c.getFitnessArr().clone();
+        }
+
+        /**
+         * Checks whether a network in a configuration is exactly this one.
+         */
+        private boolean matches(Chromosome c, Function[] f, long[] off) {
+            if (c.getNodeList() != nodes || f.length != func.length ||
+                costVersion != EdgeCostMatrix.getVersion() ||
+                precision != Precision.getMode() ||
+                !Arrays.equals(off, deactivated)) return false;
+            for (int i = 0; i < func.length; i++)
+                if (f[i] != func[i]) return false;
+            return c.hasLinks(links);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+/**
+ * The links of a network held by a <code>Chromosome</code>. Row "i" lists
+ * the destinations of the outgoing links of node "i", in the order they
+ * were added, and every destination is given by its index in the node
+ * list. The genetic operators and the cost functions work on these
+ * indices, so they never need to search the node list for a node.<p>
+ *
+ * A genome only holds the links. It does not know the nodes, and does not
+ * check whether a link is duplicated or links a node to itself; that is
+ * left to the operators, as it was with the lists of nodes.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     IntGenome
+ * @see     BitGenome
+ * @see     Chromosome
+ */
+public interface Genome {
+    /**
+     * Returns the number of nodes, which is the number of rows.
+     * @return  the number of nodes in the network
+     */
+    public int numNodes();
+
+    /**
+     * Returns the number of outgoing links of a node.
+     * @param   i   the index of the node
+     * @return  the number of destinations in row "i"
+     */
+    public int degree(int i);
+
+    /**
+     * Returns a destination of a node.
+     * @param   i   the index of the node
+     * @param   k   the position of the destination in row "i", from 0 to
+     *              <code>degree(i)</code>-1
+     * @return  the index of the destination node
+     */
+    public int target(int i, int k);
+
+    /**
+     * Checks whether a node links to another node.
+     * @param   i   the index of the source node
+     * @param   j   the index of the destination node
+     * @return  <code>true</code>, if "j" is a destination of "i"
+     */
+    public boolean contains(int i, int j);
+
+    /**
+     * Adds a destination to the end of a row.
+     * @param   i   the index of the source node
+     * @param   j   the index of the destination node
+     */
+    public void add(int i, int j);
+
+    /**
+     * Removes a destination from a row. The destinations after it are
+     * moved forward by one position.
+     * @param   i   the index of the source node
+     * @param   k   the position of the destination in row "i"
+     * @return  the index of the removed destination node
+     */
+    public int removeAt(int i, int k);
+
+    /**
+     * Exchanges row "i" of this genome with row "i" of another genome of
+     * the same number of nodes.
+     * @param   other   the other genome
+     * @param   i       the index of the row
+     */
+    public void swapRow(Genome other, int i);
+
+    /**
+     * Returns the total number of links.
+     * @return  the sum of the degrees of all nodes
+     */
+    public int numEdges();
+
+    /**
+     * Gives the destinations of a node as a bitset. Bit "j" of the result
+     * is set if node "i" links to node "j", and every other bit is cleared.
+     * @param   i       the index of the node
+     * @param   bits    the array to receive the bits of row "i", of at
+     *                  least (<code>numNodes()</code>+63)/64 words
+     */
+    public void getBits(int i, long[] bits);
+
+    /**
+     * Returns a copy of this genome. Altering either genome afterwards does
+     * not alter the other, though they may share rows until then.
+     * @return  the copy
+     */
+    public Genome copy();
+}
@@ -0,0 +1,397 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import java.util.ArrayList;
+import utility.*;
+import population.graph.*;
+
+/**
+ * A read-only <code>Graph</code> of the network represented by a
+ * chromosome, which is a view over the links of the chromosome and its node
+ * list. It is used instead of <code>Chromosome.getGraph</code> when only the
+ * degrees, the loads or the statistics of the nodes are needed, since that
+ * method clones every node and creates an <code>EdgeImp</code> for every
+ * link.<p>
+ *
+ * The view holds the same edges, in the same order, as the graph built by
+ * <code>getGraph</code>: links from or to a deactivated node are left out,
+ * and so are the links to a node that has reached its maximum operating
+ * efficiency. The usage that <code>GraphImp.addEdge</code> adds to both
+ * ends of every edge is accumulated in an array, rather than in clones of
+ * the nodes, so the load of each node is the load of its clone in that
+ * graph. The edges are held as arrays of node indices; the
+ * <code>Edge</code> objects are only created if an edge is asked for, which
+ * no cost function does.<p>
+ *
+ * The nodes returned are those of the node list, which are shared by the
+ * whole population. They must not be altered, and their own degrees and
+ * statistics are not those of this graph; use the methods of this graph
+ * instead. Nodes and edges cannot be added.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     Chromosome#getGraphView()
+ * @see     ServerLoad
+ */
+public class GraphView implements Graph, GraphStat {
+    // the list of nodes, shared with the chromosome
+    private final ArrayList nodes;
+    // the number of nodes
+    private final int n;
+    // the offset of the first outgoing edge of each node; length n+1
+    private final int[] outStart;
+    // the index of the destination node of each edge
+    private final int[] target;
+    // the offset of the first incoming edge of each node; length n+1
+    private final int[] inStart;
+    // the ids of the incoming edges of each node, in order of addition
+    private final int[] inEdge;
+    /**
+     * the number of connections to different types of nodes, as in
+     * <code>Node.getStats</code>: {to servers, from servers, to clients,
+     * from clients} for each node
+     */
+    private final int[][] stats;
+    // the operating efficiency of each node after adding the edges
+    private final double[] efficiency;
+    // the number of server and client nodes
+    private int numServer = 0, numClient = 0;
+    // the edges, created only when they are asked for
+    private ArrayList edgeList = null;
+
+    /**
+     * Constructs the view of the network of a chromosome. The links are
+     * visited once, and only arrays of numbers are allocated.
+     * @param   c   the chromosome representing the network
+     */
+    GraphView(Chromosome c) {
+        nodes = c.getNodeList();
+        n     = c.getLength();
+        outStart   = new int[n + 1];
+        inStart    = new int[n + 1];
+        stats      = new int[n][4];
+        efficiency = new double[n];
+
+        // the type of each node: 0 for servers, 1 for clients, -1 otherwise
+        int[] type = new int[n];
+        boolean[] active = new boolean[n];
+        int bound = 0;
+        for (int i = 0; i < n; i++) {
+            NodeImp node = (NodeImp) nodes.get(i);
+            String label = node.getLabel().toUpperCase();
+            if (label.startsWith("SERVER")) {
+                type[i] = 0;
+                numServer++;
+            } else if (label.startsWith("CLIENT")) {
+                type[i] = 1;
+                numClient++;
+            } else type[i] = -1;
+            active[i]     = node.activated();
+            efficiency[i] = node.getEfficiency();
+            if (active[i]) bound += c.getDegree(i);
+        }
+
+        // add the edges in the order of Chromosome.getGraph
+        int[] dest = new int[bound];
+        int e = 0;
+        for (int i = 0; i < n; i++) {
+            outStart[i] = e;
+            if (!active[i]) continue;
+            for (int k = 0; k < c.getDegree(i); k++) {
+                int to = c.getLink(i, k);
+                if (!active[to]) continue;
+                // the destination cannot accept any more connections
+                if (1.0 - efficiency[to] < GraphImp.NODE_INCREMENT) continue;
+                dest[e++] = to;
+                if (type[to] == 0)      stats[i][0]++;
+                else if (type[to] == 1) stats[i][2]++;
+                if (type[i] == 0)       stats[to][1]++;
+                else if (type[i] == 1)  stats[to][3]++;
+                inStart[to + 1]++;
+                // the usage of both ends is increased, as in addEdge
+                increUsage(i);
+                increUsage(to);
+            }
+        }
+        outStart[n] = e;
+        target = dest;
+
+        // list the incoming edges of each node, in order of addition
+        for (int i = 0; i < n; i++) inStart[i + 1] += inStart[i];
+        inEdge = new int[e];
+        int[] next = new int[n];
+        System.arraycopy(inStart, 0, next, 0, n);
+        for (int i = 0; i < n; i++)
+            for (int id = outStart[i]; id < outStart[i + 1]; id++)
+                inEdge[next[target[id]]++] = id;
+    }
+
+    /**
+     * Increases the efficiency of a node, as
+     * <code>NodeImp.increUsage</code> does.
+     */
+    private void increUsage(int i) {
+        if (GraphImp.NODE_INCREMENT <= 1.0 - efficiency[i])
+            efficiency[i] += GraphImp.NODE_INCREMENT;
+    }
+
+    /**
+     * Returns the operating efficiency of a node, after the usage of its
+     * edges has been added.
+     * @param   i   the index of the node
+     * @return  the efficiency of the node, between 0.0 and 1.0
+     */
+    public double getEfficiency(int i) {
+        return efficiency[i];
+    }
+
+    /**
+     * Returns the load factor of a node, which is the ratio between its
+     * usage and its available capacity, as in <code>NodeImp.getLoad</code>.
+     * @param   i   the index of the node
+     * @return  the load factor of the node
+     */
+    public double getLoad(int i) {
+        return efficiency[i] / (1.0 - efficiency[i]);
+    }
+
+    /**
+     * Returns the number of outgoing edges of a node.
+     * @param   i   the index of the node
+     * @return  the out-degree of the node
+     */
+    public int outDegree(int i) {
+        return outStart[i + 1] - outStart[i];
+    }
+
+    /**
+     * Returns the number of incoming edges of a node.
+     * @param   i   the index of the node
+     * @return  the in-degree of the node
+     */
+    public int inDegree(int i) {
+        return inStart[i + 1] - inStart[i];
+    }
+
+    /**
+     * implementing the Graph interface
+     */
+
+    public int numNodes() {
+        return n;
+    }
+
+    public int numEdges() {
+        return outStart[n];
+    }
+
+    public boolean hasNode(Node node) {
+        return IdRegistry.indexOf(nodes, node) >= 0;
+    }
+
+    public boolean hasEdge(Edge e) {
+        return IdRegistry.indexOf(edges(), e) >= 0;
+    }
+
+    public boolean hasEdge(Node from, Node to) throws PreconditionException {
+        return findEdge(nodeId(from), nodeId(to)) >= 0;
+    }
+
+    public int nodeId(Node node) throws PreconditionException {
+        int id = IdRegistry.indexOf(nodes, node);
+        Assertion.pre( id >= 0, "The node exists in the graph",
+                                "The node must exist in the graph");
+        return id;
+    }
+
+    public int edgeId(Edge e) throws PreconditionException {
+        int id = IdRegistry.indexOf(edges(), e);
+        Assertion.pre( id >= 0, "The edge exists in the graph",
+                                "The edge must exist in the graph");
+        return id;
+    }
+
+    public Node getNode(int id) {
+        return (id >= 0 && id < n) ? (Node) nodes.get(id) : null;
+    }
+
+    public int inDegree(Node node) throws PreconditionException {
+        return inDegree(nodeId(node));
+    }
+
+    public int outDegree(Node node) throws PreconditionException {
+        return outDegree(nodeId(node));
+    }
+
+    public Edge getEdge(int id) {
+        return (id >= 0 && id < numEdges()) ? (Edge) edges().get(id) : null;
+    }
+
+    public Edge getEdge(Node from, Node to) throws PreconditionException {
+        return getEdge(findEdge(nodeId(from), nodeId(to)));
+    }
+
+    public Node firstNode() {
+        return getNode(0);
+    }
+
+    public Node nextNode(Node node) throws PreconditionException {
+        return getNode(nodeId(node) + 1);
+    }
+
+    public Edge firstEdge() {
+        return getEdge(0);
+    }
+
+    public Edge nextEdge(Edge e) throws PreconditionException {
+        return getEdge(edgeId(e) + 1);
+    }
+
+    public Edge firstEdgeTo(Node node) throws PreconditionException {
+        int i = nodeId(node);
+        return (inDegree(i) == 0) ? null : getEdge(inEdge[inStart[i]]);
+    }
+
+    public Edge lastEdgeTo(Node node) throws PreconditionException {
+        int i = nodeId(node);
+        return (inDegree(i) == 0) ? null : getEdge(inEdge[inStart[i+1] - 1]);
+    }
+
+    public Edge firstEdgeFrom(Node node) throws PreconditionException {
+        int i = nodeId(node);
+        return (outDegree(i) == 0) ? null : getEdge(outStart[i]);
+    }
+
+    public Edge lastEdgeFrom(Node node) throws PreconditionException {
+        int i = nodeId(node);
+        return (outDegree(i) == 0) ? null : getEdge(outStart[i + 1] - 1);
+    }
+
+    public Edge nextEdgeTo(Node node, Edge e) throws PreconditionException {
+        int i  = nodeId(node);
+        int id = edgeId(e);
+        Assertion.pre( target[id] == i,
+                       "The edge's toNode is the parameter node",
+                       "The edge's toNode must be the parameter node");
+        // the incoming edges are in ascending order of their ids
+        for (int slot = inStart[i]; slot < inStart[i + 1] - 1; slot++)
+            if (inEdge[slot] == id) return getEdge(inEdge[slot + 1]);
+        return null;
+    }
+
+    public Edge nextEdgeFrom(Node node, Edge e) throws PreconditionException {
+        int i  = nodeId(node);
+        int id = edgeId(e);
+        Assertion.pre( id >= outStart[i] && id < outStart[i + 1],
+                       "The edge's fromNode is the parameter node",
+                       "The edge's fromNode must be the parameter node");
+        return (id + 1 < outStart[i + 1]) ? getEdge(id + 1) : null;
+    }
+
+    /**
+     * The view is read-only, so a node cannot be added.
+     * @throws  AssertionException always
+     */
+    public void addNode(Node node) throws AssertionException {
+        throw new AssertionException("ERROR!!! A GraphView is read-only. " +
+                                     "Use Chromosome.getGraph instead.");
+    }
+
+    /**
+     * The view is read-only, so an edge cannot be added.
+     * @throws  AssertionException always
+     */
+    public void addEdge(Edge e) throws AssertionException {
+        throw new AssertionException("ERROR!!! A GraphView is read-only. " +
+                                     "Use Chromosome.getGraph instead.");
+    }
+
+    /**
+     * implementing the GraphStat interface
+     */
+
+    public int numServers() {
+        return numServer;
+    }
+
+    public int numClients() {
+        return numClient;
+    }
+
+    public double pleioToServer(Node node) {
+        return (double) stats[nodeId(node)][0] / (double) numServer;
+    }
+
+    public double pleioToClient(Node node) {
+        return (double) stats[nodeId(node)][2] / (double) numClient;
+    }
+
+    public double pleioToAll(Node node) {
+        return (double) outDegree(nodeId(node)) / (double) n;
+    }
+
+    public double redunFromServer(Node node) {
+        return (double) stats[nodeId(node)][1] / (double) numServer;
+    }
+
+    public double redunFromClient(Node node) {
+        return (double) stats[nodeId(node)][3] / (double) numClient;
+    }
+
+    public double redunFromAll(Node node) {
+        return (double) inDegree(nodeId(node)) / (double) n;
+    }
+
+    public double clusterFactor(Node node) {
+        int[] s = stats[nodeId(node)];
+        return (double) (s[0] + s[1] + s[2] + s[3]) / (double) n;
+    }
+
+    /**
+     * Returns the id of the first edge from one node to another, or -1 if
+     * there is none.
+     */
+    private int findEdge(int from, int to) {
+        for (int id = outStart[from]; id < outStart[from + 1]; id++)
+            if (target[id] == to) return id;
+        return -1;
+    }
+
+    /**
+     * Returns the list of edges, creating them the first time they are
+     * needed. Each edge has the label and the cost of the edge that
+     * <code>Chromosome.getGraph</code> would create.
+     */
+    private synchronized ArrayList edges() {
+        if (edgeList == null) {
+            int repgen = (int)(Math.random() * 20.0);
+            Repairable r = new Repairable(repgen, 0.30, 0.70, true);
+            double[] params = {1000, 0.0, 0.0};
+            Edge model = new EdgeImp(params, r);
+            ArrayList list = new ArrayList(numEdges());
+            for (int i = 0; i < n; i++) {
+                Node src = (Node) nodes.get(i);
+                for (int id = outStart[i]; id < outStart[i + 1]; id++) {
+                    Node dest = (Node) nodes.get(target[id]);
+                    Edge e = new EdgeImp(src, dest,
+                                 src.getLabel().toUpperCase() + "-" +
+                                 dest.getLabel().toUpperCase(), model);
+                    e.setCost(Precision.quantize(
+                        EdgeCostMatrix.getCost(i, target[id]), n));
+                    list.add(e);
+                }
+            }
+            IdRegistry.register(list);
+            edgeList = list;
+        }
+        return edgeList;
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import java.util.Arrays;
+import utility.*;
+
+/**
+ * Solves the all-pairs shortest path problem by running Dijkstra's
+ * algorithm once from every source node. Unlike <code>DijkstraMatrix</code>,
+ * which repeatedly squares the matrix with the min-plus product in
+ * O(n^3 log n), this engine only visits the edges that exist in the network.
+ * Each source costs O(E log n), which makes the whole matrix
+ * O(n E log n).<p>
+ *
+ * The priority queue is a binary heap of node indices keyed by the tentative
+ * distance, which is held in primitive arrays. The arrays are kept between
+ * calls, so an instance of this class must not be shared between threads.
+ * All edge costs must be non-negative.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     SparseGraph
+ * @see     DijkstraMatrix
+ */
+public class HeapDijkstra implements APSPEngine, Replicable {
+    // the heap of node indices, ordered by their tentative distance
+    private int[] heap = new int[0];
+    // the position of each node in the heap, -1 if it is not in the heap
+    private int[] position = new int[0];
+    // the number of nodes in the heap
+    private int heapSize;
+    // the tentative distances of the source currently being expanded
+    private double[] dist;
+
+    /**
+     * Creates an engine with buffers of its own.
+     * @return  a new engine
+     */
+    public Object replicate() {
+        return new HeapDijkstra();
+    }
+
+    /**
+     * Performs Dijkstra's algorithm from every node of an adjacency matrix.
+     * @param   adjMatrix   the adjacency matrix which the algorithm is
+     *                      operated on
+     * @return  the matrix of minimal path costs
+     * @throws  PreconditionException if the number of columns of the
+     *          matrix does not equal the number of rows of the matrix
+     */
+    public double[][] allPairs(double[][] adjMatrix)
+    throws PreconditionException {
+        return allPairs(SparseGraph.fromMatrix(adjMatrix));
+    }
+
+    /**
+     * Performs Dijkstra's algorithm from every node of a sparse graph.
+     * @param   g   the network which the algorithm is operated on
+     * @return  the matrix of minimal path costs
+     * @throws  PostconditionException if the dimension of the returned
+     *          matrix is not n x n
+     */
+    public double[][] allPairs(SparseGraph g) throws PostconditionException {
+        int n = g.numNodes();
+        double[][] result = new double[n][];
+        for (int s = 0; s < n; s++) {
+            result[s] = new double[n];
+            fromSource(g, s, result[s]);
+        }
+
+        Assertion.post( result.length == n,
+                        "The returned matrix is a " + n + " x " + n +
+                        " matrix",
+                        "The returned matrix MUST be a SQUARE matrix" );
+        return result;
+    }
+
+    /**
+     * Performs Dijkstra's algorithm from every node of a sparse graph, and
+     * holds the minimal path costs in a reduced precision. Only one row of
+     * doubles is used while the costs are found.
+     * @param   g       the network which the algorithm is operated on
+     * @param   mode    the reduced precision, as defined in
+     *                  <code>Precision</code>
+     * @param   scale   the number of units per unit of cost
+     * @return  the compact matrix of minimal path costs
+     */
+    public CompactMatrix allPairs(SparseGraph g, int mode, double scale) {
+        int n = g.numNodes();
+        CompactMatrix result = new CompactMatrix(n, mode, scale);
+        double[] row = new double[n];
+        for (int s = 0; s < n; s++) {
+            fromSource(g, s, row);
+            result.setRow(s, row);
+        }
+        return result;
+    }
+
+    /**
+     * Determines the minimal path costs from a single source node to every
+     * node in the network. Unreachable nodes will have the cost of
+     * <code>Double.POSITIVE_INFINITY</code>.
+     *
+     * @param   g       the network which the algorithm is operated on
+     * @param   source  the index of the source node
+     * @param   row     storage of length n for the result
+     */
+    public void fromSource(SparseGraph g, int source, double[] row) {
+        int n = g.numNodes();
+        ensureCapacity(n);
+        dist = row;
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+
+        heapSize = 0;
+        dist[source] = 0.0;
+        insert(source);
+
+        int u, v, end;
+        double du, alt;
+        while (heapSize > 0) {
+            u  = removeMin();
+            du = dist[u];
+            end = g.edgeStart(u + 1);
+            // relax every outgoing edge of "u"
+            for (int e = g.edgeStart(u); e < end; e++) {
+                v   = g.target(e);
+                alt = du + g.cost(e);
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    if (position[v] < 0) insert(v);
+                    else                 siftUp(position[v]);
+                }
+            }
+        }
+        dist = null;
+    }
+
+    /**
+     * Corrects the minimal path costs from a single source node, when only
+     * some of them may be wrong. The costs of the nodes marked as
+     * <code>fixed</code> must already be exact, and they are not changed.
+     * Every other node is first given the cheapest cost through an edge
+     * from a fixed node, and Dijkstra's algorithm then runs only over the
+     * nodes that are not fixed.
+     *
+     * @param   g       the network which the algorithm is operated on
+     * @param   row     the costs from the source, corrected in place
+     * @param   fixed   marks the nodes whose cost is exact
+     */
+    public void repair(SparseGraph g, double[] row, boolean[] fixed) {
+        int n = g.numNodes();
+        ensureCapacity(n);
+        dist = row;
+        heapSize = 0;
+
+        int u, v, end;
+        double alt;
+        for (v = 0; v < n; v++)
+            if (!fixed[v]) dist[v] = Double.POSITIVE_INFINITY;
+        // the cheapest cost of each remaining node through a fixed node
+        for (u = 0; u < n; u++) {
+            if (!fixed[u] || dist[u] == Double.POSITIVE_INFINITY) continue;
+            end = g.edgeStart(u + 1);
+            for (int e = g.edgeStart(u); e < end; e++) {
+                v   = g.target(e);
+                alt = dist[u] + g.cost(e);
+                if (!fixed[v] && alt < dist[v]) dist[v] = alt;
+            }
+        }
+        for (v = 0; v < n; v++)
+            if (!fixed[v] && dist[v] != Double.POSITIVE_INFINITY) insert(v);
+
+        double du;
+        while (heapSize > 0) {
+            u  = removeMin();
+            du = dist[u];
+            end = g.edgeStart(u + 1);
+            // a fixed node cannot be improved, so it is never inserted
+            for (int e = g.edgeStart(u); e < end; e++) {
+                v   = g.target(e);
+                alt = du + g.cost(e);
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    if (position[v] < 0) insert(v);
+                    else                 siftUp(position[v]);
+                }
+            }
+        }
+        dist = null;
+    }
+
+    /**
+     * Makes sure the heap can hold "n" nodes, and marks every node as not
+     * being in the heap.
+     */
+    private void ensureCapacity(int n) {
+        if (heap.length < n) {
+            heap     = new int[n];
+            position = new int[n];
+        }
+        Arrays.fill(position, 0, n, -1);
+    }
+
+    /**
+     * Adds node "v" to the heap.
+     */
+    private void insert(int v) {
+        heap[heapSize] = v;
+        position[v] = heapSize;
+        heapSize++;
+        siftUp(heapSize - 1);
+    }
+
+    /**
+     * Removes and returns the node with the smallest tentative distance.
+     * Removed nodes are settled, so their position is set to
+     * <code>Integer.MAX_VALUE</code> and they are never inserted again.
+     */
+    private int removeMin() {
+        int min = heap[0];
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        position[min] = Integer.MAX_VALUE;
+        return min;
+    }
+
+    /**
+     * Moves the node at position "i" towards the root of the heap until its
+     * parent is not further away.
+     */
+    private void siftUp(int i) {
+        int v = heap[i];
+        double key = dist[v];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[parent];
+            if (dist[p] <= key) break;
+            heap[i] = p;
+            position[p] = i;
+            i = parent;
+        }
+        heap[i] = v;
+        position[v] = i;
+    }
+
+    /**
+     * Moves the node at position "i" towards the leaves of the heap until
+     * neither child is closer.
+     */
+    private void siftDown(int i) {
+        int v = heap[i];
+        double key = dist[v];
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < heapSize && dist[heap[right]] < dist[heap[child]])
+                child = right;
+            int c = heap[child];
+            if (key <= dist[c]) break;
+            heap[i] = c;
+            position[c] = i;
+            i = child;
+        }
+        heap[i] = v;
+        position[v] = i;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+/**
+ * This interface is implemented by the engines that can count the minimal
+ * number of hops between all pairs of nodes without building the n x n
+ * matrix of hop counts. <code>DegreeSeparation</code> and
+ * <code>ClusterCoeff</code> use the aggregates directly when their engine
+ * implements this interface.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     BitParallelBFS
+ * @see     ParallelAPSP
+ */
+public interface HopCounter {
+    /**
+     * Determines the aggregates of the minimal number of hops between all
+     * pairs of nodes, without storing the hops of each pair.
+     *
+     * @param   g           the network; the edge costs are ignored
+     * @param   perNode     set <code>true</code> to also count the number of
+     *                      nodes reachable from each node
+     * @return  the aggregates of the hop counts
+     */
+    public HopStats hopStats(SparseGraph g, boolean perNode);
+}
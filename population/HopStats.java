@@ -0,0 +1,93 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+/**
+ * Holds the aggregates of the minimal number of hops between all pairs of
+ * distinct nodes in a network. Only pairs connected by a path are counted.
+ * These are the figures required by <code>DegreeSeparation</code> and
+ * <code>ClusterCoeff</code>, which can be obtained without storing the
+ * n x n matrix of hop counts.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     BitParallelBFS
+ */
+public class HopStats {
+    // the largest number of hops between any connected pair
+    private final int max;
+    // the sum of the number of hops of all connected pairs
+    private final long sum;
+    // the number of connected pairs
+    private final long count;
+    // the number of nodes reachable from each node, or null
+    private final int[] reachable;
+
+    /**
+     * Constructs the aggregates of hop counts.
+     *
+     * @param   max         the largest number of hops
+     * @param   sum         the sum of the number of hops
+     * @param   count       the number of connected pairs
+     * @param   reachable   the number of nodes reachable from each node,
+     *                      excluding itself, or <code>null</code> if not
+     *                      determined
+     */
+    public HopStats(int max, long sum, long count, int[] reachable) {
+        this.max       = max;
+        this.sum       = sum;
+        this.count     = count;
+        this.reachable = reachable;
+    }
+
+    /**
+     * Returns the maximum degree of separation in the network. This is 0 if
+     * no pair of nodes is connected.
+     * @return  the largest number of hops between any connected pair
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the total number of hops of all connected pairs.
+     * @return  the sum of hops
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * Returns the number of ordered pairs of distinct nodes that are
+     * connected by a path.
+     * @return  the number of connected pairs
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the average degree of separation in the network. This is 0 if
+     * no pair of nodes is connected.
+     * @return  the average number of hops between connected pairs
+     */
+    public double getAverage() {
+        return (count == 0) ? 0.0 : (double) sum / (double) count;
+    }
+
+    /**
+     * Returns the number of nodes reachable from each node, excluding the
+     * node itself.
+     * @return  the reachable counts, or <code>null</code> if they were not
+     *          determined
+     */
+    public int[] getReachable() {
+        return reachable;
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import java.util.Arrays;
+import utility.*;
+
+/**
+ * A genome whose rows are arrays of primitive node indices. Each row has
+ * room for more destinations than it holds, and grows by doubling, so a
+ * link is added in constant time without boxing. A row takes 4 bytes per
+ * link, instead of a reference per link and the objects of an
+ * <code>ArrayList</code>.<p>
+ *
+ * Checking whether a link exists scans the row, as
+ * <code>ArrayList.contains</code> did, but compares integers instead of
+ * calling <code>equals</code>.<p>
+ *
+ * A copy shares the rows of the original, and either genome copies a row
+ * the first time it writes to it, so copying takes a reference per node.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     Genome
+ */
+public class IntGenome implements Genome {
+    // the capacity given to an empty row when the first link is added
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int[] EMPTY = new int[0];
+
+    // the destinations of each node; only the first sizes[i] are used
+    private int[][] rows;
+    // the number of destinations of each node
+    private int[] sizes;
+    // whether each row may also be held by a copy
+    private boolean[] shared;
+
+    /**
+     * Constructs a genome of "n" nodes without any link.
+     * @param   n   the number of nodes
+     * @throws  PreconditionException if the number of nodes is negative
+     */
+    public IntGenome(int n) throws PreconditionException {
+        Assertion.pre( n >= 0, "A genome of " + n + " nodes is created",
+                       "ERROR!!! The number of nodes MUST be non-negative");
+        rows   = new int[n][];
+        sizes  = new int[n];
+        shared = new boolean[n];
+        for (int i = 0; i < n; i++) rows[i] = EMPTY;
+    }
+
+    /**
+     * Constructs a copy of another genome, in which every row holds exactly
+     * its destinations.
+     * @param   g   the genome to be copied
+     */
+    public IntGenome(Genome g) {
+        int n = g.numNodes();
+        rows   = new int[n][];
+        sizes  = new int[n];
+        shared = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            int d = g.degree(i);
+            rows[i]  = (d == 0) ? EMPTY : new int[d];
+            sizes[i] = d;
+            for (int k = 0; k < d; k++) rows[i][k] = g.target(i, k);
+        }
+    }
+
+    /**
+     * Constructs a genome holding rows which are shared with another genome.
+     */
+    private IntGenome(int[][] rows, int[] sizes) {
+        this.rows  = rows;
+        this.sizes = sizes;
+        shared     = new boolean[rows.length];
+        Arrays.fill(shared, true);
+    }
+
+    /**
+     * Returns the number of nodes, which is the number of rows.
+     * @return  the number of nodes in the network
+     */
+    public int numNodes() {
+        return rows.length;
+    }
+
+    /**
+     * Returns the number of outgoing links of a node.
+     * @param   i   the index of the node
+     * @return  the number of destinations in row "i"
+     */
+    public int degree(int i) {
+        return sizes[i];
+    }
+
+    /**
+     * Returns a destination of a node.
+     * @param   i   the index of the node
+     * @param   k   the position of the destination in row "i"
+     * @return  the index of the destination node
+     */
+    public int target(int i, int k) {
+        return rows[i][k];
+    }
+
+    /**
+     * Checks whether a node links to another node.
+     * @param   i   the index of the source node
+     * @param   j   the index of the destination node
+     * @return  <code>true</code>, if "j" is a destination of "i"
+     */
+    public boolean contains(int i, int j) {
+        int[] row = rows[i];
+        for (int k = sizes[i] - 1; k >= 0; k--)
+            if (row[k] == j) return true;
+        return false;
+    }
+
+    /**
+     * Adds a destination to the end of a row.
+     * @param   i   the index of the source node
+     * @param   j   the index of the destination node
+     */
+    public void add(int i, int j) {
+        own(i);
+        int[] row = rows[i];
+        if (sizes[i] == row.length) {
+            int[] grown = new int[Math.max(INITIAL_CAPACITY, 2 * row.length)];
+            System.arraycopy(row, 0, grown, 0, sizes[i]);
+            rows[i] = row = grown;
+        }
+        row[sizes[i]++] = j;
+    }
+
+    /**
+     * Removes a destination from a row.
+     * @param   i   the index of the source node
+     * @param   k   the position of the destination in row "i"
+     * @return  the index of the removed destination node
+     * @throws  PreconditionException if there is no destination at "k"
+     */
+    public int removeAt(int i, int k) throws PreconditionException {
+        Assertion.pre( k >= 0 && k < sizes[i],
+                       "A destination is removed",
+                       "ERROR!!! Node " + i + " has no destination " + k);
+        own(i);
+        int[] row = rows[i];
+        int removed = row[k];
+        System.arraycopy(row, k + 1, row, k, sizes[i] - k - 1);
+        sizes[i]--;
+        return removed;
+    }
+
+    /**
+     * Exchanges row "i" with row "i" of another genome. If the other genome
+     * is also an <code>IntGenome</code>, only the arrays are exchanged.
+     * @param   other   the other genome
+     * @param   i       the index of the row
+     */
+    public void swapRow(Genome other, int i) {
+        if (other instanceof IntGenome) {
+            IntGenome g = (IntGenome) other;
+            int[] row    = rows[i];
+            int size     = sizes[i];
+            boolean held = shared[i];
+            rows[i]      = g.rows[i];
+            sizes[i]     = g.sizes[i];
+            shared[i]    = g.shared[i];
+            g.rows[i]    = row;
+            g.sizes[i]   = size;
+            g.shared[i]  = held;
+            return;
+        }
+        // keep this row, and copy the other row into it
+        int[] row = rows[i];
+        int size  = sizes[i];
+        rows[i]   = EMPTY;
+        sizes[i]  = 0;
+        shared[i] = false;
+        for (int k = 0; k < other.degree(i); k++) add(i, other.target(i, k));
+        while (other.degree(i) > 0) other.removeAt(i, other.degree(i) - 1);
+        for (int k = 0; k < size; k++) other.add(i, row[k]);
+    }
+
+    /**
+     * Returns the total number of links.
+     * @return  the sum of the degrees of all nodes
+     */
+    public int numEdges() {
+        int sum = 0;
+        for (int i = 0; i < sizes.length; i++) sum += sizes[i];
+        return sum;
+    }
+
+    /**
+     * Gives the destinations of a node as a bitset.
+     * @param   i       the index of the node
+     * @param   bits    the array to receive the bits of row "i"
+     */
+    public void getBits(int i, long[] bits) {
+        Arrays.fill(bits, 0, (rows.length + 63) >>> 6, 0L);
+        int[] row = rows[i];
+        for (int k = 0; k < sizes[i]; k++) bits[row[k] >>> 6] |= 1L << row[k];
+    }
+
+    /**
+     * Returns a copy of this genome, which shares the rows of this genome
+     * until either genome writes to them.
+     * @return  the copy
+     */
+    public Genome copy() {
+        Arrays.fill(shared, true);
+        return new IntGenome((int[][]) rows.clone(), (int[]) sizes.clone());
+    }
+
+    /**
+     * Copies row "i", if it may also be held by a copy.
+     */
+    private void own(int i) {
+        if (shared[i]) {
+            shared[i] = false;
+            if (rows[i].length > 0) rows[i] = (int[]) rows[i].clone();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import utility.*;
+
+/**
+ * Finds the sum, the number, the average, the maximum and the minimum of
+ * the finite elements of a matrix of costs in a single pass. This replaces
+ * the separate passes of <code>DijkstraMatrix.getSum</code>,
+ * <code>getAverage</code> and <code>getMax</code>, which kept the count in
+ * a field of the instance.<p>
+ *
+ * A reducer holds no state between calls, so one instance may be shared by
+ * the cost functions of every worker thread. A reducer constructed with a
+ * <code>ForkJoinPool</code> also splits large matrices into blocks of rows,
+ * which are reduced by the workers of the pool. The sum of each row is kept,
+ * and the rows are added in order, so the result does not depend on how
+ * the rows were split.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     MatrixStats
+ */
+public class MatrixReducer {
+    // the smallest number of rows given to a worker
+    private static final int MIN_BLOCK = 64;
+    // the number of blocks given to each worker, to balance the load
+    private static final int SPLITS_PER_WORKER = 4;
+
+    // the pool which reduces the blocks of rows, or null to reduce in turn
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a reducer which reduces the rows in turn, in the calling
+     * thread.
+     */
+    public MatrixReducer() {
+        pool = null;
+    }
+
+    /**
+     * Constructs a reducer which reduces blocks of rows on a pool, which may
+     * be shared with other parts of the simulation, such as
+     * <code>ParallelAPSP.getDefaultPool()</code>.
+     * @param   p   the pool which reduces the blocks of rows
+     * @throws  PreconditionException if the pool is null
+     */
+    public MatrixReducer(ForkJoinPool p) throws PreconditionException {
+        Assertion.pre( p != null, "The pool is given",
+                       "ERROR!!! The pool MUST NOT be null");
+        pool = p;
+    }
+
+    /**
+     * Finds the aggregates of a matrix of doubles.
+     * @param   m   the matrix to be reduced
+     * @return  the aggregates of the matrix
+     */
+    public MatrixStats reduce(double[][] m) {
+        return reduce(m, null, m.length);
+    }
+
+    /**
+     * Finds the aggregates of a matrix held in a reduced precision. Each row
+     * is read into an array of doubles before it is reduced.
+     * @param   m   the matrix to be reduced
+     * @return  the aggregates of the matrix
+     */
+    public MatrixStats reduce(CompactMatrix m) {
+        return reduce(null, m, m.size());
+    }
+
+    /**
+     * Reduces the "n" rows of either matrix, and adds the sums of the rows
+     * in order.
+     */
+    private MatrixStats reduce(double[][] m, CompactMatrix compact, int n) {
+        double[] rowSum = new double[n];
+        RowTask task;
+        if (pool == null || n < 2 * MIN_BLOCK) {
+            task = new RowTask(m, compact, 0, n, n, rowSum);
+            task.compute();
+        } else {
+            int grain = Math.max(MIN_BLOCK, n / (pool.getParallelism() *
+                                                 SPLITS_PER_WORKER));
+            task = new RowTask(m, compact, 0, n, grain, rowSum);
+            pool.invoke(task);
+        }
+
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) sum += rowSum[i];
+        return new MatrixStats(sum, task.count, task.max, task.min);
+    }
+
+    /**
+     * Reduces the rows in [from,to). A range larger than the grain is split
+     * in halves. Every task writes only to the sums of its own rows.
+     */
+    private static class RowTask extends RecursiveAction {
+        private final double[][] matrix;
+        private final CompactMatrix compact;
+        private final int from, to, grain;
+        private final double[] rowSum;
+        // the aggregates of this range, except the sum
+        long count = 0;
+        double max = Double.NEGATIVE_INFINITY;
+        double min = Double.POSITIVE_INFINITY;
+
+        RowTask(double[][] matrix, CompactMatrix compact, int from, int to,
+        int grain, double[] rowSum) {
+            this.matrix  = matrix;
+            this.compact = compact;
+            this.from    = from;
+            this.to      = to;
+            this.grain   = grain;
+            this.rowSum  = rowSum;
+        }
+
+        protected void compute() {
+            if (to - from > grain) {
+                int mid = from + (to - from) / 2;
+                RowTask left  = new RowTask(matrix, compact, from, mid,
+                                            grain, rowSum);
+                RowTask right = new RowTask(matrix, compact, mid, to,
+                                            grain, rowSum);
+                invokeAll(left, right);
+                count = left.count + right.count;
+                max   = Math.max(left.max, right.max);
+                min   = Math.min(left.min, right.min);
+                return;
+            }
+            double[] row = (compact == null) ? null
+                                             : new double[compact.size()];
+            for (int i = from; i < to; i++) {
+                if (compact == null) row = matrix[i];
+                else                 compact.getRow(i, row);
+                double sum = 0.0;
+                for (int j = 0; j < row.length; j++) {
+                    double x = row[j];
+                    if (x == Double.POSITIVE_INFINITY) continue;
+                    if (x > max) max = x;
+                    if (x == Double.NEGATIVE_INFINITY || x == 0.0) continue;
+                    sum += x;
+                    count++;
+                    if (x < min) min = x;
+                }
+                rowSum[i] = sum;
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+/**
+ * Holds the aggregates of a matrix of costs, as found by
+ * <code>MatrixReducer</code>. The sum, the count, the average and the
+ * minimum are taken over the elements which are finite and non-zero, so the
+ * zero diagonal of an adjacency or a minimal path cost matrix is left out.
+ * The maximum is taken over every finite element.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     MatrixReducer
+ */
+public class MatrixStats {
+    // the sum of the finite, non-zero elements
+    private final double sum;
+    // the number of finite, non-zero elements
+    private final long count;
+    // the largest finite element
+    private final double max;
+    // the smallest finite, non-zero element
+    private final double min;
+
+    /**
+     * Constructs the aggregates of a matrix.
+     *
+     * @param   sum     the sum of the finite, non-zero elements
+     * @param   count   the number of finite, non-zero elements
+     * @param   max     the largest finite element
+     * @param   min     the smallest finite, non-zero element
+     */
+    public MatrixStats(double sum, long count, double max, double min) {
+        this.sum   = sum;
+        this.count = count;
+        this.max   = max;
+        this.min   = min;
+    }
+
+    /**
+     * Returns the sum of the finite, non-zero elements.
+     * @return  the sum of the elements
+     */
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * Returns the number of finite, non-zero elements. For a minimal path
+     * cost matrix, this is the number of ordered pairs of distinct nodes
+     * connected by a path.
+     * @return  the number of elements summed
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the average of the finite, non-zero elements. This is 0 if
+     * there is no such element.
+     * @return  the average of the elements
+     */
+    public double getAverage() {
+        return (count == 0) ? 0.0 : sum / count;
+    }
+
+    /**
+     * Returns the largest finite element.
+     * @return  the largest element, or
+     *          <code>Double.NEGATIVE_INFINITY</code> if no element is finite
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the smallest finite, non-zero element.
+     * @return  the smallest element, or
+     *          <code>Double.POSITIVE_INFINITY</code> if there is none
+     */
+    public double getMin() {
+        return min;
+    }
+}
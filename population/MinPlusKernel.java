@@ -0,0 +1,38 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+/**
+ * This interface is implemented by the kernels that compute one row of the
+ * min-plus product of two matrices, which is the inner loop of
+ * <code>DijkstraMatrix</code>. Element "j" of the row is the minimum of
+ * <code>a[k] + b[k][j]</code> over every "k", where a sum with
+ * <code>Double.POSITIVE_INFINITY</code> is infinite. All costs must be
+ * non-negative.<p>
+ *
+ * The default kernel is chosen by <code>MinPlusKernels</code>, which uses
+ * the vector kernel in <code>population.simd</code> when the Vector API
+ * is available, and <code>ScalarMinPlus</code> otherwise.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     MinPlusKernels
+ * @see     DijkstraMatrix
+ */
+public interface MinPlusKernel {
+    /**
+     * Computes one row of the min-plus product of a row vector and a
+     * matrix.
+     *
+     * @param   a       the row of the first matrix, of length n
+     * @param   b       the second matrix, of dimension n x n
+     * @param   result  storage of length n for the row of the product
+     */
+    public void row(double[] a, double[][] b, double[] result);
+}
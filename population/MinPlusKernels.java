@@ -0,0 +1,80 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+/**
+ * Chooses the kernel that computes the min-plus product. The kernel built
+ * on the incubating Vector API, <code>population.simd.VectorMinPlus</code>,
+ * is compiled separately with <code>make simd</code>, and can only be
+ * loaded when the program runs with
+ * <code>--add-modules jdk.incubator.vector</code>. It is therefore looked
+ * up by name, and <code>ScalarMinPlus</code> is used when it cannot be
+ * loaded. The vector kernel can also be turned off by setting the system
+ * property <code>netsim.minplus.vector</code> to <code>false</code>.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     MinPlusKernel
+ */
+public class MinPlusKernels {
+    /**
+     * The system property which, when <code>false</code>, stops the vector
+     * kernel from being used.
+     */
+    public static final String VECTOR_PROPERTY = "netsim.minplus.vector";
+
+    // the name of the class of the vector kernel
+    private static final String VECTOR_KERNEL =
+        "population.simd.VectorMinPlus";
+
+    // the kernel chosen on first use
+    private static MinPlusKernel defaultKernel;
+
+    /**
+     * One should not instantiate this class.
+     */
+    private MinPlusKernels() {
+    }
+
+    /**
+     * Returns the fastest kernel available. The choice is made once.
+     * @return  the vector kernel if it can be loaded, otherwise the scalar
+     *          kernel
+     */
+    public static synchronized MinPlusKernel getDefault() {
+        if (defaultKernel == null) {
+            if (!"false".equals(System.getProperty(VECTOR_PROPERTY)))
+                defaultKernel = loadVector();
+            if (defaultKernel == null)
+                defaultKernel = new ScalarMinPlus();
+        }
+        return defaultKernel;
+    }
+
+    /**
+     * Loads the vector kernel.
+     * @return  the vector kernel, or <code>null</code> if it is not
+     *          compiled or the Vector API is not available
+     */
+    public static MinPlusKernel loadVector() {
+        try {
+            MinPlusKernel k = (MinPlusKernel)
+                Class.forName(VECTOR_KERNEL).getDeclaredConstructor()
+                     .newInstance();
+            // make sure the Vector API itself can be linked
+            k.row(new double[] {0.0}, new double[][] {{0.0}},
+                  new double[1]);
+            return k;
+        } catch (Exception e) {
+            return null;
+        } catch (LinkageError e) {
+            return null;
+        }
+    }
+}
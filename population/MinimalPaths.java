@@ -23,7 +23,7 @@ import utility.*;
  * @see     SetOfChromosomes
  * @acknowledgement Matthew Berryman, Wei-li Khoo and Hiep Nguyen
  */
-public class MinimalPaths implements Function {
+public class MinimalPaths implements Function, Replicable {
     
     /**
      * if set to true, the average of cost of minimal paths will be
@@ -32,7 +32,12 @@ public class MinimalPaths implements Function {
      */
     private boolean doAvg;
 
-    DijkstraMatrix dm = new DijkstraMatrix();
+    // finds the sum and the average of the matrices
+    MatrixReducer reducer = new MatrixReducer();
+    // the engine that determines the minimal paths
+    APSPEngine engine = new HeapDijkstra();
+    // repairs the minimal paths of a parent, or null to always use engine
+    DynamicAPSP dynamic = new DynamicAPSP();
 
     /**
      * Constructs this function, which is defaulted to find the total edge 
@@ -52,6 +57,20 @@ public class MinimalPaths implements Function {
         this.doAvg = doAverage;
     }
 
+    /**
+     * Constructs this function to calculate the average of cost of minimal
+	 * paths, or the total edge cost of the minimal spanning tree, using a
+     * specified engine. For example, <code>BlockedFloydWarshall</code> 
+     * suits dense networks better than the default engine.
+     *
+     * @param   doAverage   set <code>true</code> to calculated the average
+     * @param   e           the all-pairs shortest path engine to use
+     */    
+    public MinimalPaths(boolean doAverage, APSPEngine e) {
+        this.doAvg = doAverage;
+        setEngine(e);
+    }
+
     /**
      * Instructs whether the function will calculate the average cost of 
      * minimal paths, or determine the sum of the minimal spanning tree.
@@ -61,6 +80,71 @@ public class MinimalPaths implements Function {
         this.doAvg = doAverage;
     }
 
+    /**
+     * Selects the engine used to determine the minimal path costs. By
+     * default, the sparse <code>HeapDijkstra</code> engine is used.
+     * @param   e   the all-pairs shortest path engine to use
+     */
+    public void setEngine(APSPEngine e) {
+        Assertion.pre( e != null, "A new APSP engine is selected",
+                       "ERROR!!! The APSP engine MUST NOT be null");
+        this.engine = e;
+    }
+
+    /**
+     * Selects the reducer which finds the aggregates of the matrices.
+     * @param   r   the matrix reducer to use
+     * @throws  PreconditionException if the reducer is null
+     */
+    public void setReducer(MatrixReducer r) throws PreconditionException {
+        Assertion.pre( r != null, "A new matrix reducer is selected",
+                       "ERROR!!! The matrix reducer MUST NOT be null");
+        this.reducer = r;
+    }
+
+    /**
+     * Selects how the minimal path costs of a cloned chromosome are repaired
+     * from those of its parent. Set <code>null</code> to always compute
+     * them with the engine.
+     * @param   d   the dynamic shortest path structure, or null
+     */
+    public void setDynamic(DynamicAPSP d) {
+        this.dynamic = d;
+    }
+
+    /**
+     * Creates a function with the same settings, whose engine and dynamic
+     * structure are replicas of those of this function, so that each
+     * worker thread owns one. The reducer is shared. The function is
+     * created by <code>newReplica</code>, so that it is of the same class
+     * as this one.
+     * @return  the new function, or <code>null</code> if the engine cannot
+     *          be replicated, or a subclass does not create its own kind
+     */
+    public Object replicate() {
+        Object e = (engine instanceof Replicable) ?
+                   ((Replicable) engine).replicate() : null;
+        if (e == null) return null;
+        MinimalPaths copy = newReplica();
+        if (copy == null || copy.getClass() != getClass()) return null;
+        copy.setDoAvg(doAvg);
+        copy.setEngine((APSPEngine) e);
+        copy.setReducer(reducer);
+        copy.setDynamic((dynamic == null) ? null :
+                        (DynamicAPSP) dynamic.replicate());
+        return copy;
+    }
+
+    /**
+     * Creates the function to which <code>replicate</code> copies the
+     * settings of this one, which a subclass overrides to be replicated.
+     * @return  a new function of the same class as this one
+     * @see     Replicable
+     */
+    protected MinimalPaths newReplica() {
+        return new MinimalPaths();
+    }
+
     /**
      * Applies this function to every Chromosome in a set of chromosomes.
      * @param   pop     the chromosome population.
@@ -78,7 +162,10 @@ public class MinimalPaths implements Function {
 
     /**
      * Computes the cost of the minimal spanning tree or the average of the 
-     * costs of all minimal paths of a network.
+     * costs of all minimal paths of a network. The minimal path costs are
+     * stored in the chromosome, so they are computed once for both modes.
+     * If the chromosome was cloned from an assessed parent, the parent's
+     * costs are repaired for the changed edges instead.
      *
      * @param   c       the chromosome to which the function is applied
 	 * @param   index   the index of the cost function being used
@@ -86,10 +173,31 @@ public class MinimalPaths implements Function {
     public void apply(Chromosome c, int index) {
         double result;
         
+        // costs held in a reduced precision are assessed one row at a time
+        if (Precision.getMode() != Precision.DOUBLE) {
+            applyCompact(c, index);
+            return;
+        }
+
         // obtain the adjacency matrix
         double[][] matrixAdj = c.getAdjacencyMatrix();
-        // perform dijsktra on the matrix
-        double[][] matrixRes = dm.dijkstra(matrixAdj);
+        // reuse the minimal path costs, if another function computed them
+        double[][] matrixRes = 
+            (double[][]) c.getDerived(Chromosome.WEIGHTED_APSP);
+        if (matrixRes == null) {
+            // repair the costs of the parent, if they are known
+            double[][] parentAdj = c.getParentAdjacency();
+            double[][] parentRes = null;
+            if (parentAdj != null && dynamic != null)
+                parentRes = (double[][]) 
+                    c.getParentDerived(Chromosome.WEIGHTED_APSP);
+            if (parentRes != null)
+                matrixRes = dynamic.update(parentRes, parentAdj, matrixAdj);
+            // else perform dijsktra on the matrix
+            else
+                matrixRes = engine.allPairs(matrixAdj);
+            c.setDerived(Chromosome.WEIGHTED_APSP, matrixRes);
+        }
         
         // if doAvg is set, get the average apth, otherwise find minimal tree
         if (doAvg) result = getAverage(matrixRes);
@@ -99,6 +207,61 @@ public class MinimalPaths implements Function {
         c.insertIntoFitArr(index, result);
     }
     
+    /**
+     * Computes the result of this function when the costs are held in the
+     * reduced precision selected in <code>Precision</code>. The minimal
+     * path costs are always found with Dijkstra's algorithm on the sparse
+     * graph, and stored in the chromosome as a <code>CompactMatrix</code>,
+     * so neither the engine nor the repair from the parent is used.
+     *
+     * @param   c       the chromosome to which the function is applied
+     * @param   index   the index of the cost function being used
+     */
+    private void applyCompact(Chromosome c, int index) {
+        double result;
+
+        CompactMatrix matrixAdj = c.getCompactAdjacency();
+        CompactMatrix matrixRes = (CompactMatrix)
+            c.getDerived(Chromosome.COMPACT_WEIGHTED_APSP);
+        // the costs found in another reduced precision are found again
+        if (matrixRes == null || matrixRes.getMode() != matrixAdj.getMode()) {
+            HeapDijkstra dijkstra = (engine instanceof HeapDijkstra) ?
+                (HeapDijkstra) engine : new HeapDijkstra();
+            matrixRes = dijkstra.allPairs(c.getSparseGraph(false),
+                                          matrixAdj.getMode(),
+                                          matrixAdj.getScale());
+            c.setDerived(Chromosome.COMPACT_WEIGHTED_APSP, matrixRes);
+        }
+
+        if (doAvg) result = reducer.reduce(matrixRes).getAverage();
+        else       result = sumUnchanged(matrixAdj, matrixRes);
+
+        // store the result as fitness
+        c.insertIntoFitArr(index, result);
+    }
+
+    /**
+     * Sums the costs which are equal in both compact matrices, reading one
+     * row of each at a time.
+     */
+    private double sumUnchanged(CompactMatrix m1, CompactMatrix m2) {
+        Assertion.pre( m1.size() == m2.size(),
+                       "Both matrices are " + m1.size() + " x " + m1.size(),
+                       "Method sumUnchanged: Matrices dimension mismatch");
+        int n = m1.size();
+        double[] row1 = new double[n];
+        double[] row2 = new double[n];
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            m1.getRow(i, row1);
+            m2.getRow(i, row2);
+            for (int j = 0; j < n; j++)
+                if (row1[j] == row2[j] && row2[j] != Double.POSITIVE_INFINITY)
+                    sum += row2[j];
+        }
+        return sum;
+    }
+
     private double sumUnchanged(double[][] m1, double[][] m2) {        
         {// Assert check dimensions
             boolean dimensionMatch = true;
@@ -154,7 +317,7 @@ public class MinimalPaths implements Function {
      * @return  the average degree of separation of nodes in the network
      */
     private double getAverage(double[][] m) {
-        return dm.getAverage(m);
+        return reducer.reduce(m).getAverage();
     }    
 
     /**
@@ -163,7 +326,7 @@ public class MinimalPaths implements Function {
      * @return  the total cost of edges/minimal paths in the network
      */
     private double getSum(double[][] m) {
-        return dm.getSum(m);
+        return reducer.reduce(m).getSum();
     }  
     
      private static boolean approxEqual(double a, double b, int n) {
@@ -10,6 +10,7 @@ package population;
 // Importing packages
 import utility.*;
 import population.graph.Node;
+import population.graph.Repairable;
 import java.util.*;
 
 /**
@@ -44,9 +45,15 @@ public class PRCalculator {
     }
 
     /**
-     * Calculates the level of pleiotropy and redundancy by assessing an
-     * adjacency matrix of a chromosome. The result is stored in the 
-     * chromosome by the setPleiotropy and setRedundancy methods
+     * Calculates the level of pleiotropy and redundancy by counting the
+     * links of each server. The links of a server are taken as a bitset,
+     * and the links to activated nodes, and to activated clients, are
+     * counted with <code>Long.bitCount</code> of the bitset masked by the
+     * activated nodes and the clients. As in the adjacency matrix, a
+     * deactivated server has no links, a link to a deactivated node does
+     * not count, and every server counts as linked to itself. The result is
+     * stored in the chromosome by the setPleiotropy and setRedundancy
+     * methods
      *
      * @param   c   the chromosome to which the function is applied
      */
@@ -54,54 +61,49 @@ public class PRCalculator {
         // number of SERVER->CLIENT edges and CLIENT->SERVER edges
         int sumSC = 0;
         int sumCS = 0;
-        // obtain adjacency matrix
-        double[][] adjMatrix = c.getAdjacencyMatrix();
         // obtain node list
         ArrayList  nodeList  = c.getNodeList();
-        // find out which nodes are servers, and mark that in an array
-        boolean[]  isServer  = new boolean[nodeList.size()];
-        for (int i = 0; i < isServer.length; i++) 
-            if (((Node)nodeList.get(i)).getLabel().startsWith("SERVER"))
+        int n     = nodeList.size();
+        int words = (n + 63) >>> 6;
+        /**
+         * find out which nodes are servers, and mark that in an array. The
+         * activated nodes, and the activated clients, are marked in masks.
+         */
+        boolean[]  isServer  = new boolean[n];
+        long[] activeMask = new long[words];
+        long[] clientMask = new long[words];
+        for (int i = 0; i < n; i++) {
+            Node node = (Node) nodeList.get(i);
+            if (node.getLabel().startsWith("SERVER"))
                 isServer[i] = true;
-    
-// ### Modified by Zhiyang Ong - 31 July 2005
-//int numOutgoing = 0;
-        // for every node in the node list
-        for (int i = 0; i < nodeList.size(); i++) {
-            // find for each server node, all its outgoing nodes to clients
-            if(isServer[i]) {
-                for ( int j = 0; j < nodeList.size(); j++) {
-                    if(!isServer[j] && 
-                        adjMatrix[i][j] != Double.POSITIVE_INFINITY)
-                        sumSC++; // increment count
-                }
+            if (((Repairable) node).activated()) {
+                activeMask[i >>> 6] |= 1L << i;
+                if (!isServer[i]) clientMask[i >>> 6] |= 1L << i;
             }
-// This step is redundant as servers' outgoing edges to clients are equivalent
-// to clients incoming edges from servers     
-//            else {
-//                for ( int j = 0; j < nodeList.size(); j++) {
-//                    if(isServer[j] &&
-//                        adjMatrix[j][i] != Double.POSITIVE_INFINITY)
-//                        sumCS++;
-//                }
-//            }
-        }    
-        sumCS = sumSC;
+        }
 
-// ### Modified by Zhiyang Ong - 31 July 2005
-sumSC = 0;
-for(int k=0;k<nodeList.size();k++) {
-	// Determine the number of outgoing edges of each server
-	if(isServer[k]) {
-		for(int m=0;m<nodeList.size();m++) {
-			if(adjMatrix[k][m] != Double.POSITIVE_INFINITY) {
-				// This outgoing edge exist
-				sumSC++; // increment count
-			}
-		}
-	}
-}
-        
+        long[] row = new long[words];
+        for (int i = 0; i < n; i++) {
+            if (!isServer[i]) continue;
+            // a server is linked to itself, as the matrix holds 0 there
+            sumSC++;
+            // a deactivated server has no outgoing links
+            if ((activeMask[i >>> 6] & (1L << i)) == 0) continue;
+            c.getLinkBits(i, row);
+            // the link to itself is already counted
+            row[i >>> 6] &= ~(1L << i);
+            for (int w = 0; w < words; w++) {
+                // all its outgoing nodes, and those to clients
+                sumSC += Long.bitCount(row[w] & activeMask[w]);
+                sumCS += Long.bitCount(row[w] & clientMask[w]);
+            }
+        }
+        /**
+         * Servers' outgoing edges to clients are equivalent to clients'
+         * incoming edges from servers, so sumCS is the number of
+         * SERVER->CLIENT edges. sumSC counts every outgoing edge of each
+         * server, as modified by Zhiyang Ong - 31 July 2005.
+         */
         // calculate the pleiotropy and redundancy
         double pleio = (double) sumSC / (double) c.getNumServers();
         double redun = (double) sumCS / (double) c.getNumClients();
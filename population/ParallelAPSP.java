@@ -0,0 +1,246 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import utility.*;
+
+/**
+ * Solves the all-pairs shortest path problem on several processors. The
+ * rows of the result are independent of each other, since each row only
+ * depends on its own source node, so the source nodes are split into ranges
+ * that are processed by the workers of a <code>ForkJoinPool</code>.<p>
+ *
+ * The minimal path costs are determined by <code>HeapDijkstra</code>, and
+ * the hop counts by <code>BitParallelBFS</code>, where a range of sources is
+ * a whole number of 64-source batches. Each worker thread owns its own
+ * instance of these engines, so their scratch buffers are never shared and
+ * are reused for every range the worker processes.<p>
+ *
+ * The number of workers is configurable. Engines constructed without a pool
+ * share a default pool, whose size is read from the system property
+ * <code>netsim.apsp.threads</code> and defaults to the number of available
+ * processors. Several simulations running on the same machine should each
+ * set a smaller size, so that they do not starve each other.<p>
+ *
+ * Unlike the sequential engines, an instance of this class may be shared
+ * between threads.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     HeapDijkstra
+ * @see     BitParallelBFS
+ */
+public class ParallelAPSP implements APSPEngine, HopCounter, Replicable {
+    /**
+     * The name of the system property holding the size of the default pool.
+     */
+    public static final String THREADS_PROPERTY = "netsim.apsp.threads";
+
+    // the number of sources searched at once by BitParallelBFS
+    private static final int WORD = 64;
+    // the number of ranges given to each worker, to balance the load
+    private static final int SPLITS_PER_WORKER = 4;
+
+    // the pool shared by the engines constructed without a pool
+    private static ForkJoinPool defaultPool;
+
+    // the pool which runs the searches
+    private final ForkJoinPool pool;
+
+    // the Dijkstra engine owned by each worker thread
+    private final ThreadLocal dijkstra = new ThreadLocal() {
+        protected Object initialValue() {
+            return new HeapDijkstra();
+        }
+    };
+    // the breadth-first search engine owned by each worker thread
+    private final ThreadLocal bfs = new ThreadLocal() {
+        protected Object initialValue() {
+            return new BitParallelBFS();
+        }
+    };
+
+    /**
+     * Constructs an engine that runs on the default pool.
+     */
+    public ParallelAPSP() {
+        pool = getDefaultPool();
+    }
+
+    /**
+     * Constructs an engine with its own pool of workers.
+     * @param   threads the number of worker threads
+     * @throws  PreconditionException if the number of threads is not
+     *          positive
+     */
+    public ParallelAPSP(int threads) throws PreconditionException {
+        Assertion.pre( threads > 0, "The pool has " + threads + " workers",
+                       "ERROR!!! The number of workers MUST be POSITIVE");
+        pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Constructs an engine that runs on a specified pool, which may be
+     * shared with other parts of the simulation.
+     * @param   p   the pool which runs the searches
+     * @throws  PreconditionException if the pool is null
+     */
+    public ParallelAPSP(ForkJoinPool p) throws PreconditionException {
+        Assertion.pre( p != null, "The pool is given",
+                       "ERROR!!! The pool MUST NOT be null");
+        pool = p;
+    }
+
+    /**
+     * Returns the pool shared by the engines constructed without a pool. It
+     * is created on the first call, with the number of workers given by the
+     * system property <code>netsim.apsp.threads</code>.
+     * @return  the default pool
+     */
+    public static synchronized ForkJoinPool getDefaultPool() {
+        if (defaultPool == null) {
+            int threads = Integer.getInteger(THREADS_PROPERTY,
+                Runtime.getRuntime().availableProcessors()).intValue();
+            defaultPool = new ForkJoinPool(Math.max(1, threads));
+        }
+        return defaultPool;
+    }
+
+    /**
+     * Returns the number of workers of the pool of this engine.
+     * @return  the number of worker threads
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Returns this engine, as it may be shared between threads.
+     * @return  this engine
+     */
+    public Object replicate() {
+        return this;
+    }
+
+    /**
+     * Determines the minimal path costs between every pair of nodes of an
+     * adjacency matrix. The matrix is not altered.
+     *
+     * @param   adjMatrix   the adjacency matrix which the algorithm is
+     *                      operated on
+     * @return  the matrix of minimal path costs
+     * @throws  PreconditionException if the number of columns of the
+     *          matrix does not equal the number of rows of the matrix
+     */
+    public double[][] allPairs(double[][] adjMatrix)
+    throws PreconditionException {
+        return allPairs(SparseGraph.fromMatrix(adjMatrix));
+    }
+
+    /**
+     * Determines the minimal path costs between every pair of nodes of a
+     * sparse graph.
+     * @param   g   the network which the algorithm is operated on
+     * @return  the matrix of minimal path costs
+     * @throws  PostconditionException if the dimension of the returned
+     *          matrix is not n x n
+     */
+    public double[][] allPairs(SparseGraph g) throws PostconditionException {
+        int n = g.numNodes();
+        double[][] result = new double[n][];
+        int grain = Math.max(1, n / (pool.getParallelism() *
+                                     SPLITS_PER_WORKER));
+        pool.invoke(new SourceTask(g, 0, n, grain, false, result, null));
+
+        Assertion.post( result.length == n,
+                        "The returned matrix is a " + n + " x " + n +
+                        " matrix",
+                        "The returned matrix MUST be a SQUARE matrix" );
+        return result;
+    }
+
+    /**
+     * Determines the aggregates of the minimal number of hops between all
+     * pairs of nodes, without storing the hops of each pair. The sources
+     * are split into whole batches of 64.
+     *
+     * @param   g           the network; the edge costs are ignored
+     * @param   perNode     set <code>true</code> to also count the number of
+     *                      nodes reachable from each node
+     * @return  the aggregates of the hop counts
+     */
+    public HopStats hopStats(SparseGraph g, boolean perNode) {
+        int n = g.numNodes();
+        int[] reach = (perNode) ? new int[n] : null;
+        int batches = (n + WORD - 1) / WORD;
+        int grain = WORD * Math.max(1, batches / (pool.getParallelism() *
+                                                  SPLITS_PER_WORKER));
+        SourceTask task = new SourceTask(g, 0, n, grain, true, null, reach);
+        pool.invoke(task);
+        return new HopStats((int) task.max, task.sum, task.count, reach);
+    }
+
+    /**
+     * Searches from the sources in [from,to). A range larger than the grain
+     * is split in halves; for hop counts, the split is on a multiple of 64,
+     * so no batch of BitParallelBFS is left partially filled. Every task
+     * writes only to the rows and counts of its own sources.
+     */
+    private class SourceTask extends RecursiveAction {
+        private final SparseGraph g;
+        private final int from, to, grain;
+        private final boolean hops;
+        private final double[][] matrix;
+        private final int[] reach;
+        // the aggregates of the hop counts of this range
+        long max, sum, count;
+
+        SourceTask(SparseGraph g, int from, int to, int grain, boolean hops,
+        double[][] matrix, int[] reach) {
+            this.g      = g;
+            this.from   = from;
+            this.to     = to;
+            this.grain  = grain;
+            this.hops   = hops;
+            this.matrix = matrix;
+            this.reach  = reach;
+        }
+
+        protected void compute() {
+            if (to - from > grain) {
+                int mid = from + (to - from) / 2;
+                if (hops) mid = from + ((mid - from + WORD - 1) / WORD) * WORD;
+                SourceTask left  = new SourceTask(g, from, mid, grain, hops,
+                                                  matrix, reach);
+                SourceTask right = new SourceTask(g, mid, to, grain, hops,
+                                                  matrix, reach);
+                invokeAll(left, right);
+                max   = Math.max(left.max, right.max);
+                sum   = left.sum + right.sum;
+                count = left.count + right.count;
+            } else if (hops) {
+                long[] acc = ((BitParallelBFS) bfs.get()).search(g, from, to,
+                                                                 null, reach);
+                max   = acc[0];
+                sum   = acc[1];
+                count = acc[2];
+            } else {
+                HeapDijkstra engine = (HeapDijkstra) dijkstra.get();
+                int n = g.numNodes();
+                for (int s = from; s < to; s++) {
+                    matrix[s] = new double[n];
+                    engine.fromSource(g, s, matrix[s]);
+                }
+            }
+        }
+    }
+}
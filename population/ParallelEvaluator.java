@@ -0,0 +1,221 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import java.util.*;
+import java.util.concurrent.*;
+import utility.*;
+
+/**
+ * Applies the cost functions to the chromosomes of a population on several
+ * threads, so that a generation takes about the time of evaluating the
+ * population divided by the number of threads.<p>
+ *
+ * Each chromosome is a task, in which the cost functions are applied in
+ * their order through <code>apply</code>, as their <code>map</code> methods
+ * do. Only the task of a chromosome writes its fitness values, and in the
+ * same order as applying each function to the whole population in turn, so
+ * the fitness values are the same as those of a sequential evaluation. The
+ * functions of a chromosome also share its derived results, which would be
+ * computed twice if two functions of a chromosome ran at once.<p>
+ *
+ * A cost function keeps the scratch buffers of its engines between calls,
+ * so each worker thread applies its own replica of every function that is
+ * <code>Replicable</code>. The replicas are created on first use in each
+ * evaluation, so a setting changed between two evaluations is followed. A
+ * function that cannot be replicated is applied by one thread at a time.<p>
+ *
+ * The tasks run on a configurable <code>ExecutorService</code>. Evaluators
+ * constructed without one share a default pool of daemon threads, whose
+ * size is read from the system property <code>netsim.eval.threads</code>
+ * and defaults to the number of available processors.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     Replicable
+ * @see     Function
+ */
+public class ParallelEvaluator {
+    /**
+     * The name of the system property holding the size of the default pool.
+     */
+    public static final String THREADS_PROPERTY = "netsim.eval.threads";
+
+    // the pool shared by the evaluators constructed without an executor
+    private static ExecutorService defaultExecutor;
+
+    // the executor which runs the tasks
+    private final ExecutorService executor;
+
+    /**
+     * Constructs an evaluator that runs on the default pool.
+     */
+    public ParallelEvaluator() {
+        executor = getDefaultExecutor();
+    }
+
+    /**
+     * Constructs an evaluator with its own pool of daemon threads.
+     * @param   threads the number of worker threads
+     * @throws  PreconditionException if the number of threads is not
+     *          positive
+     */
+    public ParallelEvaluator(int threads) throws PreconditionException {
+        Assertion.pre( threads > 0, "The pool has " + threads + " workers",
+                       "ERROR!!! The number of workers MUST be POSITIVE");
+        executor = newPool(threads);
+    }
+
+    /**
+     * Constructs an evaluator that runs on a specified executor, which may
+     * be shared with other parts of the simulation.
+     * @param   e   the executor which runs the tasks
+     * @throws  PreconditionException if the executor is null
+     */
+    public ParallelEvaluator(ExecutorService e) throws PreconditionException {
+        Assertion.pre( e != null, "The executor is given",
+                       "ERROR!!! The executor MUST NOT be null");
+        executor = e;
+    }
+
+    /**
+     * Returns the pool shared by the evaluators constructed without an
+     * executor. It is created on the first call, with the number of workers
+     * given by the system property <code>netsim.eval.threads</code>.
+     * @return  the default pool
+     */
+    public static synchronized ExecutorService getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            int threads = Integer.getInteger(THREADS_PROPERTY,
+                Runtime.getRuntime().availableProcessors()).intValue();
+            defaultExecutor = newPool(Math.max(1, threads));
+        }
+        return defaultExecutor;
+    }
+
+    /**
+     * Returns the executor which runs the tasks of this evaluator.
+     * @return  the executor
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Applies every cost function to every chromosome of a population. A
+     * chromosome without fitness values is given an array of one value for
+     * each function.
+     *
+     * @param   pop     the population
+     * @param   func    the cost functions, in the order of their indices
+     */
+    public void evaluate(SetOfChromosomes pop, Function[] func) {
+        Chromosome[] chromos = new Chromosome[pop.getPopSize()];
+        for (int i = 0; i < chromos.length; i++) chromos[i] = pop.getChromo(i);
+        evaluate(chromos, func);
+    }
+
+    /**
+     * Applies every cost function to each of a number of chromosomes. A
+     * chromosome without fitness values is given an array of one value for
+     * each function, and its fitness is marked current once every function
+     * has been applied to it. An exception thrown by a function is thrown
+     * again, once every task has finished.
+     *
+     * @param   chromos the chromosomes
+     * @param   func    the cost functions, in the order of their indices
+     * @throws  AssertionException if the evaluation is interrupted
+     */
+    public void evaluate(Chromosome[] chromos, final Function[] func)
+    throws AssertionException {
+        // the replicas of the cost functions owned by each worker thread
+        final ThreadLocal replicas = new ThreadLocal() {
+            protected Object initialValue() {
+                return new IdentityHashMap();
+            }
+        };
+        ArrayList tasks = new ArrayList(chromos.length);
+        for (int i = 0; i < chromos.length; i++) {
+            final Chromosome c = chromos[i];
+            if (c.getFitnessArr() == null) c.createFitnessArr(func.length);
+            tasks.add(new Callable() {
+                public Object call() {
+                    for (int z = 0; z < func.length; z++)
+                        apply(func[z], c, z, replicas);
+                    c.markFitnessCurrent();
+                    return null;
+                }
+            });
+        }
+
+        List results;
+        try {
+            results = executor.invokeAll(tasks);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new AssertionException("ERROR!!! The evaluation was " +
+                                         "interrupted");
+        }
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                ((Future) results.get(i)).get();
+            } catch (ExecutionException ee) {
+                Throwable cause = ee.getCause();
+                if (cause instanceof Error) throw (Error) cause;
+                throw (RuntimeException) cause;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new AssertionException("ERROR!!! The evaluation was " +
+                                             "interrupted");
+            }
+        }
+    }
+
+    /**
+     * Applies a cost function to a chromosome, through the replica owned by
+     * the current thread, or else while no other thread applies it.
+     */
+    private void apply(Function f, Chromosome c, int index,
+    ThreadLocal replicas) {
+        Function own = replica(f, replicas);
+        if (own != null) {
+            own.apply(c, index);
+        } else {
+            synchronized (f) {
+                f.apply(c, index);
+            }
+        }
+    }
+
+    /**
+     * Returns the replica of a cost function owned by the current thread,
+     * or null if the function cannot be replicated.
+     */
+    private Function replica(Function f, ThreadLocal replicas) {
+        if (!(f instanceof Replicable)) return null;
+        IdentityHashMap own = (IdentityHashMap) replicas.get();
+        if (!own.containsKey(f)) own.put(f, ((Replicable) f).replicate());
+        return (Function) own.get(f);
+    }
+
+    /**
+     * Creates a pool of daemon threads, which does not keep the simulation
+     * running once its other threads have finished.
+     */
+    private static ExecutorService newPool(int threads) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "ParallelEvaluator");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import population.graph.*;
+import utility.*;
+
+/**
+ * Enumerates every simple path of a network from each source node, and sums
+ * the inverse of the cost of each path at its destination. This gives the
+ * same resistance as the breadth-first search of <code>BFSResistance</code>
+ * and <code>BFSNode</code>, without creating an object or a list for each
+ * path.<p>
+ *
+ * The nodes are numbered once per evaluation, and the lists of destination
+ * nodes of the chromosome are kept as arrays of node indices in CSR format,
+ * with their order and any duplicates. The paths are then explored by
+ * iterative deepening: pass "d" walks the paths depth first, using a bitset
+ * of the visited nodes and a stack of node indices, edge positions and
+ * accumulated costs, and only adds the paths of exactly "d" hops. The
+ * inverses are therefore added in the very order of the breadth-first
+ * search, and the results are identical to the last bit. A path whose cost
+ * has become <code>Double.POSITIVE_INFINITY</code> adds nothing, and neither
+ * do its extensions, so it is not explored further.<p>
+ *
+ * The number of paths grows exponentially with their length, so the length
+ * of the paths may be limited, and the time spent on a network may be
+ * given a budget, which is divided evenly between the source nodes. When
+ * the budget of a source runs out, the result of the paths of the current
+ * length is discarded, so the resistance from that source is the one of
+ * the paths of every shorter length. The scratch arrays are kept between
+ * calls, so an instance of this class must not be shared between threads.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     BFSResistance
+ */
+public class PathEnumerator {
+    // the number of steps between two readings of the clock
+    private static final int CLOCK_INTERVAL = 1024;
+
+    // determines if unit resistance will be used
+    private boolean useUnitResistance;
+    // the most hops of a path, 0 if the length is not limited
+    private int maxPathLength = 0;
+    // the time allowed to evaluate a network in milliseconds, 0 if unlimited
+    private long timeBudget = 0;
+    // whether the last evaluation ran out of time
+    private boolean truncated;
+
+    // the offset of the destinations of each node; length n+1
+    private int[] rowStart = new int[1];
+    // the index of each destination node, and the cost of reaching it
+    private int[] target = new int[0];
+    private double[] cost = new double[0];
+
+    // the node, the next edge and the accumulated cost at each depth
+    private int[] pathNode = new int[0];
+    private int[] nextEdge = new int[0];
+    private double[] pathCost = new double[0];
+    // the bitset of the nodes on the current path
+    private long[] visited = new long[0];
+    // the sums of the inverses before the current pass
+    private double[] snapshot = new double[0];
+
+    /**
+     * Constructs a default instance of PathEnumerator, which will use the
+     * actual edge cost in calculating resistance.
+     */
+    public PathEnumerator() {
+        this(false);
+    }
+
+    /**
+     * Constructs an instance of PathEnumerator, specifying whether unit
+     * resistance will be used.
+     * @param   use     set to <code>true</code>, if using unit resistance is
+     *                  desired.
+     */
+    public PathEnumerator(boolean use) {
+        useUnitResistance = use;
+    }
+
+    /**
+     * Limits the number of hops of the paths that are enumerated.
+     * @param   max     the most hops of a path, or 0 for no limit
+     * @throws  PreconditionException if the length is negative
+     */
+    public void setMaxPathLength(int max) throws PreconditionException {
+        Assertion.pre( max >= 0, "Paths of upto " + max + " hops are used",
+                       "ERROR!!! The length of paths MUST NOT be negative");
+        maxPathLength = max;
+    }
+
+    /**
+     * Returns the most hops of a path that are enumerated.
+     * @return  the most hops of a path, or 0 if the length is not limited
+     */
+    public int getMaxPathLength() {
+        return maxPathLength;
+    }
+
+    /**
+     * Sets the time allowed to evaluate the resistance of one network.
+     * @param   millis  the time in milliseconds, or 0 for no limit
+     * @throws  PreconditionException if the time is negative
+     */
+    public void setTimeBudget(long millis) throws PreconditionException {
+        Assertion.pre( millis >= 0, "The budget is " + millis + " ms",
+                       "ERROR!!! The time budget MUST NOT be negative");
+        timeBudget = millis;
+    }
+
+    /**
+     * Returns the time allowed to evaluate the resistance of one network.
+     * @return  the time in milliseconds, or 0 if it is not limited
+     */
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+
+    /**
+     * Checks whether the time budget ran out during the last evaluation, in
+     * which case the longer paths of some source nodes were ignored.
+     * @return  <code>true</code>, if the last result is truncated
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Calculates the resistance between every pair of nodes of the network
+     * represented by a chromosome.
+     *
+     * @param   c   the chromosome which the resistance is to be determined
+     * @return  the matrix of resistance
+     * @throws  PreconditionException if a destination node does not exist
+     *          in the node list
+     */
+    public double[][] getResistance(Chromosome c)
+    throws PreconditionException {
+        int n = build(c);
+        double[][] result = new double[n][];
+        long perSource = (timeBudget * 1000000L) / Math.max(n, 1);
+        truncated = false;
+        for (int s = 0; s < n; s++) {
+            result[s] = new double[n];
+            long deadline = (timeBudget > 0) ?
+                            System.nanoTime() + perSource : 0;
+            fromSource(s, result[s], deadline);
+            invert(s, result[s]);
+        }
+        return result;
+    }
+
+    /**
+     * Stores the destination nodes of the chromosome in CSR format.
+     * @return  the number of nodes
+     */
+    private int build(Chromosome c) throws PreconditionException {
+        double[][] adj = c.getAdjacencyMatrix();
+        int n = c.getNodeList().size();
+
+        int m = 0;
+        for (int i = 0; i < n; i++) m += c.getDegree(i);
+        if (rowStart.length < n + 1) rowStart = new int[n + 1];
+        if (target.length < m) {
+            target = new int[m];
+            cost   = new double[m];
+        }
+        int e = 0;
+        for (int i = 0; i < n; i++) {
+            rowStart[i] = e;
+            for (int k = 0; k < c.getDegree(i); k++) {
+                int j = c.getLink(i, k);
+                double w = adj[i][j];
+                if (useUnitResistance && w != Double.POSITIVE_INFINITY &&
+                    w != 0) w = 1;
+                target[e] = j;
+                cost[e]   = w;
+                e++;
+            }
+        }
+        rowStart[n] = e;
+
+        if (pathNode.length < n + 1) {
+            pathNode = new int[n + 1];
+            nextEdge = new int[n + 1];
+            pathCost = new double[n + 1];
+            snapshot = new double[n];
+            visited  = new long[(n + 63) >>> 6];
+        }
+        return n;
+    }
+
+    /**
+     * Sums the inverse of the cost of every path from source node "s".
+     * @param   sum         storage for the sums, indexed by destination
+     * @param   deadline    the value of <code>System.nanoTime()</code> at
+     *                      which to stop, or 0 if there is no limit
+     */
+    private void fromSource(int s, double[] sum, long deadline) {
+        int n = sum.length;
+        int limit = (maxPathLength > 0) ? Math.min(maxPathLength, n - 1)
+                                        : n - 1;
+        int steps = 0;
+        for (int depth = 1; depth <= limit; depth++) {
+            if (deadline != 0) System.arraycopy(sum, 0, snapshot, 0, n);
+            boolean reached = false;
+
+            // walk the paths of upto "depth" hops, depth first
+            int d = 0;
+            pathNode[0] = s;
+            pathCost[0] = 0.0;
+            nextEdge[0] = rowStart[s];
+            visited[s >>> 6] |= 1L << s;
+            while (d >= 0) {
+                int u = pathNode[d];
+                if (d == depth || nextEdge[d] == rowStart[u + 1]) {
+                    // backtrack
+                    visited[u >>> 6] &= ~(1L << u);
+                    d--;
+                    continue;
+                }
+                int e = nextEdge[d]++;
+                int v = target[e];
+                if ((visited[v >>> 6] & (1L << v)) != 0) continue;
+                double accum = pathCost[d] + cost[e];
+                if (accum == Double.POSITIVE_INFINITY) continue;
+                if (d + 1 == depth) {
+                    sum[v] += 1.0 / accum;
+                    reached = true;
+                } else {
+                    d++;
+                    pathNode[d] = v;
+                    pathCost[d] = accum;
+                    nextEdge[d] = rowStart[v];
+                    visited[v >>> 6] |= 1L << v;
+                }
+                // the first pass is always completed
+                if (deadline != 0 && depth > 1 &&
+                    ++steps % CLOCK_INTERVAL == 0 &&
+                    System.nanoTime() - deadline > 0) {
+                    // discard the paths of this length
+                    System.arraycopy(snapshot, 0, sum, 0, n);
+                    for (; d >= 0; d--) {
+                        u = pathNode[d];
+                        visited[u >>> 6] &= ~(1L << u);
+                    }
+                    truncated = true;
+                    return;
+                }
+            }
+            // there are no longer paths, if none has this length
+            if (!reached) return;
+        }
+    }
+
+    /**
+     * Inverts the sums of the inverse of the resistance. Note that if the
+     * value is 0 and the index does not correspond to the source node, the
+     * resistance should be infinity (+oo).
+     */
+    private void invert(int s, double[] row) {
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] == 0) {
+                if (i != s) row[i] = Double.POSITIVE_INFINITY;
+            } else row[i] = 1.0 / row[i];
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import utility.*;
+
+/**
+ * Selects the precision, in which the matrices of edge costs and of minimal
+ * path costs are held. By default, the costs are doubles of 8 bytes, so an
+ * n x n matrix of 2000 nodes takes 32 MB. For large networks, the costs can
+ * instead be held as:<ul>
+ *   <li><code>FLOAT</code>: floats of 4 bytes, with a relative error of
+ *       about 6e-8 per cost;
+ *   <li><code>FIXED32</code>: integers of 4 bytes, counting units of
+ *       1/<code>getScale(n)</code>;
+ *   <li><code>FIXED16</code>: unsigned integers of 2 bytes, counting units
+ *       of 1/<code>getScale(n)</code>.
+ * </ul>
+ * The scale of the fixed point modes is chosen from the largest cost in
+ * <code>EdgeCostMatrix</code>, so that the cost of a path of n-1 edges
+ * still fits. Each edge cost is rounded to the nearest unit, but an edge
+ * never becomes free. The path costs are exact sums of the rounded edge
+ * costs, so their error is at most half a unit per edge of the path.<p>
+ *
+ * Like <code>EdgeCostMatrix</code>, the precision is shared by the whole
+ * program. It should be selected before any chromosome is assessed, since
+ * the matrices already stored are not converted. <code>PrecisionReport</code>
+ * measures how much a mode changes the results.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     CompactMatrix
+ * @see     PrecisionReport
+ */
+public class Precision {
+    /**
+     * The costs are held as doubles; this is the default.
+     */
+    public static final int DOUBLE  = 0;
+    /**
+     * The costs are held as floats.
+     */
+    public static final int FLOAT   = 1;
+    /**
+     * The costs are held as 32-bit integers of fixed point.
+     */
+    public static final int FIXED32 = 2;
+    /**
+     * The costs are held as 16-bit unsigned integers of fixed point.
+     */
+    public static final int FIXED16 = 3;
+
+    // the largest number of units of a finite cost in each fixed mode
+    static final int LIMIT32 = Integer.MAX_VALUE - 1;
+    static final int LIMIT16 = 0xFFFE;
+
+    // the selected precision
+    private static int mode = DOUBLE;
+
+    /**
+     * Thou shall not instantiate this class.
+     */
+    private Precision() {
+    }
+
+    /**
+     * Selects the precision of the cost matrices.
+     * @param   m   <code>DOUBLE</code>, <code>FLOAT</code>,
+     *              <code>FIXED32</code> or <code>FIXED16</code>
+     * @throws  PreconditionException if the mode is unknown
+     */
+    public static void setMode(int m) throws PreconditionException {
+        Assertion.pre( m >= DOUBLE && m <= FIXED16,
+                       "Precision " + getName(m) + " is selected",
+                       "ERROR!!! Unknown precision: " + m);
+        mode = m;
+    }
+
+    /**
+     * Returns the selected precision.
+     * @return  <code>DOUBLE</code>, <code>FLOAT</code>,
+     *          <code>FIXED32</code> or <code>FIXED16</code>
+     */
+    public static int getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the name of a precision.
+     * @param   m   the precision
+     * @return  the name of the precision
+     */
+    public static String getName(int m) {
+        switch (m) {
+            case DOUBLE:  return "double";
+            case FLOAT:   return "float";
+            case FIXED32: return "fixed32";
+            case FIXED16: return "fixed16";
+            default:      return "unknown";
+        }
+    }
+
+    /**
+     * Returns the number of bytes used by each cost in a precision.
+     * @param   m   the precision
+     * @return  the size of a cost in bytes
+     */
+    public static int bytesPerCost(int m) {
+        switch (m) {
+            case FLOAT:
+            case FIXED32: return 4;
+            case FIXED16: return 2;
+            default:      return 8;
+        }
+    }
+
+    /**
+     * Returns the number of units per unit of cost of a fixed point mode,
+     * for a network of "n" nodes. The cost of a path of n-1 edges, each as
+     * dear as the dearest edge of <code>EdgeCostMatrix</code>, is the
+     * largest finite cost that can be held.
+     *
+     * @param   m   the precision
+     * @param   n   the number of nodes in the network
+     * @return  the scale of the fixed point costs, or 1 if the mode is not
+     *          fixed point
+     */
+    public static double getScale(int m, int n) {
+        if (m != FIXED32 && m != FIXED16) return 1.0;
+        double limit   = (m == FIXED32) ? LIMIT32 : LIMIT16;
+        double maxCost = EdgeCostMatrix.getMaxCost();
+        if (maxCost <= 0) return 1.0;
+        return limit / (Math.max(n - 1, 1) * maxCost);
+    }
+
+    /**
+     * Rounds an edge cost to the selected precision.
+     * @param   cost    the cost of the edge
+     * @param   n       the number of nodes in the network
+     * @return  the cost as it is held in the selected precision
+     */
+    public static double quantize(double cost, int n) {
+        return quantize(cost, mode, getScale(mode, n));
+    }
+
+    /**
+     * Rounds an edge cost to a precision. Zero and infinite costs are kept.
+     * In the fixed point modes, a positive cost is at least one unit.
+     *
+     * @param   cost    the cost of the edge
+     * @param   m       the precision
+     * @param   scale   the number of units per unit of cost
+     * @return  the cost as it is held in the precision
+     */
+    public static double quantize(double cost, int m, double scale) {
+        if (m == DOUBLE || cost == 0 || cost == Double.POSITIVE_INFINITY)
+            return cost;
+        if (m == FLOAT) return (double) (float) cost;
+        return Math.max(1.0, Math.rint(cost * scale)) / scale;
+    }
+}
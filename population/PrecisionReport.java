@@ -0,0 +1,197 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import utility.*;
+
+/**
+ * Measures how much a reduced precision changes the minimal path costs of a
+ * network. The minimal path costs are found twice with
+ * <code>HeapDijkstra</code>: once from the exact edge costs held as
+ * doubles, and once from the edge costs rounded to the precision and held
+ * in a <code>CompactMatrix</code>. The report gives the largest absolute
+ * and relative errors, the mean relative error, the number of pairs whose
+ * reachability differs, the average minimal path cost as found by
+ * <code>MinimalPaths</code> in both precisions, and the memory taken by
+ * both matrices.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     Precision
+ */
+public class PrecisionReport {
+    // the precision being measured
+    private final int mode;
+    // the number of nodes in the network
+    private int n;
+    // the errors of the costs of the pairs reachable in both precisions
+    private double maxAbsError  = 0.0;
+    private double maxRelError  = 0.0;
+    private double meanRelError = 0.0;
+    // the number of pairs reachable in one precision only
+    private int mismatches = 0;
+    // the average minimal path cost in both precisions
+    private double exactAverage;
+    private double reducedAverage;
+    // the memory taken by the minimal path costs in both precisions
+    private long exactMemory;
+    private long reducedMemory;
+
+    /**
+     * Measures the errors of the minimal path costs of a network, when the
+     * costs are held in a precision.
+     *
+     * @param   c       the chromosome representing the network
+     * @param   m       the precision, as defined in <code>Precision</code>
+     * @throws  PreconditionException if the precision is unknown or the
+     *          chromosome is empty
+     */
+    public PrecisionReport(Chromosome c, int m) throws PreconditionException {
+        Assertion.pre( m >= Precision.DOUBLE && m <= Precision.FIXED16,
+                       "The precision " + Precision.getName(m) +
+                       " is measured",
+                       "ERROR!!! Unknown precision: " + m);
+        Assertion.pre( c.getLength() > 0,
+                       "The chromosome has length = " + c.getLength(),
+                       "The chromosome has length = 0!!??");
+        this.mode = m;
+        this.n    = c.getLength();
+
+        HeapDijkstra dijkstra = new HeapDijkstra();
+        MatrixReducer reducer = new MatrixReducer();
+        double[][] exact = dijkstra.allPairs(
+            SparseGraph.fromChromosome(c, false, Precision.DOUBLE));
+        exactAverage = reducer.reduce(exact).getAverage();
+        exactMemory  = (long) n * n * Precision.bytesPerCost(Precision.DOUBLE);
+
+        // the double precision is measured against itself
+        if (m == Precision.DOUBLE) {
+            reducedAverage = exactAverage;
+            reducedMemory  = exactMemory;
+            return;
+        }
+        CompactMatrix reduced = dijkstra.allPairs(
+            SparseGraph.fromChromosome(c, false, m), m,
+            Precision.getScale(m, n));
+        reducedAverage = reducer.reduce(reduced).getAverage();
+        reducedMemory  = reduced.getMemory();
+
+        double[] row = new double[n];
+        double sumRelError = 0.0;
+        int pairs = 0;
+        for (int i = 0; i < n; i++) {
+            reduced.getRow(i, row);
+            for (int j = 0; j < n; j++) {
+                boolean finite1 = exact[i][j] != Double.POSITIVE_INFINITY;
+                boolean finite2 = row[j] != Double.POSITIVE_INFINITY;
+                if (finite1 != finite2) mismatches++;
+                if (!finite1 || !finite2 || i == j) continue;
+                double abs = Math.abs(row[j] - exact[i][j]);
+                double rel = (exact[i][j] == 0) ? 0.0 : abs / exact[i][j];
+                if (abs > maxAbsError) maxAbsError = abs;
+                if (rel > maxRelError) maxRelError = rel;
+                sumRelError += rel;
+                pairs++;
+            }
+        }
+        if (pairs > 0) meanRelError = sumRelError / pairs;
+    }
+
+    /**
+     * Returns the precision being measured.
+     * @return  the precision, as defined in <code>Precision</code>
+     */
+    public int getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the largest absolute error of a minimal path cost.
+     * @return  the largest absolute error
+     */
+    public double getMaxAbsError() {
+        return maxAbsError;
+    }
+
+    /**
+     * Returns the largest relative error of a minimal path cost.
+     * @return  the largest relative error
+     */
+    public double getMaxRelError() {
+        return maxRelError;
+    }
+
+    /**
+     * Returns the mean relative error of the minimal path costs.
+     * @return  the mean relative error
+     */
+    public double getMeanRelError() {
+        return meanRelError;
+    }
+
+    /**
+     * Returns the number of pairs of nodes which are connected in one
+     * precision, but not in the other. This should always be 0.
+     * @return  the number of pairs whose reachability differs
+     */
+    public int getMismatches() {
+        return mismatches;
+    }
+
+    /**
+     * Returns the average minimal path cost found from the exact costs.
+     * @return  the average minimal path cost in double precision
+     */
+    public double getExactAverage() {
+        return exactAverage;
+    }
+
+    /**
+     * Returns the average minimal path cost found in the precision.
+     * @return  the average minimal path cost in the measured precision
+     */
+    public double getReducedAverage() {
+        return reducedAverage;
+    }
+
+    /**
+     * Returns the number of bytes taken by the minimal path costs held as
+     * doubles.
+     * @return  the memory of the matrix of doubles
+     */
+    public long getExactMemory() {
+        return exactMemory;
+    }
+
+    /**
+     * Returns the number of bytes taken by the minimal path costs held in
+     * the precision.
+     * @return  the memory of the matrix in the measured precision
+     */
+    public long getReducedMemory() {
+        return reducedMemory;
+    }
+
+    /**
+     * Returns the report as text.
+     * @return  the report
+     */
+    public String toString() {
+        return "Precision " + Precision.getName(mode) + ", " + n + " nodes:" +
+               "\n    max absolute error  = " + maxAbsError +
+               "\n    max relative error  = " + maxRelError +
+               "\n    mean relative error = " + meanRelError +
+               "\n    reachability mismatches = " + mismatches +
+               "\n    average path cost   = " + reducedAverage +
+               " (double: " + exactAverage + ")" +
+               "\n    memory              = " + reducedMemory +
+               " bytes (double: " + exactMemory + " bytes)";
+    }
+}
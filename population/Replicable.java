@@ -0,0 +1,37 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+/**
+ * This interface is implemented by the cost functions and the engines that
+ * can be given to each worker thread of <code>ParallelEvaluator</code>. The
+ * sequential engines keep scratch buffers between calls, so an instance
+ * must not be used by two threads at once; a replica has the same settings
+ * but buffers of its own. An object holding no such state, such as
+ * <code>ParallelAPSP</code>, may return itself.<p>
+ *
+ * A replica must be of the same class as the object replicated. A cost
+ * function replicated as its parent class would measure another thing, so
+ * a subclass that does not create replicas of its own class is not
+ * replicated, and is applied by one thread at a time.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     ParallelEvaluator
+ */
+public interface Replicable {
+    /**
+     * Creates an object with the same settings as this one, which may be
+     * used by another thread at the same time as this one.
+     *
+     * @return  the replica, or <code>null</code> if this object cannot be
+     *          replicated, such as when an engine it uses cannot
+     */
+    public Object replicate();
+}
@@ -11,29 +11,50 @@ package population;
 import utility.*;
 
 /**
- * Calculates the node to node resistance within a network.
+ * Calculates the node to node resistance within a network. There are 2
+ * modes for the calculation. The default mode enumerates the paths with
+ * <code>BFSResistance</code>, which only approximates the resistance and
+ * grows exponentially with the density of the network. The electrical mode
+ * solves the graph Laplacian with <code>ElectricalResistance</code>, which
+ * gives the exact effective resistance in polynomial time.
  *
  * @author  Andy Hao-Wei Lo
- * @version 0.4.1
+ * @version 0.4.2
  * @see BFSResistance
+ * @see ElectricalResistance
  */
-public class Resistance implements Function {
+public class Resistance implements Function, Replicable {
     
     /**
      * if set to true, the calculations for the resistance will use unit cost
      * for the edges, or else, the actual each cost will be used.
      */
     private boolean useUnitResistance;
+
+    /**
+     * The mode where the resistance is approximated by enumerating the paths
+     * between nodes.
+     */
+    public static final int PATH_ENUMERATION = 0;
+    /**
+     * The mode where the effective resistance is solved from the graph
+     * Laplacian.
+     */
+    public static final int ELECTRICAL = 1;
+
+    // the mode of the calculation
+    private int mode = PATH_ENUMERATION;
     
-    DijkstraMatrix dm;
+    // finds the average of the resistance matrix
+    MatrixReducer reducer = new MatrixReducer();
     BFSResistance bfs;
+    ElectricalResistance electrical;
     
     /**
      * The default instance of Resistance will use the actual edge cost for 
      * calculating the resistance.
      */
     public Resistance () {
-        dm  = new DijkstraMatrix();
         useUnitResistance = false;
         bfs = new BFSResistance(useUnitResistance);        
     }
@@ -46,11 +67,104 @@ public class Resistance implements Function {
      * @param   use <code>true</code>, if unit edge cost is to be used.
      */
     public Resistance (boolean use) {
-        dm  = new DijkstraMatrix();
         useUnitResistance = use;
         bfs = new BFSResistance(useUnitResistance);        
     }
+
+    /**
+     * This constructs an instance of Resistance specifying whether the 
+     * algorithm will use unit edge cost or the actual edge cost, and the
+     * mode of the calculation.
+     *
+     * @param   use     <code>true</code>, if unit edge cost is to be used.
+     * @param   m       <code>PATH_ENUMERATION</code> or
+     *                  <code>ELECTRICAL</code>
+     * @throws  PreconditionException if the mode is unknown
+     */
+    public Resistance (boolean use, int m) throws PreconditionException {
+        this(use);
+        setMode(m);
+    }
+
+    /**
+     * Selects the mode of the calculation.
+     * @param   m   <code>PATH_ENUMERATION</code> or <code>ELECTRICAL</code>
+     * @throws  PreconditionException if the mode is unknown
+     */
+    public void setMode(int m) throws PreconditionException {
+        Assertion.pre( m == PATH_ENUMERATION || m == ELECTRICAL,
+                       "Resistance mode " + m + " is selected",
+                       "ERROR!!! Unknown mode of resistance: " + m);
+        if (m == ELECTRICAL && electrical == null)
+            electrical = new ElectricalResistance(useUnitResistance);
+        mode = m;
+    }
+
+    /**
+     * Limits the number of hops of the paths that are enumerated in the
+     * default mode.
+     * @param   max     the most hops of a path, or 0 for no limit
+     * @throws  PreconditionException if the length is negative
+     */
+    public void setMaxPathLength(int max) throws PreconditionException {
+        bfs.setMaxPathLength(max);
+    }
+
+    /**
+     * Sets the time allowed to enumerate the paths of one network in the
+     * default mode. When the time runs out, the longer paths are ignored.
+     * @param   millis  the time in milliseconds, or 0 for no limit
+     * @throws  PreconditionException if the time is negative
+     */
+    public void setTimeBudget(long millis) throws PreconditionException {
+        bfs.setTimeBudget(millis);
+    }
     
+    /**
+     * Selects the reducer which finds the aggregates of the matrices.
+     * @param   r   the matrix reducer to use
+     * @throws  PreconditionException if the reducer is null
+     */
+    public void setReducer(MatrixReducer r) throws PreconditionException {
+        Assertion.pre( r != null, "A new matrix reducer is selected",
+                       "ERROR!!! The matrix reducer MUST NOT be null");
+        this.reducer = r;
+    }
+
+    /**
+     * Creates a function with the same mode and limits, whose path
+     * enumerator and solver are its own, so that each worker thread owns
+     * one. The reducer is shared. The function is created by
+     * <code>newReplica</code>, so that it is of the same class as this one.
+     * @return  the new function, or <code>null</code> if a subclass does
+     *          not create its own kind
+     */
+    public Object replicate() {
+        Resistance copy = newReplica();
+        if (copy == null || copy.getClass() != getClass()) return null;
+        copy.setMode(mode);
+        copy.setMaxPathLength(bfs.getMaxPathLength());
+        copy.setTimeBudget(bfs.getTimeBudget());
+        copy.setReducer(reducer);
+        if (electrical != null) {
+            if (copy.electrical == null)
+                copy.electrical = new ElectricalResistance(useUnitResistance);
+            copy.electrical.setDenseLimit(electrical.getDenseLimit());
+        }
+        return copy;
+    }
+
+    /**
+     * Creates the function to which <code>replicate</code> copies the mode
+     * and the limits of this one. A subclass overrides it to be replicated.
+     * @return  a new function of the same class, using unit edge cost if
+     *          this one does
+     * @see     Replicable
+     */
+    protected Resistance newReplica() {
+        return new Resistance(useUnitResistance);
+    }
+
     /**
      * Map the function that calculates average resistance on to a population
      * of chromosomes.
@@ -73,15 +187,18 @@ public class Resistance implements Function {
 
     /**
      * Calculates the average resistance within the network, represented by
-     * the chromosome. This is an approximation by treating each path as
-     * independent regardless of branches and merges at vertices.
+     * the chromosome. By default, this is an approximation by treating each
+     * path as independent regardless of branches and merges at vertices.
+     * In the electrical mode, it is the exact effective resistance.
      *
      * @param   c       the chromosome to which the function is applied
 	 * @param   index   the index of this cost function
      */
     public void apply(Chromosome c, int index) {
         // obtain the resistance matrix
-        double[][] matrix = bfs.getResistance(c);
+        double[][] matrix = (mode == ELECTRICAL) ? 
+                            electrical.getResistance(c) :
+                            bfs.getResistance(c);
         // if doAvg is set, get the average, otherwise get the maximum
         double result = getAverage(matrix);
         // store the result as fitness
@@ -94,7 +211,7 @@ public class Resistance implements Function {
      * @return  the average degree of separation of nodes in the network
      */
     private double getAverage(double[][] m) {
-        return dm.getAverage(m);
+        return reducer.reduce(m).getAverage();
     }    
     
 }
@@ -0,0 +1,370 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import java.lang.ref.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Recycles the rows of the n x n matrices built while evolving, such as the
+ * adjacency matrices of the chromosomes, the link matrices counting hops,
+ * and the intermediate matrices of <code>DijkstraMatrix</code>, so that a
+ * generation does not leave dozens of matrices for the garbage collector.
+ * A row given back to the arena is handed out again by the next request for
+ * a row of the same length.<p>
+ *
+ * Each thread owns its own arena, obtained with <code>local</code>, so rows
+ * are taken and given without locking. A row taken from the arena of one
+ * thread, such as the adjacency matrix of a chromosome assessed by a worker
+ * of <code>ParallelEvaluator</code>, may be given back to that arena by
+ * another thread: it is queued, and reused by the owner once the owner
+ * runs out of rows of its length. An arena holds at most
+ * <code>netsim.arena.rows</code> rows of each length (4096 by default), and
+ * drops any row given beyond that. The arenas are only held by their
+ * threads and the matrices taken from them, so the rows of a thread which
+ * has finished are collected with its arena.<p>
+ *
+ * A row handed out by the arena holds arbitrary values, and must be filled
+ * by the caller. A row must only be given back once nothing refers to it
+ * any more: the row is overwritten by its next user.<p>
+ *
+ * The arenas count the rows they hand out, reuse, are given back and drop,
+ * so that the allocation per generation can be checked with
+ * <code>statistics</code>.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     Chromosome#recycle
+ */
+public final class RowArena {
+    /**
+     * The name of the system property holding the number of rows of each
+     * length kept by an arena.
+     */
+    public static final String ROWS_PROPERTY = "netsim.arena.rows";
+
+    /**
+     * The number of rows of each length kept by an arena, unless the system
+     * property <code>netsim.arena.rows</code> is set.
+     */
+    public static final int DEFAULT_ROWS = 4096;
+
+    // the number of rows of each length kept by an arena
+    private static final int MAX_ROWS = Math.max(0,
+        Integer.getInteger(ROWS_PROPERTY, DEFAULT_ROWS).intValue());
+
+    // every arena created, held weakly, so that their counts can be summed
+    private static final ArrayList arenas = new ArrayList();
+    // the references to the arenas collected
+    private static final ReferenceQueue collected = new ReferenceQueue();
+    // the counts of the arenas collected
+    private static final Counts retired = new Counts();
+
+    // whether rows are recycled; otherwise every row is allocated
+    private static volatile boolean enabled = true;
+
+    // the arena of each thread
+    private static final ThreadLocal local = new ThreadLocal() {
+        protected Object initialValue() {
+            RowArena arena = new RowArena();
+            synchronized (arenas) {
+                expunge();
+                arenas.add(new Entry(arena));
+            }
+            return arena;
+        }
+    };
+
+    /**
+     * The counts of an arena, written only by its thread, which outlive the
+     * arena so that the totals still include them.
+     */
+    private static final class Counts {
+        volatile long taken, reused, given, dropped, allocatedBytes;
+    }
+
+    /**
+     * A weak reference to an arena, holding its counts.
+     */
+    private static final class Entry extends WeakReference {
+        final Counts counts;
+
+        Entry(RowArena arena) {
+            super(arena, collected);
+            counts = arena.counts;
+        }
+    }
+
+    // the thread owning this arena
+    private final Thread owner = Thread.currentThread();
+    // the rows kept, in a stack for each length
+    private final HashMap pools = new HashMap();
+    // the rows given back by other threads, until the owner takes them
+    private final ConcurrentLinkedQueue returned = new ConcurrentLinkedQueue();
+    // the counts of this arena
+    private final Counts counts = new Counts();
+
+    /**
+     * An arena is obtained with <code>local</code>.
+     */
+    private RowArena() {
+    }
+
+    /**
+     * Returns the arena of the current thread.
+     * @return  the arena of the current thread
+     */
+    public static RowArena local() {
+        return (RowArena) local.get();
+    }
+
+    /**
+     * Chooses whether rows are recycled. If not, every row is allocated,
+     * and rows given back are dropped, so the two can be compared.
+     * @param   on  set <code>true</code> to recycle rows
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Checks whether rows are recycled.
+     * @return  <code>true</code>, if rows are recycled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Hands out a row of a given length, holding arbitrary values.
+     * @param   n   the length of the row
+     * @return  the row
+     */
+    public double[] takeRow(int n) {
+        Counts c = counts;
+        c.taken++;
+        if (enabled) {
+            ArrayList pool = (ArrayList) pools.get(Integer.valueOf(n));
+            if ((pool == null || pool.isEmpty()) && !returned.isEmpty()) {
+                takeReturned();
+                pool = (ArrayList) pools.get(Integer.valueOf(n));
+            }
+            if (pool != null && !pool.isEmpty()) {
+                c.reused++;
+                return (double[]) pool.remove(pool.size() - 1);
+            }
+        }
+        c.allocatedBytes += 8L * n;
+        return new double[n];
+    }
+
+    /**
+     * Hands out an n x n matrix, whose rows hold arbitrary values.
+     * @param   n   the number of rows and columns
+     * @return  the matrix
+     */
+    public double[][] takeMatrix(int n) {
+        double[][] m = new double[n][];
+        for (int i = 0; i < n; i++) m[i] = takeRow(n);
+        return m;
+    }
+
+    /**
+     * Gives back a row, which nothing refers to any more. A row given by
+     * another thread than the owner of this arena is queued, and counted
+     * once the owner takes it.
+     * @param   row the row, or <code>null</code>
+     */
+    public void giveRow(double[] row) {
+        if (row == null) return;
+        if (Thread.currentThread() != owner) {
+            returned.add(row);
+            return;
+        }
+        Counts c = counts;
+        c.given++;
+        if (!enabled) {
+            c.dropped++;
+            return;
+        }
+        Integer key = Integer.valueOf(row.length);
+        ArrayList pool = (ArrayList) pools.get(key);
+        if (pool == null) pools.put(key, pool = new ArrayList());
+        if (pool.size() < MAX_ROWS) pool.add(row);
+        else c.dropped++;
+    }
+
+    /**
+     * Moves the rows given back by other threads into the pools, on the
+     * owner's thread.
+     */
+    private void takeReturned() {
+        double[] row;
+        while ((row = (double[]) returned.poll()) != null) giveRow(row);
+    }
+
+    /**
+     * Gives back every row of a matrix, which nothing refers to any more.
+     * @param   m   the matrix, or <code>null</code>
+     */
+    public void giveMatrix(double[][] m) {
+        giveMatrix(m, null);
+    }
+
+    /**
+     * Gives back the rows of a matrix, except those which are also rows of
+     * another matrix that is still in use, such as a result which shares
+     * rows with its input.
+     * @param   m       the matrix, or <code>null</code>
+     * @param   keep    the matrix whose rows are kept, or <code>null</code>
+     */
+    public void giveMatrix(double[][] m, double[][] keep) {
+        if (m == null || m == keep) return;
+        IdentityHashMap kept = new IdentityHashMap();
+        if (keep != null)
+            for (int i = 0; i < keep.length; i++) kept.put(keep[i], keep);
+        for (int i = 0; i < m.length; i++)
+            if (!kept.containsKey(m[i])) giveRow(m[i]);
+    }
+
+    /**
+     * Returns the number of rows kept by this arena for reuse, including
+     * those given back by other threads. It is called by the owner.
+     * @return  the number of rows held
+     */
+    public int size() {
+        takeReturned();
+        int size = 0;
+        Iterator it = pools.values().iterator();
+        while (it.hasNext()) size += ((ArrayList) it.next()).size();
+        return size;
+    }
+
+    /**
+     * Returns the number of rows handed out by this arena.
+     * @return  the number of rows taken
+     */
+    public long getTaken() {
+        return counts.taken;
+    }
+
+    /**
+     * Returns the number of rows handed out by this arena which were given
+     * back before, instead of allocated.
+     * @return  the number of rows reused
+     */
+    public long getReused() {
+        return counts.reused;
+    }
+
+    /**
+     * Returns the number of rows given back to this arena.
+     * @return  the number of rows given
+     */
+    public long getGiven() {
+        return counts.given;
+    }
+
+    /**
+     * Returns the number of rows given back to this arena, but dropped as
+     * it held enough rows of their length.
+     * @return  the number of rows dropped
+     */
+    public long getDropped() {
+        return counts.dropped;
+    }
+
+    /**
+     * Returns the number of bytes of the rows allocated by this arena.
+     * @return  the bytes allocated
+     */
+    public long getAllocatedBytes() {
+        return counts.allocatedBytes;
+    }
+
+    /**
+     * Sets the counts of every arena to 0. The rows kept are not dropped.
+     */
+    public static void resetStatistics() {
+        synchronized (arenas) {
+            expunge();
+            reset(retired);
+            for (int a = 0; a < arenas.size(); a++)
+                reset(((Entry) arenas.get(a)).counts);
+        }
+    }
+
+    /**
+     * Sets some counts to 0.
+     */
+    private static void reset(Counts c) {
+        c.taken = c.reused = c.given = 0;
+        c.dropped = c.allocatedBytes = 0;
+    }
+
+    /**
+     * Sums the counts of the arenas of every thread. The elements are the
+     * rows taken, reused, given back and dropped, and the bytes allocated.
+     * @return  the sums of the counts
+     */
+    public static long[] totals() {
+        long[] sum = new long[5];
+        synchronized (arenas) {
+            expunge();
+            add(sum, retired);
+            for (int a = 0; a < arenas.size(); a++)
+                add(sum, ((Entry) arenas.get(a)).counts);
+        }
+        return sum;
+    }
+
+    /**
+     * Adds some counts to the sums of the counts.
+     */
+    private static void add(long[] sum, Counts c) {
+        sum[0] += c.taken;
+        sum[1] += c.reused;
+        sum[2] += c.given;
+        sum[3] += c.dropped;
+        sum[4] += c.allocatedBytes;
+    }
+
+    /**
+     * Adds the counts of the arenas collected to the retired counts, and
+     * forgets the arenas. It is called while holding the list of arenas.
+     */
+    private static void expunge() {
+        Entry e;
+        while ((e = (Entry) collected.poll()) != null) {
+            Counts c = e.counts;
+            retired.taken += c.taken;
+            retired.reused += c.reused;
+            retired.given += c.given;
+            retired.dropped += c.dropped;
+            retired.allocatedBytes += c.allocatedBytes;
+            arenas.remove(e);
+        }
+    }
+
+    /**
+     * Describes the counts of the arenas of every thread.
+     * @return  the rows taken, reused, given back and dropped, and the
+     *          bytes allocated
+     */
+    public static String statistics() {
+        long[] sum = totals();
+        double rate = (sum[0] == 0) ? 0.0 : (double) sum[1] / sum[0];
+        return "RowArena: " + sum[0] + " rows taken, " + sum[1] +
+               " reused (" + Math.round(rate * 1000) / 10.0 + "%), " +
+               sum[2] + " given back, " + sum[3] + " dropped, " +
+               sum[4] + " bytes allocated";
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import java.util.Arrays;
+
+/**
+ * Computes a row of the min-plus product with plain Java loops. The loops
+ * are ordered so that the innermost one runs along a row of the second
+ * matrix, and it has no branch: adding <code>Double.POSITIVE_INFINITY</code>
+ * to a non-negative cost already gives infinity, and the smaller of two
+ * sums is taken with a comparison the JIT compiler can turn into a
+ * conditional move. A whole row of the second matrix is skipped when the
+ * cost to reach it is infinite.<p>
+ *
+ * The minimum of the same sums is found as in the original loop of
+ * <code>DijkstraMatrix</code>, so the results are identical. This is the
+ * fallback when the Vector API is not available. An instance holds no
+ * state, so it may be shared between threads.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     MinPlusKernels
+ */
+public class ScalarMinPlus implements MinPlusKernel {
+
+    /**
+     * Computes one row of the min-plus product of a row vector and a
+     * matrix.
+     *
+     * @param   a       the row of the first matrix, of length n
+     * @param   b       the second matrix, of dimension n x n
+     * @param   result  storage of length n for the row of the product
+     */
+    public void row(double[] a, double[][] b, double[] result) {
+        int n = result.length;
+        Arrays.fill(result, Double.POSITIVE_INFINITY);
+        for (int k = 0; k < a.length; k++) {
+            double ak = a[k];
+            if (ak == Double.POSITIVE_INFINITY) continue;
+            double[] bk = b[k];
+            for (int j = 0; j < n; j++) {
+                double sum = ak + bk[j];
+                result[j] = (sum < result[j]) ? sum : result[j];
+            }
+        }
+    }
+}
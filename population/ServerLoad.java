@@ -22,7 +22,7 @@ import population.graph.*;
  * @see     SetOfChromosomes
  * @acknowledgement Matthew Berryman, Wei-li Khoo and Hiep Nguyen
  */
-public class ServerLoad implements Function {
+public class ServerLoad implements Function, Replicable {
     
     /**
      * Constructs a default instance of the function
@@ -30,6 +30,15 @@ public class ServerLoad implements Function {
     public ServerLoad() {
         
     }
+
+    /**
+     * Returns this function, as it holds no state and may be shared
+     * between threads.
+     * @return  this function
+     */
+    public Object replicate() {
+        return this;
+    }
     
     /**
      * Applies the function to each of the chromosome in the population
@@ -47,13 +56,14 @@ public class ServerLoad implements Function {
     }
 
     /**
-     * Sums the load factor of the server nodes in the network.
+     * Sums the load factor of the server nodes in the network. The loads
+     * are read from the view of the graph, which clones no nodes.
      * @param   c       the chromosome to which the function is applied
 	 * @param   index   the index of this cost function
      */
     public void apply(Chromosome c, int index) {        
-        // obtain graph from this chromosome
-        Graph g = c.getGraph();
+        // obtain the view of the graph from this chromosome
+        GraphView g = c.getGraphView();
         // retrieve the number of nodes in the graph
         int numNodes = g.numNodes();
         
@@ -64,7 +74,7 @@ public class ServerLoad implements Function {
         for (int i = 0; i < numNodes; i++) {
             n = g.getNode(i);
             if ( (n.getLabel()).startsWith("SERVER") )
-                load += ((NodeImp) n).getLoad();
+                load += g.getLoad(i);
         }
         
         //c.setFitness(load);
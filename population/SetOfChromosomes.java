@@ -134,6 +134,8 @@ public class SetOfChromosomes {
     /**
      * Method to determine if these pair of Chromosomes are equivalent
      * Chromosomes/Networks (Clones of Chromosomes/Networks)
+     * The Chromosomes are compared by their hashes first, so Networks that
+     * differ are told apart without comparing their links.
      * @param   pair    An array that contains Chromosomes (Networks) to be 
      *                  determined if they are identical
      * @return  <code>true</code>, if the Networks are clones of each other, 
@@ -145,99 +147,15 @@ public class SetOfChromosomes {
 	 * # of arbitrary length, array need not be of size two.
      */
 		// If there are less than two Chromosomes in "pair", they can't be twins
-		if(pair.length < 2) {
-//Debugger.printErr("Number of elements in pair is less than 0");
-//System.out.println("Number of elements in pair is less than 0");
+		if(pair.length < 2 || pair[0] == null) {
 			return false;
 		}
-		// Contents of the first Chromosome
-		if(pair[0] == null) {
-			/**
-			 * If a Chromosome is referenced to null,
-			 * the Chromosomes can't be twins
-			 */
-//Debugger.printErr("The first element of pair is referenced to null");
-//System.out.println("The first element of pair is referenced to null");
-			return false;
-		}
-		// Get the first Chromosome
-		Chromosome firstChromo = pair[0];
-		// Get the ArrayList of lists of destination nodes
-		ArrayList firstChromoList = firstChromo.getDataArray();
-		// List of  destination nodes
-		ArrayList cellList;
-		// A destination node
-		NodeImp cellListEntry;
-
-		// Contents of the other Chromosomes
-		// Get the (i)^{th} chromosome
-		Chromosome otherChromo;
-		// The ArrayList of lists of destination nodes for the (i)^{th} chromosome
-		ArrayList otherChromoList;
-		// List of destination nodes for the (i)^{th} chromosome
-		ArrayList otherCellList;
-		// Destination nodes for the (i)^{th} chromosome
-		NodeImp otherCellListEntry;
-		
-		// For each chromosome in the array...
-		for(int i=0; i<pair.length; i++) {
-			if(pair[i] == null) {
-				/**
-				 * If a Chromosome is referenced to null,
-				 * the Chromosomes can't be twins
-				 */
-//Debugger.printErr("An element in pair is referenced to null");
-//System.out.println("An element in pair is referenced to null");
+		// Compare every other Chromosome with the first Chromosome
+		for(int i=1; i<pair.length; i++) {
+			if(!pair[0].sameLinks(pair[i])) {
 				return false;
 			}
-			// Get the (i)^{th} Chromosome of the array
-			otherChromo = pair[i];
-			// Get its data array
-			otherChromoList = otherChromo.getDataArray();
-			// Check whether its data array is equal to that of the first chromosome
-			for(int j=0;j<firstChromoList.size();j++) {
-				// Get the list of  destination nodes for the (j)^{th} Node
-				cellList = (ArrayList)firstChromoList.get(j);
-				otherCellList = (ArrayList)otherChromoList.get(j);
-				
-				// Are these adjacency lists of the same size
-				if(cellList.size() != otherCellList.size()) {
-					// No, the Chromosomes are not twins
-//Debugger.printErr("The sizes of the adjacency lists are not equal");
-//System.out.println("The sizes of the adjacency lists are not EQUAL");
-//System.out.println("j is; "+j+" & i is: "+i);
-					return false;
-				}
-				
-				// Check if each destination node is the same in these lists
-				for(int k=0;k<cellList.size();k++) {
-					// Get the (k)^{th} destination node in the list
-					cellListEntry = (NodeImp)cellList.get(k);
-					/**
-					 * Determine if this Node exists in the adjacency list
-					 * of the other Chromosome
-					 */
-					if(!otherCellList.contains(cellListEntry)) {
-						// No, the Chromosomes are not twins
-//Debugger.printErr("The adjacency lists of the chromosomes in pair do not match");
-//System.out.println("The adjacency lists of the chromosomes in pair do not match");
-//Debugger.printErr("k is: "+k+" & j is: "+j+" & i is: "+i);
-//System.out.println("k is: "+k+" & j is: "+j+" & i is: "+i);
-						return false;
-					}
-					
-					//otherCellListEntry = (NodeImp)otherCellList.get(k);
-					// Are these nodes the same
-					//if(!cellListEntry.equals(otherCellListEntry)) {
-					// if(!cellListEntry.equals(otherCellListEntry)) {
-						// No, they are not.
-						// Hence, these Chromosomes are not twins
-						//return false;
-					//}
-				}
-			}
 		}
-		
 		return true;
     }
     
@@ -0,0 +1,250 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+// Importing packages
+import java.util.ArrayList;
+import java.util.Arrays;
+import utility.*;
+import population.graph.*;
+
+/**
+ * A compact, read-only representation of the edges of a network in the
+ * compressed sparse row (CSR) format. The outgoing edges of node "i" are
+ * stored in positions <code>rowStart[i]</code> upto, but not including,
+ * <code>rowStart[i+1]</code> of the arrays <code>target</code> and
+ * <code>cost</code>.<p>
+ *
+ * Unlike the adjacency matrix, which always holds n x n elements, this
+ * structure only stores the edges that exist. It is used by the sparse
+ * shortest path engines, which only need to iterate the real edges of a
+ * node. A chromosome stores the sparse graph of its network, which is
+ * obtained with <code>Chromosome.getSparseGraph</code>.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     HeapDijkstra
+ */
+public class SparseGraph {
+    // the number of nodes in the network
+    private final int n;
+    // the offset of the first outgoing edge of each node; length n+1
+    private final int[] rowStart;
+    // the index of the destination node of each edge
+    private final int[] target;
+    // the cost of each edge
+    private final double[] cost;
+
+    /**
+     * Constructs a sparse graph from the arrays in CSR format. The arrays
+     * are not copied.
+     *
+     * @param   numNodes    the number of nodes in the network
+     * @param   rowStart    the offsets of the outgoing edges of each node
+     * @param   target      the destination node of each edge
+     * @param   cost        the cost of each edge
+     * @throws  PreconditionException if the arrays are inconsistent
+     */
+    public SparseGraph(int numNodes, int[] rowStart, int[] target,
+    double[] cost) throws PreconditionException {
+        Assertion.pre( rowStart.length == numNodes + 1 &&
+                       target.length == cost.length &&
+                       rowStart[numNodes] <= target.length,
+                       "The graph has " + numNodes + " nodes",
+                       "ERROR!!! The CSR arrays are inconsistent");
+        this.n        = numNodes;
+        this.rowStart = rowStart;
+        this.target   = target;
+        this.cost     = cost;
+    }
+
+    /**
+     * Constructs a sparse graph from an adjacency matrix. Every element,
+     * which is not on the diagonal and is not
+     * <code>Double.POSITIVE_INFINITY</code>, is considered as an edge.
+     *
+     * @param   m   an n x n adjacency matrix
+     * @return  the sparse representation of the matrix
+     * @throws  PreconditionException if the matrix is not a square matrix
+     * @throws  PreconditionException if the matrix contains a negative cost
+     */
+    public static SparseGraph fromMatrix(double[][] m)
+    throws PreconditionException {
+        int dim = m.length;
+        // count the edges, and check the dimension at the same time
+        int numEdges = 0;
+        for (int i = 0; i < dim; i++) {
+            if( m[i].length != dim ) {
+                throw new PreconditionException("    ERROR!!! Row " + i +
+                    " of the matrix has only " + m[i].length +
+                    " elements.\n    Each row should have " +
+                    dim + " elements!");
+            }
+            for (int j = 0; j < dim; j++) {
+                if (i == j || m[i][j] == Double.POSITIVE_INFINITY) continue;
+                if (m[i][j] < 0) {
+                    throw new PreconditionException("    ERROR!!! Element (" +
+                        i + "," + j + ") has a negative cost of " + m[i][j]);
+                }
+                numEdges++;
+            }
+        }
+
+        int[]    start = new int[dim + 1];
+        int[]    dest  = new int[numEdges];
+        double[] costs = new double[numEdges];
+        int e = 0;
+        for (int i = 0; i < dim; i++) {
+            start[i] = e;
+            for (int j = 0; j < dim; j++) {
+                if (i == j || m[i][j] == Double.POSITIVE_INFINITY) continue;
+                dest[e]  = j;
+                costs[e] = m[i][j];
+                e++;
+            }
+        }
+        start[dim] = e;
+        return new SparseGraph(dim, start, dest, costs);
+    }
+
+    /**
+     * Constructs a sparse graph directly from the cells of a chromosome,
+     * without building the n x n adjacency matrix. The same rules as
+     * <code>Chromosome.getAdjacencyMatrix()</code> apply: deactivated nodes
+     * neither have outgoing nor incoming edges, and the cost of the edge is
+     * obtained from <code>EdgeCostMatrix</code>.<p>
+     *
+     * If <code>unitCost</code> is set, every edge will have a cost of 1,
+     * which is the link matrix used to count the number of hops. Otherwise,
+     * the costs are rounded to the precision selected in
+     * <code>Precision</code>.
+     *
+     * @param   c           the chromosome representing the network
+     * @param   unitCost    set <code>true</code> to give every edge unit cost
+     * @return  the sparse representation of the network
+     */
+    public static SparseGraph fromChromosome(Chromosome c, boolean unitCost) {
+        return fromChromosome(c, unitCost, Precision.getMode());
+    }
+
+    /**
+     * Constructs a sparse graph directly from the cells of a chromosome,
+     * with the edge costs rounded to a given precision.
+     *
+     * @param   c           the chromosome representing the network
+     * @param   unitCost    set <code>true</code> to give every edge unit cost
+     * @param   precision   the precision of the costs, as defined in
+     *                      <code>Precision</code>
+     * @return  the sparse representation of the network
+     */
+    public static SparseGraph fromChromosome(Chromosome c, boolean unitCost,
+    int precision) {
+        ArrayList nodes = c.getNodeList();
+        int dim = c.getLength();
+        double scale = (unitCost) ? 1.0 : Precision.getScale(precision, dim);
+
+        // the chromosome gives the index of each destination node
+        boolean[] active = new boolean[dim];
+        for (int i = 0; i < dim; i++)
+            active[i] = ((Repairable) nodes.get(i)).activated();
+
+        int[] start = new int[dim + 1];
+        int numEdges = 0;
+        for (int i = 0; i < dim; i++)
+            if (active[i]) numEdges += c.getDegree(i);
+
+        int[]    dest  = new int[numEdges];
+        double[] costs = new double[numEdges];
+        /**
+         * the source node that last linked to each node, so that a node
+         * listed twice in a cell only gives one edge, as in the matrix
+         */
+        int[] lastSource = new int[dim];
+        Arrays.fill(lastSource, -1);
+        int e = 0;
+        for (int i = 0; i < dim; i++) {
+            start[i] = e;
+            if (!active[i]) continue;
+            for (int j = 0; j < c.getDegree(i); j++) {
+                int k = c.getLink(i, j);
+                if (!active[k] || k == i || lastSource[k] == i) continue;
+                lastSource[k] = i;
+                dest[e]  = k;
+                costs[e] = (unitCost) ? 1.0 : Precision.quantize(
+                               EdgeCostMatrix.getCost(i, k), precision, scale);
+                e++;
+            }
+        }
+        start[dim] = e;
+        return new SparseGraph(dim, start, dest, costs);
+    }
+
+    /**
+     * Expands the edges into an n x n adjacency matrix, with 0 on the
+     * diagonal and <code>Double.POSITIVE_INFINITY</code> where there is no
+     * edge. Only the edges are visited, besides filling the matrix. The
+     * matrix of a graph with unit costs is the link matrix used to count
+     * the number of hops.
+     * @return  the adjacency matrix
+     */
+    public double[][] toMatrix() {
+        double[][] m = RowArena.local().takeMatrix(n);
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(m[i], Double.POSITIVE_INFINITY);
+            m[i][i] = 0;
+            for (int e = rowStart[i]; e < rowStart[i + 1]; e++)
+                m[i][target[e]] = cost[e];
+        }
+        return m;
+    }
+
+    /**
+     * Returns the number of nodes in the network.
+     * @return  the number of nodes
+     */
+    public int numNodes() {
+        return n;
+    }
+
+    /**
+     * Returns the number of edges in the network.
+     * @return  the number of edges
+     */
+    public int numEdges() {
+        return rowStart[n];
+    }
+
+    /**
+     * Returns the offset of the first outgoing edge of node "i". The edges
+     * of node "i" end before <code>edgeStart(i+1)</code>.
+     * @param   i   the index of the node
+     * @return  the offset of the first outgoing edge of the node
+     */
+    public int edgeStart(int i) {
+        return rowStart[i];
+    }
+
+    /**
+     * Returns the index of the destination node of edge "e".
+     * @param   e   the offset of the edge
+     * @return  the index of the destination node
+     */
+    public int target(int e) {
+        return target[e];
+    }
+
+    /**
+     * Returns the cost of edge "e".
+     * @param   e   the offset of the edge
+     * @return  the cost of the edge
+     */
+    public double cost(int e) {
+        return cost[e];
+    }
+}
@@ -13,7 +13,8 @@ import java.util.Arrays;
 
 /**
  * This function calculates the total cost of edges within a network 
- * represented by a chromosome.
+ * represented by a chromosome. Only the edges that exist are visited, from
+ * the sparse graph stored in the chromosome.
  *
  * @author  Andy Hao-Wei Lo
  * @version 0.3.8
@@ -22,10 +23,17 @@ import java.util.Arrays;
  * @see     SetOfChromosomes
  * @acknowledgement Matthew Berryman, Wei-li Khoo and Hiep Nguyen
  */
-public class TotalEdgeCost implements Function {
-    
-    DijkstraMatrix dm = new DijkstraMatrix();
-    
+public class TotalEdgeCost implements Function, Replicable {
+
+    /**
+     * Returns this function, as it holds no state and may be shared
+     * between threads.
+     * @return  this function
+     */
+    public Object replicate() {
+        return this;
+    }
+
     /**
      * Calculates the sum of costs of edges for each chromosome.
      * @param   pop     The chromosome population.
@@ -43,28 +51,37 @@ public class TotalEdgeCost implements Function {
     }
 
     /**
-     * Computes the sum of all edges in the network using the adjacency 
-     * matrix associated with a Chromosome
+     * Computes the sum of all edges in the network using the sparse graph
+     * associated with a Chromosome
      * @param   c       the chromosome to which the function is applied
 	 * @param   index   the index of this cost function
      */
 	// pass in index representing cost function
     public void apply(Chromosome c, int index) {        
-        // obtain the adjacency matrix
-        double[][] matrix = c.getAdjacencyMatrix();
+        // obtain the edges of the network
+        SparseGraph g = c.getSparseGraph(false);
         // calculate the result
-        double result = getSum(matrix);
+        double result = getSum(g);
         // store the result as fitness
         //c.setFitness(result);
 		c.insertIntoFitArr(index, result);
     }
     
     /**
-     * Perform summation on an adjacency matrix
-     * @param   m   the matrix from which the sum will be determined
+     * Perform summation on the edges of a network. The costs of each node
+     * are added first, and the sums of the nodes are added in order, as the
+     * rows of the adjacency matrix were.
+     * @param   g   the graph from which the sum will be determined
      * @return  the total cost of edges in the network
      */
-    private double getSum(double[][] m) {
-        return dm.getSum(m);
+    private double getSum(SparseGraph g) {
+        double sum = 0.0;
+        for (int i = 0; i < g.numNodes(); i++) {
+            double rowSum = 0.0;
+            for (int e = g.edgeStart(i); e < g.edgeStart(i + 1); e++)
+                rowSum += g.cost(e);
+            sum += rowSum;
+        }
+        return sum;
     }    
 }
@@ -0,0 +1,184 @@
+/*
+ * population package determines the bahaviour of chromosomes in the
+ * population of the network. That is, each chromosome in the population
+ * represents a network.
+ * The behaviour of chromosmes is determined by modifying the data pertaining
+ * to each chromosome
+ */
+package population;
+
+/**
+ * Determines which nodes can reach which, without the cost or the number of
+ * hops of the paths. This is all the clustering coefficient requires of the
+ * network, so no all-pairs shortest path problem needs to be solved.<p>
+ *
+ * The strongly connected components are found first with Tarjan's
+ * algorithm, which completes a component only after every component it
+ * links to. Each component is given a row of bits, as a <code>long[]</code>
+ * of n/64 words, holding its own nodes and the rows of the components it
+ * links to. The whole closure therefore costs O((n + E) n / 64) word
+ * operations, and the number of nodes reachable from a node is the number
+ * of bits set in its row, counted with <code>Long.bitCount</code>.<p>
+ *
+ * The nodes of a component share the same row. An instance of this class
+ * holds no state, so it may be shared between threads.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     ClusterCoeff
+ */
+public class TransitiveClosure {
+
+    /**
+     * Determines the transitive closure of a network. Bit "j" of row "i" is
+     * set if node "j" can be reached from node "i". Every node is taken to
+     * reach itself.
+     *
+     * @param   g   the network; the edge costs are ignored
+     * @return  a row of bits for each node, which is shared by the nodes of
+     *          the same strongly connected component
+     */
+    public long[][] closure(SparseGraph g) {
+        int n = g.numNodes();
+        int words = (n + 63) >>> 6;
+        long[][] rows = new long[n][];
+        // the rows of the components, in the order they are completed
+        long[][] compRows = new long[n][];
+        int numComp = 0;
+        // the component of each node, -1 if it is not completed
+        int[] comp = new int[n];
+
+        // the order in which the nodes are found, -1 if not found
+        int[] order = new int[n];
+        // the earliest node on the stack reachable from each node
+        int[] low   = new int[n];
+        // the stack of nodes of the components not yet completed
+        int[] stack = new int[n];
+        int sp = 0;
+        // the stack of the search, with the next edge of each node
+        int[] callNode = new int[n];
+        int[] callEdge = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = -1;
+            comp[i]  = -1;
+        }
+
+        int found = 0;
+        for (int root = 0; root < n; root++) {
+            if (order[root] >= 0) continue;
+            int top = 0;
+            callNode[0] = root;
+            callEdge[0] = g.edgeStart(root);
+            order[root] = low[root] = found++;
+            stack[sp++] = root;
+            while (top >= 0) {
+                int u = callNode[top];
+                if (callEdge[top] < g.edgeStart(u + 1)) {
+                    int v = g.target(callEdge[top]++);
+                    if (order[v] < 0) {
+                        // search from "v"
+                        top++;
+                        callNode[top] = v;
+                        callEdge[top] = g.edgeStart(v);
+                        order[v] = low[v] = found++;
+                        stack[sp++] = v;
+                    } else if (comp[v] < 0 && order[v] < low[u]) {
+                        // "v" is still on the stack
+                        low[u] = order[v];
+                    }
+                    continue;
+                }
+                // every edge of "u" is searched
+                if (low[u] == order[u]) {
+                    int first = sp;
+                    do {
+                        comp[stack[--first]] = numComp;
+                    } while (stack[first] != u);
+                    compRows[numComp] = union(g, stack, first, sp, comp,
+                                              compRows, numComp, words);
+                    for (int k = first; k < sp; k++)
+                        rows[stack[k]] = compRows[numComp];
+                    sp = first;
+                    numComp++;
+                }
+                top--;
+                if (top >= 0 && low[u] < low[callNode[top]])
+                    low[callNode[top]] = low[u];
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Determines the number of nodes reachable from each node of a network.
+     *
+     * @param   g   the network; the edge costs are ignored
+     * @return  the number of nodes reachable from each node, excluding the
+     *          node itself
+     */
+    public int[] reachableCounts(SparseGraph g) {
+        long[][] rows = closure(g);
+        int[] counts = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            // the nodes of a component share the count
+            if (i > 0 && rows[i] == rows[i - 1]) {
+                counts[i] = counts[i - 1];
+                continue;
+            }
+            int bits = 0;
+            long[] row = rows[i];
+            for (int w = 0; w < row.length; w++)
+                bits += Long.bitCount(row[w]);
+            counts[i] = bits - 1;
+        }
+        return counts;
+    }
+
+    /**
+     * Obtains the number of nodes reachable from each node of a chromosome.
+     * The counts already stored in the chromosome, either by
+     * <code>DegreeSeparation</code> or by an earlier call, are used if
+     * possible. Otherwise, they are computed and stored.
+     *
+     * @param   c   the chromosome representing the network
+     * @return  the number of nodes reachable from each node, excluding the
+     *          node itself
+     */
+    public int[] reachableCounts(Chromosome c) {
+        HopStats hops = (HopStats) c.getDerived(Chromosome.REACHABILITY);
+        if (hops != null && hops.getReachable() != null)
+            return hops.getReachable();
+        int[] counts = (int[]) c.getDerived(Chromosome.TRANSITIVE_CLOSURE);
+        if (counts == null) {
+            counts = reachableCounts(c.getSparseGraph(true));
+            c.setDerived(Chromosome.TRANSITIVE_CLOSURE, counts);
+        }
+        return counts;
+    }
+
+    /**
+     * Forms the row of a completed component from its nodes, which are
+     * stack[first] upto stack[end-1], and the rows of the components they
+     * link to.
+     */
+    private static long[] union(SparseGraph g, int[] stack, int first,
+    int end, int[] comp, long[][] compRows, int self, int words) {
+        long[] row = new long[words];
+        // the last component merged, to skip repeated links to it
+        int last = self;
+        for (int k = first; k < end; k++) {
+            int u = stack[k];
+            row[u >>> 6] |= 1L << u;
+            int stop = g.edgeStart(u + 1);
+            for (int e = g.edgeStart(u); e < stop; e++) {
+                int other = comp[g.target(e)];
+                if (other == self || other == last) continue;
+                long[] r = compRows[other];
+                for (int w = 0; w < words; w++) row[w] |= r[w];
+                last = other;
+            }
+        }
+        return row;
+    }
+}
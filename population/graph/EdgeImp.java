@@ -13,6 +13,7 @@ package population.graph;
 // importing packages
 import utility.*;
 import java.lang.ClassCastException;
+import java.util.List;
 
 /**
  * This class is a basic implementation for an edge to be used in the software
@@ -60,6 +61,9 @@ public class EdgeImp extends Repairable implements Edge {
     private double edgeCost;
     // the amount of the edge's capacity currently in use
     private double usage = 0.0;
+    // the index of this edge in the list which owns it, see IdRegistry
+    private List idOwner = null;
+    private int id = -1;
 
     // Default Constructor
     /**
@@ -506,4 +510,25 @@ public class EdgeImp extends Repairable implements Edge {
                         "Load factor must be between 0.0 and 1.0");
         return load;          
     }
+
+    /**
+     * Returns the id of this edge, if the id is owned by a list.
+     * @param   owner   the list which may own the id
+     * @return  the index of this edge in "owner", or -1 if the id is not
+     *          owned by "owner"
+     * @see     IdRegistry
+     */
+    int getId(List owner) {
+        return (owner == idOwner) ? id : -1;
+    }
+
+    /**
+     * Sets the id of this edge, owned by a list.
+     * @param   owner   the list which owns the id
+     * @param   id      the index of this edge in "owner"
+     */
+    void setId(List owner, int id) {
+        this.id = id;
+        idOwner = owner;
+    }
 }
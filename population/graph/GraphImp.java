@@ -56,7 +56,7 @@ public class GraphImp implements Graph, GraphStat {
      * Therefore ultilization increment of Edge is 0, since its efficiency
      * cannot exceed 100%.
      */
-    private final double NODE_INCREMENT = 0.0025;
+    public static final double NODE_INCREMENT = 0.0025;
     
     /**
      * This matrix marks which location are occupied by nodes on the display.
@@ -143,22 +143,24 @@ public class GraphImp implements Graph, GraphStat {
 
     /**
      * Queries the Graph to check if a Node exists in this graph. This will
-     * check if this Node is contained in the node list.
+     * check if this Node is contained in the node list. A node added to this
+     * graph is found by its id, without searching the list.
      * @param   n A node whose existence will be checked
      * @return  a Boolean, <code>true</code> if <code>n</code> exists
      */
     public boolean hasNode(Node n) { 
-        return nodeList.contains(n);
+        return IdRegistry.indexOf(nodeList, n) >= 0;
     }
 
     /**
      * Queries the Graph to check if an Edge exists in this graph. This will
-     * check if this Edge is containted in the edge list.
+     * check if this Edge is containted in the edge list. An edge added to
+     * this graph is found by its id, without searching the list.
      * @param   e An Edge whose existence will be checked
      * @return  a Boolean, <code>true</code> if <code>e</code> exists
      */
     public boolean hasEdge(Edge e) {
-        return edgeList.contains(e);
+        return IdRegistry.indexOf(edgeList, e) >= 0;
     }
 
     /**
@@ -191,7 +193,8 @@ public class GraphImp implements Graph, GraphStat {
 
     /**
      * Returns the ID of a Node in this Graph. This is the index of the node
-     * object in the node list.
+     * object in the node list, which the node holds as its id.
+     * @see     IdRegistry
      * @param   n The Node whose ID is queried for
      * @return  The Node's ID as an integer
      * @throws  PreconditionException If <code>n</code> does not exist on
@@ -206,7 +209,7 @@ public class GraphImp implements Graph, GraphStat {
         Assertion.pre( hasNode(n), "The node exists in the graph",
                                    "The node must exist in the graph");
         // obtain the index of the node from the node list
-        int index = nodeList.indexOf(n);  
+        int index = IdRegistry.indexOf(nodeList, n);
         // Checking post-condition
         Assertion.post( index >= 0 && index < numNodes(),
                         "The node's ID is " + index,
@@ -216,7 +219,8 @@ public class GraphImp implements Graph, GraphStat {
 
     /**
      * Returns the ID of an Edge in this Graph. This is the index of the edge
-     * object in the edge list.
+     * object in the edge list, which the edge holds as its id.
+     * @see     IdRegistry
      * @param   e The Edge whose ID is queried for
      * @return  The Edges's ID as an integer
      * @throws  PreconditionException If <code>e</code> does not exist on
@@ -231,7 +235,7 @@ public class GraphImp implements Graph, GraphStat {
         Assertion.pre( hasEdge(e), "The edge exists in the graph",
                                    "The edge must exist in the graph");
         // obtain the index of the edge from the edge list
-        int index = edgeList.indexOf(e);
+        int index = IdRegistry.indexOf(edgeList, e);
         // Checking post-condition
         Assertion.post( index >= 0 && index < numEdges(),
                         "The edge's ID is " + index,
@@ -450,7 +454,7 @@ public class GraphImp implements Graph, GraphStat {
         Assertion.pre( hasNode(n), "The node exists in the graph",
                                    "The node must exist in the graph");
         // obtain the index of "n" in the node list
-        int id = nodeList.indexOf(n); 
+        int id = IdRegistry.indexOf(nodeList, n);
         /**
          * if the index is that of the last element, there is no next node.
          * Otherwise the next node is one with ID "id+1"
@@ -537,7 +541,7 @@ public class GraphImp implements Graph, GraphStat {
         Assertion.pre( hasEdge(e), "The edge exists in the graph",
                                    "The edge must exist in the graph");
         // obtain the index of "e" in the edge list
-        int id = edgeList.indexOf(e);
+        int id = IdRegistry.indexOf(edgeList, e);
         /**
          * if the index is that of the last element, there is no next edge.
          * Otherwise the next edge is one with ID "id+1"
@@ -967,7 +971,7 @@ public class GraphImp implements Graph, GraphStat {
             n.setCoordinates(x,y);
         }
         int numBefore = numNodes(); // get count for postcondition checking
-        nodeList.add(n);            // add the node to the graph
+        IdRegistry.add(nodeList, n);    // add the node, with its id
         
         // increment appropriate counter
         if ( (n.getLabel().toUpperCase()).startsWith("SERVER") ) numServer++;
@@ -1093,7 +1097,7 @@ public class GraphImp implements Graph, GraphStat {
         int inDeg = inDegree(to);
         int numBefore = numEdges();
         // add the edge into the graph
-        edgeList.add(e);
+        IdRegistry.add(edgeList, e);
         /**
          * # Modified by Andy 27/03/05: 
          *      This method assumed that from and to nodes of the edge will
@@ -0,0 +1,124 @@
+/**
+ * This is the underlying data structure for NetSim, abstracting a collection
+ * of pairwise connections/relations between pairs of objects. These
+ * connection/relations are abstracted by edges, and these objected are
+ * represented by nodes.
+ *
+ * The Graph to be implemented shall be directed and weighted, such that all
+ * edges/relations are non-symmetric and are assigned values, which maybe be
+ * costs in monetary or in distance sense.
+ */
+package population.graph;
+
+// importing packages
+import java.util.List;
+
+/**
+ * Finds the index of a node or an edge in a list without searching the list.
+ * Each <code>NodeImp</code> and <code>EdgeImp</code> holds a dense integer
+ * id, which is its index in the list that registered it, and that list is
+ * the owner of the id. The lists of nodes and edges of a
+ * <code>GraphImp</code> register each element as it is added, and a node
+ * list of a chromosome is registered with <code>register</code>.<p>
+ *
+ * An id is only a hint: it is used if the list still holds the element at
+ * that index, which takes constant time to check. Otherwise the list is
+ * searched, as <code>List.indexOf</code> does, and the element takes the
+ * index found as its id. An element belongs to one owner at a time, so an
+ * element held by two lists is searched for in whichever list did not
+ * register it last. As every id is checked before it is used, two threads
+ * registering the same list at once can cost a search, but never give a
+ * wrong index.<p>
+ *
+ * Elements are compared by identity, as neither <code>NodeImp</code> nor
+ * <code>EdgeImp</code> overrides <code>equals</code>. If an element is
+ * listed twice, its id is its first index.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     GraphImp
+ */
+public final class IdRegistry {
+
+    /**
+     * The registry has no state of its own; the ids are held by the nodes
+     * and edges.
+     */
+    private IdRegistry() {
+    }
+
+    /**
+     * Assigns every node and edge in a list its index as its id, so that
+     * none of them need to be searched for. The first index is kept for an
+     * element listed twice. A list should be registered again after
+     * elements are inserted into or removed from it.
+     * @param   list    the list which owns the ids
+     */
+    public static void register(List list) {
+        for (int i = 0; i < list.size(); i++) {
+            Object element = list.get(i);
+            // keep the id if it is an earlier index of the same element
+            int id = getId(element, list);
+            if (id < 0 || id > i || list.get(id) != element)
+                setId(element, list, i);
+        }
+    }
+
+    /**
+     * Returns the index of a node or an edge in a list. The id of the
+     * element is used if the list still holds the element at that index.
+     * Otherwise the list is searched, and the index found becomes the id of
+     * the element. The index is the first index of the element, unless the
+     * element was inserted again before its id since the list was last
+     * registered.
+     * @param   list    the list to be searched
+     * @param   element the node or edge
+     * @return  an index of the element, or -1 if it is not in the list
+     */
+    public static int indexOf(List list, Object element) {
+        int id = getId(element, list);
+        if (id >= 0 && id < list.size() && list.get(id) == element)
+            return id;
+        id = list.indexOf(element);
+        if (id >= 0) setId(element, list, id);
+        return id;
+    }
+
+    /**
+     * Appends a node or an edge to a list, and assigns it its index as its
+     * id, unless it is already in the list.
+     * @param   list    the list which owns the ids
+     * @param   element the node or edge
+     */
+    static void add(List list, Object element) {
+        int id = getId(element, list);
+        boolean listed = id >= 0 && id < list.size() &&
+                         list.get(id) == element;
+        list.add(element);
+        if (!listed) setId(element, list, list.size() - 1);
+    }
+
+    /**
+     * Returns the id of an element in a list, or -1 if the element has no
+     * id owned by the list.
+     */
+    private static int getId(Object element, List list) {
+        if (element instanceof NodeImp)
+            return ((NodeImp) element).getId(list);
+        if (element instanceof EdgeImp)
+            return ((EdgeImp) element).getId(list);
+        return -1;
+    }
+
+    /**
+     * Sets the id of an element, owned by a list. Nothing is stored for
+     * other kinds of elements, which are always searched for.
+     */
+    private static void setId(Object element, List list, int id) {
+        if (element instanceof NodeImp)
+            ((NodeImp) element).setId(list, id);
+        else if (element instanceof EdgeImp)
+            ((EdgeImp) element).setId(list, id);
+    }
+}
@@ -101,6 +101,9 @@ public class NodeImp extends Repairable implements Node {
     // the list of incoming and outgoing edges stored for efficient traversal
     ArrayList incoming = new ArrayList();
     ArrayList outgoing = new ArrayList();;
+    // the index of this node in the list which owns it, see IdRegistry
+    private List idOwner = null;
+    private int id = -1;
 
     // Default Constructor
     /**
@@ -730,4 +733,25 @@ public class NodeImp extends Repairable implements Node {
                         "Load factor must be between 0.0 and 1.0");
         return load;          
     }
+
+    /**
+     * Returns the id of this node, if the id is owned by a list.
+     * @param   owner   the list which may own the id
+     * @return  the index of this node in "owner", or -1 if the id is not
+     *          owned by "owner"
+     * @see     IdRegistry
+     */
+    int getId(List owner) {
+        return (owner == idOwner) ? id : -1;
+    }
+
+    /**
+     * Sets the id of this node, owned by a list.
+     * @param   owner   the list which owns the id
+     * @param   id      the index of this node in "owner"
+     */
+    void setId(List owner, int id) {
+        this.id = id;
+        idOwner = owner;
+    }
 }
@@ -0,0 +1,175 @@
+// importing packages
+import utility.*;
+import population.graph.*; // the class we are testing
+import java.util.*;
+
+/**
+ * This test suite will test for the functionality of the IdRegistry class
+ * under the assumption that Node, Edge and Graph implementations are fully
+ * functional. The index given by the registry must always hold the node,
+ * however the lists are altered and whichever list registered a node last,
+ * and must be the index that <code>List.indexOf</code> gives once the list
+ * is registered.
+ *
+ * The results of the tests will be output to 2 separate files:
+ *     -IdRegistryNormal.txt will contain the message if tests are passed
+ *     -IdRegistryError.txt will contain the message for erroneous behaviour
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ */
+public class ModuleTestIdRegistry {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+
+    // Default constructor
+    /**
+     * Should not instantate a test class.
+     */
+    public ModuleTestIdRegistry() {
+    	throw new AssertionException("Don't instantiate a test class.");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("IdRegistryNormal.txt", "IdRegistryError.txt");
+        Debugger.enableTrace(true); // enable trace printing
+
+        Debugger.debug("\n==============================\n"+
+                       "filename: IdRegistryNormal.txt\n" +
+                       "==============================");
+        Debugger.debug("Module Test for population.graph.IdRegistry:\n");
+
+        Debugger.printErr("\n=============================\n"+
+                          "filename: IdRegistryError.txt\n" +
+                          "=============================");
+        Debugger.printErr("Module Test for population.graph.IdRegistry:\n");
+
+        testLists();
+        Debugger.debug("");
+
+        testGraph();
+        Debugger.debug("");
+
+        Debugger.enableTrace(true);
+        Debugger.debug("====================================");
+        Debugger.debug("Module Test for IdRegistry Completed");
+        Debugger.debug("====================================");
+        Debugger.printErr("====================================");
+        Debugger.printErr("Module Test for IdRegistry Completed");
+        Debugger.printErr("====================================");
+    }
+
+    /**
+     * Registered lists, altered at random and sharing nodes, should always
+     * give an index of the node, and the first index once registered.
+     */
+    private static void testLists() {
+        Debugger.debug(testName = "Testing the ids in lists");
+        Debugger.debug("========================");
+        Debugger.enableTrace(false);
+        Node[] pool = new Node[30];
+        for (int i = 0; i < pool.length; i++) pool[i] = new NodeImp();
+        ArrayList[] lists = { new ArrayList(), new ArrayList() };
+        for (int i = 0; i < pool.length; i++) lists[i % 2].add(pool[i]);
+        // a node listed twice, and a node in both lists
+        lists[0].add(pool[0]);
+        lists[1].add(pool[0]);
+        IdRegistry.register(lists[0]);
+        IdRegistry.register(lists[1]);
+
+        boolean same = true;
+        for (int r = 0; r < 2000; r++) {
+            ArrayList list = lists[rand.nextInt(2)];
+            double op = rand.nextDouble();
+            if (op < 0.1 && !list.isEmpty()) {
+                list.remove(rand.nextInt(list.size()));
+            } else if (op < 0.2) {
+                list.add(rand.nextInt(list.size() + 1),
+                         pool[rand.nextInt(pool.length)]);
+            } else if (op < 0.25) {
+                IdRegistry.register(list);
+            } else {
+                Node n = pool[rand.nextInt(pool.length)];
+                int i = IdRegistry.indexOf(list, n);
+                // a node listed twice may be found at either index
+                same = same && (i == list.indexOf(n) ||
+                                (i >= 0 && list.get(i) == n));
+            }
+        }
+        // registering gives the first index of every node
+        for (int t = 0; t < lists.length; t++) {
+            IdRegistry.register(lists[t]);
+            for (int i = 0; i < pool.length; i++)
+                same = same && IdRegistry.indexOf(lists[t], pool[i]) ==
+                               lists[t].indexOf(pool[i]);
+        }
+        // an object which holds no id is searched for
+        ArrayList others = new ArrayList();
+        others.add("SERVER");
+        others.add("CLIENT");
+        boolean plain = IdRegistry.indexOf(others, "CLIENT") == 1 &&
+                        IdRegistry.indexOf(others, "ROUTER") == -1;
+        Debugger.enableTrace(true);
+
+        check("Indices after random changes", same);
+        check("Elements without ids", plain);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * The ids of the nodes and edges of a graph should be their indices, and
+     * a node in two graphs should be found in both.
+     */
+    private static void testGraph() {
+        Debugger.debug(testName = "Testing the ids in graphs");
+        Debugger.debug("=========================");
+        Debugger.enableTrace(false);
+        GraphImp g1 = new GraphImp(1000, 750);
+        GraphImp g2 = new GraphImp(1000, 750);
+        double[] params = {1000000000, 1.0};
+        Repairable r = new Repairable(10, 0.30, 0.70, true);
+        Node model = new NodeImp(params, r);
+        Node[] nodes = new Node[20];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new NodeImp("SERVER" + i, rand.nextInt(700),
+                                   rand.nextInt(700), model);
+            g1.addNode(nodes[i]);
+        }
+        // the second graph holds the nodes in reverse order
+        for (int i = nodes.length - 1; i >= 0; i--) g2.addNode(nodes[i]);
+
+        double[] edgeParams = {1000, 0.0, 0.0};
+        Edge edgeModel = new EdgeImp(edgeParams, r);
+        for (int i = 1; i < nodes.length; i++)
+            g1.addEdge(new EdgeImp(nodes[i - 1], nodes[i], "E" + i,
+                                   edgeModel));
+        boolean ids = true;
+        for (int i = 0; i < nodes.length; i++)
+            ids = ids && g1.nodeId(nodes[i]) == i &&
+                  g2.nodeId(nodes[i]) == nodes.length - 1 - i &&
+                  g1.nodeId(nodes[i]) == i;
+        for (int e = 0; e < g1.numEdges(); e++)
+            ids = ids && g1.edgeId(g1.getEdge(e)) == e;
+        boolean absent = !g2.hasEdge(g1.getEdge(0)) &&
+                         !g1.hasNode(new NodeImp());
+        Debugger.enableTrace(true);
+
+        check("Ids of nodes and edges", ids);
+        check("Nodes and edges not in the graph", absent);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Prints whether a check is passed.
+     */
+    private static void check(String name, boolean passed) {
+        if (passed) Debugger.debug("    " + name + ": passed");
+        else        Debugger.printErr(testName + ":\n    " + name + ": FAILED");
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * population.simd package holds the kernels built on the incubating Vector
+ * API of the JDK. They are compiled and run separately, with
+ * --add-modules jdk.incubator.vector, and are only loaded by name.
+ */
+package population.simd;
+
+// Importing packages
+import java.util.Arrays;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+import population.MinPlusKernel;
+
+/**
+ * Computes a row of the min-plus product with the Vector API. Each cost to
+ * reach a row of the second matrix is broadcast to every lane, added to as
+ * many elements of that row as the preferred vector holds, and the
+ * lane-wise minimum is kept. There is no branch on infinity: adding
+ * <code>Double.POSITIVE_INFINITY</code> to a non-negative cost gives
+ * infinity, which never wins the minimum. The elements left over at the end
+ * of a row are handled one at a time.<p>
+ *
+ * The minimum of the same sums is found as by <code>ScalarMinPlus</code>,
+ * so the results are identical. An instance holds no state, so it may be
+ * shared between threads.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ * @since   0.4.2
+ * @see     population.MinPlusKernels
+ */
+public class VectorMinPlus implements MinPlusKernel {
+    // the widest vector of doubles the processor supports well
+    private static final VectorSpecies<Double> SPECIES =
+        DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Computes one row of the min-plus product of a row vector and a
+     * matrix.
+     *
+     * @param   a       the row of the first matrix, of length n
+     * @param   b       the second matrix, of dimension n x n
+     * @param   result  storage of length n for the row of the product
+     */
+    public void row(double[] a, double[][] b, double[] result) {
+        int n = result.length;
+        int bound = SPECIES.loopBound(n);
+        int lanes = SPECIES.length();
+        Arrays.fill(result, Double.POSITIVE_INFINITY);
+        for (int k = 0; k < a.length; k++) {
+            double ak = a[k];
+            if (ak == Double.POSITIVE_INFINITY) continue;
+            double[] bk = b[k];
+            DoubleVector cost = DoubleVector.broadcast(SPECIES, ak);
+            int j = 0;
+            for (; j < bound; j += lanes) {
+                DoubleVector sum = cost.add(
+                    DoubleVector.fromArray(SPECIES, bk, j));
+                DoubleVector.fromArray(SPECIES, result, j).min(sum)
+                    .intoArray(result, j);
+            }
+            for (; j < n; j++) {
+                double sum = ak + bk[j];
+                result[j] = (sum < result[j]) ? sum : result[j];
+            }
+        }
+    }
+}
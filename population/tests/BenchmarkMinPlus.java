@@ -0,0 +1,112 @@
+import population.*;
+import java.util.*;
+
+/**
+ * Compares the time taken by the min-plus kernels to compute the product of
+ * random 256 to 2048 node matrices. The vector kernel is only timed when it
+ * can be loaded, that is when it has been compiled with
+ * <code>make simd</code> and the Java virtual machine is started with
+ * <code>--add-modules jdk.incubator.vector</code>; <code>make benchmark</code>
+ * does both. The products of the kernels are also checked to be identical.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class BenchmarkMinPlus {
+    private static Random rand = new Random(1);
+    // the number of times each product is timed; the fastest is reported
+    private static final int RUNS = 3;
+
+    /**
+     * One should not instantate a benchmark class
+     */
+    private BenchmarkMinPlus() {
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        MinPlusKernel scalar = new ScalarMinPlus();
+        MinPlusKernel vector = MinPlusKernels.loadVector();
+        if (vector == null)
+            System.out.println("The vector kernel is not available; only " +
+                               "the scalar kernel is timed.");
+
+        int[] sizes = {256, 512, 1024, 2048};
+        System.out.println("nodes   scalar (ms)   vector (ms)   speed-up");
+        for (int t = 0; t < sizes.length; t++) {
+            double[][] m = randomMatrix(sizes[t], 0.5);
+            double[][] a = new double[sizes[t]][sizes[t]];
+            double[][] b = new double[sizes[t]][sizes[t]];
+            double timeScalar = time(scalar, m, a);
+            String line = pad("" + sizes[t], 8) +
+                          pad(format(timeScalar), 14);
+            if (vector != null) {
+                double timeVector = time(vector, m, b);
+                boolean same = true;
+                for (int i = 0; i < sizes[t]; i++)
+                    same &= Arrays.equals(a[i], b[i]);
+                line += pad(format(timeVector), 14) +
+                        format(timeScalar / timeVector) + "x" +
+                        (same ? "" : "   RESULTS DIFFER");
+            }
+            System.out.println(line);
+        }
+    }
+
+    /**
+     * Returns the fastest of several products in milliseconds. The first
+     * product warms up the compiler, and is not timed.
+     */
+    private static double time(MinPlusKernel kernel, double[][] m,
+    double[][] result) {
+        product(kernel, m, result);
+        double best = Double.POSITIVE_INFINITY;
+        for (int r = 0; r < RUNS; r++) {
+            long start = System.nanoTime();
+            product(kernel, m, result);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+
+    /**
+     * Computes the min-plus product of a matrix with itself.
+     */
+    private static void product(MinPlusKernel kernel, double[][] m,
+    double[][] result) {
+        for (int i = 0; i < m.length; i++) kernel.row(m[i], m, result[i]);
+    }
+
+    /**
+     * Creates a random adjacency matrix where each edge exists with the
+     * probability "density".
+     */
+    private static double[][] randomMatrix(int n, double density) {
+        double[][] m = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++) {
+                if (i == j)                          m[i][j] = 0.0;
+                else if (rand.nextDouble() < density)
+                    m[i][j] = rand.nextDouble() * 1000;
+                else m[i][j] = Double.POSITIVE_INFINITY;
+            }
+        return m;
+    }
+
+    /**
+     * Rounds a number to two decimal places.
+     */
+    private static String format(double x) {
+        return "" + Math.round(x * 100) / 100.0;
+    }
+
+    /**
+     * Pads a string with spaces to the given width.
+     */
+    private static String pad(String s, int width) {
+        while (s.length() < width) s += " ";
+        return s;
+    }
+}
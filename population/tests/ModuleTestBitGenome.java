@@ -0,0 +1,255 @@
+import utility.*;
+import population.*;
+import population.graph.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for BitGenome. A genome of bitsets must hold
+ * the same links as a genome of node indices after the same operations, and
+ * PRCalculator must count the same links from either genome as it did from
+ * the adjacency matrix, with some of the nodes deactivated.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestBitGenome {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+    private static final double oo = Double.POSITIVE_INFINITY;
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestBitGenome() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestBitGenome");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("BitGenomeNormal.txt",
+                            "BitGenomeError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n=============================\n"+
+                         "filename: BitGenomeNormal.txt\n" +
+                         "=============================");
+        Debugger.debug("Module Test for population.BitGenome:\n");
+
+        Debugger.printErr("\n============================\n"+
+                            "filename: BitGenomeError.txt\n" +
+                            "============================");
+        Debugger.printErr("Module Test for population.BitGenome:\n");
+
+        testOperations();
+        Debugger.debug("");
+
+        testPRCalculator();
+        Debugger.debug("");
+
+        Debugger.debug("===================================");
+        Debugger.debug("Module Test for BitGenome Completed");
+        Debugger.debug("===================================");
+        Debugger.printErr("===================================");
+        Debugger.printErr("Module Test for BitGenome Completed");
+        Debugger.printErr("===================================");
+    }
+
+    /**
+     * The same random additions, removals and swaps should leave the same
+     * links in a BitGenome and an IntGenome, for sizes around the size of a
+     * word.
+     */
+    private static void testOperations() {
+        Debugger.debug(testName = "Testing the operations on the bits");
+        Debugger.debug("==================================");
+        Debugger.enableTrace(false);
+        int[] sizes = {1, 63, 64, 65, 200};
+        for (int t = 0; t < sizes.length; t++) {
+            int n = sizes[t];
+            Genome[] bits = { new BitGenome(n), new BitGenome(n) };
+            Genome[] ints = { new IntGenome(n), new IntGenome(n) };
+            for (int r = 0; r < 20 * n; r++) {
+                int c = rand.nextInt(2);
+                int i = rand.nextInt(n);
+                double op = rand.nextDouble();
+                if (op < 0.3 && ints[c].degree(i) > 0) {
+                    // remove a destination, found by its index
+                    int k = rand.nextInt(ints[c].degree(i));
+                    int j = ints[c].target(i, k);
+                    removeTarget(bits[c], i, j);
+                    removeTarget(ints[c], i, j);
+                } else if (op < 0.9) {
+                    int j = rand.nextInt(n);
+                    if (!ints[c].contains(i, j)) {
+                        bits[c].add(i, j);
+                        ints[c].add(i, j);
+                    }
+                } else {
+                    bits[0].swapRow(bits[1], i);
+                    ints[0].swapRow(ints[1], i);
+                }
+            }
+            boolean same = sameLinks(bits[0], ints[0]) &&
+                           sameLinks(bits[1], ints[1]) &&
+                           sameLinks(new BitGenome(ints[0]), ints[0]) &&
+                           sameLinks(bits[1].copy(), ints[1]);
+            // a row of a BitGenome may be swapped with a row of indices
+            for (int i = 0; i < n; i++) bits[0].swapRow(ints[1], i);
+            same = same && sameLinks(bits[0], bits[1]) &&
+                   sameLinks(ints[1], ints[0]);
+            Debugger.enableTrace(true);
+            if (same)
+                Debugger.debug("    " + n + " nodes: " + bits[0].numEdges() +
+                               " and " + bits[1].numEdges() +
+                               " identical links");
+            else
+                Debugger.printErr(testName + ":\n    " + n +
+                                  " nodes: the links differ");
+            Debugger.enableTrace(false);
+        }
+
+        try {
+            Debugger.enableTrace(false);
+            new BitGenome(10).removeAt(0, 0);
+            Debugger.enableTrace(true);
+            Debugger.printErr(testName + ":\n    Exception SHOULD have " +
+                              "been caught, since the row is empty");
+        } catch (PreconditionException pe) {
+            Debugger.enableTrace(true);
+            Debugger.debug("    Exception caught as expected, since the " +
+                           "row is empty");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * PRCalculator should give the same pleiotropy and redundancy as the
+     * counts of the adjacency matrix, for chromosomes of every kind.
+     */
+    private static void testPRCalculator() {
+        Debugger.debug(testName = "Testing PRCalculator on the bits");
+        Debugger.debug("================================");
+        PRCalculator pr = new PRCalculator();
+        int[] sizes = {10, 64, 130};
+        for (int t = 0; t < sizes.length; t++) {
+            int n = sizes[t];
+            Debugger.enableTrace(false);
+            ArrayList nodeList = genNodeList(n);
+            EdgeCostMatrix.reset();
+            EdgeCostMatrix.populateMatrix(n, 1000);
+            IntGenome links = new IntGenome(n);
+            for (int i = 0; i < n; i++)
+                for (int j = 0; j < n; j++)
+                    if (i != j && rand.nextDouble() < 0.3) links.add(i, j);
+            // deactivate a few nodes
+            for (int i = 0; i < n; i += 7)
+                ((Repairable) nodeList.get(i)).deactivate(5);
+
+            Chromosome[] kinds = {
+                new Chromosome(new IntGenome(links), nodeList, n/3, n-n/3),
+                new Chromosome(new BitGenome(links), nodeList, n/3, n-n/3),
+                new Chromosome(new IntGenome(links), nodeList, n/3, n-n/3) };
+            // build the lists of nodes of the last one
+            kinds[2].getDataArray();
+            double[] expected = originalCounts(kinds[0]);
+            boolean same = true;
+            for (int k = 0; k < kinds.length; k++) {
+                pr.apply(kinds[k]);
+                same = same && kinds[k].getPleiotropy() == expected[0] &&
+                       kinds[k].getRedundancy() == expected[1];
+            }
+            int edges = kinds[1].getNumEdges();
+            Debugger.enableTrace(true);
+            if (same && edges == links.numEdges())
+                Debugger.debug("    " + n + " nodes: pleiotropy = " +
+                               expected[0] + ", redundancy = " +
+                               expected[1]);
+            else
+                Debugger.printErr(testName + ":\n    " + n + " nodes: " +
+                    "pleiotropy = " + kinds[1].getPleiotropy() + " (" +
+                    expected[0] + "), redundancy = " +
+                    kinds[1].getRedundancy() + " (" + expected[1] + ")");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * The pleiotropy and redundancy as originally counted by PRCalculator
+     * from the adjacency matrix.
+     */
+    private static double[] originalCounts(Chromosome c) {
+        double[][] adj = c.getAdjacencyMatrix();
+        ArrayList nodeList = c.getNodeList();
+        int n = nodeList.size();
+        boolean[] isServer = new boolean[n];
+        for (int i = 0; i < n; i++)
+            isServer[i] = ((Node) nodeList.get(i)).getLabel().
+                              startsWith("SERVER");
+        int sumSC = 0;
+        int sumCS = 0;
+        for (int i = 0; i < n; i++) {
+            if (!isServer[i]) continue;
+            for (int j = 0; j < n; j++) {
+                if (adj[i][j] == oo) continue;
+                sumSC++;
+                if (!isServer[j]) sumCS++;
+            }
+        }
+        double[] result = { (double) sumSC / c.getNumServers(),
+                            (double) sumCS / c.getNumClients() };
+        return result;
+    }
+
+    /**
+     * Removes a destination from a row, found by its index.
+     */
+    private static void removeTarget(Genome g, int i, int j) {
+        for (int k = 0; k < g.degree(i); k++)
+            if (g.target(i, k) == j) {
+                g.removeAt(i, k);
+                return;
+            }
+    }
+
+    /**
+     * Checks whether two genomes hold the same links, by their bitsets and
+     * by the contents of each row.
+     */
+    private static boolean sameLinks(Genome a, Genome b) {
+        int n = a.numNodes();
+        if (n != b.numNodes() || a.numEdges() != b.numEdges()) return false;
+        long[] bitsA = new long[(n + 63) >>> 6];
+        long[] bitsB = new long[(n + 63) >>> 6];
+        for (int i = 0; i < n; i++) {
+            if (a.degree(i) != b.degree(i)) return false;
+            a.getBits(i, bitsA);
+            b.getBits(i, bitsB);
+            if (!Arrays.equals(bitsA, bitsB)) return false;
+            for (int k = 0; k < a.degree(i); k++)
+                if (!b.contains(i, a.target(i, k))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Generates a list of nodes, where the first third are servers.
+     */
+    private static ArrayList genNodeList(int n) {
+        ArrayList nodeList = new ArrayList();
+        double[] params = {1000000000, 1.0};
+        for (int i = 0; i < n; i++) {
+            Repairable r = new Repairable(10, 0.30, 0.70, true);
+            Node tmpNode = new NodeImp (params, r);
+            String label = (i < n / 3) ? "SERVER" : "CLIENT";
+            nodeList.add(new NodeImp(label, rand.nextInt(700),
+                                     rand.nextInt(700), tmpNode));
+        }
+        return nodeList;
+    }
+}
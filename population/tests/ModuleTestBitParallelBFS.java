@@ -0,0 +1,211 @@
+import utility.*;
+import population.*;
+import population.graph.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for BitParallelBFS. The hop counts produced
+ * by the bit-parallel search are compared with those produced by
+ * HeapDijkstra on link matrices. The networks have more than 64 nodes, so
+ * that more than one batch of sources is searched. The aggregates are
+ * checked against the matrix, and the functions DegreeSeparation and
+ * ClusterCoeff are checked to give the same results with either engine.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestBitParallelBFS {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+    private static final double oo = Double.POSITIVE_INFINITY;
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestBitParallelBFS() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestBitParallelBFS");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("BitParallelBFSNormal.txt",
+                            "BitParallelBFSError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n==================================\n"+
+                         "filename: BitParallelBFSNormal.txt\n" +
+                         "==================================");
+        Debugger.debug("Module Test for population.BitParallelBFS:\n");
+
+        Debugger.printErr("\n=================================\n"+
+                            "filename: BitParallelBFSError.txt\n" +
+                            "=================================");
+        Debugger.printErr("Module Test for population.BitParallelBFS:\n");
+
+        testHopMatrix();
+        Debugger.debug("");
+
+        testFunctions();
+        Debugger.debug("");
+
+        Debugger.debug("========================================");
+        Debugger.debug("Module Test for BitParallelBFS Completed");
+        Debugger.debug("========================================");
+        Debugger.printErr("========================================");
+        Debugger.printErr("Module Test for BitParallelBFS Completed");
+        Debugger.printErr("========================================");
+    }
+
+    /**
+     * Compares the matrix of hops and the aggregates with HeapDijkstra.
+     */
+    private static void testHopMatrix() {
+        Debugger.debug(testName = "Testing the hop counts of link matrices");
+        Debugger.debug("=======================================");
+        int[] sizes = {5, 64, 65, 150};
+        double[] density = {0.3, 0.05, 0.02, 0.01};
+        BitParallelBFS bfs = new BitParallelBFS();
+        for (int i = 0; i < sizes.length; i++) {
+            Debugger.debug("Link matrix of " + sizes[i] + " x " + sizes[i]);
+            Debugger.enableTrace(false);
+            double[][] m = randomLinkMatrix(sizes[i], density[i]);
+            double[][] expected = (new HeapDijkstra()).allPairs(m);
+            double[][] result   = bfs.allPairs(m);
+            HopStats hops = bfs.hopStats(SparseGraph.fromMatrix(m), true);
+            Debugger.enableTrace(true);
+
+            int mismatch = 0;
+            double max = 0, sum = 0;
+            long count = 0;
+            for (int r = 0; r < m.length; r++) {
+                int reach = 0;
+                for (int c = 0; c < m.length; c++) {
+                    if (expected[r][c] != result[r][c]) mismatch++;
+                    if (r == c || expected[r][c] == oo) continue;
+                    reach++;
+                    count++;
+                    sum += expected[r][c];
+                    if (expected[r][c] > max) max = expected[r][c];
+                }
+                if (reach != hops.getReachable()[r]) mismatch++;
+            }
+            if (mismatch == 0)
+                Debugger.debug("    Hops are equal to HeapDijkstra");
+            else
+                Debugger.printErr(testName + ":\n    " + mismatch +
+                    " hops differ from the result of HeapDijkstra");
+            if (max == hops.getMax() && count == hops.getCount() &&
+                sum == hops.getSum())
+                Debugger.debug("    Aggregates are correct: max = " + max +
+                    ", average = " + hops.getAverage());
+            else
+                Debugger.printErr(testName + ":\n    Aggregates are " +
+                    "INCORRECT: max = " + hops.getMax() + " (" + max +
+                    "), sum = " + hops.getSum() + " (" + sum + ")");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * DegreeSeparation and ClusterCoeff should produce the same results
+     * with the default engine as with HeapDijkstra.
+     */
+    private static void testFunctions() {
+        Debugger.debug(testName = "Testing the functions with both engines");
+        Debugger.debug("======================================");
+        Debugger.enableTrace(false);
+        int n = 90;
+        ArrayList nodeList = genNodeList(n);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+
+        Function[] fast = { new DegreeSeparation(false),
+                            new DegreeSeparation(true),
+                            new ClusterCoeff() };
+        Function[] slow = { new DegreeSeparation(false, new HeapDijkstra()),
+                            new DegreeSeparation(true, new HeapDijkstra()),
+                            new ClusterCoeff() };
+        ((ClusterCoeff) slow[2]).setEngine(new HeapDijkstra());
+        String[] names = { "maximum separation", "average separation",
+                           "clustering coefficient" };
+
+        for (int t = 0; t < 5; t++) {
+            Chromosome c = randomChromosome(nodeList, 0.02 * (t + 1));
+            c.createFitnessArr(1);
+            for (int f = 0; f < fast.length; f++) {
+                fast[f].apply(c, 0);
+                double a = c.getFitArrElem(0);
+                slow[f].apply(c, 0);
+                double b = c.getFitArrElem(0);
+                Debugger.enableTrace(true);
+                if (Math.abs(a - b) < 1e-9)
+                    Debugger.debug("    Network " + t + ": " + names[f] +
+                                   " = " + a);
+                else
+                    Debugger.printErr(testName + ":\n    Network " + t +
+                        ": " + names[f] + " is " + a + " instead of " + b);
+                Debugger.enableTrace(false);
+            }
+        }
+        Debugger.enableTrace(true);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Creates a random link matrix where each link exists with the
+     * probability "density".
+     */
+    private static double[][] randomLinkMatrix(int n, double density) {
+        double[][] m = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++) {
+                if (i == j)                          m[i][j] = 0.0;
+                else if (rand.nextDouble() < density) m[i][j] = 1.0;
+                else                                 m[i][j] = oo;
+            }
+        return m;
+    }
+
+    /**
+     * Creates a chromosome where each link exists with the probability
+     * "density". Every node has at least one outgoing link, as the average
+     * of DijkstraMatrix only counts the connected pairs in that case.
+     */
+    private static Chromosome randomChromosome(ArrayList nodeList,
+    double density) {
+        int n = nodeList.size();
+        ArrayList cells = new ArrayList();
+        for (int i = 0; i < n; i++) {
+            ArrayList cell = new ArrayList();
+            for (int j = 0; j < n; j++)
+                if (i != j && rand.nextDouble() < density)
+                    cell.add(nodeList.get(j));
+            if (cell.isEmpty())
+                cell.add(nodeList.get((i + 1 + rand.nextInt(n - 1)) % n));
+            cells.add(cell);
+        }
+        return new Chromosome(cells, nodeList, n / 3, n - n / 3);
+    }
+
+    /**
+     * Generates a list of nodes, where the first third are servers.
+     */
+    private static ArrayList genNodeList(int n) {
+        ArrayList nodeList = new ArrayList();
+        Repairable r = new Repairable(10, 0.30, 0.70, true);
+        double[] params = {1000000000, 1.0};
+        Node tmpNode = new NodeImp (params, r);
+        for (int i = 0; i < n; i++) {
+            String label = (i < n / 3) ? "SERVER" : "CLIENT";
+            nodeList.add(new NodeImp(label, rand.nextInt(700),
+                                     rand.nextInt(950), tmpNode));
+        }
+        return nodeList;
+    }
+}
@@ -0,0 +1,131 @@
+import utility.*;
+import population.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for BlockedFloydWarshall. The minimal path
+ * costs produced by the tiled engine are compared with those produced by
+ * HeapDijkstra for dense random matrices. The sizes of the matrices are
+ * deliberately not multiples of the tile width, so that the partial tiles
+ * at the edge of the matrix are exercised.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestBlockedFloydWarshall {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+    private static final double oo = Double.POSITIVE_INFINITY;
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestBlockedFloydWarshall() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestBlockedFloydWarshall");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("BlockedFloydWarshallNormal.txt",
+                            "BlockedFloydWarshallError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n========================================\n"+
+                         "filename: BlockedFloydWarshallNormal.txt\n" +
+                         "========================================");
+        Debugger.debug("Module Test for population.BlockedFloydWarshall:\n");
+
+        Debugger.printErr("\n=======================================\n"+
+                            "filename: BlockedFloydWarshallError.txt\n" +
+                            "=======================================");
+        Debugger.printErr("Module Test for population.BlockedFloydWarshall:\n");
+
+        testBlockSize();
+        Debugger.debug("");
+
+        testDenseMatrices();
+        Debugger.debug("");
+
+        Debugger.debug("==============================================");
+        Debugger.debug("Module Test for BlockedFloydWarshall Completed");
+        Debugger.debug("==============================================");
+        Debugger.printErr("==============================================");
+        Debugger.printErr("Module Test for BlockedFloydWarshall Completed");
+        Debugger.printErr("==============================================");
+    }
+
+    /**
+     * A tile width of 0 should be rejected.
+     */
+    private static void testBlockSize() {
+        Debugger.debug(testName = "Testing with a tile width of 0");
+        Debugger.debug("==============================");
+        try {
+            new BlockedFloydWarshall(0);
+            Debugger.printErr(testName + ":\n    Exception SHOULD have " +
+                              "been caught, since the width is not positive");
+        } catch (PreconditionException pe) {
+            Debugger.debug("    Exception caught as expected, since\n    " +
+                           "the width of a tile is NOT POSITIVE");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Compares the results for dense random matrices with different tile
+     * widths. The same engine is reused to check that the buffer is reset.
+     */
+    private static void testDenseMatrices() {
+        Debugger.debug(testName = "Testing with dense random matrices");
+        Debugger.debug("==================================");
+        int[] sizes  = {7, 50, 130, 75};
+        int[] blocks = {3, 16, 64, 64};
+        BlockedFloydWarshall fw = new BlockedFloydWarshall();
+        Debugger.enableTrace(false);
+        for (int i = 0; i < sizes.length; i++) {
+            fw.setBlockSize(blocks[i]);
+            Debugger.enableTrace(true);
+            Debugger.debug("Matrix of " + sizes[i] + " x " + sizes[i] +
+                           " with tiles of " + blocks[i] + " x " + blocks[i]);
+            Debugger.enableTrace(false);
+            double[][] m = randomMatrix(sizes[i], 0.6);
+            double[][] expected = (new HeapDijkstra()).allPairs(m);
+            double[][] result   = fw.allPairs(m);
+            Debugger.enableTrace(true);
+            int mismatch = 0;
+            for (int r = 0; r < m.length; r++)
+                for (int c = 0; c < m.length; c++)
+                    if (expected[r][c] != result[r][c] &&
+                        Math.abs(expected[r][c] - result[r][c]) > 1e-9)
+                        mismatch++;
+            if (mismatch == 0)
+                Debugger.debug("    Results are equal to HeapDijkstra");
+            else
+                Debugger.printErr(testName + ":\n    " + mismatch +
+                    " elements differ from the result of HeapDijkstra");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Creates a random adjacency matrix where each edge exists with the
+     * probability "density".
+     */
+    private static double[][] randomMatrix(int n, double density) {
+        double[][] m = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++) {
+                if (i == j)                          m[i][j] = 0.0;
+                else if (rand.nextDouble() < density)
+                    m[i][j] = rand.nextDouble() * 1000;
+                else                                 m[i][j] = oo;
+            }
+        return m;
+    }
+}
@@ -0,0 +1,209 @@
+import utility.*;
+import population.*;
+import population.graph.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for the hash of the links of Chromosome.
+ * The hash updated as links are added, removed and swapped must equal the
+ * hash rebuilt from every link, and sameLinks must tell identical Networks
+ * apart from different ones, even if they share a hash.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestChromosomeHash {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestChromosomeHash() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestChromosomeHash");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("ChromosomeHashNormal.txt",
+                            "ChromosomeHashError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n==================================\n"+
+                         "filename: ChromosomeHashNormal.txt\n" +
+                         "==================================");
+        Debugger.debug("Module Test for population.Chromosome hash:\n");
+
+        Debugger.printErr("\n=================================\n"+
+                            "filename: ChromosomeHashError.txt\n" +
+                            "=================================");
+        Debugger.printErr("Module Test for population.Chromosome hash:\n");
+
+        testUpdatedHash();
+        Debugger.debug("");
+
+        testSameLinks();
+        Debugger.debug("");
+
+        Debugger.debug("========================================");
+        Debugger.debug("Module Test for Chromosome hash Completed");
+        Debugger.debug("========================================");
+        Debugger.printErr("========================================");
+        Debugger.printErr("Module Test for Chromosome hash Completed");
+        Debugger.printErr("========================================");
+    }
+
+    /**
+     * The hash updated by each way of altering the links should equal the
+     * hash rebuilt from the links, in every kind of genome.
+     */
+    private static void testUpdatedHash() {
+        Debugger.debug(testName = "Testing the updated hash");
+        Debugger.debug("========================");
+        Debugger.enableTrace(false);
+        int n = 30;
+        ArrayList nodeList = genNodeList(n);
+        boolean[] same = new boolean[3];
+        for (int g = 0; g < same.length; g++) {
+            Chromosome c = randomChromosome(nodeList);
+            Chromosome other = randomChromosome(nodeList);
+            if (g == 1) c.setGenome(new BitGenome(c.getGenome()));
+            c.getHash();
+            other.getHash();
+            same[g] = true;
+            for (int r = 0; r < 500; r++) {
+                int i = rand.nextInt(n);
+                double op = rand.nextDouble();
+                if (op < 0.4) {
+                    // duplicated links are added too
+                    c.addLink(i, rand.nextInt(n));
+                } else if (op < 0.8 && c.getDegree(i) > 0) {
+                    c.removeLinkAt(i, rand.nextInt(c.getDegree(i)));
+                } else if (op < 0.9) {
+                    c.swapRow(other, i);
+                } else if (g == 2) {
+                    // lists handed out and altered by the caller
+                    ArrayList row = c.getData(i);
+                    row.add(nodeList.get(rand.nextInt(n)));
+                }
+                same[g] = same[g] && c.getHash() == rebuilt(c, nodeList) &&
+                          other.getHash() == rebuilt(other, nodeList);
+            }
+        }
+        Debugger.enableTrace(true);
+
+        check("Hash of an IntGenome", same[0]);
+        check("Hash of a BitGenome", same[1]);
+        check("Hash of lists of Nodes", same[2]);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Networks with the same links should be found identical, whatever
+     * order the links were added in, and Networks sharing a hash should
+     * still be told apart.
+     */
+    private static void testSameLinks() {
+        Debugger.debug(testName = "Testing identical networks");
+        Debugger.debug("==========================");
+        Debugger.enableTrace(false);
+        int n = 20;
+        ArrayList nodeList = genNodeList(n);
+        Chromosome a = randomChromosome(nodeList);
+        Chromosome b = (Chromosome) a.clone();
+        boolean clones = a.sameLinks(b) && a.getHash() == b.getHash();
+
+        // remove a link and add it back at the end of the row
+        int i = 0;
+        while (a.getDegree(i) < 2) i++;
+        int j = b.removeLinkAt(i, 0);
+        boolean differ = !a.sameLinks(b) && a.getHash() != b.getHash();
+        b.addLink(i, j);
+        boolean reordered = a.sameLinks(b) && b.getLink(i, 0) != j;
+
+        // a link added twice cancels its key, but is still a link
+        Chromosome c = (Chromosome) a.clone();
+        j = (a.getLink(i, 0) + 1) % n;
+        while (c.hasLink(i, j)) j = (j + 1) % n;
+        c.addLink(i, j);
+        c.addLink(i, j);
+        boolean collision = c.getHash() == a.getHash() && !a.sameLinks(c);
+
+        Chromosome bits = (Chromosome) a.clone();
+        bits.setGenome(new BitGenome(bits.getGenome()));
+        boolean genomes = a.sameLinks(bits);
+
+        SetOfChromosomes set = new SetOfChromosomes();
+        Chromosome[] twins = {a, b, bits};
+        boolean checked = set.checkIfTwins(twins);
+        twins[1] = c;
+        checked = checked && !set.checkIfTwins(twins);
+        twins[1] = null;
+        checked = checked && !set.checkIfTwins(twins);
+        Debugger.enableTrace(true);
+
+        check("A clone has the same links", clones);
+        check("A removed link is told apart", differ);
+        check("The order of links is ignored", reordered);
+        check("Networks sharing a hash are told apart", collision);
+        check("Same links in different genomes", genomes);
+        check("checkIfTwins", checked);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Returns the hash of a Chromosome rebuilt from its links.
+     */
+    private static long rebuilt(Chromosome c, ArrayList nodeList) {
+        Chromosome copy = new Chromosome(new IntGenome(c.getGenome()),
+            nodeList, c.getNumServers(), c.getNumClients());
+        return copy.getHash();
+    }
+
+    /**
+     * Prints whether a check is passed.
+     */
+    private static void check(String name, boolean passed) {
+        if (passed) Debugger.debug("    " + name + ": passed");
+        else        Debugger.printErr(testName + ":\n    " + name + ": FAILED");
+    }
+
+    /**
+     * Creates a chromosome of node indices, where each node links to up to
+     * a fifth of the nodes.
+     */
+    private static Chromosome randomChromosome(ArrayList nodeList) {
+        int n = nodeList.size();
+        IntGenome genome = new IntGenome(n);
+        for (int i = 0; i < n; i++) {
+            int links = rand.nextInt(n / 5) + 1;
+            for (int k = 0; k < links; k++) {
+                int j = rand.nextInt(n);
+                if (i != j && !genome.contains(i, j)) genome.add(i, j);
+            }
+        }
+        return new Chromosome(genome, nodeList, n / 3, n - n / 3);
+    }
+
+    /**
+     * Generates a list of nodes, where the first third are servers.
+     */
+    private static ArrayList genNodeList(int n) {
+        ArrayList nodeList = new ArrayList();
+        Repairable r = new Repairable(10, 0.30, 0.70, true);
+        double[] params = {1000000000, 1.0};
+        Node tmpNode = new NodeImp (params, r);
+        for (int i = 0; i < n; i++) {
+            String label = (i < n / 3) ? "SERVER" : "CLIENT";
+            nodeList.add(new NodeImp(label, rand.nextInt(700),
+                                     rand.nextInt(700), tmpNode));
+        }
+        return nodeList;
+    }
+}
@@ -0,0 +1,343 @@
+import utility.*;
+import population.*;
+import population.graph.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for the versions of Chromosome. Altering a
+ * link must advance the version of the chromosome and of the altered row,
+ * and the adjacency matrix, the sparse graph, the graph, the derived results
+ * and the fitness must be used only while they match the current version,
+ * without invalidate being called. A clone must keep the current results
+ * of its parent until its own links are altered.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestChromosomeVersion {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+    private static final double oo = Double.POSITIVE_INFINITY;
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestChromosomeVersion() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestChromosomeVersion");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("ChromosomeVersionNormal.txt",
+                            "ChromosomeVersionError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n=====================================\n"+
+                         "filename: ChromosomeVersionNormal.txt\n" +
+                         "=====================================");
+        Debugger.debug("Module Test for population.Chromosome versions:\n");
+
+        Debugger.printErr("\n====================================\n"+
+                            "filename: ChromosomeVersionError.txt\n" +
+                            "====================================");
+        Debugger.printErr("Module Test for population.Chromosome versions:\n");
+
+        testRowVersions();
+        Debugger.debug("");
+
+        testStoredResults();
+        Debugger.debug("");
+
+        testSparseGraph();
+        Debugger.debug("");
+
+        testCarriedResults();
+        Debugger.debug("");
+
+        Debugger.debug("===========================================");
+        Debugger.debug("Module Test for Chromosome versions Completed");
+        Debugger.debug("===========================================");
+        Debugger.printErr("===========================================");
+        Debugger.printErr("Module Test for Chromosome versions Completed");
+        Debugger.printErr("===========================================");
+    }
+
+    /**
+     * Each way of altering the links should advance the versions of the
+     * rows it alters, and only those.
+     */
+    private static void testRowVersions() {
+        Debugger.debug(testName = "Testing the versions of the rows");
+        Debugger.debug("================================");
+        Debugger.enableTrace(false);
+        int n = 20;
+        ArrayList nodeList = genNodeList(n);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+        Chromosome parent = randomChromosome(nodeList);
+        parent.getAdjacencyMatrix();
+        Chromosome child = (Chromosome) parent.clone();
+        Chromosome other = (Chromosome) parent.clone();
+        boolean fresh = child.getVersion() == 0;
+        for (int i = 0; i < n; i++)
+            fresh = fresh && child.getRowVersion(i) == 0;
+
+        child.addLink(3, (child.hasLink(3, 4)) ? 5 : 4);
+        long afterAdd = child.getVersion();
+        if (child.getDegree(7) == 0) child.addLink(7, 8);
+        child.removeLinkAt(7, 0);
+        child.swapRow(other, 11);
+        child.getData(15);
+        boolean rows = afterAdd > 0 && child.getRowVersion(3) == afterAdd;
+        for (int i = 0; i < n; i++) {
+            boolean altered = (i == 3 || i == 7 || i == 11 || i == 15);
+            rows = rows && (child.getRowVersion(i) > 0) == altered;
+        }
+        boolean swapped = other.getRowVersion(11) > 0 &&
+                          other.getRowVersion(10) == 0;
+        long before = child.getVersion();
+        child.getDataArray();
+        boolean all = child.getVersion() > before;
+        for (int i = 0; i < n; i++)
+            all = all && child.getRowVersion(i) == child.getVersion();
+        boolean parentKept = parent.getVersion() == 0;
+        Debugger.enableTrace(true);
+
+        check("A clone starts at version 0", fresh);
+        check("Only the altered rows advance", rows);
+        check("Both chromosomes of a swap advance", swapped);
+        check("getDataArray advances every row", all);
+        check("The parent is not advanced", parentKept);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * The stored results should be kept while the version is unchanged,
+     * and rebuilt once a link is altered.
+     */
+    private static void testStoredResults() {
+        Debugger.debug(testName = "Testing the stored results");
+        Debugger.debug("==========================");
+        Debugger.enableTrace(false);
+        int n = 20;
+        ArrayList nodeList = genNodeList(n);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+        Chromosome c = randomChromosome(nodeList);
+        double[][] adj = c.getAdjacencyMatrix();
+        Graph g = c.getGraph();
+        c.setDerived(Chromosome.WEIGHTED_APSP, new double[n][n]);
+        c.createFitnessArr(1);
+        c.insertIntoFitArr(0, 1.0);
+        // a single function does not mark the whole fitness current
+        boolean partial = !c.isFitnessCurrent();
+        c.markFitnessCurrent();
+        boolean kept = c.getAdjacencyMatrix() == adj &&
+                       c.getGraph() == g &&
+                       c.getDerived(Chromosome.WEIGHTED_APSP) != null &&
+                       c.isFitnessCurrent();
+
+        // add a link which is not in the network
+        int j = 1;
+        while (c.hasLink(0, j)) j++;
+        c.addLink(0, j);
+        double[][] newAdj = c.getAdjacencyMatrix();
+        boolean rebuilt = newAdj != adj && newAdj[0][j] != oo &&
+                          adj[0][j] == oo &&
+                          c.getGraph() != g &&
+                          c.getDerived(Chromosome.WEIGHTED_APSP) == null &&
+                          !c.isFitnessCurrent();
+
+        // the parent's results are passed to a clone only if current
+        Chromosome child = (Chromosome) c.clone();
+        boolean parentResults = child.getParentAdjacency() == newAdj;
+        c.removeLinkAt(0, c.getDegree(0) - 1);
+        child = (Chromosome) c.clone();
+        parentResults = parentResults && child.getParentAdjacency() == null;
+
+        // the matrix held in a reduced precision is also rebuilt
+        Precision.setMode(Precision.FLOAT);
+        CompactMatrix compact = c.getCompactAdjacency();
+        c.addLink(0, j);
+        boolean compactRebuilt = c.getCompactAdjacency() != compact &&
+                                 c.getCompactAdjacency().get(0, j) != oo;
+        Precision.setMode(Precision.DOUBLE);
+        Debugger.enableTrace(true);
+
+        check("Fitness current only once marked", partial);
+        check("Results kept while current", kept);
+        check("Results rebuilt after a change", rebuilt);
+        check("Parent's results passed only if current", parentResults);
+        check("Compact matrix rebuilt after a change", compactRebuilt);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * The sparse graph should hold the same edges as the adjacency matrix,
+     * and be kept while the links and the precision are unchanged.
+     */
+    private static void testSparseGraph() {
+        Debugger.debug(testName = "Testing the sparse graph");
+        Debugger.debug("========================");
+        Debugger.enableTrace(false);
+        int n = 30;
+        ArrayList nodeList = genNodeList(n);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+        Chromosome c = randomChromosome(nodeList);
+        // a deactivated node has no edges
+        ((Repairable) nodeList.get(4)).deactivate(5);
+        double[][] adj = c.getAdjacencyMatrix();
+        SparseGraph g = c.getSparseGraph(false);
+        boolean same = Arrays.deepEquals(g.toMatrix(), adj) &&
+            Arrays.deepEquals(c.getSparseGraph(true).toMatrix(),
+                              (new DegreeSeparation()).adj2linkMatrix(adj));
+        boolean kept = c.getSparseGraph(false) == g;
+
+        // the total cost is summed from the edges
+        c.createFitnessArr(1);
+        (new TotalEdgeCost()).apply(c, 0);
+        double sum = 0.0;
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                if (adj[i][j] != oo) sum += adj[i][j];
+        boolean total = Math.abs(c.getFitArrElem(0) - sum) <= 1e-9 * sum;
+
+        // add a link to an activated node
+        int j = 1;
+        while (c.hasLink(0, j) || j == 4) j++;
+        c.addLink(0, j);
+        boolean rebuilt = c.getSparseGraph(false) != g &&
+                          c.getSparseGraph(false).numEdges() ==
+                          g.numEdges() + 1;
+        g = c.getSparseGraph(false);
+        Precision.setMode(Precision.FLOAT);
+        boolean precision = c.getSparseGraph(false) != g;
+        Precision.setMode(Precision.DOUBLE);
+        ((Repairable) nodeList.get(4)).activate();
+        Debugger.enableTrace(true);
+
+        check("Same edges as the adjacency matrix", same);
+        check("Sparse graph kept while current", kept);
+        check("Total cost summed from the edges", total);
+        check("Sparse graph rebuilt after a change", rebuilt);
+        check("Sparse graph rebuilt in another precision", precision);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * A clone should keep the results and the fitness current in its
+     * parent until its links are altered, and a recycled parent should
+     * keep the matrix its clones still use.
+     */
+    private static void testCarriedResults() {
+        Debugger.debug(testName = "Testing the results carried by a clone");
+        Debugger.debug("======================================");
+        Debugger.enableTrace(false);
+        int n = 20;
+        ArrayList nodeList = genNodeList(n);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+        Chromosome c = randomChromosome(nodeList);
+        c.createFitnessArr(1);
+        (new MinimalPaths()).apply(c, 0);
+        c.markFitnessCurrent();
+        double[][] adj = c.getAdjacencyMatrix();
+        SparseGraph g = c.getSparseGraph(true);
+        Object apsp = c.getDerived(Chromosome.WEIGHTED_APSP);
+        double fitness = c.getFitArrElem(0);
+
+        Chromosome child = (Chromosome) c.clone();
+        boolean carried = child.isFitnessCurrent() &&
+                          child.getFitArrElem(0) == fitness &&
+                          child.getFitnessArr() != c.getFitnessArr() &&
+                          child.getAdjacencyMatrix() == adj &&
+                          child.getSparseGraph(true) == g &&
+                          child.getDerived(Chromosome.WEIGHTED_APSP) == apsp;
+        child.insertIntoFitArr(0, fitness + 1);
+        boolean copied = c.getFitArrElem(0) == fitness;
+
+        // the matrix is still used by the clone and its own clone
+        Chromosome grandchild = (Chromosome) child.clone();
+        RowArena arena = RowArena.local();
+        int held = arena.size();
+        c.recycle();
+        child.dropParentResults();
+        boolean lent = arena.size() == held &&
+                       child.getAdjacencyMatrix() == adj &&
+                       grandchild.getAdjacencyMatrix() == adj &&
+                       child.isFitnessCurrent();
+
+        // altering a link leaves only the parent's results to repair from
+        int j = 1;
+        while (child.hasLink(0, j)) j++;
+        child.addLink(0, j);
+        double[][] newAdj = child.getAdjacencyMatrix();
+        boolean altered = !child.isFitnessCurrent() &&
+                          newAdj != adj && newAdj[0][j] != oo &&
+                          child.getSparseGraph(true) != g &&
+                          child.getDerived(Chromosome.WEIGHTED_APSP) == null &&
+                          grandchild.isFitnessCurrent() &&
+                          grandchild.getAdjacencyMatrix() == adj &&
+                          arena.size() == held;
+
+        // once no clone holds the matrix, it is given back
+        grandchild.recycle();
+        boolean given = arena.size() == held + n;
+        Debugger.enableTrace(true);
+
+        check("Results carried by the clone", carried);
+        check("Fitness values copied", copied);
+        check("Matrix kept while the clones use it", lent);
+        check("Results discarded once altered", altered);
+        check("Matrix given back by the last clone", given);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Prints whether a check is passed.
+     */
+    private static void check(String name, boolean passed) {
+        if (passed) Debugger.debug("    " + name + ": passed");
+        else        Debugger.printErr(testName + ":\n    " + name + ": FAILED");
+    }
+
+    /**
+     * Creates a chromosome of node indices, where each node links to up to
+     * a fifth of the nodes.
+     */
+    private static Chromosome randomChromosome(ArrayList nodeList) {
+        int n = nodeList.size();
+        IntGenome genome = new IntGenome(n);
+        for (int i = 0; i < n; i++) {
+            int links = rand.nextInt(n / 5) + 1;
+            for (int k = 0; k < links; k++) {
+                int j = rand.nextInt(n);
+                if (i != j && !genome.contains(i, j)) genome.add(i, j);
+            }
+        }
+        return new Chromosome(genome, nodeList, n / 3, n - n / 3);
+    }
+
+    /**
+     * Generates a list of nodes, where the first third are servers.
+     */
+    private static ArrayList genNodeList(int n) {
+        ArrayList nodeList = new ArrayList();
+        Repairable r = new Repairable(10, 0.30, 0.70, true);
+        double[] params = {1000000000, 1.0};
+        Node tmpNode = new NodeImp (params, r);
+        for (int i = 0; i < n; i++) {
+            String label = (i < n / 3) ? "SERVER" : "CLIENT";
+            nodeList.add(new NodeImp(label, rand.nextInt(700),
+                                     rand.nextInt(700), tmpNode));
+        }
+        return nodeList;
+    }
+}
@@ -0,0 +1,253 @@
+import utility.*;
+import population.*;
+import population.graph.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for DynamicAPSP. Random edges of a network
+ * are inserted, deleted, made dearer and made cheaper, and the repaired
+ * matrix of minimal path costs is compared with the matrix solved again by
+ * HeapDijkstra. MinimalPaths is also checked to give the same result for a
+ * mutated clone of an assessed chromosome, whether or not the parent's
+ * costs are repaired.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestDynamicAPSP {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+    private static final double oo = Double.POSITIVE_INFINITY;
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestDynamicAPSP() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestDynamicAPSP");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("DynamicAPSPNormal.txt",
+                            "DynamicAPSPError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n===============================\n"+
+                         "filename: DynamicAPSPNormal.txt\n" +
+                         "===============================");
+        Debugger.debug("Module Test for population.DynamicAPSP:\n");
+
+        Debugger.printErr("\n==============================\n"+
+                            "filename: DynamicAPSPError.txt\n" +
+                            "==============================");
+        Debugger.printErr("Module Test for population.DynamicAPSP:\n");
+
+        testNoChange();
+        Debugger.debug("");
+
+        testRandomChanges();
+        Debugger.debug("");
+
+        testMutatedClone();
+        Debugger.debug("");
+
+        Debugger.debug("=====================================");
+        Debugger.debug("Module Test for DynamicAPSP Completed");
+        Debugger.debug("=====================================");
+        Debugger.printErr("=====================================");
+        Debugger.printErr("Module Test for DynamicAPSP Completed");
+        Debugger.printErr("=====================================");
+    }
+
+    /**
+     * The matrix of an unchanged network should be returned as it is.
+     */
+    private static void testNoChange() {
+        Debugger.debug(testName = "Testing with an unchanged network");
+        Debugger.debug("=================================");
+        Debugger.enableTrace(false);
+        double[][] adj  = randomMatrix(30, 0.1);
+        double[][] dist = (new HeapDijkstra()).allPairs(adj);
+        double[][] result = (new DynamicAPSP()).update(dist, adj, adj);
+        Debugger.enableTrace(true);
+        if (result == dist)
+            Debugger.debug("    The matrix is returned unchanged");
+        else
+            Debugger.printErr(testName + ":\n    A new matrix is returned");
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Applies random changes to random networks, both sparse and dense,
+     * and compares the repaired matrix with the matrix solved again. The
+     * last rounds change more edges than are repaired.
+     */
+    private static void testRandomChanges() {
+        Debugger.debug(testName = "Testing with random changes of edges");
+        Debugger.debug("====================================");
+        int[] sizes     = {10, 60, 60, 120, 40};
+        double[] dense  = {0.3, 0.05, 0.5, 0.03, 0.2};
+        int[] numChange = {1, 4, 8, 16, 100};
+        DynamicAPSP dynamic = new DynamicAPSP();
+        for (int t = 0; t < sizes.length; t++) {
+            int mismatch = 0;
+            for (int round = 0; round < 20; round++) {
+                Debugger.enableTrace(false);
+                double[][] oldAdj = randomMatrix(sizes[t], dense[t]);
+                double[][] dist   = (new HeapDijkstra()).allPairs(oldAdj);
+                double[][] newAdj = change(oldAdj, numChange[t]);
+                double[][] expected = (new HeapDijkstra()).allPairs(newAdj);
+                double[][] result   = dynamic.update(dist, oldAdj, newAdj);
+                for (int r = 0; r < sizes[t]; r++)
+                    for (int c = 0; c < sizes[t]; c++)
+                        if (expected[r][c] != result[r][c] &&
+                            Math.abs(expected[r][c] - result[r][c]) > 1e-9)
+                            mismatch++;
+            }
+            Debugger.enableTrace(true);
+            if (mismatch == 0)
+                Debugger.debug("    " + numChange[t] + " changes in a " +
+                    sizes[t] + " node network: repaired correctly");
+            else
+                Debugger.printErr(testName + ":\n    " + numChange[t] +
+                    " changes in a " + sizes[t] + " node network: " +
+                    mismatch + " elements differ from HeapDijkstra");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * A clone of an assessed chromosome is mutated, and assessed with and
+     * without repairing the parent's minimal path costs.
+     */
+    private static void testMutatedClone() {
+        Debugger.debug(testName = "Testing with mutated clones");
+        Debugger.debug("===========================");
+        Debugger.enableTrace(false);
+        int n = 50;
+        ArrayList nodeList = genNodeList(n);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+        MinimalPaths repaired = new MinimalPaths(true);
+        MinimalPaths solved   = new MinimalPaths(true);
+        solved.setDynamic(null);
+
+        Chromosome parent = randomChromosome(nodeList, 0.08);
+        parent.createFitnessArr(1);
+        repaired.apply(parent, 0);
+        for (int t = 0; t < 5; t++) {
+            Chromosome child = (Chromosome) parent.clone();
+            Chromosome other = (Chromosome) parent.clone();
+            // add and remove the same links in both clones
+            for (int k = 0; k < 3; k++) {
+                int i = rand.nextInt(n), j = rand.nextInt(n);
+                ArrayList cell = child.getData(i);
+                if (cell.size() > 0 && rand.nextBoolean()) {
+                    int r = rand.nextInt(cell.size());
+                    cell.remove(r);
+                    other.getData(i).remove(r);
+                } else if (i != j && !cell.contains(nodeList.get(j))) {
+                    cell.add(nodeList.get(j));
+                    other.getData(i).add(nodeList.get(j));
+                }
+            }
+            child.invalidate();
+            other.invalidate();
+            child.createFitnessArr(1);
+            other.createFitnessArr(1);
+            repaired.apply(child, 0);
+            solved.apply(other, 0);
+            double a = child.getFitArrElem(0);
+            double b = other.getFitArrElem(0);
+            Debugger.enableTrace(true);
+            if (Math.abs(a - b) < 1e-9)
+                Debugger.debug("    Clone " + t + ": average = " + a);
+            else
+                Debugger.printErr(testName + ":\n    Clone " + t +
+                    ": average is " + a + " instead of " + b);
+            Debugger.enableTrace(false);
+        }
+        Debugger.enableTrace(true);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Copies a matrix and changes "k" random edges, by deleting or
+     * inserting them, or by making them dearer or cheaper.
+     */
+    private static double[][] change(double[][] m, int k) {
+        int n = m.length;
+        double[][] result = new double[n][];
+        for (int i = 0; i < n; i++) result[i] = (double[]) m[i].clone();
+        for (int c = 0; c < k; c++) {
+            int i = rand.nextInt(n), j = rand.nextInt(n);
+            if (i == j) continue;
+            if (result[i][j] == oo) {
+                result[i][j] = rand.nextDouble() * 1000;
+            } else {
+                switch (rand.nextInt(3)) {
+                    case 0:  result[i][j] = oo;                    break;
+                    case 1:  result[i][j] = result[i][j] * 2 + 1;  break;
+                    default: result[i][j] = result[i][j] / 3;      break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a random adjacency matrix where each edge exists with the
+     * probability "density".
+     */
+    private static double[][] randomMatrix(int n, double density) {
+        double[][] m = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++) {
+                if (i == j)                          m[i][j] = 0.0;
+                else if (rand.nextDouble() < density)
+                    m[i][j] = rand.nextDouble() * 1000;
+                else                                 m[i][j] = oo;
+            }
+        return m;
+    }
+
+    /**
+     * Creates a chromosome where each link exists with the probability
+     * "density".
+     */
+    private static Chromosome randomChromosome(ArrayList nodeList,
+    double density) {
+        int n = nodeList.size();
+        ArrayList cells = new ArrayList();
+        for (int i = 0; i < n; i++) {
+            ArrayList cell = new ArrayList();
+            for (int j = 0; j < n; j++)
+                if (i != j && rand.nextDouble() < density)
+                    cell.add(nodeList.get(j));
+            cells.add(cell);
+        }
+        return new Chromosome(cells, nodeList, n / 3, n - n / 3);
+    }
+
+    /**
+     * Generates a list of nodes, where the first third are servers.
+     */
+    private static ArrayList genNodeList(int n) {
+        ArrayList nodeList = new ArrayList();
+        Repairable r = new Repairable(10, 0.30, 0.70, true);
+        double[] params = {1000000000, 1.0};
+        Node tmpNode = new NodeImp (params, r);
+        for (int i = 0; i < n; i++) {
+            String label = (i < n / 3) ? "SERVER" : "CLIENT";
+            nodeList.add(new NodeImp(label, rand.nextInt(700),
+                                     rand.nextInt(950), tmpNode));
+        }
+        return nodeList;
+    }
+}
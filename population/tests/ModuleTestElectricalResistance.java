@@ -0,0 +1,182 @@
+import utility.*;
+import population.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for ElectricalResistance. The resistance of
+ * small circuits is compared with the values from the laws of series and
+ * parallel resistors. For random networks, the dense Cholesky inverse is
+ * compared with the conjugate gradient method.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestElectricalResistance {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+    private static final double oo = Double.POSITIVE_INFINITY;
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestElectricalResistance() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestElectricalResistance");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("ElectricalResistanceNormal.txt",
+                            "ElectricalResistanceError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n========================================\n"+
+                         "filename: ElectricalResistanceNormal.txt\n" +
+                         "========================================");
+        Debugger.debug("Module Test for population.ElectricalResistance:\n");
+
+        Debugger.printErr("\n=======================================\n"+
+                            "filename: ElectricalResistanceError.txt\n" +
+                            "=======================================");
+        Debugger.printErr("Module Test for population.ElectricalResistance:\n");
+
+        testCircuits();
+        Debugger.debug("");
+
+        testSolvers();
+        Debugger.debug("");
+
+        testMode();
+        Debugger.debug("");
+
+        Debugger.debug("==============================================");
+        Debugger.debug("Module Test for ElectricalResistance Completed");
+        Debugger.debug("==============================================");
+        Debugger.printErr("==============================================");
+        Debugger.printErr("Module Test for ElectricalResistance Completed");
+        Debugger.printErr("==============================================");
+    }
+
+    /**
+     * Tests circuits whose resistance is known.
+     */
+    private static void testCircuits() {
+        Debugger.debug(testName = "Testing with known circuits");
+        Debugger.debug("===========================");
+        ElectricalResistance er = new ElectricalResistance();
+
+        // links of 2 and 3 in opposite directions are in parallel
+        double[][] parallel = { {0, 2}, {3, 0} };
+        check("Parallel links", er, parallel, 0, 1, 1.2);
+
+        // links of 1 and 2 in series, with an isolated node
+        double[][] series = { {0,  1, oo, oo},
+                              {oo, 0,  2, oo},
+                              {oo, oo, 0, oo},
+                              {oo, oo, oo, 0} };
+        check("Series links", er, series, 0, 2, 3.0);
+        check("Isolated node", er, series, 0, 3, oo);
+
+        // a triangle of unit links
+        double[][] triangle = { {0, 1, oo}, {oo, 0, 1}, {1, oo, 0} };
+        check("Triangle", er, triangle, 0, 1, 2.0 / 3.0);
+
+        // a balanced Wheatstone bridge carries no current across the bridge
+        double[][] bridge = { {0,  1,  2, oo},
+                              {oo, 0,  5,  2},
+                              {oo, oo, 0,  4},
+                              {oo, oo, oo, 0} };
+        check("Wheatstone bridge", er, bridge, 0, 3, 2.0);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Checks the resistance between two nodes of a network.
+     */
+    private static void check(String name, ElectricalResistance er,
+    double[][] m, int i, int j, double expected) {
+        Debugger.enableTrace(false);
+        double[][] r = er.getResistance(SparseGraph.fromMatrix(m));
+        Debugger.enableTrace(true);
+        boolean ok = (expected == oo) ?
+                     (r[i][j] == oo && r[j][i] == oo) :
+                     (Math.abs(r[i][j] - expected) < 1e-9 &&
+                      r[i][j] == r[j][i]);
+        if (ok)
+            Debugger.debug("    " + name + ": R(" + i + "," + j + ") = " +
+                           r[i][j]);
+        else
+            Debugger.printErr(testName + ":\n    " + name + ": R(" + i +
+                "," + j + ") is " + r[i][j] + " instead of " + expected);
+    }
+
+    /**
+     * The conjugate gradient method should agree with the dense inverse.
+     */
+    private static void testSolvers() {
+        Debugger.debug(testName = "Testing the dense and iterative solvers");
+        Debugger.debug("=======================================");
+        int[] sizes = {8, 40, 120};
+        ElectricalResistance dense     = new ElectricalResistance();
+        ElectricalResistance iterative = new ElectricalResistance();
+        iterative.setDenseLimit(0);
+        for (int t = 0; t < sizes.length; t++) {
+            Debugger.enableTrace(false);
+            SparseGraph g = SparseGraph.fromMatrix(
+                                randomMatrix(sizes[t], 2.0 / sizes[t]));
+            double[][] a = dense.getResistance(g);
+            double[][] b = iterative.getResistance(g);
+            Debugger.enableTrace(true);
+            int mismatch = 0;
+            for (int i = 0; i < sizes[t]; i++)
+                for (int j = 0; j < sizes[t]; j++)
+                    if (a[i][j] != b[i][j] &&
+                        Math.abs(a[i][j] - b[i][j]) > 1e-6 * a[i][j])
+                        mismatch++;
+            if (mismatch == 0)
+                Debugger.debug("    " + sizes[t] + " nodes: the solvers agree");
+            else
+                Debugger.printErr(testName + ":\n    " + sizes[t] +
+                    " nodes: " + mismatch + " elements differ");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * An unknown mode of Resistance should be rejected.
+     */
+    private static void testMode() {
+        Debugger.debug(testName = "Testing the modes of Resistance");
+        Debugger.debug("===============================");
+        try {
+            new Resistance(false, 2);
+            Debugger.printErr(testName + ":\n    Exception SHOULD have " +
+                              "been caught, since the mode is unknown");
+        } catch (PreconditionException pe) {
+            Debugger.debug("    Exception caught as expected, since\n    " +
+                           "the mode is UNKNOWN");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Creates a random adjacency matrix where each edge exists with the
+     * probability "density".
+     */
+    private static double[][] randomMatrix(int n, double density) {
+        double[][] m = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++) {
+                if (i == j)                          m[i][j] = 0.0;
+                else if (rand.nextDouble() < density)
+                    m[i][j] = 1 + rand.nextDouble() * 1000;
+                else                                 m[i][j] = oo;
+            }
+        return m;
+    }
+}
@@ -0,0 +1,287 @@
+import utility.*;
+import population.*;
+import population.graph.*;
+import ecomp.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for FitnessCache. A network must only be
+ * found if its links and configuration are exactly those it was stored
+ * with, the network used least recently must be evicted, and a cache of
+ * several segments must give the right fitness to threads sharing it.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestFitnessCache {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+
+    /**
+     * A cost function whose fitness is the number of links of the network.
+     */
+    private static class LinkCount implements Function {
+        public void map(SetOfChromosomes pop, int index) {
+            for (int i = 0; i < pop.getPopSize(); i++)
+                apply(pop.getChromo(i), index);
+        }
+
+        public void apply(Chromosome c, int index) {
+            c.insertIntoFitArr(index, c.getNumEdges());
+        }
+    }
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestFitnessCache() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestFitnessCache");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("FitnessCacheNormal.txt",
+                            "FitnessCacheError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n================================\n"+
+                         "filename: FitnessCacheNormal.txt\n" +
+                         "================================");
+        Debugger.debug("Module Test for population.FitnessCache:\n");
+
+        Debugger.printErr("\n===============================\n"+
+                            "filename: FitnessCacheError.txt\n" +
+                            "===============================");
+        Debugger.printErr("Module Test for population.FitnessCache:\n");
+
+        testLookup();
+        Debugger.debug("");
+
+        testEviction();
+        Debugger.debug("");
+
+        testConcurrent();
+        Debugger.debug("");
+
+        Debugger.debug("======================================");
+        Debugger.debug("Module Test for FitnessCache Completed");
+        Debugger.debug("======================================");
+        Debugger.printErr("======================================");
+        Debugger.printErr("Module Test for FitnessCache Completed");
+        Debugger.printErr("======================================");
+    }
+
+    /**
+     * A stored network should be found by a network with the same links,
+     * and missed once its links or its configuration differ.
+     */
+    private static void testLookup() {
+        Debugger.debug(testName = "Testing the lookup");
+        Debugger.debug("==================");
+        Debugger.enableTrace(false);
+        int n = 20;
+        ArrayList nodeList = genNodeList(n);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+        Function[] func = {new LinkCount()};
+        FitnessCache cache = new FitnessCache(16);
+        Chromosome a = randomChromosome(nodeList);
+        evaluate(a, func);
+        cache.put(a, func);
+
+        // a clone, and a network with the links in another order
+        Chromosome b = (Chromosome) a.clone();
+        int i = 0;
+        while (b.getDegree(i) < 2) i++;
+        b.addLink(i, b.removeLinkAt(i, 0));
+        double[] fitness = cache.get(b, func);
+        boolean found = fitness != null &&
+                        fitness[0] == a.getFitArrElem(0) &&
+                        fitness != a.getFitnessArr() &&
+                        cache.getHits() == 1 && cache.getMisses() == 0;
+
+        // a link added twice leaves the hash, but not the links, unchanged
+        Chromosome c = (Chromosome) a.clone();
+        int j = (c.getLink(i, 0) + 1) % n;
+        while (c.hasLink(i, j)) j = (j + 1) % n;
+        c.addLink(i, j);
+        c.addLink(i, j);
+        boolean collision = c.getHash() == a.getHash() &&
+                            cache.get(c, func) == null;
+
+        // the same network in another configuration
+        boolean config = cache.get(b, new Function[]
+                                   {new LinkCount()}) == null;
+        // a node deactivated for no generations may be activated at once
+        ((Repairable) nodeList.get(3)).deactivate(0);
+        config = config && cache.get(b, func) == null;
+        ((Repairable) nodeList.get(3)).activate();
+        config = config && cache.get(b, func) != null;
+        Precision.setMode(Precision.FLOAT);
+        config = config && cache.get(b, func) == null;
+        Precision.setMode(Precision.DOUBLE);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+        config = config && cache.get(b, func) == null;
+        boolean counted = cache.getHits() == 2 && cache.getMisses() == 5;
+        // an evolution only uses a cache once one is chosen
+        boolean optIn = new NetworkGAImp().getFitnessCache() == null;
+        Debugger.enableTrace(true);
+
+        check("Same links found", found);
+        check("Networks sharing a hash told apart", collision);
+        check("Other configurations missed", config);
+        check("Hits and misses counted", counted);
+        check("No cache unless chosen", optIn);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * A full cache should evict the network used least recently.
+     */
+    private static void testEviction() {
+        Debugger.debug(testName = "Testing the eviction");
+        Debugger.debug("====================");
+        Debugger.enableTrace(false);
+        int n = 20;
+        ArrayList nodeList = genNodeList(n);
+        Function[] func = {new LinkCount()};
+        FitnessCache cache = new FitnessCache(3);
+        Chromosome[] c = new Chromosome[4];
+        for (int k = 0; k < c.length; k++) {
+            c[k] = randomChromosome(nodeList);
+            evaluate(c[k], func);
+        }
+        cache.put(c[0], func);
+        cache.put(c[1], func);
+        cache.put(c[2], func);
+        // using the first network leaves the second the least recent
+        cache.get(c[0], func);
+        cache.put(c[3], func);
+        boolean evicted = cache.size() == 3 &&
+                          cache.get(c[0], func) != null &&
+                          cache.get(c[1], func) == null &&
+                          cache.get(c[2], func) != null &&
+                          cache.get(c[3], func) != null;
+        cache.clear();
+        boolean cleared = cache.size() == 0 && cache.get(c[0], func) == null;
+        Debugger.enableTrace(true);
+
+        check("Least recent network evicted", evicted);
+        check("Cache cleared", cleared);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Threads sharing a cache of several segments should only be given the
+     * fitness of their own networks, and the capacity should be kept.
+     */
+    private static void testConcurrent() {
+        Debugger.debug(testName = "Testing the concurrent cache");
+        Debugger.debug("============================");
+        Debugger.enableTrace(false);
+        int n = 30;
+        final ArrayList nodeList = genNodeList(n);
+        final Function[] func = {new LinkCount()};
+        final FitnessCache cache = FitnessCache.newConcurrent(64);
+        final Chromosome[] pool = new Chromosome[200];
+        for (int k = 0; k < pool.length; k++)
+            pool[k] = randomChromosome(nodeList);
+        final boolean[] right = new boolean[4];
+        Thread[] workers = new Thread[right.length];
+        for (int t = 0; t < workers.length; t++) {
+            final int id = t;
+            workers[t] = new Thread() {
+                public void run() {
+                    Random r = new Random(id);
+                    right[id] = true;
+                    for (int k = 0; k < 2000; k++) {
+                        Chromosome c = (Chromosome)
+                            pool[r.nextInt(pool.length)].clone();
+                        double[] fitness = cache.get(c, func);
+                        if (fitness == null) {
+                            evaluate(c, func);
+                            cache.put(c, func);
+                        } else if (fitness[0] != c.getNumEdges()) {
+                            right[id] = false;
+                        }
+                    }
+                }
+            };
+            workers[t].start();
+        }
+        boolean joined = true;
+        for (int t = 0; t < workers.length; t++) {
+            try {
+                workers[t].join();
+            } catch (InterruptedException ie) {
+                joined = false;
+            }
+        }
+        boolean all = joined;
+        for (int t = 0; t < right.length; t++) all = all && right[t];
+        boolean bounded = cache.size() <= cache.getCapacity() &&
+                          cache.getHits() + cache.getMisses() == 8000 &&
+                          cache.getHits() > 0;
+        Debugger.enableTrace(true);
+
+        check("Right fitness given to every thread", all);
+        check("Capacity kept and lookups counted", bounded);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Applies every cost function to a network.
+     */
+    private static void evaluate(Chromosome c, Function[] func) {
+        c.createFitnessArr(func.length);
+        for (int i = 0; i < func.length; i++) func[i].apply(c, i);
+    }
+
+    /**
+     * Prints whether a check is passed.
+     */
+    private static void check(String name, boolean passed) {
+        if (passed) Debugger.debug("    " + name + ": passed");
+        else        Debugger.printErr(testName + ":\n    " + name + ": FAILED");
+    }
+
+    /**
+     * Creates a chromosome of node indices, where each node links to up to
+     * a fifth of the nodes.
+     */
+    private static Chromosome randomChromosome(ArrayList nodeList) {
+        int n = nodeList.size();
+        IntGenome genome = new IntGenome(n);
+        for (int i = 0; i < n; i++) {
+            int links = rand.nextInt(n / 5) + 1;
+            for (int k = 0; k < links; k++) {
+                int j = rand.nextInt(n);
+                if (i != j && !genome.contains(i, j)) genome.add(i, j);
+            }
+        }
+        return new Chromosome(genome, nodeList, n / 3, n - n / 3);
+    }
+
+    /**
+     * Generates a list of nodes, where the first third are servers.
+     */
+    private static ArrayList genNodeList(int n) {
+        ArrayList nodeList = new ArrayList();
+        Repairable r = new Repairable(10, 0.30, 0.70, true);
+        double[] params = {1000000000, 1.0};
+        Node tmpNode = new NodeImp (params, r);
+        for (int i = 0; i < n; i++) {
+            String label = (i < n / 3) ? "SERVER" : "CLIENT";
+            nodeList.add(new NodeImp(label, rand.nextInt(700),
+                                     rand.nextInt(700), tmpNode));
+        }
+        return nodeList;
+    }
+}
@@ -0,0 +1,230 @@
+import utility.*;
+import population.*;
+import population.graph.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for GraphView. The view of a chromosome
+ * must hold the same edges, degrees, statistics and loads as the graph
+ * built by Chromosome.getGraph, with some of the nodes deactivated and some
+ * close to their maximum operating efficiency.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestGraphView {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestGraphView() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestGraphView");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("GraphViewNormal.txt",
+                            "GraphViewError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n=============================\n"+
+                         "filename: GraphViewNormal.txt\n" +
+                         "=============================");
+        Debugger.debug("Module Test for population.GraphView:\n");
+
+        Debugger.printErr("\n============================\n"+
+                            "filename: GraphViewError.txt\n" +
+                            "============================");
+        Debugger.printErr("Module Test for population.GraphView:\n");
+
+        testAgainstGraph();
+        Debugger.debug("");
+
+        testReadOnly();
+        Debugger.debug("");
+
+        Debugger.debug("===================================");
+        Debugger.debug("Module Test for GraphView Completed");
+        Debugger.debug("===================================");
+        Debugger.printErr("===================================");
+        Debugger.printErr("Module Test for GraphView Completed");
+        Debugger.printErr("===================================");
+    }
+
+    /**
+     * The view and the graph of the same chromosomes should agree on every
+     * edge, degree, statistic and load, and so should ServerLoad.
+     */
+    private static void testAgainstGraph() {
+        Debugger.debug(testName = "Testing the view against the graph");
+        Debugger.debug("==================================");
+        int[] sizes = {5, 30, 80};
+        for (int t = 0; t < sizes.length; t++) {
+            int n = sizes[t];
+            Debugger.enableTrace(false);
+            ArrayList nodeList = genNodeList(n);
+            EdgeCostMatrix.reset();
+            EdgeCostMatrix.populateMatrix(n, 1000);
+            for (int i = 0; i < n; i += 9)
+                ((Repairable) nodeList.get(i)).deactivate(5);
+            Chromosome c = randomChromosome(nodeList);
+            Graph graph = c.getGraph();
+            GraphView view = c.getGraphView();
+
+            boolean edges = graph.numEdges() == view.numEdges() &&
+                            graph.numNodes() == view.numNodes();
+            for (int e = 0; edges && e < graph.numEdges(); e++) {
+                Edge a = graph.getEdge(e);
+                Edge b = view.getEdge(e);
+                edges = graph.nodeId(a.getFromNode()) ==
+                            view.nodeId(b.getFromNode()) &&
+                        graph.nodeId(a.getToNode()) ==
+                            view.nodeId(b.getToNode()) &&
+                        a.getLabel().equals(b.getLabel()) &&
+                        a.getCost() == b.getCost() &&
+                        view.edgeId(b) == e;
+            }
+
+            GraphStat gs = (GraphStat) graph;
+            boolean nodes = gs.numServers() == view.numServers() &&
+                            gs.numClients() == view.numClients();
+            boolean loads = true;
+            boolean order = true;
+            for (int i = 0; nodes && i < n; i++) {
+                Node a = graph.getNode(i);
+                Node b = view.getNode(i);
+                nodes = a.inDegree() == view.inDegree(b) &&
+                        a.outDegree() == view.outDegree(b) &&
+                        gs.pleioToServer(a) == view.pleioToServer(b) &&
+                        gs.pleioToClient(a) == view.pleioToClient(b) &&
+                        gs.redunFromServer(a) == view.redunFromServer(b) &&
+                        gs.redunFromClient(a) == view.redunFromClient(b) &&
+                        gs.clusterFactor(a) == view.clusterFactor(b);
+                loads = loads && ((NodeImp) a).getLoad() == view.getLoad(i);
+                order = order && sameEdgeIds(graph, a, view, b);
+            }
+
+            double expected = 0.0;
+            for (int i = 0; i < n; i++) {
+                Node a = graph.getNode(i);
+                if (a.getLabel().startsWith("SERVER"))
+                    expected += ((NodeImp) a).getLoad();
+            }
+            c.createFitnessArr(1);
+            (new ServerLoad()).apply(c, 0);
+            boolean serverLoad = c.getFitArrElem(0) == expected;
+            Debugger.enableTrace(true);
+
+            check(n + " nodes: edges", edges);
+            check(n + " nodes: degrees and statistics", nodes);
+            check(n + " nodes: loads", loads);
+            check(n + " nodes: edges of each node", order);
+            check(n + " nodes: ServerLoad", serverLoad);
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * The view should be stored until the links are altered, and should
+     * refuse nodes and edges.
+     */
+    private static void testReadOnly() {
+        Debugger.debug(testName = "Testing the stored view");
+        Debugger.debug("=======================");
+        Debugger.enableTrace(false);
+        int n = 20;
+        ArrayList nodeList = genNodeList(n);
+        Chromosome c = randomChromosome(nodeList);
+        GraphView view = c.getGraphView();
+        boolean kept = c.getGraphView() == view;
+        c.addLink(0, (c.hasLink(0, 1)) ? 2 : 1);
+        boolean rebuilt = c.getGraphView() != view;
+        boolean refused = false;
+        try {
+            c.getGraphView().addNode(new NodeImp());
+        } catch (AssertionException ae) {
+            refused = true;
+        }
+        Debugger.enableTrace(true);
+
+        check("View kept while current", kept);
+        check("View rebuilt after a change", rebuilt);
+        check("Nodes refused", refused);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Checks whether a node has the same incoming and outgoing edges, in
+     * the same order, in the graph and in the view.
+     */
+    private static boolean sameEdgeIds(Graph graph, Node a, GraphView view,
+                                       Node b) {
+        Edge x = graph.firstEdgeFrom(a);
+        Edge y = view.firstEdgeFrom(b);
+        while (x != null && y != null) {
+            if (graph.edgeId(x) != view.edgeId(y)) return false;
+            x = graph.nextEdgeFrom(a, x);
+            y = view.nextEdgeFrom(b, y);
+        }
+        if (x != null || y != null) return false;
+        x = graph.firstEdgeTo(a);
+        y = view.firstEdgeTo(b);
+        while (x != null && y != null) {
+            if (graph.edgeId(x) != view.edgeId(y)) return false;
+            x = graph.nextEdgeTo(a, x);
+            y = view.nextEdgeTo(b, y);
+        }
+        return x == null && y == null;
+    }
+
+    /**
+     * Prints whether a check is passed.
+     */
+    private static void check(String name, boolean passed) {
+        if (passed) Debugger.debug("    " + name + ": passed");
+        else        Debugger.printErr(testName + ":\n    " + name + ": FAILED");
+    }
+
+    /**
+     * Creates a chromosome of lists of nodes, where each node links to up
+     * to half of the nodes, itself included.
+     */
+    private static Chromosome randomChromosome(ArrayList nodeList) {
+        int n = nodeList.size();
+        IntGenome genome = new IntGenome(n);
+        for (int i = 0; i < n; i++) {
+            int links = rand.nextInt(n / 2 + 1) + 1;
+            for (int k = 0; k < links; k++) {
+                int j = rand.nextInt(n);
+                if (!genome.contains(i, j)) genome.add(i, j);
+            }
+        }
+        return new Chromosome(genome, nodeList, n / 3, n - n / 3);
+    }
+
+    /**
+     * Generates a list of nodes, where the first third are servers. Some of
+     * the nodes are close to their maximum operating efficiency, so that
+     * they can only accept a few connections.
+     */
+    private static ArrayList genNodeList(int n) {
+        ArrayList nodeList = new ArrayList();
+        Repairable r = new Repairable(10, 0.30, 0.70, true);
+        for (int i = 0; i < n; i++) {
+            double[] params = {1000000000, (i % 4 == 1) ? 0.99 : 0.2};
+            Node tmpNode = new NodeImp (params, r);
+            String label = (i < n / 3) ? "SERVER" : "CLIENT";
+            nodeList.add(new NodeImp(label + i, rand.nextInt(700),
+                                     rand.nextInt(700), tmpNode));
+        }
+        return nodeList;
+    }
+}
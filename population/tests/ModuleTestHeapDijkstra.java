@@ -0,0 +1,146 @@
+import utility.*;
+import population.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for HeapDijkstra. The minimal path costs
+ * produced by the engine are compared with those produced by the min-plus
+ * algorithm in DijkstraMatrix, for both a familiar matrix and for random
+ * sparse matrices. The sizes of the random matrices are chosen as 2^k + 1,
+ * so that the min-plus algorithm is guaranteed to converge.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestHeapDijkstra {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+    private static final double oo = Double.POSITIVE_INFINITY;
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestHeapDijkstra() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestHeapDijkstra");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("HeapDijkstraNormal.txt",
+                            "HeapDijkstraError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n================================\n"+
+                         "filename: HeapDijkstraNormal.txt\n" +
+                         "================================");
+        Debugger.debug("Module Test for population.HeapDijkstra:\n");
+
+        Debugger.printErr("\n===============================\n"+
+                            "filename: HeapDijkstraError.txt\n" +
+                            "===============================");
+        Debugger.printErr("Module Test for population.HeapDijkstra:\n");
+
+        testNonSquare();
+        Debugger.debug("");
+
+        testKnownMatrix();
+        Debugger.debug("");
+
+        testRandomMatrices();
+        Debugger.debug("");
+
+        Debugger.debug("======================================");
+        Debugger.debug("Module Test for HeapDijkstra Completed");
+        Debugger.debug("======================================");
+        Debugger.printErr("======================================");
+        Debugger.printErr("Module Test for HeapDijkstra Completed");
+        Debugger.printErr("======================================");
+    }
+
+    /**
+     * A matrix that is not square should be rejected.
+     */
+    private static void testNonSquare() {
+        Debugger.debug(testName = "Testing with a 2 x 3 matrix");
+        Debugger.debug("===========================");
+        double[][] m = { {0.0, 0.0, 0.0},  { 0.0, 0.0, 0.0} };
+        try {
+            (new HeapDijkstra()).allPairs(m);
+            Debugger.printErr(testName + ":\n    Exception SHOULD have " +
+                              "been caught, since the matrix is NOT square");
+        } catch (PreconditionException pe) {
+            Debugger.debug("    Exception caught as expected, since\n    " +
+                           "the matrix is NOT a SQUARE matrix");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Compares the result for the matrix used in ModuleTestDijkstraMatrix.
+     */
+    private static void testKnownMatrix() {
+        Debugger.debug(testName = "Testing with a familiar 5 x 5 matrix");
+        Debugger.debug("====================================");
+        double[][] m = { {0.0, 6.0, 3.0,  oo,  oo},
+                         {6.0, 0.0, 2.0, 4.0, 1.0},
+                         {3.0, 2.0, 0.0, 1.0, 6.0},
+                         { oo, 4.0, 1.0, 0.0, 5.0},
+                         { oo, 1.0, 6.0, 5.0, 0.0} };
+        compare(m);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Compares the results for random sparse matrices.
+     */
+    private static void testRandomMatrices() {
+        Debugger.debug(testName = "Testing with random sparse matrices");
+        Debugger.debug("===================================");
+        int[] sizes = {9, 17, 33, 65};
+        for (int i = 0; i < sizes.length; i++) {
+            Debugger.debug("Matrix of " + sizes[i] + " x " + sizes[i]);
+            compare(randomMatrix(sizes[i], 0.1));
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Prints whether HeapDijkstra agrees with DijkstraMatrix for "m".
+     */
+    private static void compare(double[][] m) {
+        double[][] expected = (new DijkstraMatrix()).dijkstra(m);
+        double[][] result   = (new HeapDijkstra()).allPairs(m);
+        int mismatch = 0;
+        for (int i = 0; i < m.length; i++)
+            for (int j = 0; j < m.length; j++)
+                if (Math.abs(expected[i][j] - result[i][j]) > 1e-9 &&
+                    expected[i][j] != result[i][j]) mismatch++;
+        if (mismatch == 0)
+            Debugger.debug("    Results are equal to DijkstraMatrix");
+        else
+            Debugger.printErr(testName + ":\n    " + mismatch +
+                " elements differ from the result of DijkstraMatrix");
+    }
+
+    /**
+     * Creates a random adjacency matrix where each edge exists with the
+     * probability "density".
+     */
+    private static double[][] randomMatrix(int n, double density) {
+        double[][] m = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++) {
+                if (i == j)                          m[i][j] = 0.0;
+                else if (rand.nextDouble() < density)
+                    m[i][j] = rand.nextDouble() * 1000;
+                else                                 m[i][j] = oo;
+            }
+        return m;
+    }
+}
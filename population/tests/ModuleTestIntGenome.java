@@ -0,0 +1,320 @@
+import utility.*;
+import population.*;
+import population.graph.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for IntGenome. A chromosome whose links are
+ * held as node indices must give the same adjacency matrix, graph and
+ * minimal path costs as the same network held as lists of nodes, and the
+ * operations on the links must behave as those on the lists.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestIntGenome {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestIntGenome() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestIntGenome");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("IntGenomeNormal.txt",
+                            "IntGenomeError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n=============================\n"+
+                         "filename: IntGenomeNormal.txt\n" +
+                         "=============================");
+        Debugger.debug("Module Test for population.IntGenome:\n");
+
+        Debugger.printErr("\n============================\n"+
+                            "filename: IntGenomeError.txt\n" +
+                            "============================");
+        Debugger.printErr("Module Test for population.IntGenome:\n");
+
+        testOperations();
+        Debugger.debug("");
+
+        testCostFunctions();
+        Debugger.debug("");
+
+        testMaterialise();
+        Debugger.debug("");
+
+        testCopyOnWrite();
+        Debugger.debug("");
+
+        Debugger.debug("===================================");
+        Debugger.debug("Module Test for IntGenome Completed");
+        Debugger.debug("===================================");
+        Debugger.printErr("===================================");
+        Debugger.printErr("Module Test for IntGenome Completed");
+        Debugger.printErr("===================================");
+    }
+
+    /**
+     * The same random additions, removals and swaps applied to a chromosome
+     * of each kind should leave the same links.
+     */
+    private static void testOperations() {
+        Debugger.debug(testName = "Testing the operations on the links");
+        Debugger.debug("===================================");
+        Debugger.enableTrace(false);
+        int n = 30;
+        ArrayList nodeList = genNodeList(n);
+        Chromosome[] ints  = { intChromosome(nodeList),
+                               intChromosome(nodeList) };
+        Chromosome[] lists = { listChromosome(ints[0]),
+                               listChromosome(ints[1]) };
+        for (int r = 0; r < 2000; r++) {
+            int c = rand.nextInt(2);
+            int i = rand.nextInt(n);
+            double op = rand.nextDouble();
+            if (op < 0.4 && ints[c].getDegree(i) > 0) {
+                int k = rand.nextInt(ints[c].getDegree(i));
+                ints[c].removeLinkAt(i, k);
+                lists[c].removeLinkAt(i, k);
+            } else if (op < 0.8) {
+                int j = rand.nextInt(n);
+                if (!ints[c].hasLink(i, j)) {
+                    ints[c].addLink(i, j);
+                    lists[c].addLink(i, j);
+                }
+            } else {
+                ints[0].swapRow(ints[1], i);
+                lists[0].swapRow(lists[1], i);
+            }
+        }
+        boolean[] same = { sameLinks(ints[0], lists[0]),
+                           sameLinks(ints[1], lists[1]) };
+
+        // a row of an IntGenome may be swapped with a row of lists
+        Chromosome mixed = listChromosome(ints[0]);
+        String before = ints[0].toString() + mixed.toString();
+        for (int i = 0; i < n; i++) mixed.swapRow(ints[0], i);
+        boolean swapped = before.equals(mixed.toString() +
+                                        ints[0].toString());
+        Debugger.enableTrace(true);
+
+        check("Links after random operations", same[0] && same[1]);
+        check("Rows swapped between kinds of genomes", swapped);
+
+        try {
+            Debugger.enableTrace(false);
+            ints[0].addLink(0, n);
+            Debugger.enableTrace(true);
+            Debugger.printErr(testName + ":\n    Exception SHOULD have " +
+                              "been caught, since the node " + n +
+                              " does not exist");
+        } catch (PreconditionException pe) {
+            Debugger.enableTrace(true);
+            Debugger.debug("    Exception caught as expected, since the " +
+                           "node " + n + "\n    does not exist");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * The adjacency matrix, the graph and the minimal path costs should not
+     * depend on how the links are held.
+     */
+    private static void testCostFunctions() {
+        Debugger.debug(testName = "Testing the cost functions");
+        Debugger.debug("==========================");
+        Debugger.enableTrace(false);
+        int n = 60;
+        ArrayList nodeList = genNodeList(n);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+        Chromosome ints  = intChromosome(nodeList);
+        Chromosome lists = listChromosome(ints);
+
+        boolean adjacency = Arrays.deepEquals(ints.getAdjacencyMatrix(),
+                                              lists.getAdjacencyMatrix());
+        boolean graph = ints.getGraph().numEdges() ==
+                        lists.getGraph().numEdges();
+        SparseGraph g1 = SparseGraph.fromChromosome(ints, false);
+        SparseGraph g2 = SparseGraph.fromChromosome(lists, false);
+        boolean sparse = g1.numEdges() == g2.numEdges();
+        for (int e = 0; sparse && e < g1.numEdges(); e++)
+            sparse = g1.target(e) == g2.target(e) &&
+                     g1.cost(e) == g2.cost(e);
+        ints.createFitnessArr(1);
+        lists.createFitnessArr(1);
+        (new MinimalPaths()).apply(ints, 0);
+        (new MinimalPaths()).apply(lists, 0);
+        boolean paths = ints.getFitArrElem(0) == lists.getFitArrElem(0);
+        boolean lazy = ints.getGenome() instanceof IntGenome;
+        Debugger.enableTrace(true);
+
+        check("Adjacency matrices", adjacency);
+        check("Graphs", graph);
+        check("Sparse graphs", sparse);
+        check("Minimal path costs", paths);
+        check("No lists of nodes built", lazy);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * The lists of nodes should be built when asked for, and a clone should
+     * not share the links of the original.
+     */
+    private static void testMaterialise() {
+        Debugger.debug(testName = "Testing the lists of nodes");
+        Debugger.debug("==========================");
+        Debugger.enableTrace(false);
+        ArrayList nodeList = genNodeList(20);
+        Chromosome c = intChromosome(nodeList);
+        Chromosome copy = (Chromosome) c.clone();
+        String expected = listChromosome(c).toString();
+        boolean text = c.toString().equals(expected);
+        ArrayList cells = c.getDataArray();
+        boolean built = c.toString().equals(expected) &&
+                        !(c.getGenome() instanceof IntGenome) &&
+                        cells.size() == 20;
+        // the lists are live: altering them alters the links
+        int j = (c.hasLink(0, 1)) ? 2 : 1;
+        if (!c.hasLink(0, j)) ((ArrayList) cells.get(0)).add(nodeList.get(j));
+        boolean live = c.hasLink(0, j);
+        boolean independent = copy.getGenome() instanceof IntGenome &&
+                              copy.toString().equals(expected);
+        Debugger.enableTrace(true);
+
+        check("Printed without building the lists", text);
+        check("Lists built by getDataArray", built);
+        check("Lists are live", live);
+        check("Clone is independent", independent);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Clones of each kind of chromosome should share the rows of the
+     * original, yet stay independent of it as either is altered.
+     */
+    private static void testCopyOnWrite() {
+        Debugger.debug(testName = "Testing the rows shared by clones");
+        Debugger.debug("=================================");
+        Debugger.enableTrace(false);
+        int n = 40;
+        ArrayList nodeList = genNodeList(n);
+        Chromosome ints = intChromosome(nodeList);
+        Chromosome[] kinds = { ints,
+            new Chromosome(new BitGenome(ints.getGenome()), nodeList,
+                           n / 3, n - n / 3),
+            listChromosome(ints) };
+        String[] names = {"IntGenome", "BitGenome", "Lists of nodes"};
+        for (int t = 0; t < kinds.length; t++) {
+            Chromosome original = kinds[t];
+            String before = original.toString();
+            // a family of clones, each altered at random
+            Chromosome[] family = new Chromosome[6];
+            String[] expected = new String[family.length];
+            family[0] = original;
+            for (int f = 1; f < family.length; f++)
+                family[f] = (Chromosome) family[rand.nextInt(f)].clone();
+            for (int f = 1; f < family.length; f++) {
+                for (int r = 0; r < 10; r++) {
+                    int i = rand.nextInt(n);
+                    if (rand.nextBoolean() && family[f].getDegree(i) > 0)
+                        family[f].removeLinkAt(i, 0);
+                    else if (!family[f].hasLink(i, (i + 1) % n))
+                        family[f].addLink(i, (i + 1) % n);
+                }
+                // the lists of nodes may be altered directly
+                ((ArrayList) family[f].getData(0)).clear();
+                expected[f] = family[f].toString();
+            }
+            boolean independent = original.toString().equals(before);
+            for (int f = 1; f < family.length; f++)
+                independent = independent &&
+                              family[f].toString().equals(expected[f]);
+            Debugger.enableTrace(true);
+            check(names[t] + " clones", independent);
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Prints whether a check is passed.
+     */
+    private static void check(String name, boolean passed) {
+        if (passed) Debugger.debug("    " + name + ": passed");
+        else        Debugger.printErr(testName + ":\n    " + name + ": FAILED");
+    }
+
+    /**
+     * Checks whether two chromosomes have the same links, in the same order.
+     */
+    private static boolean sameLinks(Chromosome a, Chromosome b) {
+        if (a.getLength() != b.getLength()) return false;
+        for (int i = 0; i < a.getLength(); i++) {
+            if (a.getDegree(i) != b.getDegree(i)) return false;
+            for (int k = 0; k < a.getDegree(i); k++)
+                if (a.getLink(i, k) != b.getLink(i, k)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Creates a chromosome of node indices, where each node links to up to
+     * a fifth of the nodes.
+     */
+    private static Chromosome intChromosome(ArrayList nodeList) {
+        int n = nodeList.size();
+        IntGenome genome = new IntGenome(n);
+        for (int i = 0; i < n; i++) {
+            int links = rand.nextInt(n / 5) + 1;
+            for (int k = 0; k < links; k++) {
+                int j = rand.nextInt(n);
+                if (i != j && !genome.contains(i, j)) genome.add(i, j);
+            }
+        }
+        return new Chromosome(genome, nodeList, n / 3, n - n / 3);
+    }
+
+    /**
+     * Creates a chromosome of lists of nodes with the same links as another
+     * chromosome.
+     */
+    private static Chromosome listChromosome(Chromosome c) {
+        ArrayList nodeList = c.getNodeList();
+        ArrayList cells = new ArrayList();
+        for (int i = 0; i < c.getLength(); i++) {
+            ArrayList cell = new ArrayList();
+            for (int k = 0; k < c.getDegree(i); k++)
+                cell.add(nodeList.get(c.getLink(i, k)));
+            cells.add(cell);
+        }
+        return new Chromosome(cells, nodeList, c.getNumServers(),
+                              c.getNumClients());
+    }
+
+    /**
+     * Generates a list of nodes, where the first third are servers.
+     */
+    private static ArrayList genNodeList(int n) {
+        ArrayList nodeList = new ArrayList();
+        Repairable r = new Repairable(10, 0.30, 0.70, true);
+        double[] params = {1000000000, 1.0};
+        Node tmpNode = new NodeImp (params, r);
+        for (int i = 0; i < n; i++) {
+            String label = (i < n / 3) ? "SERVER" : "CLIENT";
+            nodeList.add(new NodeImp(label, rand.nextInt(700),
+                                     rand.nextInt(700), tmpNode));
+        }
+        return nodeList;
+    }
+}
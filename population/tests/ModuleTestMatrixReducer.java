@@ -0,0 +1,274 @@
+import utility.*;
+import population.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This is the module test suite for MatrixReducer. The aggregates of random
+ * matrices are compared with those of the original two passes of
+ * DijkstraMatrix. The reducers running on a pool, and the reducer shared by
+ * several threads, must give results identical to the sequential reducer.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestMatrixReducer {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+    private static final double oo = Double.POSITIVE_INFINITY;
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestMatrixReducer() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestMatrixReducer");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("MatrixReducerNormal.txt",
+                            "MatrixReducerError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n=================================\n"+
+                         "filename: MatrixReducerNormal.txt\n" +
+                         "=================================");
+        Debugger.debug("Module Test for population.MatrixReducer:\n");
+
+        Debugger.printErr("\n================================\n"+
+                            "filename: MatrixReducerError.txt\n" +
+                            "================================");
+        Debugger.printErr("Module Test for population.MatrixReducer:\n");
+
+        testOriginal();
+        Debugger.debug("");
+
+        testParallel();
+        Debugger.debug("");
+
+        testSharedReducer();
+        Debugger.debug("");
+
+        Debugger.debug("=======================================");
+        Debugger.debug("Module Test for MatrixReducer Completed");
+        Debugger.debug("=======================================");
+        Debugger.printErr("=======================================");
+        Debugger.printErr("Module Test for MatrixReducer Completed");
+        Debugger.printErr("=======================================");
+    }
+
+    /**
+     * The aggregates should agree with the original passes, which count the
+     * pairs correctly when every row has a finite, non-zero element.
+     */
+    private static void testOriginal() {
+        Debugger.debug(testName = "Testing against the original passes");
+        Debugger.debug("===================================");
+        MatrixReducer reducer = new MatrixReducer();
+        int[] sizes = {2, 7, 50, 300};
+        for (int t = 0; t < sizes.length; t++) {
+            double[][] m = randomMatrix(sizes[t], 0.3, true);
+            MatrixStats stats = reducer.reduce(m);
+            double sum = originalSum(m);
+            double max = originalMax(m);
+            double avg = sum / originalCount(m);
+            if (stats.getSum() == sum && stats.getMax() == max &&
+                stats.getAverage() == avg)
+                Debugger.debug("    " + sizes[t] + " nodes: sum = " + sum +
+                               ", max = " + max + ", count = " +
+                               stats.getCount());
+            else
+                Debugger.printErr(testName + ":\n    " + sizes[t] +
+                    " nodes: sum = " + stats.getSum() + " (" + sum +
+                    "), max = " + stats.getMax() + " (" + max +
+                    "), average = " + stats.getAverage() + " (" + avg + ")");
+        }
+
+        // a node without any path is left out of the average
+        double[][] m = { {0,  2, oo},
+                         {4,  0, oo},
+                         {oo, oo, 0} };
+        MatrixStats stats = reducer.reduce(m);
+        if (stats.getCount() == 2 && stats.getAverage() == 3.0 &&
+            stats.getMin() == 2.0 && stats.getMax() == 4.0)
+            Debugger.debug("    Isolated node: average = " +
+                           stats.getAverage());
+        else
+            Debugger.printErr(testName + ":\n    Isolated node: count = " +
+                stats.getCount() + ", average = " + stats.getAverage() +
+                ", min = " + stats.getMin() + ", max = " + stats.getMax());
+
+        stats = reducer.reduce(new double[][] { {0, oo}, {oo, 0} });
+        if (stats.getCount() == 0 && stats.getAverage() == 0.0)
+            Debugger.debug("    No path: average = " + stats.getAverage());
+        else
+            Debugger.printErr(testName + ":\n    No path: count = " +
+                stats.getCount() + ", average = " + stats.getAverage());
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * The reducers on pools of any size should give identical results,
+     * for matrices of doubles and compact matrices.
+     */
+    private static void testParallel() {
+        Debugger.debug(testName = "Testing the parallel reducers");
+        Debugger.debug("=============================");
+        MatrixReducer sequential = new MatrixReducer();
+        int[] threads = {1, 2, 3, 8};
+        int[] sizes   = {10, 127, 128, 1000};
+        for (int t = 0; t < sizes.length; t++) {
+            double[][] m = randomMatrix(sizes[t], 0.2, false);
+            CompactMatrix c = CompactMatrix.fromArray(m, Precision.FLOAT,
+                                                      1.0);
+            Debugger.enableTrace(false);
+            MatrixStats expected = sequential.reduce(m);
+            MatrixStats expectedCompact = sequential.reduce(c.toArray());
+            Debugger.enableTrace(true);
+            for (int p = 0; p < threads.length; p++) {
+                ForkJoinPool pool = new ForkJoinPool(threads[p]);
+                MatrixReducer parallel = new MatrixReducer(pool);
+                String name = sizes[t] + " nodes, " + threads[p] +
+                              " workers";
+                check(name, parallel.reduce(m), expected);
+                check(name + ", float", parallel.reduce(c),
+                      expectedCompact);
+                pool.shutdown();
+            }
+        }
+
+        try {
+            new MatrixReducer(null);
+            Debugger.printErr(testName + ":\n    Exception SHOULD have " +
+                              "been caught, since the pool is null");
+        } catch (PreconditionException pe) {
+            Debugger.debug("    Exception caught as expected, since\n    " +
+                           "the pool is NULL");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * One reducer shared by several threads should give every thread the
+     * result of its own matrix.
+     */
+    private static void testSharedReducer() {
+        Debugger.debug(testName = "Testing a reducer shared by threads");
+        Debugger.debug("===================================");
+        final MatrixReducer shared = new MatrixReducer();
+        final double[][][] m = new double[8][][];
+        final MatrixStats[] expected = new MatrixStats[m.length];
+        final int[] wrong = new int[m.length];
+        for (int k = 0; k < m.length; k++) {
+            m[k] = randomMatrix(100 + k, 0.2, false);
+            expected[k] = shared.reduce(m[k]);
+        }
+        Thread[] workers = new Thread[m.length];
+        for (int k = 0; k < m.length; k++) {
+            final int id = k;
+            workers[k] = new Thread() {
+                public void run() {
+                    for (int r = 0; r < 200; r++) {
+                        MatrixStats s = shared.reduce(m[id]);
+                        if (s.getSum() != expected[id].getSum() ||
+                            s.getCount() != expected[id].getCount())
+                            wrong[id]++;
+                    }
+                }
+            };
+            workers[k].start();
+        }
+        int total = 0;
+        for (int k = 0; k < m.length; k++) {
+            try {
+                workers[k].join();
+            } catch (InterruptedException ie) {
+                Debugger.printErr(testName + ":\n    Interrupted");
+            }
+            total += wrong[k];
+        }
+        if (total == 0)
+            Debugger.debug("    " + m.length + " threads agree with the " +
+                           "sequential results");
+        else
+            Debugger.printErr(testName + ":\n    " + total +
+                              " results differ");
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Prints whether two sets of aggregates are identical.
+     */
+    private static void check(String name, MatrixStats a, MatrixStats b) {
+        if (a.getSum() == b.getSum() && a.getCount() == b.getCount() &&
+            a.getMax() == b.getMax() && a.getMin() == b.getMin())
+            Debugger.debug("    " + name + ": identical results");
+        else
+            Debugger.printErr(testName + ":\n    " + name + ": sum = " +
+                a.getSum() + " (" + b.getSum() + "), count = " +
+                a.getCount() + " (" + b.getCount() + ")");
+    }
+
+    /**
+     * The sum as originally found by DijkstraMatrix: the sums of the rows,
+     * and then the sum of those sums, leaving out infinity and zero.
+     */
+    private static double originalSum(double[][] m) {
+        double[] rows = new double[m.length];
+        for (int i = 0; i < m.length; i++)
+            for (int j = 0; j < m.length; j++)
+                if (m[i][j] != oo && m[i][j] != 0.0) rows[i] += m[i][j];
+        double sum = 0;
+        for (int i = 0; i < m.length; i++)
+            if (rows[i] != 0.0) sum += rows[i];
+        return sum;
+    }
+
+    /**
+     * The number of finite, non-zero elements.
+     */
+    private static long originalCount(double[][] m) {
+        long count = 0;
+        for (int i = 0; i < m.length; i++)
+            for (int j = 0; j < m.length; j++)
+                if (m[i][j] != oo && m[i][j] != 0.0) count++;
+        return count;
+    }
+
+    /**
+     * The maximum as originally found by DijkstraMatrix.
+     */
+    private static double originalMax(double[][] m) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < m.length; i++)
+            for (int j = 0; j < m.length; j++)
+                if (m[i][j] > max && m[i][j] != oo) max = m[i][j];
+        return max;
+    }
+
+    /**
+     * Creates a random matrix where each element is finite with the
+     * probability "density". If "everyRow" is set, each row has at least
+     * one finite, non-zero element.
+     */
+    private static double[][] randomMatrix(int n, double density,
+    boolean everyRow) {
+        double[][] m = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i == j)                          m[i][j] = 0.0;
+                else if (rand.nextDouble() < density)
+                    m[i][j] = rand.nextDouble() * 1000;
+                else                                 m[i][j] = oo;
+            }
+            if (everyRow) m[i][(i + 1) % n] = 1 + rand.nextDouble() * 1000;
+        }
+        return m;
+    }
+}
@@ -0,0 +1,174 @@
+import utility.*;
+import population.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for the min-plus kernels. The rows computed
+ * by ScalarMinPlus, and by the vector kernel when it can be loaded, are
+ * compared with the original loop of DijkstraMatrix, which branches on
+ * infinity for every element. The results must be identical.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestMinPlusKernel {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+    private static final double oo = Double.POSITIVE_INFINITY;
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestMinPlusKernel() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestMinPlusKernel");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("MinPlusKernelNormal.txt",
+                            "MinPlusKernelError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n=================================\n"+
+                         "filename: MinPlusKernelNormal.txt\n" +
+                         "=================================");
+        Debugger.debug("Module Test for population.MinPlusKernel:\n");
+
+        Debugger.printErr("\n================================\n"+
+                            "filename: MinPlusKernelError.txt\n" +
+                            "================================");
+        Debugger.printErr("Module Test for population.MinPlusKernel:\n");
+
+        testKernels();
+        Debugger.debug("");
+
+        testDijkstraMatrix();
+        Debugger.debug("");
+
+        Debugger.debug("=======================================");
+        Debugger.debug("Module Test for MinPlusKernel Completed");
+        Debugger.debug("=======================================");
+        Debugger.printErr("=======================================");
+        Debugger.printErr("Module Test for MinPlusKernel Completed");
+        Debugger.printErr("=======================================");
+    }
+
+    /**
+     * Every kernel should give the same rows as the original loop.
+     */
+    private static void testKernels() {
+        Debugger.debug(testName = "Testing the kernels");
+        Debugger.debug("===================");
+        ArrayList kernels = new ArrayList();
+        kernels.add(new ScalarMinPlus());
+        MinPlusKernel vector = MinPlusKernels.loadVector();
+        if (vector != null) kernels.add(vector);
+        else Debugger.debug("    The vector kernel is not available");
+
+        int[] sizes = {1, 2, 7, 33, 100};
+        for (int t = 0; t < sizes.length; t++) {
+            double[][] m = randomMatrix(sizes[t], 0.3);
+            double[][] expected = original(m);
+            for (int k = 0; k < kernels.size(); k++) {
+                MinPlusKernel kernel = (MinPlusKernel) kernels.get(k);
+                String name = kernel.getClass().getName();
+                double[] row = new double[sizes[t]];
+                int mismatch = 0;
+                for (int i = 0; i < sizes[t]; i++) {
+                    kernel.row(m[i], m, row);
+                    row[i] = 0.0;
+                    for (int j = 0; j < sizes[t]; j++)
+                        if (Double.compare(row[j], expected[i][j]) != 0)
+                            mismatch++;
+                }
+                if (mismatch == 0)
+                    Debugger.debug("    " + name + ", " + sizes[t] +
+                                   " nodes: identical results");
+                else
+                    Debugger.printErr(testName + ":\n    " + name + ", " +
+                        sizes[t] + " nodes: " + mismatch +
+                        " elements differ");
+            }
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * DijkstraMatrix should give the same matrix with any kernel, and
+     * should reject a null kernel.
+     */
+    private static void testDijkstraMatrix() {
+        Debugger.debug(testName = "Testing the kernels of DijkstraMatrix");
+        Debugger.debug("=====================================");
+        double[][] m = randomMatrix(70, 0.05);
+        DijkstraMatrix scalar = new DijkstraMatrix();
+        scalar.setKernel(new ScalarMinPlus());
+        double[][] a = scalar.allPairs(m);
+        double[][] b = (new DijkstraMatrix()).allPairs(m);
+        boolean same = true;
+        for (int i = 0; i < m.length; i++)
+            same &= Arrays.equals(a[i], b[i]);
+        if (same)
+            Debugger.debug("    The default kernel " +
+                MinPlusKernels.getDefault().getClass().getName() +
+                " agrees with ScalarMinPlus");
+        else
+            Debugger.printErr(testName + ":\n    The default kernel " +
+                "differs from ScalarMinPlus");
+
+        try {
+            scalar.setKernel(null);
+            Debugger.printErr(testName + ":\n    Exception SHOULD have " +
+                              "been caught, since the kernel is null");
+        } catch (PreconditionException pe) {
+            Debugger.debug("    Exception caught as expected, since\n    " +
+                           "the kernel is NULL");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * The min-plus product as originally computed by DijkstraMatrix.
+     */
+    private static double[][] original(double[][] m) {
+        double[][] result = new double[m.length][m.length];
+        double[] is = new double[m.length];
+        for (int i = 0; i < m.length; i++) {
+            for (int j = 0; j < m.length; j++) {
+                if (i == j) continue;
+                for (int k = 0; k < m.length; k++) {
+                    if (m[i][k] == oo || m[k][j] == oo) is[k] = oo;
+                    else is[k] = m[i][k] + m[k][j];
+                }
+                double min = oo;
+                for (int k = 0; k < m.length; k++)
+                    if (is[k] < min && is[k] != Double.NEGATIVE_INFINITY)
+                        min = is[k];
+                result[i][j] = min;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a random adjacency matrix where each edge exists with the
+     * probability "density".
+     */
+    private static double[][] randomMatrix(int n, double density) {
+        double[][] m = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++) {
+                if (i == j)                          m[i][j] = 0.0;
+                else if (rand.nextDouble() < density)
+                    m[i][j] = rand.nextDouble() * 1000;
+                else                                 m[i][j] = oo;
+            }
+        return m;
+    }
+}
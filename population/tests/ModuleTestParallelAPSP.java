@@ -0,0 +1,163 @@
+import utility.*;
+import population.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for ParallelAPSP. The minimal path
+ * costs are compared with those produced by HeapDijkstra, and the hop
+ * aggregates with those produced by BitParallelBFS, for pools of different
+ * sizes. The sizes of the networks are not multiples of 64, so that the
+ * last batch of sources is only partially filled.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestParallelAPSP {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+    private static final double oo = Double.POSITIVE_INFINITY;
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestParallelAPSP() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestParallelAPSP");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("ParallelAPSPNormal.txt",
+                            "ParallelAPSPError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n================================\n"+
+                         "filename: ParallelAPSPNormal.txt\n" +
+                         "================================");
+        Debugger.debug("Module Test for population.ParallelAPSP:\n");
+
+        Debugger.printErr("\n===============================\n"+
+                            "filename: ParallelAPSPError.txt\n" +
+                            "===============================");
+        Debugger.printErr("Module Test for population.ParallelAPSP:\n");
+
+        testPoolSize();
+        Debugger.debug("");
+
+        testMinimalPaths();
+        Debugger.debug("");
+
+        testHopStats();
+        Debugger.debug("");
+
+        Debugger.debug("======================================");
+        Debugger.debug("Module Test for ParallelAPSP Completed");
+        Debugger.debug("======================================");
+        Debugger.printErr("======================================");
+        Debugger.printErr("Module Test for ParallelAPSP Completed");
+        Debugger.printErr("======================================");
+    }
+
+    /**
+     * A pool of 0 workers should be rejected.
+     */
+    private static void testPoolSize() {
+        Debugger.debug(testName = "Testing with a pool of 0 workers");
+        Debugger.debug("================================");
+        try {
+            new ParallelAPSP(0);
+            Debugger.printErr(testName + ":\n    Exception SHOULD have " +
+                              "been caught, since the size is not positive");
+        } catch (PreconditionException pe) {
+            Debugger.debug("    Exception caught as expected, since\n    " +
+                           "the number of workers is NOT POSITIVE");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Compares the minimal path costs with those of HeapDijkstra.
+     */
+    private static void testMinimalPaths() {
+        Debugger.debug(testName = "Testing the minimal path costs");
+        Debugger.debug("==============================");
+        int[] sizes   = {1, 9, 100, 203};
+        int[] threads = {1, 3, 4, 8};
+        for (int i = 0; i < sizes.length; i++) {
+            Debugger.debug("Matrix of " + sizes[i] + " x " + sizes[i] +
+                           " with " + threads[i] + " workers");
+            Debugger.enableTrace(false);
+            double[][] m = randomMatrix(sizes[i], 0.05, false);
+            double[][] expected = (new HeapDijkstra()).allPairs(m);
+            double[][] result = (new ParallelAPSP(threads[i])).allPairs(m);
+            Debugger.enableTrace(true);
+            int mismatch = 0;
+            for (int r = 0; r < m.length; r++)
+                for (int c = 0; c < m.length; c++)
+                    if (expected[r][c] != result[r][c]) mismatch++;
+            if (mismatch == 0)
+                Debugger.debug("    Results are equal to HeapDijkstra");
+            else
+                Debugger.printErr(testName + ":\n    " + mismatch +
+                    " elements differ from the result of HeapDijkstra");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Compares the aggregates of the hop counts with those of
+     * BitParallelBFS. The same engine is reused for every network.
+     */
+    private static void testHopStats() {
+        Debugger.debug(testName = "Testing the aggregates of hop counts");
+        Debugger.debug("====================================");
+        int[] sizes = {5, 65, 300, 1000};
+        ParallelAPSP engine = new ParallelAPSP(4);
+        for (int i = 0; i < sizes.length; i++) {
+            Debugger.debug("Link matrix of " + sizes[i] + " x " + sizes[i]);
+            Debugger.enableTrace(false);
+            SparseGraph g = SparseGraph.fromMatrix(
+                                randomMatrix(sizes[i], 3.0 / sizes[i], true));
+            HopStats expected = (new BitParallelBFS()).hopStats(g, true);
+            HopStats result   = engine.hopStats(g, true);
+            Debugger.enableTrace(true);
+            boolean equal = expected.getMax() == result.getMax() &&
+                            expected.getSum() == result.getSum() &&
+                            expected.getCount() == result.getCount() &&
+                            Arrays.equals(expected.getReachable(),
+                                          result.getReachable());
+            if (equal)
+                Debugger.debug("    Aggregates are equal to BitParallelBFS:" +
+                    " max = " + result.getMax() + ", average = " +
+                    result.getAverage());
+            else
+                Debugger.printErr(testName + ":\n    Aggregates differ: " +
+                    "max = " + result.getMax() + " (" + expected.getMax() +
+                    "), sum = " + result.getSum() + " (" +
+                    expected.getSum() + ")");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Creates a random adjacency matrix where each edge exists with the
+     * probability "density". Every edge has the cost of 1 in a link matrix.
+     */
+    private static double[][] randomMatrix(int n, double density,
+    boolean link) {
+        double[][] m = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++) {
+                if (i == j)                          m[i][j] = 0.0;
+                else if (rand.nextDouble() < density)
+                    m[i][j] = (link) ? 1.0 : rand.nextDouble() * 1000;
+                else                                 m[i][j] = oo;
+            }
+        return m;
+    }
+}
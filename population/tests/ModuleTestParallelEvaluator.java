@@ -0,0 +1,592 @@
+import utility.*;
+import population.*;
+import population.graph.*;
+import ecomp.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for ParallelEvaluator. The fitness values
+ * given on several threads must be those given on a single thread, each
+ * worker thread must apply its own replica of a function, a function that
+ * cannot be replicated must be applied by one thread at a time, and an
+ * exception thrown by a function must reach the caller. The generations
+ * and batches of steady-state steps evolved with an evaluator must keep
+ * the fitness values of their chromosomes current.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestParallelEvaluator {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+
+    /**
+     * A cost function whose fitness is the number of links of the network,
+     * recording the threads applying it at once.
+     */
+    private static class LinkCount implements Function {
+        int running, mostRunning;
+
+        public void map(SetOfChromosomes pop, int index) {
+            for (int i = 0; i < pop.getPopSize(); i++)
+                apply(pop.getChromo(i), index);
+        }
+
+        public void apply(Chromosome c, int index) {
+            synchronized (this) {
+                mostRunning = Math.max(mostRunning, ++running);
+            }
+            Thread.yield();
+            c.insertIntoFitArr(index, c.getNumEdges());
+            synchronized (this) {
+                running--;
+            }
+        }
+    }
+
+    /**
+     * A replicable cost function, recording the thread applying each
+     * replica.
+     */
+    private static class Owned extends LinkCount implements Replicable {
+        final Map owners;
+
+        Owned(Map owners) {
+            this.owners = owners;
+        }
+
+        public Object replicate() {
+            return new Owned(owners);
+        }
+
+        public void apply(Chromosome c, int index) {
+            synchronized (owners) {
+                Object t = owners.get(this);
+                if (t == null) owners.put(this, Thread.currentThread());
+                else if (t != Thread.currentThread()) owners.put(this, owners);
+            }
+            super.apply(c, index);
+        }
+    }
+
+    /**
+     * Records the fitness value a cost function gives each chromosome,
+     * which the next function would overwrite, as every function writes
+     * the same element of the fitness array.
+     */
+    private static class Recorded implements Function, Replicable {
+        final Function f;
+        final Map values;
+
+        Recorded(Function f, Map values) {
+            this.f = f;
+            this.values = values;
+        }
+
+        public Object replicate() {
+            Object r = (f instanceof Replicable) ?
+                       ((Replicable) f).replicate() : null;
+            return (r == null) ? null : new Recorded((Function) r, values);
+        }
+
+        public void map(SetOfChromosomes pop, int index) {
+            for (int i = 0; i < pop.getPopSize(); i++)
+                apply(pop.getChromo(i), index);
+        }
+
+        public void apply(Chromosome c, int index) {
+            f.apply(c, index);
+            synchronized (values) {
+                values.put(c, new Double(c.getFitArrElem(index)));
+            }
+        }
+    }
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestParallelEvaluator() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestParallelEvaluator");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("ParallelEvaluatorNormal.txt",
+                            "ParallelEvaluatorError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n=====================================\n"+
+                         "filename: ParallelEvaluatorNormal.txt\n" +
+                         "=====================================");
+        Debugger.debug("Module Test for population.ParallelEvaluator:\n");
+
+        Debugger.printErr("\n====================================\n"+
+                            "filename: ParallelEvaluatorError.txt\n" +
+                            "====================================");
+        Debugger.printErr("Module Test for population.ParallelEvaluator:\n");
+
+        testSameFitness();
+        Debugger.debug("");
+
+        testReplicas();
+        Debugger.debug("");
+
+        testSettings();
+        Debugger.debug("");
+
+        testErrors();
+        Debugger.debug("");
+
+        testEvolve();
+        Debugger.debug("");
+
+        testBatch();
+        Debugger.debug("");
+
+        testBatchEquivalence();
+        Debugger.debug("");
+
+        Debugger.debug("===========================================");
+        Debugger.debug("Module Test for ParallelEvaluator Completed");
+        Debugger.debug("===========================================");
+        Debugger.printErr("===========================================");
+        Debugger.printErr("Module Test for ParallelEvaluator Completed");
+        Debugger.printErr("===========================================");
+    }
+
+    /**
+     * A population assessed on several threads should be given by each
+     * function the fitness values given by applying each function to the
+     * whole population in turn.
+     */
+    private static void testSameFitness() {
+        Debugger.debug(testName = "Testing the fitness on several threads");
+        Debugger.debug("======================================");
+        Debugger.enableTrace(false);
+        int n = 20;
+        ArrayList nodeList = genNodeList(n);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+        SetOfChromosomes single = new SetOfChromosomes();
+        SetOfChromosomes several = new SetOfChromosomes();
+        for (int k = 0; k < 16; k++) {
+            Chromosome c = randomChromosome(nodeList);
+            single.addChromo(c);
+            several.addChromo(new Chromosome(new IntGenome(c.getGenome()),
+                nodeList, c.getNumServers(), c.getNumClients()));
+        }
+        Map[] expected = new Map[functions().length];
+        Function[] func = recorded(expected);
+        for (int k = 0; k < single.getPopSize(); k++)
+            single.getChromo(k).createFitnessArr(func.length);
+        for (int z = 0; z < func.length; z++) func[z].map(single, z);
+
+        ParallelEvaluator evaluator = new ParallelEvaluator(4);
+        Map[] values = new Map[expected.length];
+        func = recorded(values);
+        evaluator.evaluate(several, func);
+        boolean same = sameValues(single, expected, several, values);
+        // new replicas assess the population again
+        for (int z = 0; z < values.length; z++) values[z].clear();
+        for (int k = 0; k < several.getPopSize(); k++)
+            several.getChromo(k).invalidate();
+        evaluator.evaluate(several, func);
+        boolean again = sameValues(single, expected, several, values);
+        evaluator.getExecutor().shutdown();
+        Debugger.enableTrace(true);
+
+        check("Fitness of a single thread", same);
+        check("Fitness of a second evaluation", again);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Checks whether every function gave the chromosomes of two populations
+     * with the same links the same fitness values.
+     */
+    private static boolean sameValues(SetOfChromosomes a, Map[] aValues,
+    SetOfChromosomes b, Map[] bValues) {
+        boolean same = true;
+        for (int z = 0; z < aValues.length; z++) {
+            for (int k = 0; k < a.getPopSize(); k++) {
+                Object x = aValues[z].get(a.getChromo(k));
+                Object y = bValues[z].get(b.getChromo(k));
+                same = same && x != null && x.equals(y);
+            }
+        }
+        return same;
+    }
+
+    /**
+     * Each worker thread should apply its own replica of a replicable
+     * function, and a function that cannot be replicated should be applied
+     * by one thread at a time.
+     */
+    private static void testReplicas() {
+        Debugger.debug(testName = "Testing the replicas of the functions");
+        Debugger.debug("=====================================");
+        Debugger.enableTrace(false);
+        int n = 20;
+        ArrayList nodeList = genNodeList(n);
+        Chromosome[] chromos = new Chromosome[200];
+        for (int k = 0; k < chromos.length; k++)
+            chromos[k] = randomChromosome(nodeList);
+        Map owners = new IdentityHashMap();
+        Owned owned = new Owned(owners);
+        LinkCount locked = new LinkCount();
+        Function[] func = {owned, locked};
+        ParallelEvaluator evaluator = new ParallelEvaluator(4);
+        evaluator.evaluate(chromos, func);
+
+        boolean own = !owners.containsKey(owned) && owners.size() > 0 &&
+                      owners.size() <= 4 && !owners.containsValue(owners);
+        boolean one = locked.mostRunning == 1;
+        // a subclass is replicated as its own kind, or not at all
+        boolean kind = ((Replicable) new ClusterCoeff()).replicate()
+                       instanceof ClusterCoeff &&
+                       ((Replicable) new DegreeSeparation() {
+                       }).replicate() == null &&
+                       ((Replicable) new Resistance() {
+                       }).replicate() == null;
+        boolean all = true;
+        for (int k = 0; k < chromos.length; k++)
+            all = all && chromos[k].getFitnessArr() != null &&
+                  chromos[k].getFitArrElem(1) == chromos[k].getNumEdges();
+        evaluator.getExecutor().shutdown();
+        Debugger.enableTrace(true);
+
+        check("One replica for each thread", own);
+        check("Function without replicas locked", one);
+        check("Subclasses replicated as their own kind", kind);
+        check("Every chromosome assessed", all);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * A setting of a function changed between two evaluations should be
+     * followed by the replicas of the second.
+     */
+    private static void testSettings() {
+        Debugger.debug(testName = "Testing a change of settings");
+        Debugger.debug("============================");
+        Debugger.enableTrace(false);
+        int n = 20;
+        ArrayList nodeList = genNodeList(n);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+        Chromosome[] chromos = new Chromosome[16];
+        for (int k = 0; k < chromos.length; k++)
+            chromos[k] = randomChromosome(nodeList);
+        // every function writes the same element of the fitness array
+        DegreeSeparation hops = new DegreeSeparation(false);
+        MinimalPaths paths = new MinimalPaths(false);
+        Function[][] func = {{hops}, {paths}};
+        Function[] expected = {new DegreeSeparation(true),
+                               new MinimalPaths(true)};
+        ParallelEvaluator evaluator = new ParallelEvaluator(4);
+        boolean changed = true;
+        boolean followed = true;
+        for (int z = 0; z < func.length; z++) {
+            boolean moved = false;
+            evaluator.evaluate(chromos, func[z]);
+            double[] before = new double[chromos.length];
+            for (int k = 0; k < chromos.length; k++)
+                before[k] = chromos[k].getFitArrElem(0);
+            if (z == 0) hops.setDoAvg(true);
+            else        paths.setDoAvg(true);
+            evaluator.evaluate(chromos, func[z]);
+            for (int k = 0; k < chromos.length; k++) {
+                double after = chromos[k].getFitArrElem(0);
+                expected[z].apply(chromos[k], 0);
+                followed = followed && after == chromos[k].getFitArrElem(0);
+                moved = moved || after != before[k];
+            }
+            changed = changed && moved;
+        }
+        evaluator.getExecutor().shutdown();
+        Debugger.enableTrace(true);
+
+        check("Changed settings followed", followed && changed);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * An exception thrown by a function should reach the caller, and an
+     * evaluator should need a worker and an executor.
+     */
+    private static void testErrors() {
+        Debugger.debug(testName = "Testing the errors of the evaluation");
+        Debugger.debug("====================================");
+        Debugger.enableTrace(false);
+        ArrayList nodeList = genNodeList(20);
+        Chromosome[] chromos = {randomChromosome(nodeList)};
+        final AssertionException error = new AssertionException("failed");
+        Function[] func = {new LinkCount() {
+            public void apply(Chromosome c, int index) {
+                throw error;
+            }
+        }};
+        ParallelEvaluator evaluator = new ParallelEvaluator(2);
+        boolean thrown = false;
+        try {
+            evaluator.evaluate(chromos, func);
+        } catch (AssertionException ae) {
+            thrown = ae == error;
+        }
+        evaluator.getExecutor().shutdown();
+
+        boolean rejected = true;
+        try {
+            new ParallelEvaluator(0);
+            rejected = false;
+        } catch (PreconditionException pe) {
+        }
+        try {
+            new ParallelEvaluator(null);
+            rejected = false;
+        } catch (PreconditionException pe) {
+        }
+        Debugger.enableTrace(true);
+
+        check("Exception of a function thrown again", thrown);
+        check("No workers or executor rejected", rejected);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * A generation evolved with an evaluator should be given the fitness
+     * values of new chromosomes with the same links.
+     */
+    private static void testEvolve() {
+        Debugger.debug(testName = "Testing the evolution on several threads");
+        Debugger.debug("========================================");
+        Debugger.enableTrace(false);
+        EdgeCostMatrix.reset();
+        NetworkGAImp ga = new NetworkGAImp(0.8, 0.2, 5, 25, 20);
+        Function[] func = {new MinimalPaths(), new DegreeSeparation()};
+        SetOfChromosomes pop = ga.getCurPop();
+        for (int k = 0; k < pop.getPopSize(); k++)
+            pop.getChromo(k).createFitnessArr(func.length);
+        for (int z = 0; z < func.length; z++) func[z].map(pop, z);
+        pop.setCostFunctions(func);
+        pop.normalize();
+        pop.sort();
+        ga.setEvaluator(new ParallelEvaluator(4));
+        for (int g = 0; g < 20; g++) ga.evolve(func);
+
+        pop = ga.getCurPop();
+        boolean same = true;
+        for (int k = 0; k < pop.getPopSize(); k++) {
+            Chromosome c = pop.getChromo(k);
+            Chromosome copy = new Chromosome(new IntGenome(c.getGenome()),
+                c.getNodeList(), c.getNumServers(), c.getNumClients());
+            copy.createFitnessArr(func.length);
+            for (int z = 0; z < func.length; z++) func[z].apply(copy, z);
+            same = same && Arrays.equals(c.getFitnessArr(),
+                                         copy.getFitnessArr());
+        }
+        ga.getEvaluator().getExecutor().shutdown();
+        Debugger.enableTrace(true);
+
+        check("Fitness of new chromosomes", same);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Batches of steady-state steps evolved with an evaluator should keep
+     * the size of the population, count a generation for each step, and
+     * give the offspring the fitness values of new chromosomes with the
+     * same links.
+     */
+    private static void testBatch() {
+        Debugger.debug(testName = "Testing the batches of steady-state steps");
+        Debugger.debug("=========================================");
+        Debugger.enableTrace(false);
+        EdgeCostMatrix.reset();
+        NetworkGAImp ga = new NetworkGAImp(0.8, 0.2, 5, 25, 20);
+        Function[] func = {new MinimalPaths(), new ServerLoad()};
+        SetOfChromosomes pop = ga.getCurPop();
+        pop.setCostFunctions(func);
+        for (int k = 0; k < pop.getPopSize(); k++)
+            pop.getChromo(k).createFitnessArr(func.length);
+        for (int z = 0; z < func.length; z++) func[z].map(pop, z);
+        pop.normalize();
+        pop.sort();
+        ga.setEvaluator(new ParallelEvaluator(4));
+        int gen = ga.getNumGen();
+        for (int g = 0; g < 25; g++) ga.steadyStateEvolve(func, g % 2 == 0, 8);
+        boolean counted = ga.getNumGen() == gen + 200 &&
+                          ga.getCurPop().getPopSize() == 20;
+
+        pop = ga.getCurPop();
+        boolean same = true;
+        for (int k = 0; k < pop.getPopSize(); k++) {
+            Chromosome c = pop.getChromo(k);
+            Chromosome copy = new Chromosome(new IntGenome(c.getGenome()),
+                c.getNodeList(), c.getNumServers(), c.getNumClients());
+            copy.createFitnessArr(func.length);
+            for (int z = 0; z < func.length; z++) func[z].apply(copy, z);
+            same = same && Arrays.equals(c.getFitnessArr(),
+                                         copy.getFitnessArr());
+        }
+        boolean rejected = false;
+        try {
+            ga.steadyStateEvolve(func, true, 0);
+        } catch (PreconditionException pe) {
+            rejected = true;
+        }
+        ga.getEvaluator().getExecutor().shutdown();
+        Debugger.enableTrace(true);
+
+        check("Population kept and generations counted", counted);
+        check("Fitness of new chromosomes", same);
+        check("Empty batch rejected", rejected);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Batches of one step assessed on several threads should evolve a
+     * population as single steps do on the calling thread, when both are
+     * seeded alike, and larger batches should not depend on the number of
+     * threads. The clustering coefficient is assessed last, so that the
+     * networks are ranked by it.
+     */
+    private static void testBatchEquivalence() {
+        Debugger.debug(testName = "Testing the batches against single steps");
+        Debugger.debug("========================================");
+        Debugger.enableTrace(false);
+        EdgeCostMatrix.reset();
+        NetworkGAImp single = new NetworkGAImp(0.8, 0.2, 5, 25, 20);
+        NetworkGAImp batched = (NetworkGAImp) single.clone();
+        NetworkGAImp threads = (NetworkGAImp) single.clone();
+        NetworkGAImp serial = (NetworkGAImp) single.clone();
+        Function[] func = prepare(single);
+        Function[] batchFunc = prepare(batched);
+        Function[] threadFunc = prepare(threads);
+        Function[] serialFunc = prepare(serial);
+        batched.setEvaluator(new ParallelEvaluator(4));
+        threads.setEvaluator(batched.getEvaluator());
+
+        for (int g = 0; g < 40; g++) {
+            single.steadyStateEvolve(func, false);
+            batched.steadyStateEvolve(batchFunc, false, 1);
+        }
+        boolean one = samePopulation(single, batched);
+        for (int g = 0; g < 10; g++) {
+            threads.steadyStateEvolve(threadFunc, true, 8);
+            serial.steadyStateEvolve(serialFunc, true, 8);
+        }
+        boolean many = samePopulation(threads, serial);
+        batched.getEvaluator().getExecutor().shutdown();
+        Debugger.enableTrace(true);
+
+        check("Batches of one step as single steps", one);
+        check("Batches independent of the threads", many);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Assesses the population of an evolution, without a fitness cache, and
+     * seeds it.
+     * @return  the cost functions of the evolution
+     */
+    private static Function[] prepare(NetworkGAImp ga) {
+        Function[] func = {new MinimalPaths(), new DegreeSeparation(),
+                           new ClusterCoeff()};
+        SetOfChromosomes pop = ga.getCurPop();
+        pop.setCostFunctions(func);
+        for (int k = 0; k < pop.getPopSize(); k++)
+            pop.getChromo(k).createFitnessArr(func.length);
+        for (int z = 0; z < func.length; z++) func[z].map(pop, z);
+        pop.normalize();
+        pop.sort();
+        ga.setFitnessCache(null);
+        ga.setSeed(11);
+        return func;
+    }
+
+    /**
+     * Checks whether two evolutions hold the same networks, with the same
+     * fitness, in the same order.
+     */
+    private static boolean samePopulation(NetworkGAImp a, NetworkGAImp b) {
+        SetOfChromosomes x = a.getCurPop();
+        SetOfChromosomes y = b.getCurPop();
+        boolean same = x.getPopSize() == y.getPopSize() &&
+                       a.getNumGen() == b.getNumGen();
+        for (int k = 0; same && k < x.getPopSize(); k++)
+            same = x.getChromo(k).sameLinks(y.getChromo(k)) &&
+                   x.getChromo(k).getFitness() == y.getChromo(k).getFitness();
+        return same;
+    }
+
+    /**
+     * Returns a new instance of each cost function assessed.
+     */
+    private static Function[] functions() {
+        Function[] func = {new MinimalPaths(), new DegreeSeparation(),
+                           new ClusterCoeff(),
+                           new DegreeSeparation(true, new HeapDijkstra()),
+                           new TotalEdgeCost(), new ServerLoad(),
+                           new Resistance(false, Resistance.ELECTRICAL)};
+        return func;
+    }
+
+    /**
+     * Returns a new instance of each cost function assessed, recording the
+     * fitness values each gives in a map of its own.
+     */
+    private static Function[] recorded(Map[] values) {
+        Function[] func = functions();
+        for (int z = 0; z < func.length; z++)
+            func[z] = new Recorded(func[z], values[z] = new IdentityHashMap());
+        return func;
+    }
+
+    /**
+     * Prints whether a check is passed.
+     */
+    private static void check(String name, boolean passed) {
+        if (passed) Debugger.debug("    " + name + ": passed");
+        else        Debugger.printErr(testName + ":\n    " + name + ": FAILED");
+    }
+
+    /**
+     * Creates a chromosome of node indices, where each node links to up to
+     * a fifth of the nodes.
+     */
+    private static Chromosome randomChromosome(ArrayList nodeList) {
+        int n = nodeList.size();
+        IntGenome genome = new IntGenome(n);
+        for (int i = 0; i < n; i++) {
+            int links = rand.nextInt(n / 5) + 1;
+            for (int k = 0; k < links; k++) {
+                int j = rand.nextInt(n);
+                if (i != j && !genome.contains(i, j)) genome.add(i, j);
+            }
+        }
+        return new Chromosome(genome, nodeList, n / 3, n - n / 3);
+    }
+
+    /**
+     * Generates a list of nodes, where the first third are servers.
+     */
+    private static ArrayList genNodeList(int n) {
+        ArrayList nodeList = new ArrayList();
+        Repairable r = new Repairable(10, 0.30, 0.70, true);
+        double[] params = {1000000000, 1.0};
+        Node tmpNode = new NodeImp (params, r);
+        for (int i = 0; i < n; i++) {
+            String label = (i < n / 3) ? "SERVER" : "CLIENT";
+            nodeList.add(new NodeImp(label, rand.nextInt(700),
+                                     rand.nextInt(700), tmpNode));
+        }
+        return nodeList;
+    }
+}
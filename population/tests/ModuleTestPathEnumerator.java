@@ -0,0 +1,287 @@
+import utility.*;
+import population.*;
+import population.graph.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for PathEnumerator. The resistance of random
+ * networks is compared with a breadth-first search over lists of visited
+ * nodes, which is how BFSResistance and BFSNode used to expand the paths.
+ * The results must be identical, with and without a limit on the length of
+ * the paths. The time budget is also checked to cut the enumeration short.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestPathEnumerator {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestPathEnumerator() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestPathEnumerator");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("PathEnumeratorNormal.txt",
+                            "PathEnumeratorError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n==================================\n"+
+                         "filename: PathEnumeratorNormal.txt\n" +
+                         "==================================");
+        Debugger.debug("Module Test for population.PathEnumerator:\n");
+
+        Debugger.printErr("\n=================================\n"+
+                            "filename: PathEnumeratorError.txt\n" +
+                            "=================================");
+        Debugger.printErr("Module Test for population.PathEnumerator:\n");
+
+        testAgainstBFS();
+        Debugger.debug("");
+
+        testMaxPathLength();
+        Debugger.debug("");
+
+        testTimeBudget();
+        Debugger.debug("");
+
+        testSettings();
+        Debugger.debug("");
+
+        Debugger.debug("========================================");
+        Debugger.debug("Module Test for PathEnumerator Completed");
+        Debugger.debug("========================================");
+        Debugger.printErr("========================================");
+        Debugger.printErr("Module Test for PathEnumerator Completed");
+        Debugger.printErr("========================================");
+    }
+
+    /**
+     * The enumerated paths must give exactly the same resistance as the
+     * breadth-first search, both with edge costs and unit costs.
+     */
+    private static void testAgainstBFS() {
+        Debugger.debug(testName = "Testing against the breadth-first search");
+        Debugger.debug("========================================");
+        int[] sizes     = {1, 2, 5, 8, 9};
+        double[] dense  = {0.5, 0.5, 0.6, 0.4, 0.3};
+        for (int t = 0; t < sizes.length; t++) {
+            for (int u = 0; u < 2; u++) {
+                boolean unit = (u == 1);
+                Debugger.enableTrace(false);
+                Chromosome c = setup(sizes[t], dense[t]);
+                double[][] expected = reference(c, unit, 0);
+                double[][] a = (new PathEnumerator(unit)).getResistance(c);
+                double[][] b = (new BFSResistance(unit)).getResistance(c);
+                Debugger.enableTrace(true);
+                report(sizes[t] + " nodes, " + (unit ? "unit" : "edge") +
+                       " costs", expected, a, b);
+            }
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Only the paths of upto the given number of hops should be summed.
+     */
+    private static void testMaxPathLength() {
+        Debugger.debug(testName = "Testing the limit on the path length");
+        Debugger.debug("====================================");
+        int[] limits = {1, 2, 4};
+        for (int t = 0; t < limits.length; t++) {
+            Debugger.enableTrace(false);
+            Chromosome c = setup(9, 0.4);
+            PathEnumerator paths = new PathEnumerator();
+            paths.setMaxPathLength(limits[t]);
+            BFSResistance bfs = new BFSResistance();
+            bfs.setMaxPathLength(limits[t]);
+            double[][] expected = reference(c, false, limits[t]);
+            double[][] a = paths.getResistance(c);
+            double[][] b = bfs.getResistance(c);
+            Debugger.enableTrace(true);
+            report("Upto " + limits[t] + " hops", expected, a, b);
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * A network with too many paths must be cut short by the time budget,
+     * while the direct links are still counted.
+     */
+    private static void testTimeBudget() {
+        Debugger.debug(testName = "Testing the time budget");
+        Debugger.debug("=======================");
+        Debugger.enableTrace(false);
+        Chromosome c = setup(16, 0.9);
+        PathEnumerator paths = new PathEnumerator();
+        paths.setTimeBudget(50);
+        long start = System.currentTimeMillis();
+        double[][] r = paths.getResistance(c);
+        long time = System.currentTimeMillis() - start;
+
+        ArrayList nodeList = c.getNodeList();
+        int missing = 0;
+        for (int i = 0; i < nodeList.size(); i++) {
+            ArrayList cell = c.getData(i);
+            for (int k = 0; k < cell.size(); k++) {
+                int j = nodeList.indexOf(cell.get(k));
+                if (!(r[i][j] < Double.POSITIVE_INFINITY)) missing++;
+            }
+        }
+        Debugger.enableTrace(true);
+        if (paths.isTruncated() && missing == 0 && time < 5000)
+            Debugger.debug("    The enumeration is truncated after " + time +
+                           " ms");
+        else
+            Debugger.printErr(testName + ":\n    truncated = " +
+                paths.isTruncated() + ", " + missing + " links have no " +
+                "resistance, and it took " + time + " ms");
+
+        Debugger.enableTrace(false);
+        paths.setTimeBudget(0);
+        paths.setMaxPathLength(2);
+        paths.getResistance(c);
+        Debugger.enableTrace(true);
+        if (!paths.isTruncated())
+            Debugger.debug("    Without a budget, the result is complete");
+        else
+            Debugger.printErr(testName + ":\n    The result is truncated " +
+                              "without a budget");
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Negative limits should be rejected.
+     */
+    private static void testSettings() {
+        Debugger.debug(testName = "Testing with invalid settings");
+        Debugger.debug("=============================");
+        PathEnumerator paths = new PathEnumerator();
+        try {
+            paths.setMaxPathLength(-1);
+            Debugger.printErr(testName + ":\n    Exception SHOULD have " +
+                              "been caught, since the length is negative");
+        } catch (PreconditionException pe) {
+            Debugger.debug("    Exception caught as expected, since\n    " +
+                           "the length is NEGATIVE");
+        }
+        try {
+            paths.setTimeBudget(-1);
+            Debugger.printErr(testName + ":\n    Exception SHOULD have " +
+                              "been caught, since the budget is negative");
+        } catch (PreconditionException pe) {
+            Debugger.debug("    Exception caught as expected, since\n    " +
+                           "the budget is NEGATIVE");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Reports whether both results are identical to the expected matrix.
+     */
+    private static void report(String name, double[][] expected,
+    double[][] a, double[][] b) {
+        int mismatch = 0;
+        for (int i = 0; i < expected.length; i++)
+            for (int j = 0; j < expected.length; j++)
+                if (Double.compare(expected[i][j], a[i][j]) != 0 ||
+                    Double.compare(expected[i][j], b[i][j]) != 0)
+                    mismatch++;
+        if (mismatch == 0)
+            Debugger.debug("    " + name + ": identical results");
+        else
+            Debugger.printErr(testName + ":\n    " + name + ": " + mismatch +
+                              " elements differ");
+    }
+
+    /**
+     * Expands the paths breadth first, keeping a list of visited nodes for
+     * each path, and returns the matrix of resistance. The paths longer than
+     * "limit" hops are ignored, unless "limit" is 0.
+     */
+    private static double[][] reference(Chromosome c, boolean unit,
+    int limit) {
+        ArrayList nodeList = c.getNodeList();
+        double[][] adj = c.getAdjacencyMatrix();
+        int n = nodeList.size();
+        double[][] result = new double[n][n];
+        for (int s = 0; s < n; s++) {
+            double[] sum = result[s];
+            ArrayList queue = new ArrayList();
+            ArrayList self = new ArrayList();
+            self.add(nodeList.get(s));
+            queue.add(new Object[] {self, new Double(0.0)});
+            while (!queue.isEmpty()) {
+                Object[] head = (Object[]) queue.remove(0);
+                ArrayList visited = (ArrayList) head[0];
+                double cost = ((Double) head[1]).doubleValue();
+                if (limit > 0 && visited.size() > limit) continue;
+                Object from = visited.get(visited.size() - 1);
+                int i = nodeList.indexOf(from);
+                ArrayList toVisit = new ArrayList(c.getData(i));
+                toVisit.removeAll(visited);
+                for (int k = 0; k < toVisit.size(); k++) {
+                    int j = nodeList.indexOf(toVisit.get(k));
+                    double w = adj[i][j];
+                    if (unit && w != Double.POSITIVE_INFINITY && w != 0)
+                        w = 1;
+                    ArrayList path = new ArrayList(visited);
+                    path.add(toVisit.get(k));
+                    sum[j] += 1.0 / (cost + w);
+                    queue.add(new Object[] {path, new Double(cost + w)});
+                }
+            }
+            for (int j = 0; j < n; j++) {
+                if (sum[j] == 0) {
+                    if (j != s) sum[j] = Double.POSITIVE_INFINITY;
+                } else sum[j] = 1.0 / sum[j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Populates the edge costs and creates a chromosome, where each link
+     * exists with the probability "density".
+     */
+    private static Chromosome setup(int n, double density) {
+        ArrayList nodeList = genNodeList(n);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+        ArrayList cells = new ArrayList();
+        for (int i = 0; i < n; i++) {
+            ArrayList cell = new ArrayList();
+            for (int j = 0; j < n; j++)
+                if (i != j && rand.nextDouble() < density)
+                    cell.add(nodeList.get(j));
+            cells.add(cell);
+        }
+        return new Chromosome(cells, nodeList, (n + 2) / 3, n - (n + 2) / 3);
+    }
+
+    /**
+     * Generates a list of nodes, where the first third are servers.
+     */
+    private static ArrayList genNodeList(int n) {
+        ArrayList nodeList = new ArrayList();
+        Repairable r = new Repairable(10, 0.30, 0.70, true);
+        double[] params = {1000000000, 1.0};
+        Node tmpNode = new NodeImp (params, r);
+        for (int i = 0; i < n; i++) {
+            String label = (i < (n + 2) / 3) ? "SERVER" : "CLIENT";
+            nodeList.add(new NodeImp(label, rand.nextInt(700),
+                                     rand.nextInt(950), tmpNode));
+        }
+        return nodeList;
+    }
+}
@@ -0,0 +1,303 @@
+import utility.*;
+import population.*;
+import population.graph.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for Precision, CompactMatrix and
+ * PrecisionReport. Costs rounded to each precision must survive a round
+ * trip through a compact matrix, the minimal path costs of random networks
+ * must stay within the error bound of each precision, and MinimalPaths must
+ * give the same average as the report.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestPrecision {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+    private static final double oo = Double.POSITIVE_INFINITY;
+    private static final int[] MODES = {Precision.DOUBLE, Precision.FLOAT,
+                                        Precision.FIXED32, Precision.FIXED16};
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestPrecision() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestPrecision");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("PrecisionNormal.txt",
+                            "PrecisionError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n=============================\n"+
+                         "filename: PrecisionNormal.txt\n" +
+                         "=============================");
+        Debugger.debug("Module Test for population.Precision:\n");
+
+        Debugger.printErr("\n============================\n"+
+                            "filename: PrecisionError.txt\n" +
+                            "============================");
+        Debugger.printErr("Module Test for population.Precision:\n");
+
+        testSetMode();
+        Debugger.debug("");
+
+        testCompactMatrix();
+        Debugger.debug("");
+
+        testReport();
+        Debugger.debug("");
+
+        testSwitchMode();
+        Debugger.debug("");
+
+        Debugger.debug("===================================");
+        Debugger.debug("Module Test for Precision Completed");
+        Debugger.debug("===================================");
+        Debugger.printErr("===================================");
+        Debugger.printErr("Module Test for Precision Completed");
+        Debugger.printErr("===================================");
+    }
+
+    /**
+     * Unknown precisions should be rejected.
+     */
+    private static void testSetMode() {
+        Debugger.debug(testName = "Testing the selection of precision");
+        Debugger.debug("==================================");
+        int[] bad = {-1, 4};
+        for (int t = 0; t < bad.length; t++) {
+            try {
+                Precision.setMode(bad[t]);
+                Debugger.printErr(testName + ":\n    Exception SHOULD have " +
+                                  "been caught, since " + bad[t] +
+                                  " is not a precision");
+            } catch (PreconditionException pe) {
+                Debugger.debug("    Exception caught as expected, since\n" +
+                               "    " + bad[t] + " is not a precision");
+            }
+        }
+        if (Precision.getMode() == Precision.DOUBLE)
+            Debugger.debug("    The precision is still double");
+        else
+            Debugger.printErr(testName + ":\n    The precision has changed " +
+                              "to " + Precision.getName(Precision.getMode()));
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Rounded costs should be read back unchanged from a compact matrix.
+     */
+    private static void testCompactMatrix() {
+        Debugger.debug(testName = "Testing the compact matrix");
+        Debugger.debug("==========================");
+        int n = 40;
+        for (int t = 1; t < MODES.length; t++) {
+            int mode = MODES[t];
+            double scale = (mode == Precision.FLOAT) ? 1.0
+                         : ((mode == Precision.FIXED32) ? 1e5 : 50.0);
+            double[][] m = new double[n][n];
+            for (int i = 0; i < n; i++)
+                for (int j = 0; j < n; j++) {
+                    if (i == j)                     m[i][j] = 0.0;
+                    else if (rand.nextDouble() < 0.3)
+                        m[i][j] = Precision.quantize(
+                            rand.nextDouble() * 1000, mode, scale);
+                    else                            m[i][j] = oo;
+                }
+            CompactMatrix c = CompactMatrix.fromArray(m, mode, scale);
+            double[][] back = c.toArray();
+            int mismatch = 0;
+            for (int i = 0; i < n; i++)
+                for (int j = 0; j < n; j++)
+                    if (Double.compare(back[i][j], m[i][j]) != 0) mismatch++;
+            if (mismatch == 0 && c.getMemory() ==
+                (long) n * n * Precision.bytesPerCost(mode))
+                Debugger.debug("    " + Precision.getName(mode) + ": " +
+                               c.getMemory() + " bytes, costs unchanged");
+            else
+                Debugger.printErr(testName + ":\n    " +
+                    Precision.getName(mode) + ": " + mismatch +
+                    " costs differ");
+        }
+
+        // a cost too dear for 16 bits is held as the dearest finite cost
+        CompactMatrix c = new CompactMatrix(1, Precision.FIXED16, 1.0);
+        c.setRow(0, new double[] {1e6});
+        if (c.get(0, 0) == 0xFFFE)
+            Debugger.debug("    fixed16: a dear cost is clamped to " +
+                           c.get(0, 0));
+        else
+            Debugger.printErr(testName + ":\n    fixed16: a dear cost is " +
+                              "held as " + c.get(0, 0));
+
+        try {
+            new CompactMatrix(1, Precision.DOUBLE, 1.0);
+            Debugger.printErr(testName + ":\n    Exception SHOULD have " +
+                              "been caught, since double is not reduced");
+        } catch (PreconditionException pe) {
+            Debugger.debug("    Exception caught as expected, since\n" +
+                           "    double is not a reduced precision");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * The errors of each precision should be within its bound, and
+     * MinimalPaths should agree with the report.
+     */
+    private static void testReport() {
+        Debugger.debug(testName = "Testing the precision report");
+        Debugger.debug("============================");
+        Debugger.enableTrace(false);
+        int n = 80;
+        ArrayList nodeList = genNodeList(n);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+        Chromosome base = randomChromosome(nodeList, 0.05);
+
+        for (int t = 0; t < MODES.length; t++) {
+            int mode = MODES[t];
+            PrecisionReport report = new PrecisionReport(base, mode);
+            // half a unit per edge of a path of at most n-1 edges
+            double bound;
+            if (mode == Precision.DOUBLE)     bound = 0.0;
+            else if (mode == Precision.FLOAT) bound = 1e-4 * 1000 * (n - 1);
+            else bound = 0.5 * (n - 1) / Precision.getScale(mode, n) * 1.001;
+
+            Precision.setMode(mode);
+            Chromosome c = (Chromosome) base.clone();
+            c.invalidate();
+            c.createFitnessArr(1);
+            (new MinimalPaths(true)).apply(c, 0);
+            double average = c.getFitArrElem(0);
+            boolean compact = (c.getCompactAdjacency() != null);
+            Precision.setMode(Precision.DOUBLE);
+
+            Debugger.enableTrace(true);
+            Debugger.debug("    " + report);
+            if (report.getMismatches() != 0)
+                Debugger.printErr(testName + ":\n    " +
+                    Precision.getName(mode) + ": " +
+                    report.getMismatches() + " reachability mismatches");
+            if (report.getMaxAbsError() > bound)
+                Debugger.printErr(testName + ":\n    " +
+                    Precision.getName(mode) + ": the error " +
+                    report.getMaxAbsError() + " exceeds " + bound);
+            if (Math.abs(average - report.getReducedAverage()) > 1e-9)
+                Debugger.printErr(testName + ":\n    " +
+                    Precision.getName(mode) + ": MinimalPaths gives " +
+                    average + " instead of " + report.getReducedAverage());
+            if (compact != (mode != Precision.DOUBLE))
+                Debugger.printErr(testName + ":\n    " +
+                    Precision.getName(mode) + ": the compact adjacency " +
+                    "matrix is " + (compact ? "" : "not ") + "stored");
+            Debugger.enableTrace(false);
+        }
+        Debugger.enableTrace(true);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * A chromosome, and its clones, should follow a change of precision
+     * without being invalidated, and give the same average as a chromosome
+     * which has never been assessed.
+     */
+    private static void testSwitchMode() {
+        Debugger.debug(testName = "Testing a change of precision");
+        Debugger.debug("=============================");
+        Debugger.enableTrace(false);
+        int n = 60;
+        ArrayList nodeList = genNodeList(n);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+        Chromosome c = randomChromosome(nodeList, 0.05);
+        c.createFitnessArr(1);
+        int[] modes = {Precision.DOUBLE, Precision.FIXED16,
+                       Precision.FIXED32, Precision.DOUBLE};
+        String failure = null;
+
+        for (int t = 0; t < modes.length && failure == null; t++) {
+            Precision.setMode(modes[t]);
+            String name = Precision.getName(modes[t]);
+            Chromosome fresh = (Chromosome) c.clone();
+            fresh.invalidate();
+            fresh.createFitnessArr(1);
+            (new MinimalPaths(true)).apply(fresh, 0);
+            try {
+                (new MinimalPaths(true)).apply(c, 0);
+                Chromosome clone = (Chromosome) c.clone();
+                clone.createFitnessArr(1);
+                (new MinimalPaths(true)).apply(clone, 0);
+                boolean compact = (c.getCompactAdjacency() != null);
+                if (c.getFitArrElem(0) != fresh.getFitArrElem(0))
+                    failure = name + ": MinimalPaths gives " +
+                        c.getFitArrElem(0) + " instead of " +
+                        fresh.getFitArrElem(0);
+                else if (clone.getFitArrElem(0) != fresh.getFitArrElem(0))
+                    failure = name + ": a clone gives " +
+                        clone.getFitArrElem(0) + " instead of " +
+                        fresh.getFitArrElem(0);
+                else if (compact != (modes[t] != Precision.DOUBLE))
+                    failure = name + ": the compact adjacency matrix is " +
+                        (compact ? "" : "not ") + "stored";
+                else if (!Arrays.deepEquals(c.getAdjacencyMatrix(),
+                                            fresh.getAdjacencyMatrix()))
+                    failure = name + ": the adjacency matrix is stale";
+            } catch (RuntimeException re) {
+                failure = name + ": " + re;
+            }
+        }
+        Precision.setMode(Precision.DOUBLE);
+        Debugger.enableTrace(true);
+        if (failure == null)
+            Debugger.debug("    The results follow each change of precision");
+        else
+            Debugger.printErr(testName + ":\n    " + failure);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Creates a chromosome where each link exists with the probability
+     * "density".
+     */
+    private static Chromosome randomChromosome(ArrayList nodeList,
+    double density) {
+        int n = nodeList.size();
+        ArrayList cells = new ArrayList();
+        for (int i = 0; i < n; i++) {
+            ArrayList cell = new ArrayList();
+            for (int j = 0; j < n; j++)
+                if (i != j && rand.nextDouble() < density)
+                    cell.add(nodeList.get(j));
+            cells.add(cell);
+        }
+        return new Chromosome(cells, nodeList, n / 3, n - n / 3);
+    }
+
+    /**
+     * Generates a list of nodes, where the first third are servers.
+     */
+    private static ArrayList genNodeList(int n) {
+        ArrayList nodeList = new ArrayList();
+        Repairable r = new Repairable(10, 0.30, 0.70, true);
+        double[] params = {1000000000, 1.0};
+        Node tmpNode = new NodeImp (params, r);
+        for (int i = 0; i < n; i++) {
+            String label = (i < n / 3) ? "SERVER" : "CLIENT";
+            nodeList.add(new NodeImp(label, rand.nextInt(700),
+                                     rand.nextInt(950), tmpNode));
+        }
+        return nodeList;
+    }
+}
@@ -0,0 +1,378 @@
+import utility.*;
+import population.*;
+import population.graph.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for RowArena. A row given back must be
+ * handed out again, a row shared with a matrix in use must be kept, and a
+ * chromosome must only give its adjacency matrix back once its clones have
+ * finished with it. Networks assessed with recycled rows must be given the
+ * same fitness as networks assessed with new rows. A matrix recycled by
+ * another thread must be given back to the arena it was taken from, and
+ * the arena of a finished thread must not be kept.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestRowArena {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestRowArena() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestRowArena");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("RowArenaNormal.txt",
+                            "RowArenaError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n============================\n"+
+                         "filename: RowArenaNormal.txt\n" +
+                         "============================");
+        Debugger.debug("Module Test for population.RowArena:\n");
+
+        Debugger.printErr("\n===========================\n"+
+                            "filename: RowArenaError.txt\n" +
+                            "===========================");
+        Debugger.printErr("Module Test for population.RowArena:\n");
+
+        testReuse();
+        Debugger.debug("");
+
+        testRecycle();
+        Debugger.debug("");
+
+        testEvolution();
+        Debugger.debug("");
+
+        testThreads();
+        Debugger.debug("");
+
+        Debugger.debug("==================================");
+        Debugger.debug("Module Test for RowArena Completed");
+        Debugger.debug("==================================");
+        Debugger.printErr("==================================");
+        Debugger.printErr("Module Test for RowArena Completed");
+        Debugger.printErr("==================================");
+    }
+
+    /**
+     * A row given back should be handed out again for the same length, and
+     * rows shared with a matrix in use should be kept.
+     */
+    private static void testReuse() {
+        Debugger.debug(testName = "Testing the reuse of rows");
+        Debugger.debug("=========================");
+        Debugger.enableTrace(false);
+        RowArena arena = RowArena.local();
+        boolean same = arena == RowArena.local();
+
+        double[] row = arena.takeRow(7);
+        arena.giveRow(row);
+        long reused = arena.getReused();
+        boolean reuse = arena.takeRow(5) != row &&
+                        arena.takeRow(7) == row &&
+                        arena.getReused() == reused + 1;
+
+        // the rows shared with the kept matrix are not given back
+        double[][] m = arena.takeMatrix(4);
+        double[][] keep = {m[1], new double[4], m[3], new double[4]};
+        int held = arena.size();
+        arena.giveMatrix(m, keep);
+        boolean kept = arena.size() == held + 2;
+        arena.giveMatrix(keep, keep);
+        kept = kept && arena.size() == held + 2;
+
+        // without recycling, every row is allocated
+        RowArena.setEnabled(false);
+        long bytes = arena.getAllocatedBytes();
+        arena.giveRow(row);
+        boolean off = arena.takeRow(7) != row &&
+                      arena.getAllocatedBytes() == bytes + 56;
+        RowArena.setEnabled(true);
+
+        // an arena of another thread is counted, but does not share rows
+        final double[][] other = new double[1][];
+        Thread t = new Thread() {
+            public void run() {
+                RowArena.local().giveRow(new double[3]);
+                other[0] = RowArena.local().takeRow(3);
+            }
+        };
+        long given = RowArena.totals()[2];
+        t.start();
+        try {
+            t.join();
+        } catch (InterruptedException ie) {
+        }
+        boolean threads = other[0] != null &&
+                          RowArena.totals()[2] == given + 1;
+        Debugger.enableTrace(true);
+
+        check("One arena per thread", same);
+        check("Rows handed out again", reuse);
+        check("Shared rows kept", kept);
+        check("Rows allocated when disabled", off);
+        check("Arenas of other threads counted", threads);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * A recycled chromosome should give its adjacency matrix back only once
+     * its clones have repaired their results from it.
+     */
+    private static void testRecycle() {
+        Debugger.debug(testName = "Testing the recycled chromosomes");
+        Debugger.debug("================================");
+        Debugger.enableTrace(false);
+        int n = 20;
+        ArrayList nodeList = genNodeList(n);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+        RowArena arena = RowArena.local();
+        Function[] func = {new MinimalPaths()};
+        Chromosome parent = randomChromosome(nodeList);
+        evaluate(parent, func);
+        double[][] matrix = parent.getAdjacencyMatrix();
+        Chromosome child = (Chromosome) parent.clone();
+        alter(child);
+        // assessed with new matrices, before any row is given back
+        double[][] expected = fresh(parent, func).getAdjacencyMatrix();
+        double fitness = fresh(child, func).getFitArrElem(0);
+
+        // the clone still holds the parent's matrix
+        int held = arena.size();
+        parent.recycle();
+        boolean lent = arena.size() == held &&
+                       child.getParentAdjacency() == matrix;
+        evaluate(child, func);
+        boolean repaired = child.getFitArrElem(0) == fitness;
+        child.dropParentResults();
+        boolean given = arena.size() == held + n &&
+                        child.getParentAdjacency() == null;
+
+        // the recycled chromosome builds its matrix again
+        double[][] again = parent.getAdjacencyMatrix();
+        boolean rebuilt = arena.size() == held &&
+                          Arrays.deepEquals(again, expected);
+        child.recycle();
+        child.recycle();
+        boolean once = arena.size() == held + n;
+        Debugger.enableTrace(true);
+
+        check("Matrix kept while lent", lent);
+        check("Clone repaired from the lent matrix", repaired);
+        check("Matrix given back after the loan", given);
+        check("Matrix rebuilt from recycled rows", rebuilt);
+        check("Matrix given back once", once);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Chromosomes evolved as in the steady-state evolution, recycling each
+     * chromosome replaced, should be given the fitness of new chromosomes
+     * with the same links, and hardly allocate any rows.
+     */
+    private static void testEvolution() {
+        Debugger.debug(testName = "Testing the evolution with recycling");
+        Debugger.debug("====================================");
+        Debugger.enableTrace(false);
+        int n = 24;
+        ArrayList nodeList = genNodeList(n);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+        Function[] func = {new MinimalPaths(), new DegreeSeparation()};
+        Chromosome[] pop = new Chromosome[10];
+        for (int k = 0; k < pop.length; k++) {
+            pop[k] = randomChromosome(nodeList);
+            evaluate(pop[k], func);
+        }
+        RowArena.resetStatistics();
+        for (int g = 0; g < 300; g++) {
+            Chromosome child = (Chromosome)
+                pop[rand.nextInt(pop.length)].clone();
+            alter(child);
+            evaluate(child, func);
+            child.dropParentResults();
+            int k = rand.nextInt(pop.length);
+            pop[k].recycle();
+            pop[k] = child;
+        }
+        boolean same = true;
+        for (int k = 0; k < pop.length; k++) {
+            Chromosome c = fresh(pop[k], func);
+            for (int i = 0; i < func.length; i++)
+                same = same && pop[k].getFitArrElem(i) == c.getFitArrElem(i);
+        }
+        long[] sum = RowArena.totals();
+        boolean reused = sum[1] > 0.9 * sum[0];
+        Debugger.enableTrace(true);
+
+        check("Fitness of new chromosomes", same);
+        check("Rows reused", reused);
+        Debugger.debug("    " + RowArena.statistics());
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Matrices built by a worker thread and recycled by this thread should
+     * be reused by the worker, and the arena of a finished thread should be
+     * collected, while its counts are kept.
+     */
+    private static void testThreads() {
+        Debugger.debug(testName = "Testing the arenas of other threads");
+        Debugger.debug("===================================");
+        Debugger.enableTrace(false);
+        int n = 20;
+        ArrayList nodeList = genNodeList(n);
+        EdgeCostMatrix.reset();
+        EdgeCostMatrix.populateMatrix(n, 1000);
+        // a function building the adjacency matrix on the worker
+        Function[] func = {new Function() {
+            public void map(SetOfChromosomes pop, int index) {
+            }
+
+            public void apply(Chromosome c, int index) {
+                c.insertIntoFitArr(index, c.getAdjacencyMatrix()[0][1]);
+            }
+        }};
+        ParallelEvaluator evaluator = new ParallelEvaluator(1);
+        RowArena arena = RowArena.local();
+        Chromosome[] pop = new Chromosome[10];
+        for (int k = 0; k < pop.length; k++)
+            pop[k] = randomChromosome(nodeList);
+        evaluator.evaluate(pop, func);
+
+        // the matrices go back to the worker, not to this thread
+        int held = arena.size();
+        long reused = RowArena.totals()[1];
+        for (int k = 0; k < pop.length; k++) {
+            pop[k].recycle();
+            pop[k] = randomChromosome(nodeList);
+        }
+        boolean owner = arena.size() == held;
+        evaluator.evaluate(pop, func);
+        boolean worker = RowArena.totals()[1] == reused + pop.length * n &&
+                         arena.size() == held;
+        evaluator.getExecutor().shutdown();
+
+        // nothing keeps the arena of a finished thread
+        final RowArena[] other = new RowArena[1];
+        Thread t = new Thread() {
+            public void run() {
+                other[0] = RowArena.local();
+                other[0].giveRow(other[0].takeRow(3));
+            }
+        };
+        long taken = RowArena.totals()[0];
+        t.start();
+        try {
+            t.join();
+        } catch (InterruptedException ie) {
+        }
+        java.lang.ref.WeakReference gone =
+            new java.lang.ref.WeakReference(other[0]);
+        other[0] = null;
+        t = null;
+        for (int g = 0; g < 20 && gone.get() != null; g++) System.gc();
+        boolean collected = gone.get() == null &&
+                            RowArena.totals()[0] == taken + 1;
+        Debugger.enableTrace(true);
+
+        check("Matrices given back to their arena", owner);
+        check("Matrices reused by the worker", worker);
+        check("Arena of a finished thread collected", collected);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Returns a new chromosome with the same links, assessed with new
+     * matrices.
+     */
+    private static Chromosome fresh(Chromosome c, Function[] func) {
+        Chromosome copy = new Chromosome(new IntGenome(c.getGenome()),
+            c.getNodeList(), c.getNumServers(), c.getNumClients());
+        evaluate(copy, func);
+        return copy;
+    }
+
+    /**
+     * Adds or removes a few links, as a mutation does.
+     */
+    private static void alter(Chromosome c) {
+        int n = c.getLength();
+        for (int r = 0; r < 3; r++) {
+            int i = rand.nextInt(n);
+            int j = rand.nextInt(n);
+            if (i == j) continue;
+            if (!c.hasLink(i, j)) {
+                c.addLink(i, j);
+                continue;
+            }
+            int k = 0;
+            while (c.getLink(i, k) != j) k++;
+            c.removeLinkAt(i, k);
+        }
+    }
+
+    /**
+     * Applies every cost function to a network.
+     */
+    private static void evaluate(Chromosome c, Function[] func) {
+        c.createFitnessArr(func.length);
+        for (int i = 0; i < func.length; i++) func[i].apply(c, i);
+    }
+
+    /**
+     * Prints whether a check is passed.
+     */
+    private static void check(String name, boolean passed) {
+        if (passed) Debugger.debug("    " + name + ": passed");
+        else        Debugger.printErr(testName + ":\n    " + name + ": FAILED");
+    }
+
+    /**
+     * Creates a chromosome of node indices, where each node links to up to
+     * a fifth of the nodes.
+     */
+    private static Chromosome randomChromosome(ArrayList nodeList) {
+        int n = nodeList.size();
+        IntGenome genome = new IntGenome(n);
+        for (int i = 0; i < n; i++) {
+            int links = rand.nextInt(n / 5) + 1;
+            for (int k = 0; k < links; k++) {
+                int j = rand.nextInt(n);
+                if (i != j && !genome.contains(i, j)) genome.add(i, j);
+            }
+        }
+        return new Chromosome(genome, nodeList, n / 3, n - n / 3);
+    }
+
+    /**
+     * Generates a list of nodes, where the first third are servers.
+     */
+    private static ArrayList genNodeList(int n) {
+        ArrayList nodeList = new ArrayList();
+        Repairable r = new Repairable(10, 0.30, 0.70, true);
+        double[] params = {1000000000, 1.0};
+        Node tmpNode = new NodeImp (params, r);
+        for (int i = 0; i < n; i++) {
+            String label = (i < n / 3) ? "SERVER" : "CLIENT";
+            nodeList.add(new NodeImp(label, rand.nextInt(700),
+                                     rand.nextInt(700), tmpNode));
+        }
+        return nodeList;
+    }
+}
@@ -0,0 +1,170 @@
+import utility.*;
+import population.*;
+import java.util.*;
+
+/**
+ * This is the module test suite for TransitiveClosure. The number of nodes
+ * reachable from each node of random networks, both sparse and dense, is
+ * compared with the number of finite elements in each row of the matrix of
+ * minimal path costs from HeapDijkstra. The rows of the closure are also
+ * checked to be shared within strongly connected components only.
+ *
+ * @author  Andy Hao-Wei Lo
+ * @version 0.4.2
+ */
+public class ModuleTestTransitiveClosure {
+    // to store info regarding the current test
+    private static String testName;
+    private static Random rand = new Random();
+    private static final double oo = Double.POSITIVE_INFINITY;
+
+    // Default constructor
+    /**
+     * One should not instantate a test class
+     */
+    public ModuleTestTransitiveClosure() {
+        Debugger.printErr("Don't instantiate a test class: " +
+                            "ModuleTestTransitiveClosure");
+    }
+
+    /**
+     * The main method for this class.
+     */
+    public static void main(String[] args) {
+        // pipe results to file
+        Debugger.pipeResult("TransitiveClosureNormal.txt",
+                            "TransitiveClosureError.txt");
+        Debugger.enableTrace(true);
+
+        Debugger.debug("\n=====================================\n"+
+                         "filename: TransitiveClosureNormal.txt\n" +
+                         "=====================================");
+        Debugger.debug("Module Test for population.TransitiveClosure:\n");
+
+        Debugger.printErr("\n====================================\n"+
+                            "filename: TransitiveClosureError.txt\n" +
+                            "====================================");
+        Debugger.printErr("Module Test for population.TransitiveClosure:\n");
+
+        testKnownNetworks();
+        Debugger.debug("");
+
+        testRandomNetworks();
+        Debugger.debug("");
+
+        Debugger.debug("===========================================");
+        Debugger.debug("Module Test for TransitiveClosure Completed");
+        Debugger.debug("===========================================");
+        Debugger.printErr("===========================================");
+        Debugger.printErr("Module Test for TransitiveClosure Completed");
+        Debugger.printErr("===========================================");
+    }
+
+    /**
+     * Tests networks whose reachable counts are known.
+     */
+    private static void testKnownNetworks() {
+        Debugger.debug(testName = "Testing with known networks");
+        Debugger.debug("===========================");
+        // a chain 0 -> 1 -> 2 and an isolated node 3
+        double[][] chain = { {0,  1, oo, oo},
+                             {oo, 0,  1, oo},
+                             {oo, oo, 0, oo},
+                             {oo, oo, oo, 0} };
+        check("Chain", chain, new int[] {2, 1, 0, 0});
+
+        // a cycle 0 -> 1 -> 2 -> 0 leading to node 3
+        double[][] cycle = { {0,  1, oo, oo},
+                             {oo, 0,  1, oo},
+                             {1,  oo, 0,  1},
+                             {oo, oo, oo, 0} };
+        check("Cycle", cycle, new int[] {3, 3, 3, 0});
+
+        check("Empty network", new double[0][0], new int[0]);
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Checks the reachable counts of a network.
+     */
+    private static void check(String name, double[][] m, int[] expected) {
+        Debugger.enableTrace(false);
+        int[] counts = (new TransitiveClosure()).reachableCounts(
+                           SparseGraph.fromMatrix(m));
+        Debugger.enableTrace(true);
+        if (Arrays.equals(counts, expected))
+            Debugger.debug("    " + name + ": " + toString(counts));
+        else
+            Debugger.printErr(testName + ":\n    " + name + ": the counts " +
+                "are " + toString(counts) + " instead of " +
+                toString(expected));
+    }
+
+    /**
+     * The counts should agree with the matrix of minimal path costs.
+     */
+    private static void testRandomNetworks() {
+        Debugger.debug(testName = "Testing with random networks");
+        Debugger.debug("============================");
+        int[] sizes    = {1, 10, 64, 65, 200, 300};
+        double[] dense = {0.5, 0.1, 0.02, 0.05, 0.005, 0.3};
+        TransitiveClosure closure = new TransitiveClosure();
+        for (int t = 0; t < sizes.length; t++) {
+            int n = sizes[t];
+            Debugger.enableTrace(false);
+            double[][] m = randomMatrix(n, dense[t]);
+            SparseGraph g = SparseGraph.fromMatrix(m);
+            double[][] dist = (new HeapDijkstra()).allPairs(g);
+            long[][] rows = closure.closure(g);
+            int[] counts = closure.reachableCounts(g);
+            Debugger.enableTrace(true);
+            int mismatch = 0;
+            for (int i = 0; i < n; i++) {
+                int expected = 0;
+                for (int j = 0; j < n; j++) {
+                    boolean reach = (dist[i][j] != oo);
+                    if (reach && i != j) expected++;
+                    if (reach != ((rows[i][j >>> 6] & (1L << j)) != 0))
+                        mismatch++;
+                    // only the nodes reaching each other share a row
+                    if ((rows[i] == rows[j]) !=
+                        (reach && dist[j][i] != oo))
+                        mismatch++;
+                }
+                if (counts[i] != expected) mismatch++;
+            }
+            if (mismatch == 0)
+                Debugger.debug("    " + n + " nodes: the closure agrees " +
+                               "with HeapDijkstra");
+            else
+                Debugger.printErr(testName + ":\n    " + n + " nodes: " +
+                    mismatch + " elements differ from HeapDijkstra");
+        }
+        Debugger.debug(testName + " Completed");
+    }
+
+    /**
+     * Creates a random adjacency matrix where each edge exists with the
+     * probability "density".
+     */
+    private static double[][] randomMatrix(int n, double density) {
+        double[][] m = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++) {
+                if (i == j)                          m[i][j] = 0.0;
+                else if (rand.nextDouble() < density) m[i][j] = 1.0;
+                else                                 m[i][j] = oo;
+            }
+        return m;
+    }
+
+    /**
+     * Formats an array of counts.
+     */
+    private static String toString(int[] a) {
+        String s = "[";
+        for (int i = 0; i < a.length; i++)
+            s += ((i > 0) ? ", " : "") + a[i];
+        return s + "]";
+    }
+}
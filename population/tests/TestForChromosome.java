@@ -54,6 +54,8 @@ public class TestForChromosome {
 		Debugger.debug("");
 		testClone();
 		Debugger.debug("");
+		testDerivedResults();
+		Debugger.debug("");
 		//testDistBetween();
 		Debugger.debug("");
         Debugger.debug("\nModule Test Completed");
@@ -316,6 +318,67 @@ public class TestForChromosome {
 		}
     }
     
+    /**
+     * Tests the storage of derived results, and that they are discarded when
+     * the network is changed. The cost functions should share the stored
+     * minimal path costs.
+     * @param   none
+     * @return  nothing
+     */
+    public static void testDerivedResults() {
+		Debugger.debug("Testing the derived results of Chromosome");
+		EdgeCostMatrix.reset();
+		EdgeCostMatrix.populateMatrix(chromosome.getLength(), 1000);
+		Assertion.asrt(chromosome.getDerived(Chromosome.WEIGHTED_APSP) == null,
+			"No derived result is stored before a function is applied",
+			"A derived result is stored before any function is applied");
+		try{
+			chromosome.getDerived(-1);
+			Debugger.printErr("Unknown kind of derived result is accepted");
+		}catch(PreconditionException p) {
+			Debugger.debug("Unknown kind of derived result is rejected");
+		}
+		// both modes of MinimalPaths should share the minimal path costs
+		chromosome.createFitnessArr(1);
+		(new MinimalPaths(false)).apply(chromosome, 0);
+		// the fitness array mutes the trace when a fitness is inserted
+		Debugger.enableTrace(true);
+		Object paths = chromosome.getDerived(Chromosome.WEIGHTED_APSP);
+		Assertion.asrt(paths != null,
+			"The minimal path costs are stored",
+			"The minimal path costs are NOT stored");
+		(new MinimalPaths(true)).apply(chromosome, 0);
+		Debugger.enableTrace(true);
+		Assertion.asrt(chromosome.getDerived(Chromosome.WEIGHTED_APSP) == paths,
+			"The minimal path costs are shared",
+			"The minimal path costs are computed AGAIN");
+		// both modes of DegreeSeparation should share the hop counts
+		(new DegreeSeparation(false)).apply(chromosome, 0);
+		Object hops = chromosome.getDerived(Chromosome.REACHABILITY);
+		(new ClusterCoeff()).apply(chromosome, 0);
+		Debugger.enableTrace(true);
+		Assertion.asrt(hops != null &&
+			chromosome.getDerived(Chromosome.REACHABILITY) == hops,
+			"The hop counts are shared",
+			"The hop counts are NOT shared");
+		// changing the network must discard the stored results
+		double[][] before = chromosome.getAdjacencyMatrix();
+		ArrayList cell = chromosome.getData(3);
+		cell.add(chromosome.getNodeList().get(4));
+		chromosome.invalidate();
+		Assertion.asrt(chromosome.getDerived(Chromosome.WEIGHTED_APSP) == null
+			&& chromosome.getDerived(Chromosome.REACHABILITY) == null,
+			"The derived results are discarded",
+			"The derived results are NOT discarded");
+		double[][] after = chromosome.getAdjacencyMatrix();
+		Assertion.asrt(after != before &&
+			after[3][4] != Double.POSITIVE_INFINITY,
+			"The adjacency matrix is constructed again",
+			"The adjacency matrix is NOT constructed again");
+		cell.remove(cell.size() - 1);
+		chromosome.invalidate();
+    }
+    
     /**
      * Tests the method distBetween(Node a, Node b)
      * @param   none